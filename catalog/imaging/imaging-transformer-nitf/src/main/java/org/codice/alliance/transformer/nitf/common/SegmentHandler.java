@@ -16,7 +16,6 @@ package org.codice.alliance.transformer.nitf.common;
 import java.io.Serializable;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Optional;
 import java.util.Set;
 import java.util.function.Function;
 
@@ -50,11 +49,27 @@ public class SegmentHandler {
         List<Tre> tres = taggedRecordextensionHandler.getTREsRawStructure()
                 .getTREs();
 
-        tres.forEach(tre -> Optional.ofNullable(TreDescriptor.forName(tre.getName()
-                .trim()))
-                .ifPresent(treDescriptor -> handleSegmentHeader(metacard,
-                        tre,
-                        treDescriptor.getValues())));
+        for (Tre tre : tres) {
+            TreDescriptor treDescriptor = TreDescriptor.forName(tre.getName()
+                    .trim());
+            if (treDescriptor != null) {
+                handleTre(metacard, tre, treDescriptor.getExtractors());
+            }
+        }
+    }
+
+    void handleTre(Metacard metacard, Tre tre, List<TreExtractor> extractors) {
+        for (TreExtractor extractor : extractors) {
+            Serializable value = extractor.extract(tre);
+            if (value == null) {
+                continue;
+            }
+
+            for (String attributeName : extractor.getAttributeNames()) {
+                LOGGER.trace("Setting the metacard attribute [{}, {}]", attributeName, value);
+                metacard.setAttribute(populateAttribute(metacard, attributeName, value));
+            }
+        }
     }
 
     private <T> void handleValue(Metacard metacard, NitfAttribute attribute, T segment) {
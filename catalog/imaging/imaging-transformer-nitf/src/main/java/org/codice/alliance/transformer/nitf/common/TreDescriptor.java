@@ -13,12 +13,19 @@
  */
 package org.codice.alliance.transformer.nitf.common;
 
-import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.codice.alliance.transformer.nitf.gmti.MtirpbAttribute;
 import org.codice.imaging.nitf.core.tre.Tre;
 
+/**
+ * The TREs that are extracted into metacard attributes, keyed by TRE name. The extractors for
+ * each TRE's fields and the name lookup table are built once when this class is loaded, so
+ * handling a TRE found in a segment is a map lookup followed by a pass over its extractors.
+ */
 public enum TreDescriptor {
     ACFTB(AcftbAttribute.getAttributes()),
     AIMIDB(AimidbAttribute.getAttributes()),
@@ -28,21 +35,60 @@ public enum TreDescriptor {
     CSDIDA(CsdidaAttribute.getAttributes()),
     HISTOA(HistoaAttribute.getAttributes());
 
-    private List<NitfAttribute<Tre>> nitfAttributes;
+    private static final Map<String, TreDescriptor> DESCRIPTORS_BY_NAME;
+
+    static {
+        Map<String, TreDescriptor> descriptors = new HashMap<>();
+        for (TreDescriptor treDescriptor : values()) {
+            descriptors.put(treDescriptor.name(), treDescriptor);
+        }
+        DESCRIPTORS_BY_NAME = Collections.unmodifiableMap(descriptors);
+    }
+
+    private final List<NitfAttribute<Tre>> nitfAttributes;
+
+    private final List<TreExtractor> extractors;
+
+    private final Map<String, TreExtractor> extractorsByField;
 
     TreDescriptor(List<NitfAttribute<Tre>> nitfAttributes) {
         this.nitfAttributes = nitfAttributes;
+        this.extractors = TreExtractor.compile(nitfAttributes);
+
+        Map<String, TreExtractor> byField = new HashMap<>();
+        for (TreExtractor extractor : extractors) {
+            byField.putIfAbsent(extractor.getFieldName(), extractor);
+        }
+        this.extractorsByField = Collections.unmodifiableMap(byField);
     }
 
+    /**
+     * @param name the TRE name, e.g. {@code ACFTB}
+     * @return the descriptor for the TRE, or {@code null} if the TRE is not extracted
+     */
     public static TreDescriptor forName(String name) {
-        return Arrays.stream(TreDescriptor.values())
-                .filter(treDescriptor -> treDescriptor.name()
-                        .equals(name))
-                .findFirst()
-                .orElse(null);
+        if (name == null) {
+            return null;
+        }
+        return DESCRIPTORS_BY_NAME.get(name);
     }
 
     public List<NitfAttribute<Tre>> getValues() {
         return nitfAttributes;
     }
+
+    /**
+     * @return the extractors for the fields of this TRE
+     */
+    public List<TreExtractor> getExtractors() {
+        return extractors;
+    }
+
+    /**
+     * @param fieldName the TRE field name, e.g. {@code AC_MSN_ID}
+     * @return the extractor for the field, or {@code null} if the field is not extracted
+     */
+    public TreExtractor getExtractor(String fieldName) {
+        return extractorsByField.get(fieldName);
+    }
 }
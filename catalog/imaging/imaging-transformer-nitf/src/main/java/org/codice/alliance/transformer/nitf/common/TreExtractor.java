@@ -0,0 +1,113 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p/>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p/>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.transformer.nitf.common;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.codice.imaging.nitf.core.tre.Tre;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ddf.catalog.data.AttributeDescriptor;
+import ddf.catalog.data.impl.BasicTypes;
+
+/**
+ * Extracts the value of one TRE field and names the metacard attributes it is stored in. The
+ * attribute descriptors of a {@link NitfAttribute} are resolved when the extractor is built, so
+ * extracting a value from a TRE only applies the attribute's accessor function.
+ */
+public final class TreExtractor {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TreExtractor.class);
+
+    private final String fieldName;
+
+    private final Function<Tre, Serializable> accessorFunction;
+
+    private final List<String> attributeNames;
+
+    private final boolean emptyIsNull;
+
+    private TreExtractor(String fieldName, Function<Tre, Serializable> accessorFunction,
+            List<String> attributeNames, boolean emptyIsNull) {
+        this.fieldName = fieldName;
+        this.accessorFunction = accessorFunction;
+        this.attributeNames = attributeNames;
+        this.emptyIsNull = emptyIsNull;
+    }
+
+    /**
+     * Builds the extractors for a TRE's attributes. Attributes that don't belong to a metacard
+     * type are skipped.
+     *
+     * @param nitfAttributes the attributes extracted from the TRE
+     * @return an unmodifiable list of extractors, in the order of the attributes
+     */
+    static List<TreExtractor> compile(List<NitfAttribute<Tre>> nitfAttributes) {
+        List<TreExtractor> extractors = new ArrayList<>(nitfAttributes.size());
+        for (NitfAttribute<Tre> nitfAttribute : nitfAttributes) {
+            Set<AttributeDescriptor> descriptors = nitfAttribute.getAttributeDescriptors();
+            if (descriptors == null) {
+                LOGGER.debug("Could not set metacard attribute {} since it does not belong to "
+                        + "this metacard type", nitfAttribute.getLongName());
+                continue;
+            }
+
+            List<String> attributeNames = new ArrayList<>(descriptors.size());
+            boolean emptyIsNull = false;
+            for (AttributeDescriptor descriptor : descriptors) {
+                attributeNames.add(descriptor.getName());
+                emptyIsNull |= descriptor.getType()
+                        .equals(BasicTypes.STRING_TYPE);
+            }
+            extractors.add(new TreExtractor(nitfAttribute.getShortName(),
+                    nitfAttribute.getAccessorFunction(),
+                    Collections.unmodifiableList(attributeNames),
+                    emptyIsNull));
+        }
+        return Collections.unmodifiableList(extractors);
+    }
+
+    /**
+     * @return the TRE field name as listed in the TRE specification
+     */
+    public String getFieldName() {
+        return fieldName;
+    }
+
+    /**
+     * @return the names of the metacard attributes the value is stored in
+     */
+    public List<String> getAttributeNames() {
+        return attributeNames;
+    }
+
+    /**
+     * @param tre the TRE to extract the value from
+     * @return the value of the field, or {@code null} if it is missing or empty
+     */
+    public Serializable extract(Tre tre) {
+        Serializable value = accessorFunction.apply(tre);
+        if (emptyIsNull && value != null && value.toString()
+                .isEmpty()) {
+            return null;
+        }
+        return value;
+    }
+}
@@ -14,6 +14,7 @@
 package org.codice.alliance.transformer.nitf.gmti;
 
 import java.io.IOException;
+import java.io.Serializable;
 import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -28,10 +29,9 @@ import org.codice.imaging.nitf.fluent.NitfSegmentsFlow;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.CoordinateSequence;
 import com.vividsolutions.jts.geom.GeometryFactory;
-import com.vividsolutions.jts.io.ParseException;
-import com.vividsolutions.jts.io.WKTReader;
 
 import ddf.catalog.data.Attribute;
 import ddf.catalog.data.Metacard;
@@ -100,31 +100,6 @@ public class NitfGmtiTransformer extends SegmentHandler {
     }
 
     private void transformTargetLocation(Metacard metacard) {
-        String locationString = formatTargetLocation(metacard);
-
-        try {
-            LOGGER.debug("Formatted Target Location(s) = " + locationString);
-
-            if (locationString != null) {
-                // validate the wkt
-                WKTReader wktReader = new WKTReader(geometryFactory);
-                Geometry geometry = wktReader.read(locationString);
-
-                LOGGER.debug("Setting the metacard attribute [{}, {}]",
-                        Core.LOCATION,
-                        geometry.toText());
-                IndexedMtirpbAttribute.INDEXED_TARGET_LOCATION_ATTRIBUTE.getAttributeDescriptors()
-                        .forEach(descriptor -> setMetacardAttribute(metacard,
-                                descriptor.getName(),
-                                geometry.toText()));
-            }
-
-        } catch (ParseException e) {
-            LOGGER.debug(e.getMessage(), e);
-        }
-    }
-
-    private String formatTargetLocation(Metacard metacard) {
         Attribute locationAttribute =
                 IndexedMtirpbAttribute.INDEXED_TARGET_LOCATION_ATTRIBUTE.getAttributeDescriptors()
                         .stream()
@@ -132,82 +107,85 @@ public class NitfGmtiTransformer extends SegmentHandler {
                         .findFirst()
                         .orElse(null);
 
-        if (locationAttribute != null) {
-            StringBuilder stringBuilder = new StringBuilder("MULTIPOINT (");
-
-            locationAttribute.getValues()
-                    .forEach(value -> {
-                        parseLocation(stringBuilder, value.toString());
-                        stringBuilder.append(",");
-                    });
-
-            stringBuilder.deleteCharAt(stringBuilder.lastIndexOf(","));
-            stringBuilder.append(")");
-            return stringBuilder.toString();
+        if (locationAttribute == null || locationAttribute.getValues()
+                .isEmpty()) {
+            return;
         }
 
-        return null;
-    }
+        List<Serializable> values = locationAttribute.getValues();
+        Coordinate[] coordinates = new Coordinate[values.size()];
 
-    private void transformAircraftLocation(Metacard metacard) {
-        String aircraftLocation = formatAircraftLocation(metacard);
+        for (int i = 0; i < coordinates.length; i++) {
+            coordinates[i] = parseLocation(values.get(i));
 
-        try {
-            LOGGER.debug("Formatted Aircraft Location = " + aircraftLocation);
-
-            if (aircraftLocation != null) {
-                // validate the wkt
-                WKTReader wktReader = new WKTReader(geometryFactory);
-                Geometry geometry = wktReader.read(aircraftLocation);
-
-                MtirpbAttribute.AIRCRAFT_LOCATION_ATTRIBUTE.getAttributeDescriptors()
-                        .forEach(descriptor -> setMetacardAttribute(metacard,
-                                descriptor.getName(),
-                                aircraftLocation));
+            if (coordinates[i] == null) {
+                LOGGER.debug("Unable to parse target location: {}", values.get(i));
+                return;
             }
-
-        } catch (ParseException e) {
-            LOGGER.debug(e.getMessage(), e);
         }
+
+        CoordinateSequence coordinateSequence = geometryFactory.getCoordinateSequenceFactory()
+                .create(coordinates);
+        String locationWkt = geometryFactory.createMultiPoint(coordinateSequence)
+                .toText();
+
+        LOGGER.debug("Setting the metacard attribute [{}, {}]", Core.LOCATION, locationWkt);
+        IndexedMtirpbAttribute.INDEXED_TARGET_LOCATION_ATTRIBUTE.getAttributeDescriptors()
+                .forEach(descriptor -> setMetacardAttribute(metacard,
+                        descriptor.getName(),
+                        locationWkt));
     }
 
-    private String formatAircraftLocation(Metacard metacard) {
+    private void transformAircraftLocation(Metacard metacard) {
         Attribute aircraftLocation = MtirpbAttribute.AIRCRAFT_LOCATION_ATTRIBUTE.getAttributeDescriptors()
                 .stream()
                 .map(descriptor -> metacard.getAttribute(descriptor.getName()))
                 .findFirst()
                 .orElse(null);
 
-        if (aircraftLocation != null && StringUtils.isNotEmpty(aircraftLocation.getValue()
-                .toString())) {
+        if (aircraftLocation == null) {
+            return;
+        }
 
-            String unformattedAircraftLocation = aircraftLocation.getValue()
-                    .toString();
+        Matcher matcher = matchLocation(aircraftLocation.getValue());
 
-            StringBuilder sb = new StringBuilder("POINT (");
-            parseLocation(sb, unformattedAircraftLocation);
-            sb.append(")");
+        if (matcher != null) {
+            String formattedAircraftLocation =
+                    "POINT (" + matcher.group(1) + " " + matcher.group(2) + ")";
 
-            return sb.toString();
+            LOGGER.debug("Formatted Aircraft Location = {}", formattedAircraftLocation);
+            MtirpbAttribute.AIRCRAFT_LOCATION_ATTRIBUTE.getAttributeDescriptors()
+                    .forEach(descriptor -> setMetacardAttribute(metacard,
+                            descriptor.getName(),
+                            formattedAircraftLocation));
         }
-
-        return null;
     }
 
-    private void parseLocation(StringBuilder stringBuilder, String locationString) {
+    /*
+     * Parses an MTIRPB location such as "+52.1234567-004.1234567" directly into a coordinate,
+     * applying the geometry factory's precision model as the WKT reader would.
+     */
+    private Coordinate parseLocation(Serializable location) {
+        Matcher matcher = matchLocation(location);
 
-        if (StringUtils.isEmpty(locationString)) {
-            return;
+        if (matcher == null) {
+            return null;
         }
 
-        Matcher matcher = LOCATION_PATTERN.matcher(locationString);
-
-        if (matcher.matches()) {
-            String lon = matcher.group(1);
-            String lat = matcher.group(2);
+        Coordinate coordinate = new Coordinate(Double.parseDouble(matcher.group(1)),
+                Double.parseDouble(matcher.group(2)));
+        geometryFactory.getPrecisionModel()
+                .makePrecise(coordinate);
+        return coordinate;
+    }
 
-            stringBuilder.append(String.format("%s %s", lon, lat));
+    private Matcher matchLocation(Serializable location) {
+        if (location == null || StringUtils.isEmpty(location.toString())) {
+            return null;
         }
+
+        Matcher matcher = LOCATION_PATTERN.matcher(location.toString());
+        return matcher.matches() ? matcher : null;
     }
 
     public void setGeometryFactory(GeometryFactory geometryFactory) {
@@ -19,6 +19,13 @@ import java.io.IOException;
 import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import javax.activation.MimeTypeParseException;
 import javax.imageio.ImageIO;
@@ -28,7 +35,9 @@ import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.lang.StringUtils;
 import org.codice.alliance.transformer.nitf.MetacardFactory;
 import org.codice.imaging.nitf.core.common.NitfFormatException;
+import org.codice.imaging.nitf.core.image.ImageSegment;
 import org.codice.imaging.nitf.fluent.NitfParserInputFlow;
+import org.codice.imaging.nitf.fluent.NitfSegmentsFlow;
 import org.codice.imaging.nitf.render.NitfRenderer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -52,6 +61,10 @@ import net.coobird.thumbnailator.Thumbnails;
 /**
  * This pre-storage plugin creates and stores the NITF thumbnail and NITF overview images. The
  * thumbnail is stored with the Metacard while the overview is stored in the content store.
+ * <p>
+ * By default only the first renderable image segment is used. When segment derivatives are
+ * enabled, every image segment is rendered concurrently on a bounded pool once the file has been
+ * parsed, and each additional segment gets its own overview and original derived images.
  */
 public class NitfPreStoragePlugin implements PreCreateStoragePlugin, PreUpdateStoragePlugin {
 
@@ -76,8 +89,19 @@ public class NitfPreStoragePlugin implements PreCreateStoragePlugin, PreUpdateSt
 
     private static final double DEFAULT_MAX_SIDE_LENGTH = 1024.0;
 
+    private static final int DEFAULT_MAX_RENDER_THREADS = 4;
+
     private double maxSideLength = DEFAULT_MAX_SIDE_LENGTH;
 
+    private boolean createSegmentDerivatives = false;
+
+    private final ThreadPoolExecutor renderExecutorService =
+            new ThreadPoolExecutor(DEFAULT_MAX_RENDER_THREADS,
+                    DEFAULT_MAX_RENDER_THREADS,
+                    0L,
+                    TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<>());
+
     static {
         IIORegistry.getDefaultInstance().registerServiceProvider(new J2KImageReaderSpi());
     }
@@ -134,76 +158,115 @@ public class NitfPreStoragePlugin implements PreCreateStoragePlugin, PreUpdateSt
         }
 
         try {
-            BufferedImage renderedImage = renderImage(contentItem);
-
-            if (renderedImage != null) {
-                addThumbnailToMetacard(metacard, renderedImage);
-
-                ContentItem overviewContentItem = createDerivedImage(contentItem.getId(), OVERVIEW,
-                        renderedImage, metacard, calculateOverviewWidth(renderedImage),
-                        calculateOverviewHeight(renderedImage));
-
-                contentItems.add(overviewContentItem);
-
-                ContentItem originalImageContentItem = createDerivedImage(contentItem.getId(),
-                        ORIGINAL, renderedImage, metacard, renderedImage.getWidth(),
-                        renderedImage.getHeight());
-
-                contentItems.add(originalImageContentItem);
+            List<RenderedSegment> renderedSegments = renderSegments(contentItem);
+            boolean primaryImageHandled = false;
+
+            for (int i = 0; i < renderedSegments.size(); i++) {
+                RenderedSegment renderedSegment = renderedSegments.get(i);
+
+                if (renderedSegment == null) {
+                    continue;
+                }
+
+                if (!primaryImageHandled) {
+                    addThumbnailToMetacard(metacard, renderedSegment.thumbnail);
+                    addDerivedImages(contentItem, renderedSegment, OVERVIEW, ORIGINAL,
+                            contentItems);
+                    primaryImageHandled = true;
+                } else {
+                    String suffix = "-" + (i + 1);
+                    addDerivedImages(contentItem,
+                            renderedSegment,
+                            OVERVIEW + suffix,
+                            ORIGINAL + suffix,
+                            contentItems);
+                }
             }
         } catch (IOException | ParseException | NitfFormatException | UnsupportedOperationException e) {
             LOGGER.debug(e.getMessage(), e);
         }
     }
 
-    private BufferedImage renderImage(ContentItem contentItem)
-        throws IOException, ParseException, NitfFormatException {
+    private void addDerivedImages(ContentItem contentItem, RenderedSegment renderedSegment,
+            String overviewQualifier, String originalQualifier, List<ContentItem> contentItems) {
+        Metacard metacard = contentItem.getMetacard();
 
-        final ThreadLocal<BufferedImage> bufferedImage = new ThreadLocal<>();
-
-        if (contentItem != null && contentItem.getInputStream() != null) {
-            NitfRenderer renderer = new NitfRenderer();
-
-            new NitfParserInputFlow().inputStream(contentItem.getInputStream()).allData()
-                    .forEachImageSegment(segment -> {
-                        if (bufferedImage.get() == null) {
-                            try {
-                                bufferedImage.set(renderer.render(segment));
-                            } catch (IOException e) {
-                                LOGGER.debug(e.getMessage(), e);
-                            }
-                        }
-                    }).end();
+        if (renderedSegment.overview != null) {
+            contentItems.add(createDerivedImage(contentItem.getId(), overviewQualifier,
+                    renderedSegment.overview, metacard));
         }
 
-        return bufferedImage.get();
+        if (renderedSegment.original != null) {
+            contentItems.add(createDerivedImage(contentItem.getId(), originalQualifier,
+                    renderedSegment.original, metacard));
+        }
     }
 
-    private void addThumbnailToMetacard(Metacard metacard, BufferedImage bufferedImage) {
-        try {
-            byte[] thumbnailImage = scaleImage(bufferedImage, THUMBNAIL_WIDTH, THUMBNAIL_HEIGHT);
+    /*
+     * Renders the image segments of the content item. The returned list holds one entry per
+     * rendered segment, in segment order, with null entries for segments that failed to render.
+     * Unless segment derivatives are enabled, segments are rendered one at a time until the
+     * first one succeeds.
+     *
+     * allData() parses the whole file before any segment is visited, so rendering starts once
+     * parsing is complete. Each render task scales its image to JPEG bytes before returning, so
+     * at most one decoded image per render thread is held in memory at a time.
+     */
+    private List<RenderedSegment> renderSegments(ContentItem contentItem)
+        throws IOException, ParseException, NitfFormatException {
+
+        List<RenderedSegment> renderedSegments = new ArrayList<>();
+
+        if (contentItem == null || contentItem.getInputStream() == null) {
+            return renderedSegments;
+        }
 
-            if (thumbnailImage.length > 0) {
-                metacard.setAttribute(new AttributeImpl(Core.THUMBNAIL, thumbnailImage));
+        List<Future<RenderedSegment>> futures = new ArrayList<>();
+        NitfSegmentsFlow nitfSegmentsFlow =
+                new NitfParserInputFlow().inputStream(contentItem.getInputStream())
+                        .allData();
+
+        try {
+            nitfSegmentsFlow.forEachImageSegment(segment -> {
+                if (createSegmentDerivatives) {
+                    futures.add(submitRender(segment));
+                } else if (renderedSegments.stream()
+                        .allMatch(renderedSegment -> renderedSegment == null)) {
+                    renderedSegments.add(renderSegment(segment));
+                }
+            });
+
+            // segment data may be backed by temp files, so every render must finish before end()
+            for (Future<RenderedSegment> future : futures) {
+                renderedSegments.add(getRenderedSegment(future));
             }
-        } catch (IOException e) {
-            LOGGER.debug(e.getMessage(), e);
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+            nitfSegmentsFlow.end();
         }
+
+        return renderedSegments;
     }
 
-    private ContentItem createDerivedImage(String id, String qualifier, BufferedImage image,
-            Metacard metacard, int maxWidth, int maxHeight) {
+    private Future<RenderedSegment> submitRender(ImageSegment segment) {
         try {
-            byte[] overviewBytes = scaleImage(image, maxWidth, maxHeight);
-
-            ByteSource source = ByteSource.wrap(overviewBytes);
-            ContentItem contentItem = new ContentItemImpl(id, qualifier, source, IMAGE_JPEG,
-                    buildDerivedImageTitle(metacard.getTitle(), qualifier), overviewBytes.length,
-                    metacard);
+            return renderExecutorService.submit(() -> renderSegment(segment));
+        } catch (RejectedExecutionException e) {
+            LOGGER.debug("Render pool is shut down, rendering image segment on the calling thread",
+                    e);
+            return CompletableFuture.completedFuture(renderSegment(segment));
+        }
+    }
 
-            addDerivedResourceAttribute(metacard, contentItem);
+    private RenderedSegment renderSegment(ImageSegment segment) {
+        try {
+            BufferedImage image = new NitfRenderer().render(segment);
 
-            return contentItem;
+            return new RenderedSegment(scaleImageQuietly(image, THUMBNAIL_WIDTH, THUMBNAIL_HEIGHT),
+                    scaleImageQuietly(image,
+                            calculateOverviewWidth(image),
+                            calculateOverviewHeight(image)),
+                    scaleImageQuietly(image, image.getWidth(), image.getHeight()));
         } catch (IOException e) {
             LOGGER.debug(e.getMessage(), e);
         }
@@ -211,6 +274,38 @@ public class NitfPreStoragePlugin implements PreCreateStoragePlugin, PreUpdateSt
         return null;
     }
 
+    private RenderedSegment getRenderedSegment(Future<RenderedSegment> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                    .interrupt();
+            LOGGER.debug("Interrupted while rendering image segment", e);
+        } catch (ExecutionException e) {
+            LOGGER.debug(e.getMessage(), e);
+        }
+
+        return null;
+    }
+
+    private void addThumbnailToMetacard(Metacard metacard, byte[] thumbnailImage) {
+        if (thumbnailImage != null && thumbnailImage.length > 0) {
+            metacard.setAttribute(new AttributeImpl(Core.THUMBNAIL, thumbnailImage));
+        }
+    }
+
+    private ContentItem createDerivedImage(String id, String qualifier, byte[] imageBytes,
+            Metacard metacard) {
+        ByteSource source = ByteSource.wrap(imageBytes);
+        ContentItem contentItem = new ContentItemImpl(id, qualifier, source, IMAGE_JPEG,
+                buildDerivedImageTitle(metacard.getTitle(), qualifier), imageBytes.length,
+                metacard);
+
+        addDerivedResourceAttribute(metacard, contentItem);
+
+        return contentItem;
+    }
+
     String buildDerivedImageTitle(String title, String qualifier) {
         String rootFileName = FilenameUtils.getBaseName(title);
 
@@ -238,6 +333,16 @@ public class NitfPreStoragePlugin implements PreCreateStoragePlugin, PreUpdateSt
         return thumbnailBytes;
     }
 
+    private byte[] scaleImageQuietly(final BufferedImage bufferedImage, int width, int height) {
+        try {
+            return scaleImage(bufferedImage, width, height);
+        } catch (IOException e) {
+            LOGGER.debug(e.getMessage(), e);
+        }
+
+        return null;
+    }
+
     private void addDerivedResourceAttribute(Metacard metacard, ContentItem contentItem) {
         Attribute attribute = metacard.getAttribute(Core.DERIVED_RESOURCE_URI);
         if (attribute == null) {
@@ -284,4 +389,44 @@ public class NitfPreStoragePlugin implements PreCreateStoragePlugin, PreUpdateSt
             this.maxSideLength = DEFAULT_MAX_SIDE_LENGTH;
         }
     }
+
+    public void setCreateSegmentDerivatives(boolean createSegmentDerivatives) {
+        LOGGER.trace("Setting createSegmentDerivatives to {}", createSegmentDerivatives);
+        this.createSegmentDerivatives = createSegmentDerivatives;
+    }
+
+    public void setMaxRenderThreads(int maxRenderThreads) {
+        int threads = maxRenderThreads > 0 ? maxRenderThreads : DEFAULT_MAX_RENDER_THREADS;
+        LOGGER.trace("Setting maxRenderThreads to {}", threads);
+
+        // resize the shared pool in place so renders already submitted to it are not rejected
+        synchronized (renderExecutorService) {
+            if (threads > renderExecutorService.getMaximumPoolSize()) {
+                renderExecutorService.setMaximumPoolSize(threads);
+                renderExecutorService.setCorePoolSize(threads);
+            } else {
+                renderExecutorService.setCorePoolSize(threads);
+                renderExecutorService.setMaximumPoolSize(threads);
+            }
+        }
+    }
+
+    public void destroy() {
+        renderExecutorService.shutdownNow();
+    }
+
+    private static class RenderedSegment {
+
+        private final byte[] thumbnail;
+
+        private final byte[] overview;
+
+        private final byte[] original;
+
+        RenderedSegment(byte[] thumbnail, byte[] overview, byte[] original) {
+            this.thumbnail = thumbnail;
+            this.overview = overview;
+            this.original = original;
+        }
+    }
 }
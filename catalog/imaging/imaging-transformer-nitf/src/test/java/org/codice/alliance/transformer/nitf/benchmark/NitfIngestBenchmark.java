@@ -0,0 +1,300 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p/>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p/>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.transformer.nitf.benchmark;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.codice.alliance.transformer.nitf.MetacardFactory;
+import org.codice.alliance.transformer.nitf.NitfParserAdapter;
+import org.codice.alliance.transformer.nitf.common.NitfHeaderTransformer;
+import org.codice.alliance.transformer.nitf.image.ImageMetacardType;
+import org.codice.alliance.transformer.nitf.image.NitfImageTransformer;
+import org.codice.alliance.transformer.nitf.image.NitfPreStoragePlugin;
+import org.codice.imaging.nitf.core.common.NitfFormatException;
+import org.codice.imaging.nitf.fluent.NitfParserInputFlow;
+import org.codice.imaging.nitf.fluent.NitfSegmentsFlow;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.io.Files;
+
+import ddf.catalog.content.data.ContentItem;
+import ddf.catalog.content.data.impl.ContentItemImpl;
+import ddf.catalog.content.operation.impl.CreateStorageRequestImpl;
+import ddf.catalog.data.Metacard;
+
+/**
+ * Measures the NITF imaging pipeline against a synthetic corpus. Every file is run through the
+ * same stages the catalog uses on ingest: header parsing by {@link NitfParserAdapter}, metacard
+ * creation by {@link NitfHeaderTransformer} and {@link NitfImageTransformer}, and derivative
+ * generation by {@link NitfPreStoragePlugin}. The headers are parsed both from a stream, as the
+ * input transformer receives them, and through a seekable reader on the file, so the two parse
+ * stages can be compared. The catalog services around those stages are replaced by in-memory
+ * content items and storage requests.
+ * <p>
+ * The harness is not run as part of the unit tests. It can be run from this module with:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=org.codice.alliance.transformer.nitf.benchmark.NitfIngestBenchmark \
+ *     -Dexec.args="target/nitf-corpus 200 src/test/resources"
+ * </pre>
+ */
+public class NitfIngestBenchmark {
+
+    static final String PARSE_STAGE = "parse";
+
+    static final String FILE_PARSE_STAGE = "parse-file";
+
+    static final String TRANSFORM_STAGE = "transform";
+
+    static final String PRE_STORAGE_STAGE = "pre-storage";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(NitfIngestBenchmark.class);
+
+    private static final int DEFAULT_FILE_COUNT = 100;
+
+    private static final long CORPUS_SEED = 4609L;
+
+    private final NitfParserAdapter nitfParserAdapter = new NitfParserAdapter();
+
+    private final NitfHeaderTransformer nitfHeaderTransformer = new NitfHeaderTransformer();
+
+    private final NitfImageTransformer nitfImageTransformer = new NitfImageTransformer();
+
+    private final NitfPreStoragePlugin nitfPreStoragePlugin = new NitfPreStoragePlugin();
+
+    private final MetacardFactory metacardFactory = new MetacardFactory();
+
+    public NitfIngestBenchmark() {
+        metacardFactory.setMetacardType(new ImageMetacardType());
+    }
+
+    /**
+     * @param args the corpus directory, optionally followed by the number of synthetic files and
+     *             a directory of seed NITF files to include in the corpus.
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("usage: NitfIngestBenchmark <corpusDir> [fileCount] [seedDir]");
+            System.exit(1);
+        }
+
+        int fileCount = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_FILE_COUNT;
+        List<File> seedFiles = args.length > 2 ? findNitfFiles(new File(args[2])) :
+                Collections.emptyList();
+
+        List<File> corpus = new SyntheticNitfCorpus(new File(args[0]),
+                CORPUS_SEED).generate(fileCount, seedFiles);
+
+        Report report = new NitfIngestBenchmark().run(corpus);
+        System.out.println(report);
+    }
+
+    private static List<File> findNitfFiles(File directory) {
+        File[] files = directory.listFiles((dir, name) -> name.toLowerCase()
+                .endsWith(".ntf"));
+        return files == null ? Collections.emptyList() : Arrays.asList(files);
+    }
+
+    /**
+     * Runs every file of the corpus through the pipeline once.
+     *
+     * @param corpus the NITF files to ingest.
+     * @return the per-stage latencies, throughput and peak heap usage of the run.
+     */
+    public Report run(List<File> corpus) {
+        Report report = new Report();
+        resetPeakHeapUsage();
+        long start = System.nanoTime();
+
+        for (File file : corpus) {
+            try {
+                ingest(file, report);
+                report.bytes += file.length();
+                report.files++;
+            } catch (Exception e) {
+                LOGGER.debug("Unable to ingest {}", file, e);
+                report.failures++;
+            }
+        }
+
+        report.elapsedNanos = System.nanoTime() - start;
+        report.peakHeapBytes = getPeakHeapUsage();
+        return report;
+    }
+
+    private void ingest(File file, Report report) throws Exception {
+        String id = file.getName();
+
+        long start = System.nanoTime();
+        try (InputStream inputStream = new FileInputStream(file)) {
+            nitfParserAdapter.endNitfSegmentsFlow(nitfParserAdapter.parseNitf(inputStream));
+        }
+        report.record(PARSE_STAGE, System.nanoTime() - start);
+
+        start = System.nanoTime();
+        NitfSegmentsFlow nitfSegmentsFlow = parseNitfFile(file);
+        report.record(FILE_PARSE_STAGE, System.nanoTime() - start);
+
+        start = System.nanoTime();
+        Metacard metacard = metacardFactory.createMetacard(id);
+        nitfSegmentsFlow = nitfHeaderTransformer.transform(nitfSegmentsFlow, metacard);
+        nitfImageTransformer.transform(nitfSegmentsFlow, metacard);
+        nitfParserAdapter.endNitfSegmentsFlow(nitfSegmentsFlow);
+        report.record(TRANSFORM_STAGE, System.nanoTime() - start);
+
+        start = System.nanoTime();
+        List<ContentItem> contentItems = new ArrayList<>();
+        contentItems.add(new ContentItemImpl(id,
+                Files.asByteSource(file),
+                MetacardFactory.MIME_TYPE.toString(),
+                file.getName(),
+                file.length(),
+                metacard));
+        nitfPreStoragePlugin.process(new CreateStorageRequestImpl(contentItems,
+                Collections.emptyMap()));
+        report.record(PRE_STORAGE_STAGE, System.nanoTime() - start);
+    }
+
+    /**
+     * Parses the headers through a seekable reader, which skips the segment bodies using the
+     * lengths declared in the file header instead of streaming through them.
+     */
+    private static NitfSegmentsFlow parseNitfFile(File file)
+            throws NitfFormatException, FileNotFoundException {
+        return new NitfParserInputFlow().file(file)
+                .headerOnly();
+    }
+
+    private static List<MemoryPoolMXBean> getHeapPools() {
+        List<MemoryPoolMXBean> heapPools = new ArrayList<>();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+                heapPools.add(pool);
+            }
+        }
+        return heapPools;
+    }
+
+    private static void resetPeakHeapUsage() {
+        getHeapPools().forEach(MemoryPoolMXBean::resetPeakUsage);
+    }
+
+    private static long getPeakHeapUsage() {
+        return getHeapPools().stream()
+                .mapToLong(pool -> pool.getPeakUsage()
+                        .getUsed())
+                .sum();
+    }
+
+    /**
+     * The results of a benchmark run.
+     */
+    public static class Report {
+
+        private final Map<String, List<Long>> stageNanos = new LinkedHashMap<>();
+
+        private int files;
+
+        private int failures;
+
+        private long bytes;
+
+        private long elapsedNanos;
+
+        private long peakHeapBytes;
+
+        void record(String stage, long nanos) {
+            stageNanos.computeIfAbsent(stage, key -> new ArrayList<>())
+                    .add(nanos);
+        }
+
+        public int getFiles() {
+            return files;
+        }
+
+        public int getFailures() {
+            return failures;
+        }
+
+        public long getPeakHeapBytes() {
+            return peakHeapBytes;
+        }
+
+        public double getFilesPerSecond() {
+            return elapsedNanos == 0 ? 0 : files / (elapsedNanos / 1e9);
+        }
+
+        public double getMegabytesPerSecond() {
+            return elapsedNanos == 0 ? 0 : (bytes / 1e6) / (elapsedNanos / 1e9);
+        }
+
+        /**
+         * @param stage      the stage name.
+         * @param percentile the percentile, between 0 and 100.
+         * @return the latency of the stage at the percentile in milliseconds, or 0 if the stage
+         * was never recorded.
+         */
+        public double getLatencyMillis(String stage, double percentile) {
+            List<Long> samples = stageNanos.get(stage);
+
+            if (samples == null || samples.isEmpty()) {
+                return 0;
+            }
+
+            List<Long> sorted = new ArrayList<>(samples);
+            Collections.sort(sorted);
+            int index = (int) Math.ceil(percentile / 100 * sorted.size()) - 1;
+            long nanos = sorted.get(Math.max(0, Math.min(index, sorted.size() - 1)));
+            return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("files=%d failures=%d elapsed=%.1fs throughput=%.2f files/s "
+                            + "%.2f MB/s peakHeap=%.1f MB%n",
+                    files,
+                    failures,
+                    elapsedNanos / 1e9,
+                    getFilesPerSecond(),
+                    getMegabytesPerSecond(),
+                    peakHeapBytes / 1e6));
+
+            for (String stage : stageNanos.keySet()) {
+                sb.append(String.format("%-12s p50=%8.2fms p95=%8.2fms p99=%8.2fms max=%8.2fms%n",
+                        stage,
+                        getLatencyMillis(stage, 50),
+                        getLatencyMillis(stage, 95),
+                        getLatencyMillis(stage, 99),
+                        getLatencyMillis(stage, 100)));
+            }
+
+            return sb.toString();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p/>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p/>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.transformer.nitf.benchmark;
+
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class NitfIngestBenchmarkTest {
+
+    private static final String GEO_NITF = "/i_3001a.ntf";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testRunSyntheticCorpus() throws Exception {
+        File seed = new File(getClass().getResource(GEO_NITF)
+                .toURI());
+        List<File> corpus = new SyntheticNitfCorpus(temporaryFolder.newFolder("corpus"),
+                1L).generate(3, Collections.singletonList(seed));
+
+        assertThat(corpus.size(), is(4));
+
+        NitfIngestBenchmark.Report report = new NitfIngestBenchmark().run(corpus);
+
+        assertThat(report.getFailures(), is(0));
+        assertThat(report.getFiles(), is(4));
+        assertThat(report.getFilesPerSecond(), greaterThan(0.0));
+        assertThat(report.getLatencyMillis(NitfIngestBenchmark.PARSE_STAGE, 50),
+                greaterThan(0.0));
+        assertThat(report.getLatencyMillis(NitfIngestBenchmark.FILE_PARSE_STAGE, 50),
+                greaterThan(0.0));
+        assertThat(report.getLatencyMillis(NitfIngestBenchmark.TRANSFORM_STAGE, 95),
+                greaterThan(0.0));
+        assertThat(report.getLatencyMillis(NitfIngestBenchmark.PRE_STORAGE_STAGE, 100),
+                greaterThan(0.0));
+    }
+
+    @Test
+    public void testEmptyReport() {
+        NitfIngestBenchmark.Report report = new NitfIngestBenchmark().run(Collections.emptyList());
+
+        assertThat(report.getFiles(), is(0));
+        assertThat(report.getLatencyMillis(NitfIngestBenchmark.PARSE_STAGE, 50), is(0.0));
+    }
+}
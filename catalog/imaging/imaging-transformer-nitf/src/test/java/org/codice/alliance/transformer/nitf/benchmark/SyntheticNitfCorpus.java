@@ -0,0 +1,204 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p/>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p/>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.transformer.nitf.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import javax.imageio.stream.MemoryCacheImageInputStream;
+
+import org.codice.imaging.nitf.core.common.FileType;
+import org.codice.imaging.nitf.core.common.NitfFormatException;
+import org.codice.imaging.nitf.core.header.NitfHeader;
+import org.codice.imaging.nitf.core.header.NitfHeaderFactory;
+import org.codice.imaging.nitf.core.image.ImageBand;
+import org.codice.imaging.nitf.core.image.ImageCategory;
+import org.codice.imaging.nitf.core.image.ImageCompression;
+import org.codice.imaging.nitf.core.image.ImageCoordinatesRepresentation;
+import org.codice.imaging.nitf.core.image.ImageMode;
+import org.codice.imaging.nitf.core.image.ImageRepresentation;
+import org.codice.imaging.nitf.core.image.ImageSegment;
+import org.codice.imaging.nitf.core.image.ImageSegmentFactory;
+import org.codice.imaging.nitf.core.image.PixelJustification;
+import org.codice.imaging.nitf.core.image.PixelValueType;
+import org.codice.imaging.nitf.core.tre.Tre;
+import org.codice.imaging.nitf.core.tre.TreEntry;
+import org.codice.imaging.nitf.core.tre.TreFactory;
+import org.codice.imaging.nitf.core.tre.TreSource;
+import org.codice.imaging.nitf.fluent.NitfCreationFlow;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Generates a synthetic NITF corpus for {@link NitfIngestBenchmark}. Files vary in image size,
+ * number of image segments, block layout and whether an ACFTB TRE is present. The NITF library
+ * can only write uncompressed pixel data, so compressed imagery is added to the corpus by copying
+ * seed files (for example the NITFs under {@code src/test/resources}) alongside the generated ones.
+ */
+public class SyntheticNitfCorpus {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SyntheticNitfCorpus.class);
+
+    private static final int[] IMAGE_SIDES = {64, 256, 512, 1024};
+
+    private static final int MAX_SEGMENTS = 4;
+
+    private static final String[][] ACFTB_FIELDS =
+            {{"AC_MSN_ID", "20"}, {"AC_TAIL_NO", "10"}, {"AC_TO", "12"}, {"SENSOR_ID_TYPE", "4"},
+                    {"SENSOR_ID", "6"}, {"SCENE_SOURCE", "1"}, {"SCNUM", "6"}, {"PDATE", "8"},
+                    {"IMHOSTNO", "6"}, {"IMREQID", "5"}, {"MPLAN", "3"}, {"ENTLOC", "25"},
+                    {"LOC_ACCY", "6"}, {"ENTELV", "6"}, {"ELV_UNIT", "1"}, {"EXITLOC", "25"},
+                    {"EXITELV", "6"}, {"TMAP", "7"}, {"ROW_SPACING", "7"},
+                    {"ROW_SPACING_UNITS", "1"}, {"COL_SPACING", "7"}, {"COL_SPACING_UNITS", "1"},
+                    {"FOCAL_LENGTH", "6"}, {"SENSERIAL", "6"}, {"ABSWVER", "7"},
+                    {"CAL_DATE", "8"}, {"PATCH_TOT", "4"}, {"MTI_TOT", "3"}};
+
+    private final File directory;
+
+    private final Random random;
+
+    public SyntheticNitfCorpus(File directory, long seed) {
+        this.directory = directory;
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Writes {@code fileCount} synthetic NITF files to the corpus directory and copies any seed
+     * files into it.
+     *
+     * @param fileCount the number of synthetic files to generate.
+     * @param seedFiles existing NITF files to include in the corpus, may be empty.
+     * @return the files in the corpus, in generation order.
+     * @throws IOException if the corpus directory cannot be written.
+     */
+    public List<File> generate(int fileCount, List<File> seedFiles) throws IOException {
+        if (!directory.exists() && !directory.mkdirs()) {
+            throw new IOException("Unable to create corpus directory " + directory);
+        }
+
+        List<File> corpus = new ArrayList<>();
+
+        for (int i = 0; i < fileCount; i++) {
+            int side = IMAGE_SIDES[random.nextInt(IMAGE_SIDES.length)];
+            int segments = 1 + random.nextInt(MAX_SEGMENTS);
+            boolean blocked = random.nextBoolean();
+            boolean withTre = random.nextBoolean();
+
+            File file = new File(directory,
+                    String.format("synthetic-%04d-%dx%d-%dseg%s%s.ntf",
+                            i,
+                            side,
+                            side,
+                            segments,
+                            blocked ? "-blocked" : "",
+                            withTre ? "-acftb" : ""));
+            writeNitf(file, side, segments, blocked, withTre);
+            corpus.add(file);
+        }
+
+        for (File seedFile : seedFiles) {
+            File copy = new File(directory, "seed-" + seedFile.getName());
+            Files.copy(seedFile.toPath(), copy.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            corpus.add(copy);
+        }
+
+        LOGGER.debug("Generated NITF corpus of {} files in {}", corpus.size(), directory);
+        return Collections.unmodifiableList(corpus);
+    }
+
+    /**
+     * Writes a single synthetic NITF with square 8-bit monochrome image segments.
+     *
+     * @param file     the file to write.
+     * @param side     the width and height of each image segment in pixels.
+     * @param segments the number of image segments.
+     * @param blocked  whether images of 256 pixels or more are split into 128 pixel blocks.
+     * @param withTre  whether the file header carries an ACFTB TRE.
+     */
+    public void writeNitf(File file, int side, int segments, boolean blocked, boolean withTre) {
+        NitfCreationFlow creationFlow = new NitfCreationFlow().fileHeader(() -> createHeader(
+                withTre));
+
+        for (int i = 0; i < segments; i++) {
+            creationFlow = creationFlow.imageSegment(() -> createImageSegment(side, blocked));
+        }
+
+        creationFlow.write(file.getAbsolutePath());
+    }
+
+    private NitfHeader createHeader(boolean withTre) {
+        NitfHeader header = NitfHeaderFactory.getDefault(FileType.NITF_TWO_ONE);
+        header.setFileTitle("Synthetic benchmark NITF");
+        header.setOriginatingStationId("BENCHMARK");
+
+        if (withTre) {
+            try {
+                header.getTREsRawStructure()
+                        .add(createAcftbTre());
+            } catch (NitfFormatException e) {
+                LOGGER.debug("Unable to create ACFTB TRE", e);
+            }
+        }
+
+        return header;
+    }
+
+    private Tre createAcftbTre() throws NitfFormatException {
+        Tre tre = TreFactory.getDefault("ACFTB", TreSource.ExtendedHeaderData);
+
+        for (String[] field : ACFTB_FIELDS) {
+            int length = Integer.parseInt(field[1]);
+            tre.add(new TreEntry(field[0], String.format("%-" + length + "s", "1"), "string"));
+        }
+
+        return tre;
+    }
+
+    private ImageSegment createImageSegment(int side, boolean blocked) {
+        int blocksPerSide = blocked && side >= 256 ? side / 128 : 1;
+        byte[] pixels = new byte[side * side];
+        random.nextBytes(pixels);
+
+        ImageBand imageBand = new ImageBand();
+        imageBand.setImageRepresentation("M");
+
+        ImageSegment imageSegment = ImageSegmentFactory.getDefault(FileType.NITF_TWO_ONE);
+        imageSegment.setNumberOfRows(side);
+        imageSegment.setNumberOfColumns(side);
+        imageSegment.setPixelValueType(PixelValueType.INTEGER);
+        imageSegment.setImageRepresentation(ImageRepresentation.MONOCHROME);
+        imageSegment.setImageCategory(ImageCategory.VISUAL);
+        imageSegment.setActualBitsPerPixelPerBand(8);
+        imageSegment.setNumberOfBitsPerPixelPerBand(8);
+        imageSegment.setPixelJustification(PixelJustification.RIGHT);
+        imageSegment.setImageCoordinatesRepresentation(ImageCoordinatesRepresentation.NONE);
+        imageSegment.setImageCompression(ImageCompression.NOTCOMPRESSED);
+        imageSegment.addImageBand(imageBand);
+        imageSegment.setImageMode(ImageMode.BANDSEQUENTIAL);
+        imageSegment.setNumberOfBlocksPerRow(blocksPerSide);
+        imageSegment.setNumberOfBlocksPerColumn(blocksPerSide);
+        imageSegment.setNumberOfPixelsPerBlockHorizontal(side / blocksPerSide);
+        imageSegment.setNumberOfPixelsPerBlockVertical(side / blocksPerSide);
+        imageSegment.setDataLength(pixels.length);
+        imageSegment.setData(new MemoryCacheImageInputStream(new ByteArrayInputStream(pixels)));
+        return imageSegment;
+    }
+}
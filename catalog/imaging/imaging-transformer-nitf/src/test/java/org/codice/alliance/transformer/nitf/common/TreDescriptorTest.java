@@ -0,0 +1,121 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.transformer.nitf.common;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+import org.codice.alliance.catalog.core.api.types.Isr;
+import org.codice.alliance.transformer.nitf.gmti.MtirpbAttribute;
+import org.codice.imaging.nitf.core.tre.Tre;
+import org.junit.Test;
+
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.impl.AttributeDescriptorImpl;
+import ddf.catalog.data.impl.BasicTypes;
+import ddf.catalog.data.impl.MetacardImpl;
+
+public class TreDescriptorTest {
+
+    private static final String FIELD_NAME = "FIELD";
+
+    private static final String ATTRIBUTE_NAME = "ext.nitf.test.field";
+
+    @Test
+    public void testForNameKnownTre() {
+        for (TreDescriptor treDescriptor : TreDescriptor.values()) {
+            assertThat(TreDescriptor.forName(treDescriptor.name()), is(treDescriptor));
+        }
+    }
+
+    @Test
+    public void testForNameUnknownTre() {
+        assertThat(TreDescriptor.forName("BLOCKA"), is(nullValue()));
+    }
+
+    @Test
+    public void testForNameNull() {
+        assertThat(TreDescriptor.forName(null), is(nullValue()));
+    }
+
+    @Test
+    public void testExtractorForField() {
+        TreExtractor extractor = TreDescriptor.ACFTB.getExtractor("AC_MSN_ID");
+
+        assertThat(extractor.getAttributeNames(),
+                containsInAnyOrder(Isr.MISSION_ID, AcftbAttribute.AIRCRAFT_MISSION_ID));
+        assertThat(TreDescriptor.ACFTB.getExtractor("BLOCKA"), is(nullValue()));
+        assertThat(TreDescriptor.MTIRPB.getExtractors()
+                .size(), is(MtirpbAttribute.getAttributes()
+                .size()));
+    }
+
+    @Test
+    public void testAttributesAreResolvedOnce() {
+        NitfAttribute<Tre> nitfAttribute = createAttribute(tre -> "value");
+        List<TreExtractor> extractors = TreExtractor.compile(Collections.singletonList(
+                nitfAttribute));
+        SegmentHandler segmentHandler = new SegmentHandler();
+        Metacard metacard = new MetacardImpl();
+
+        for (int i = 0; i < 3; i++) {
+            segmentHandler.handleTre(metacard, mock(Tre.class), extractors);
+        }
+
+        assertThat(metacard.getAttribute(ATTRIBUTE_NAME)
+                .getValues(), contains("value", "value", "value"));
+        verify(nitfAttribute, times(1)).getAttributeDescriptors();
+        verify(nitfAttribute, times(1)).getAccessorFunction();
+    }
+
+    @Test
+    public void testEmptyStringIsNotSet() {
+        List<TreExtractor> extractors = TreExtractor.compile(Collections.singletonList(
+                createAttribute(tre -> "")));
+        Metacard metacard = new MetacardImpl();
+
+        new SegmentHandler().handleTre(metacard, mock(Tre.class), extractors);
+
+        assertThat(metacard.getAttribute(ATTRIBUTE_NAME), is(nullValue()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private NitfAttribute<Tre> createAttribute(Function<Tre, Serializable> accessorFunction) {
+        NitfAttribute<Tre> nitfAttribute = mock(NitfAttribute.class);
+        doReturn(FIELD_NAME).when(nitfAttribute)
+                .getShortName();
+        doReturn(accessorFunction).when(nitfAttribute)
+                .getAccessorFunction();
+        doReturn(Collections.singleton(new AttributeDescriptorImpl(ATTRIBUTE_NAME,
+                true,
+                true,
+                false,
+                true,
+                BasicTypes.STRING_TYPE))).when(nitfAttribute)
+                .getAttributeDescriptors();
+        return nitfAttribute;
+    }
+}
@@ -18,6 +18,7 @@ import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.CoreMatchers.nullValue;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -26,6 +27,7 @@ import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Serializable;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
@@ -34,6 +36,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
 
 import org.codice.alliance.transformer.nitf.MetacardFactory;
 import org.codice.alliance.transformer.nitf.TreTestUtility;
@@ -45,18 +48,24 @@ import org.codice.imaging.nitf.fluent.NitfParserInputFlow;
 import org.codice.imaging.nitf.fluent.NitfSegmentsFlow;
 import org.junit.Before;
 import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.io.WKTReader;
 
 import ddf.catalog.data.Attribute;
 import ddf.catalog.data.AttributeDescriptor;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.MetacardType;
+import ddf.catalog.data.impl.AttributeImpl;
 import ddf.catalog.data.impl.MetacardImpl;
 import ddf.catalog.data.impl.MetacardTypeImpl;
 import ddf.catalog.transform.CatalogTransformerException;
 
 public class NitfGmtiTransformerTest {
+    private static final Logger LOGGER = LoggerFactory.getLogger(NitfGmtiTransformerTest.class);
+
     private static final String GMTI_TEST_NITF = "src/test/resources/gmti-test.ntf";
 
     private static final String GMTI_METACARD = "isr.gmti";
@@ -131,6 +140,64 @@ public class NitfGmtiTransformerTest {
         assertThat(value, is("Unknown"));
     }
 
+    @Test
+    public void testLargeTargetLocationSet() throws Exception {
+        final int targetCount = 5000;
+        List<Serializable> locations = new ArrayList<>(targetCount);
+        StringBuilder expectedWkt = new StringBuilder("MULTIPOINT (");
+
+        for (int i = 0; i < targetCount; i++) {
+            String lat = String.format("%+03d.%07d", i % 90, i);
+            String lon = String.format("%+04d.%06d", -(i % 180), i);
+            locations.add(lat + lon);
+            expectedWkt.append(lat)
+                    .append(" ")
+                    .append(lon)
+                    .append(",");
+        }
+        expectedWkt.setCharAt(expectedWkt.length() - 1, ')');
+
+        Metacard metacard = metacardFactory.createMetacard("102");
+        IndexedMtirpbAttribute.INDEXED_TARGET_LOCATION_ATTRIBUTE.getAttributeDescriptors()
+                .forEach(descriptor -> metacard.setAttribute(new AttributeImpl(descriptor.getName(),
+                        locations)));
+
+        NitfSegmentsFlow nitfSegmentsFlow = mock(NitfSegmentsFlow.class);
+        when(nitfSegmentsFlow.fileHeader(any())).thenReturn(nitfSegmentsFlow);
+
+        long start = System.nanoTime();
+        nitfGmtiTransformer.transform(nitfSegmentsFlow, metacard);
+        LOGGER.debug("Transformed {} target locations in {} ms",
+                targetCount,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+        String expected = new WKTReader(new GeometryFactory()).read(expectedWkt.toString())
+                .toText();
+        IndexedMtirpbAttribute.INDEXED_TARGET_LOCATION_ATTRIBUTE.getAttributeDescriptors()
+                .forEach(descriptor -> assertThat(metacard.getAttribute(descriptor.getName())
+                        .getValue(), is(expected)));
+    }
+
+    @Test
+    public void testInvalidTargetLocationIsNotSet() throws Exception {
+        Metacard metacard = metacardFactory.createMetacard("103");
+        List<Serializable> locations = new ArrayList<>();
+        locations.add("+52.1234567-004.1234567");
+        locations.add("not a location");
+        IndexedMtirpbAttribute.INDEXED_TARGET_LOCATION_ATTRIBUTE.getAttributeDescriptors()
+                .forEach(descriptor -> metacard.setAttribute(new AttributeImpl(descriptor.getName(),
+                        locations)));
+
+        NitfSegmentsFlow nitfSegmentsFlow = mock(NitfSegmentsFlow.class);
+        when(nitfSegmentsFlow.fileHeader(any())).thenReturn(nitfSegmentsFlow);
+
+        nitfGmtiTransformer.transform(nitfSegmentsFlow, metacard);
+
+        IndexedMtirpbAttribute.INDEXED_TARGET_LOCATION_ATTRIBUTE.getAttributeDescriptors()
+                .forEach(descriptor -> assertThat(metacard.getAttribute(descriptor.getName())
+                        .getValues(), is(locations)));
+    }
+
     private void validateDate(Date date, String expectedDate) {
         assertNotNull(date);
         SimpleDateFormat formatter = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
@@ -23,14 +23,21 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import org.codice.alliance.transformer.nitf.MetacardFactory;
+import org.codice.alliance.transformer.nitf.benchmark.SyntheticNitfCorpus;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.mockito.ArgumentCaptor;
 
 import ddf.catalog.content.data.ContentItem;
@@ -48,6 +55,9 @@ public class PreStoragePluginTest {
 
     private static final String GEO_NITF = "/i_3001a.ntf";
 
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     private NitfPreStoragePlugin nitfPreStoragePlugin = null;
 
     private CreateStorageRequest createStorageRequest = null;
@@ -121,6 +131,83 @@ public class PreStoragePluginTest {
         }
     }
 
+    @Test
+    public void testSegmentDerivatives() throws Exception {
+        File multiSegmentNitf = temporaryFolder.newFile("multi-segment.ntf");
+        new SyntheticNitfCorpus(temporaryFolder.getRoot(), 1L).writeNitf(multiSegmentNitf,
+                64,
+                3,
+                false,
+                false);
+
+        try (InputStream inputStream = new FileInputStream(multiSegmentNitf)) {
+            when(contentItem.getInputStream()).thenReturn(inputStream);
+            nitfPreStoragePlugin.setCreateSegmentDerivatives(true);
+            nitfPreStoragePlugin.setMaxRenderThreads(2);
+            nitfPreStoragePlugin.process(createStorageRequest);
+        } finally {
+            nitfPreStoragePlugin.destroy();
+        }
+
+        List<String> qualifiers = createStorageRequest.getContentItems()
+                .stream()
+                .skip(1)
+                .map(ContentItem::getQualifier)
+                .collect(Collectors.toList());
+
+        assertThat(qualifiers,
+                is(Arrays.asList("overview",
+                        "original",
+                        "overview-2",
+                        "original-2",
+                        "overview-3",
+                        "original-3")));
+        verify(metacard, times(7)).setAttribute(attributeArgumentCaptor.capture());
+    }
+
+    @Test
+    public void testSegmentDerivativesRenderedAfterPoolShutdown() throws Exception {
+        File multiSegmentNitf = temporaryFolder.newFile("multi-segment.ntf");
+        new SyntheticNitfCorpus(temporaryFolder.getRoot(), 1L).writeNitf(multiSegmentNitf,
+                64,
+                2,
+                false,
+                false);
+
+        nitfPreStoragePlugin.setCreateSegmentDerivatives(true);
+        nitfPreStoragePlugin.setMaxRenderThreads(1);
+        nitfPreStoragePlugin.setMaxRenderThreads(3);
+        nitfPreStoragePlugin.destroy();
+
+        try (InputStream inputStream = new FileInputStream(multiSegmentNitf)) {
+            when(contentItem.getInputStream()).thenReturn(inputStream);
+            nitfPreStoragePlugin.process(createStorageRequest);
+        }
+
+        assertThat(createStorageRequest.getContentItems()
+                .size(), is(5));
+        verify(metacard, times(5)).setAttribute(attributeArgumentCaptor.capture());
+    }
+
+    @Test
+    public void testSegmentDerivativesDisabled() throws Exception {
+        File multiSegmentNitf = temporaryFolder.newFile("multi-segment.ntf");
+        new SyntheticNitfCorpus(temporaryFolder.getRoot(), 1L).writeNitf(multiSegmentNitf,
+                64,
+                3,
+                false,
+                false);
+
+        try (InputStream inputStream = new FileInputStream(multiSegmentNitf)) {
+            when(contentItem.getInputStream()).thenReturn(inputStream);
+            nitfPreStoragePlugin.process(createStorageRequest);
+        }
+
+        assertThat(createStorageRequest.getContentItems()
+                .size(), is(3));
+        validate();
+    }
+
     private void validate() {
         verify(contentItem, times(2)).getId();
         verify(metacard, times(3)).setAttribute(attributeArgumentCaptor.capture());
@@ -73,6 +73,8 @@ public class BqsConverter {
 
     private boolean removeSourceLibrary;
 
+    private BqsQueryCache queryCache;
+
     private static final Logger LOGGER = LoggerFactory.getLogger(BqsConverter.class);
 
     public BqsConverter(FilterBuilder filterBuilder, boolean removeSourceLibrary) {
@@ -84,12 +86,29 @@ public class BqsConverter {
         this.filterBuilder = filterBuilder;
     }
 
+    /**
+     * Creates a converter that reuses previously converted queries from a cache shared between
+     * converters.
+     */
+    public BqsConverter(FilterBuilder filterBuilder, boolean removeSourceLibrary,
+            BqsQueryCache queryCache) {
+        this(filterBuilder, removeSourceLibrary);
+        this.queryCache = queryCache;
+    }
+
     public Filter convertBQSToDDF(Query query) {
         String bqsQuery = query.bqs_query;
         return convertBQSToDDF(bqsQuery);
     }
 
     public Filter convertBQSToDDF(String query) {
+        if (queryCache != null) {
+            return queryCache.getFilter(query, removeSourceLibrary, () -> parseBQS(query));
+        }
+        return parseBQS(query);
+    }
+
+    private Filter parseBQS(String query) {
         query = query.trim();
 
         LOGGER.debug("Original Query: {}", query);
@@ -0,0 +1,169 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.nsili.common;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.opengis.filter.Filter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bounded, least recently used cache of BQS queries that have already been parsed and translated
+ * to filters. Queries are keyed by their normalized text and whether the source library portion
+ * of the query is removed, so the same text converted with different settings is cached
+ * separately.
+ */
+public class BqsQueryCache {
+
+    public static final int DEFAULT_MAX_ENTRIES = 500;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BqsQueryCache.class);
+
+    private final AtomicLong hitCount = new AtomicLong();
+
+    private final AtomicLong missCount = new AtomicLong();
+
+    private final Map<String, Filter> filters;
+
+    private volatile int maxEntries;
+
+    public BqsQueryCache() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    public BqsQueryCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.filters = new LinkedHashMap<String, Filter>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Filter> eldest) {
+                return size() > BqsQueryCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Sets the maximum number of cached queries. A value less than 1 disables caching.
+     */
+    public void setMaxEntries(int maxEntries) {
+        this.maxEntries = maxEntries;
+        if (maxEntries < 1) {
+            clear();
+        }
+    }
+
+    /**
+     * Returns the cached filter for a query, converting and caching it if it has not been seen.
+     *
+     * @param bqsQuery            - the BQS query text
+     * @param removeSourceLibrary - whether the converter removes the source library portion
+     * @param converter           - converts the query when it is not cached
+     * @return the filter for the query
+     */
+    public Filter getFilter(String bqsQuery, boolean removeSourceLibrary,
+            Supplier<Filter> converter) {
+        if (maxEntries < 1) {
+            return converter.get();
+        }
+
+        String key = getKey(bqsQuery, removeSourceLibrary);
+        Filter filter;
+        synchronized (filters) {
+            filter = filters.get(key);
+        }
+
+        if (filter != null) {
+            hitCount.incrementAndGet();
+            return filter;
+        }
+
+        missCount.incrementAndGet();
+        filter = converter.get();
+        if (filter != null) {
+            synchronized (filters) {
+                filters.put(key, filter);
+            }
+        }
+
+        LOGGER.debug("BQS query cache miss, {} queries cached, hit rate: {}",
+                size(),
+                getHitRate());
+        return filter;
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * @return the fraction of lookups that were answered from the cache, or 0 if there have been
+     * no lookups
+     */
+    public double getHitRate() {
+        long hits = hitCount.get();
+        long total = hits + missCount.get();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    public int size() {
+        synchronized (filters) {
+            return filters.size();
+        }
+    }
+
+    public void clear() {
+        synchronized (filters) {
+            filters.clear();
+        }
+    }
+
+    static String getKey(String bqsQuery, boolean removeSourceLibrary) {
+        return removeSourceLibrary + "|" + normalize(bqsQuery);
+    }
+
+    /**
+     * Trims the query and collapses runs of whitespace outside of quoted literals, which does not
+     * change how the query is parsed.
+     */
+    static String normalize(String bqsQuery) {
+        String trimmed = bqsQuery.trim();
+        StringBuilder normalized = new StringBuilder(trimmed.length());
+        boolean inQuote = false;
+        boolean lastWasSpace = false;
+        for (int i = 0; i < trimmed.length(); i++) {
+            char c = trimmed.charAt(i);
+            if (c == '\'') {
+                inQuote = !inQuote;
+            }
+
+            if (!inQuote && Character.isWhitespace(c)) {
+                if (!lastWasSpace) {
+                    normalized.append(' ');
+                }
+                lastWasSpace = true;
+            } else {
+                normalized.append(c);
+                lastWasSpace = false;
+            }
+        }
+        return normalized.toString();
+    }
+}
@@ -14,6 +14,7 @@
 package org.codice.alliance.nsili.common.datamodel;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -32,8 +33,19 @@ import org.codice.alliance.nsili.common.UCO.EntityRelationship;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * The NSILI data model: the entities, views, attributes, aliases and associations a library
+ * exposes to clients.
+ * <p>
+ * The model is fixed, so {@link #getInstance()} builds it once and shares it. Everything returned
+ * by the model is precomputed when it is built and is unmodifiable, so lookups by view or entity
+ * do not build new lists. The attribute arrays returned for CORBA calls are copies of prebuilt
+ * arrays.
+ */
 public class NsiliDataModel {
 
+    private static final AttributeInformation[] NO_ATTRIBUTES = new AttributeInformation[0];
+
     private static final Logger LOGGER = LoggerFactory.getLogger(NsiliDataModel.class);
 
     private EntityNode productNode = new EntityNode(0, NsiliConstants.NSIL_PRODUCT);
@@ -307,11 +319,35 @@ public class NsiliDataModel {
 
     private Map<String, Map<String, List<String>>> requiredAttrMap = new HashMap<>();
 
+    private Map<String, List<AttributeInformation>> entityAttributeMap = new HashMap<>();
+
+    private Map<String, List<AttributeInformation>> viewAttributeMap = new HashMap<>();
+
+    private Map<String, AttributeInformation[]> entityAttributeArrays = new HashMap<>();
+
+    private Map<String, AttributeInformation[]> viewAttributeArrays = new HashMap<>();
+
+    private List<String> aliasCategories;
+
+    /**
+     * Creates a separate copy of the data model. Use {@link #getInstance()} to share the one
+     * built for the library instead.
+     */
     public NsiliDataModel() {
         init();
     }
 
+    /**
+     * @return the data model shared by everything in the library, which is built the first time
+     * it is requested
+     */
+    public static NsiliDataModel getInstance() {
+        return InstanceHolder.INSTANCE;
+    }
+
     private void init() {
+        initEntityAttributes();
+
         initAllViewGraph();
         initImageryViewGraph();
         initGmtiViewGraph();
@@ -325,9 +361,69 @@ public class NsiliDataModel {
 
         initAliasCategoryMap();
         initAssociations();
+
+        initViewAttributes();
+        makeUnmodifiable();
+    }
+
+    private void initEntityAttributes() {
+        for (EntityNode node : getAllEntityNodes()) {
+            List<AttributeInformation> attributes = createAttributeInformation(node.entity_name);
+            entityAttributeMap.put(node.entity_name, Collections.unmodifiableList(attributes));
+            entityAttributeArrays.put(node.entity_name,
+                    attributes.toArray(new AttributeInformation[attributes.size()]));
+        }
+    }
+
+    private void initViewAttributes() {
+        for (Map.Entry<String, EntityGraph> view : viewGraphMap.entrySet()) {
+            List<AttributeInformation> attributes = new ArrayList<>();
+            for (EntityNode node : view.getValue().nodes) {
+                attributes.addAll(getAttributeInformation(node.entity_name));
+            }
+            viewAttributeMap.put(view.getKey(), Collections.unmodifiableList(attributes));
+            viewAttributeArrays.put(view.getKey(),
+                    attributes.toArray(new AttributeInformation[attributes.size()]));
+        }
     }
 
+    private void makeUnmodifiable() {
+        aliasCategoryMap.replaceAll((category, aliases) -> Collections.unmodifiableList(aliases));
+        aliasCategories = Collections.unmodifiableList(new ArrayList<>(aliasCategoryMap.keySet()));
+        conceptualAttrMap.replaceAll((view, attrs) -> Collections.unmodifiableList(attrs));
+        requiredAttrMap.replaceAll((view, attrMap) -> {
+            attrMap.replaceAll((entity, attrs) -> Collections.unmodifiableList(attrs));
+            return Collections.unmodifiableMap(attrMap);
+        });
+
+        viewGraphMap = Collections.unmodifiableMap(viewGraphMap);
+        aliasCategoryMap = Collections.unmodifiableMap(aliasCategoryMap);
+        conceptualAttrMap = Collections.unmodifiableMap(conceptualAttrMap);
+        associations = Collections.unmodifiableList(associations);
+        requiredAttrMap = Collections.unmodifiableMap(requiredAttrMap);
+        entityAttributeMap = Collections.unmodifiableMap(entityAttributeMap);
+        viewAttributeMap = Collections.unmodifiableMap(viewAttributeMap);
+        entityAttributeArrays = Collections.unmodifiableMap(entityAttributeArrays);
+        viewAttributeArrays = Collections.unmodifiableMap(viewAttributeArrays);
+    }
+
+    /**
+     * @return the attributes of an entity, or an empty list if the entity is not in the model
+     */
     public List<AttributeInformation> getAttributeInformation(String entityName) {
+        return entityAttributeMap.getOrDefault(entityName, Collections.emptyList());
+    }
+
+    /**
+     * @return a copy of the attributes of an entity, or an empty array if the entity is not in
+     * the model
+     */
+    public AttributeInformation[] getAttributeInformationArray(String entityName) {
+        return entityAttributeArrays.getOrDefault(entityName, NO_ATTRIBUTES)
+                .clone();
+    }
+
+    private static List<AttributeInformation> createAttributeInformation(String entityName) {
         List<AttributeInformation> attributes = new ArrayList<>();
 
         switch (entityName) {
@@ -428,14 +524,17 @@ public class NsiliDataModel {
         return attributes;
     }
 
-    private void initAllViewGraph() {
-        EntityNode viewNodes[] =
-                new EntityNode[] {productNode, cardNode, commonNode, coverageNode, fileNode,
+    private EntityNode[] getAllEntityNodes() {
+        return new EntityNode[] {productNode, cardNode, commonNode, coverageNode, fileNode,
                         gmtiNode, imageryNode, messageNode, metadataSecurityNode, partNode,
                         relatedFileNode, relationNode, securityNode, streamNode, videoNode,
                         approvalNode, exploitationNode, sdsNode, tdlNode, rfiNode, cxpNode,
                         reportNode, taskNode, sourceNode, destinationNode, associationNode,
                         cbrnNode, intrepNode, intsumNode, entityNode};
+    }
+
+    private void initAllViewGraph() {
+        EntityNode viewNodes[] = getAllEntityNodes();
 
         EntityRelationship viewRelationships[] =
                 new EntityRelationship[] {productAssociationRln, productApprovalRln, productCardRln,
@@ -960,8 +1059,8 @@ public class NsiliDataModel {
 
     private void initAssociations() {
         List<AttributeInformation> associationAttrs = new ArrayList<>();
-        associationAttrs.addAll(NsiliAttributesGenerator.getNsilCardAttributes());
-        associationAttrs.addAll(NsiliAttributesGenerator.getNsilRelationAttributes());
+        associationAttrs.addAll(getAttributeInformation(NsiliConstants.NSIL_CARD));
+        associationAttrs.addAll(getAttributeInformation(NsiliConstants.NSIL_RELATION));
         AttributeInformation[] associationAttrArray =
                 associationAttrs.toArray(new AttributeInformation[0]);
 
@@ -1023,26 +1122,29 @@ public class NsiliDataModel {
         return entityGraph;
     }
 
+    /**
+     * @return the attributes of every entity in a view, or an empty list if the view is not in
+     * the model
+     */
     public List<AttributeInformation> getAttributesForView(String viewName) {
-        List<AttributeInformation> attributeInformation = new ArrayList<>();
-
-        EntityGraph graph = getEntityGraph(viewName);
-        for (EntityNode node : graph.nodes) {
-            List<AttributeInformation> nodeAttrs = getAttributeInformation(node.entity_name);
-            if (nodeAttrs != null) {
-                attributeInformation.addAll(nodeAttrs);
-            }
-        }
+        return viewAttributeMap.getOrDefault(viewName, Collections.emptyList());
+    }
 
-        return attributeInformation;
+    /**
+     * @return a copy of the attributes of every entity in a view, or an empty array if the view
+     * is not in the model
+     */
+    public AttributeInformation[] getAttributesArrayForView(String viewName) {
+        return viewAttributeArrays.getOrDefault(viewName, NO_ATTRIBUTES)
+                .clone();
     }
 
     public List<String> getAliasCategories() {
-        return new ArrayList<>(aliasCategoryMap.keySet());
+        return aliasCategories;
     }
 
     public List<Pair<String, String>> getAliasesForCategory(String categoryName) {
-        return new ArrayList<>(aliasCategoryMap.get(categoryName));
+        return aliasCategoryMap.get(categoryName);
     }
 
     public List<Pair<ConceptualAttributeType, String>> getConceptualAttrsForView(String viewName) {
@@ -1084,4 +1186,8 @@ public class NsiliDataModel {
         requiredAttrMap.put(viewName, attrMap);
     }
 
+    private static class InstanceHolder {
+
+        private static final NsiliDataModel INSTANCE = new NsiliDataModel();
+    }
 }
@@ -0,0 +1,223 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.nsili.common.orb;
+
+import java.util.Properties;
+
+import org.omg.CORBA.ORB;
+import org.omg.CORBA.SystemException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Hosts a server ORB configured through its own set of ORB properties rather than JVM-wide system
+ * properties, so that ORBs created by other bundles neither see nor change its settings.
+ * <p>
+ * Requests are dispatched by the ORB's worker threads; the thread running {@link ORB#run()} only
+ * waits for the ORB to shut down. The ORB provided with the JDK does not allow its worker pool to
+ * be sized through ORB properties, so the number of requests dispatched at the same time is bounded
+ * by a server request interceptor instead. Requests beyond that bound wait for the request wait
+ * timeout and are then rejected with {@link org.omg.CORBA.TRANSIENT}, which clients may retry.
+ */
+public class CorbaOrbHost {
+
+    public static final String ORB_PERSISTENT_SERVER_PORT_PROPERTY =
+            "com.sun.CORBA.POA.ORBPersistentServerPort";
+
+    public static final String ORB_SERVER_PORT_PROPERTY = "com.sun.CORBA.ORBServerPort";
+
+    public static final String ORB_TCP_READ_TIMEOUTS_PROPERTY =
+            "com.sun.CORBA.transport.ORBTCPReadTimeouts";
+
+    public static final String ORB_HIGH_WATER_MARK_PROPERTY =
+            "com.sun.CORBA.connection.ORBHighWaterMark";
+
+    public static final String ORB_INITIALIZER_CLASS_PREFIX =
+            "org.omg.PortableInterceptor.ORBInitializerClass.";
+
+    public static final int DEFAULT_READ_TIMEOUT_SEC = 60;
+
+    /**
+     * Same as the connection cache high water mark of the ORB provided with the JDK.
+     */
+    public static final int DEFAULT_MAX_CONNECTIONS = 240;
+
+    public static final int DEFAULT_MAX_CONCURRENT_REQUESTS = 0;
+
+    public static final int DEFAULT_REQUEST_WAIT_TIMEOUT_SEC = 30;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CorbaOrbHost.class);
+
+    private static final long RUN_THREAD_JOIN_TIMEOUT_MSEC = 5000;
+
+    private int port;
+
+    private int readTimeoutSec = DEFAULT_READ_TIMEOUT_SEC;
+
+    private int maxConnections = DEFAULT_MAX_CONNECTIONS;
+
+    private int maxConcurrentRequests = DEFAULT_MAX_CONCURRENT_REQUESTS;
+
+    private int requestWaitTimeoutSec = DEFAULT_REQUEST_WAIT_TIMEOUT_SEC;
+
+    private ORB orb = null;
+
+    private Thread orbRunThread = null;
+
+    private RequestDispatchLimiter dispatchLimiter = null;
+
+    public int getPort() {
+        return port;
+    }
+
+    public void setPort(int port) {
+        this.port = port;
+    }
+
+    /**
+     * Sets the timeout for reads from CORBA connections. Takes effect when the ORB is next started.
+     */
+    public void setReadTimeoutSec(int readTimeoutSec) {
+        this.readTimeoutSec = readTimeoutSec;
+    }
+
+    /**
+     * Sets the number of open connections above which the ORB closes idle connections. A value less
+     * than 1 uses the ORB's default. Takes effect when the ORB is next started.
+     */
+    public void setMaxConnections(int maxConnections) {
+        this.maxConnections = maxConnections;
+    }
+
+    /**
+     * Sets the maximum number of requests dispatched at the same time. A value less than 1 does not
+     * limit dispatch. Takes effect when the ORB is next started.
+     */
+    public void setMaxConcurrentRequests(int maxConcurrentRequests) {
+        this.maxConcurrentRequests = maxConcurrentRequests;
+    }
+
+    /**
+     * Sets how long a request waits to be dispatched when the maximum number of requests are
+     * already being dispatched. Takes effect when the ORB is next started.
+     */
+    public void setRequestWaitTimeoutSec(int requestWaitTimeoutSec) {
+        this.requestWaitTimeoutSec = requestWaitTimeoutSec;
+    }
+
+    public synchronized ORB getOrb() {
+        return orb;
+    }
+
+    /**
+     * @return the number of requests currently being dispatched, or -1 if dispatch is not limited
+     */
+    public synchronized int getActiveRequestCount() {
+        if (dispatchLimiter == null) {
+            return -1;
+        }
+        return dispatchLimiter.getActiveRequestCount();
+    }
+
+    /**
+     * Stops the ORB if it is running and starts a new one with the current settings.
+     *
+     * @return the started ORB
+     */
+    public synchronized ORB start() {
+        stop();
+
+        RequestDispatchLimiter limiter = null;
+        if (maxConcurrentRequests > 0) {
+            limiter = new RequestDispatchLimiter(maxConcurrentRequests,
+                    Math.max(0, requestWaitTimeoutSec) * 1000L);
+        }
+
+        // The ORB loads interceptor initializers through the context class loader
+        Thread currentThread = Thread.currentThread();
+        ClassLoader contextClassLoader = currentThread.getContextClassLoader();
+        currentThread.setContextClassLoader(CorbaOrbHost.class.getClassLoader());
+        RequestDispatchLimiterInitializer.setPendingLimiter(limiter);
+        try {
+            orb = ORB.init(new String[0], getOrbProperties());
+        } finally {
+            RequestDispatchLimiterInitializer.setPendingLimiter(null);
+            currentThread.setContextClassLoader(contextClassLoader);
+        }
+        dispatchLimiter = limiter;
+
+        LOGGER.debug("Initialized CORBA orb on port: {}", port);
+
+        ORB runningOrb = orb;
+        orbRunThread = new Thread(() -> run(runningOrb), "nsili-orb-" + port);
+        orbRunThread.start();
+        return orb;
+    }
+
+    public synchronized void stop() {
+        if (orb != null) {
+            LOGGER.debug("Stopping ORB on port: {}", port);
+            orb.shutdown(true);
+            joinOrbRunThread();
+            orb.destroy();
+        }
+
+        orbRunThread = null;
+        orb = null;
+        dispatchLimiter = null;
+    }
+
+    /**
+     * @return the ORB properties the ORB is started with
+     */
+    public Properties getOrbProperties() {
+        Properties properties = new Properties();
+        properties.setProperty(ORB_PERSISTENT_SERVER_PORT_PROPERTY, String.valueOf(port));
+        properties.setProperty(ORB_SERVER_PORT_PROPERTY, String.valueOf(port));
+        properties.setProperty(ORB_TCP_READ_TIMEOUTS_PROPERTY, getReadTimeouts());
+
+        if (maxConnections > 0) {
+            properties.setProperty(ORB_HIGH_WATER_MARK_PROPERTY, String.valueOf(maxConnections));
+        }
+
+        if (maxConcurrentRequests > 0) {
+            properties.setProperty(
+                    ORB_INITIALIZER_CLASS_PREFIX + RequestDispatchLimiterInitializer.class.getName(),
+                    "");
+        }
+        return properties;
+    }
+
+    private void run(ORB runningOrb) {
+        try {
+            runningOrb.run();
+        } catch (SystemException e) {
+            LOGGER.debug("ORB on port {} was stopped before it started running", port, e);
+        }
+    }
+
+    private void joinOrbRunThread() {
+        try {
+            orbRunThread.join(RUN_THREAD_JOIN_TIMEOUT_MSEC);
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                    .interrupt();
+        }
+    }
+
+    private String getReadTimeouts() {
+        long waitTimeMillis = readTimeoutSec * 1000L;
+        return "1:" + waitTimeMillis + ":" + waitTimeMillis + ":" + 1;
+    }
+}
@@ -0,0 +1,103 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.nsili.common.orb;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.omg.CORBA.CompletionStatus;
+import org.omg.CORBA.LocalObject;
+import org.omg.CORBA.TRANSIENT;
+import org.omg.PortableInterceptor.ForwardRequest;
+import org.omg.PortableInterceptor.ServerRequestInfo;
+import org.omg.PortableInterceptor.ServerRequestInterceptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Limits the number of requests an ORB dispatches at the same time. A permit is taken before a
+ * request is dispatched and returned once its reply, exception or forward has been sent.
+ */
+class RequestDispatchLimiter extends LocalObject implements ServerRequestInterceptor {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RequestDispatchLimiter.class);
+
+    private final int maxConcurrentRequests;
+
+    private final long waitTimeoutMillis;
+
+    private final Semaphore permits;
+
+    RequestDispatchLimiter(int maxConcurrentRequests, long waitTimeoutMillis) {
+        this.maxConcurrentRequests = maxConcurrentRequests;
+        this.waitTimeoutMillis = waitTimeoutMillis;
+        this.permits = new Semaphore(maxConcurrentRequests, true);
+    }
+
+    int getActiveRequestCount() {
+        return maxConcurrentRequests - permits.availablePermits();
+    }
+
+    @Override
+    public void receive_request_service_contexts(ServerRequestInfo ri) throws ForwardRequest {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(waitTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                    .interrupt();
+            acquired = false;
+        }
+
+        if (!acquired) {
+            LOGGER.debug("Rejecting {} request, {} requests are already being dispatched",
+                    ri.operation(),
+                    maxConcurrentRequests);
+            throw new TRANSIENT("Too many concurrent requests", 0, CompletionStatus.COMPLETED_NO);
+        }
+    }
+
+    @Override
+    public void receive_request(ServerRequestInfo ri) throws ForwardRequest {
+        // Dispatch is limited when the request is received
+    }
+
+    // An ending point is only called when receive_request_service_contexts did not throw, so
+    // each of these returns the permit it took.
+
+    @Override
+    public void send_reply(ServerRequestInfo ri) {
+        permits.release();
+    }
+
+    @Override
+    public void send_exception(ServerRequestInfo ri) throws ForwardRequest {
+        permits.release();
+    }
+
+    @Override
+    public void send_other(ServerRequestInfo ri) throws ForwardRequest {
+        permits.release();
+    }
+
+    @Override
+    public String name() {
+        return RequestDispatchLimiter.class.getName();
+    }
+
+    @Override
+    public void destroy() {
+        // Nothing to clean up
+    }
+}
@@ -0,0 +1,61 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.nsili.common.orb;
+
+import org.omg.CORBA.LocalObject;
+import org.omg.PortableInterceptor.ORBInitInfo;
+import org.omg.PortableInterceptor.ORBInitInfoPackage.DuplicateName;
+import org.omg.PortableInterceptor.ORBInitializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Registers a {@link RequestDispatchLimiter} with an ORB as it is initialized. The ORB creates
+ * initializers by class name, so the limiter for the ORB is handed over through the thread that
+ * initializes it.
+ */
+public class RequestDispatchLimiterInitializer extends LocalObject implements ORBInitializer {
+
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(RequestDispatchLimiterInitializer.class);
+
+    private static final ThreadLocal<RequestDispatchLimiter> PENDING_LIMITER = new ThreadLocal<>();
+
+    static void setPendingLimiter(RequestDispatchLimiter limiter) {
+        if (limiter == null) {
+            PENDING_LIMITER.remove();
+        } else {
+            PENDING_LIMITER.set(limiter);
+        }
+    }
+
+    @Override
+    public void pre_init(ORBInitInfo info) {
+        RequestDispatchLimiter limiter = PENDING_LIMITER.get();
+        if (limiter == null) {
+            return;
+        }
+
+        try {
+            info.add_server_request_interceptor(limiter);
+        } catch (DuplicateName e) {
+            LOGGER.debug("Request dispatch limiter is already registered", e);
+        }
+    }
+
+    @Override
+    public void post_init(ORBInitInfo info) {
+        // Nothing to do after the ORB is initialized
+    }
+}
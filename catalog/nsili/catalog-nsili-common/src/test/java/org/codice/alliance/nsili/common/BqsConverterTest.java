@@ -17,6 +17,7 @@ import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.hamcrest.MatcherAssert.assertThat;
 
 import org.junit.Test;
@@ -349,6 +350,22 @@ public class BqsConverterTest {
                 containsString("anyText = *"));
     }
 
+    @Test
+    public void testCachedQuery() {
+        BqsQueryCache queryCache = new BqsQueryCache();
+        BqsConverter bqsConverter = new BqsConverter(new GeotoolsFilterBuilder(),
+                true,
+                queryCache);
+        Filter filter = bqsConverter.convertBQSToDDF(BASIC_BQS_OR_QUERY);
+        Filter cachedFilter = new BqsConverter(new GeotoolsFilterBuilder(),
+                true,
+                queryCache).convertBQSToDDF(BASIC_BQS_OR_QUERY);
+
+        assertThat(cachedFilter, sameInstance(filter));
+        assertThat(cachedFilter.toString(), is("[ id is like TEST_LAB_DDF_$_X ]"));
+        assertThat(queryCache.getHitCount(), is(1L));
+    }
+
     @Test (expected = IllegalArgumentException.class)
     public void testNoFilterBuilder() {
         new BqsConverter(null, false);
@@ -0,0 +1,119 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.nsili.common;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.Test;
+import org.opengis.filter.Filter;
+
+public class BqsQueryCacheTest {
+
+    private static final String QUERY = "NSIL_CARD.identifier like 'a  b'";
+
+    private AtomicInteger conversions = new AtomicInteger();
+
+    private Supplier<Filter> converter = () -> {
+        conversions.incrementAndGet();
+        return mock(Filter.class);
+    };
+
+    @Test
+    public void testRepeatedQueryIsNotReconverted() {
+        BqsQueryCache cache = new BqsQueryCache();
+
+        Filter first = cache.getFilter(QUERY, true, converter);
+        Filter second = cache.getFilter(QUERY, true, converter);
+
+        assertThat(second, sameInstance(first));
+        assertThat(conversions.get(), is(1));
+        assertThat(cache.getHitCount(), is(1L));
+        assertThat(cache.getMissCount(), is(1L));
+        assertThat(cache.getHitRate(), is(0.5));
+    }
+
+    @Test
+    public void testWhitespaceOutsideLiteralsIsNormalized() {
+        BqsQueryCache cache = new BqsQueryCache();
+
+        Filter first = cache.getFilter(QUERY, true, converter);
+        Filter second = cache.getFilter("  NSIL_CARD.identifier   like\t'a  b' ", true, converter);
+
+        assertThat(second, sameInstance(first));
+        assertThat(conversions.get(), is(1));
+    }
+
+    @Test
+    public void testWhitespaceInsideLiteralsIsPreserved() {
+        BqsQueryCache cache = new BqsQueryCache();
+
+        Filter first = cache.getFilter(QUERY, true, converter);
+        Filter second = cache.getFilter("NSIL_CARD.identifier like 'a b'", true, converter);
+
+        assertThat(second, not(sameInstance(first)));
+        assertThat(conversions.get(), is(2));
+    }
+
+    @Test
+    public void testSourceLibraryModeIsPartOfKey() {
+        BqsQueryCache cache = new BqsQueryCache();
+
+        Filter removed = cache.getFilter(QUERY, true, converter);
+        Filter kept = cache.getFilter(QUERY, false, converter);
+
+        assertThat(kept, not(sameInstance(removed)));
+        assertThat(cache.size(), is(2));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedQueryIsEvicted() {
+        BqsQueryCache cache = new BqsQueryCache(2);
+
+        cache.getFilter("a", true, converter);
+        cache.getFilter("b", true, converter);
+        cache.getFilter("a", true, converter);
+        cache.getFilter("c", true, converter);
+        assertThat(cache.size(), is(2));
+
+        cache.getFilter("a", true, converter);
+        assertThat(conversions.get(), is(3));
+        cache.getFilter("b", true, converter);
+        assertThat(conversions.get(), is(4));
+    }
+
+    @Test
+    public void testDisabledCache() {
+        BqsQueryCache cache = new BqsQueryCache();
+        cache.getFilter(QUERY, true, converter);
+
+        cache.setMaxEntries(0);
+        cache.getFilter(QUERY, true, converter);
+        cache.getFilter(QUERY, true, converter);
+
+        assertThat(conversions.get(), is(3));
+        assertThat(cache.size(), is(0));
+    }
+
+    @Test
+    public void testHitRateWithNoLookups() {
+        assertThat(new BqsQueryCache().getHitRate(), is(0.0));
+    }
+}
@@ -16,7 +16,9 @@ package org.codice.alliance.nsili.common;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.sameInstance;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
@@ -133,4 +135,59 @@ public class NsiliDataModelTest {
         assertThat(advancedGeoSpatialExists, is(true));
         assertThat(numEntityNodeAttrs, is(3));
     }
+
+    @Test
+    public void testSharedInstance() {
+        assertThat(NsiliDataModel.getInstance(), sameInstance(NsiliDataModel.getInstance()));
+    }
+
+    @Test
+    public void testAttributesAreUnchangedBetweenCalls() {
+        List<AttributeInformation> attributes = nsiliDataModel.getAttributesForView(
+                NsiliConstants.NSIL_IMAGERY_VIEW);
+        assertThat(nsiliDataModel.getAttributesForView(NsiliConstants.NSIL_IMAGERY_VIEW),
+                sameInstance(attributes));
+        assertThat(nsiliDataModel.getAttributeInformation(NsiliConstants.NSIL_CARD),
+                sameInstance(nsiliDataModel.getAttributeInformation(NsiliConstants.NSIL_CARD)));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testViewAttributesAreUnmodifiable() {
+        nsiliDataModel.getAttributesForView(NsiliConstants.NSIL_ALL_VIEW)
+                .clear();
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testMandatoryAttrsAreUnmodifiable() {
+        nsiliDataModel.getRequiredAttrsForView(NsiliConstants.NSIL_ALL_VIEW)
+                .get(NsiliConstants.NSIL_COMMON)
+                .clear();
+    }
+
+    @Test
+    public void testAttributeArrays() {
+        AttributeInformation[] viewAttributes = nsiliDataModel.getAttributesArrayForView(
+                NsiliConstants.NSIL_ALL_VIEW);
+        assertThat(Arrays.asList(viewAttributes),
+                is(nsiliDataModel.getAttributesForView(NsiliConstants.NSIL_ALL_VIEW)));
+
+        viewAttributes[0] = null;
+        assertThat(nsiliDataModel.getAttributesArrayForView(NsiliConstants.NSIL_ALL_VIEW)[0],
+                notNullValue());
+
+        AttributeInformation[] cardAttributes = nsiliDataModel.getAttributeInformationArray(
+                NsiliConstants.NSIL_CARD);
+        assertThat(Arrays.asList(cardAttributes),
+                is(nsiliDataModel.getAttributeInformation(NsiliConstants.NSIL_CARD)));
+    }
+
+    @Test
+    public void testUnknownViewAndEntity() {
+        assertThat(nsiliDataModel.getAttributesForView("UNKNOWN")
+                .isEmpty(), is(true));
+        assertThat(nsiliDataModel.getAttributesArrayForView("UNKNOWN").length, is(0));
+        assertThat(nsiliDataModel.getAttributeInformation("UNKNOWN")
+                .isEmpty(), is(true));
+        assertThat(nsiliDataModel.getAttributeInformationArray("UNKNOWN").length, is(0));
+    }
 }
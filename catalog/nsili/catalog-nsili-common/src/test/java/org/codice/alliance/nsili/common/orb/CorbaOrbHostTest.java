@@ -0,0 +1,231 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.nsili.common.orb;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.omg.CORBA.ORB;
+import org.omg.CORBA.Request;
+import org.omg.CORBA.ServerRequest;
+import org.omg.CORBA.TCKind;
+import org.omg.CORBA.TRANSIENT;
+import org.omg.PortableServer.DynamicImplementation;
+import org.omg.PortableServer.POA;
+import org.omg.PortableServer.POAHelper;
+
+public class CorbaOrbHostTest {
+
+    private static final int CLIENTS = 8;
+
+    private static final long WAIT_TIME = 10;
+
+    private final AtomicInteger activeRequests = new AtomicInteger();
+
+    private final AtomicInteger maxActiveRequests = new AtomicInteger();
+
+    private CorbaOrbHost host;
+
+    private ORB clientOrb;
+
+    private ExecutorService clients;
+
+    private CountDownLatch release;
+
+    @Before
+    public void setUp() {
+        host = new CorbaOrbHost();
+        host.setPort(0);
+        host.setReadTimeoutSec(10);
+        clientOrb = ORB.init(new String[0], null);
+        clients = Executors.newFixedThreadPool(CLIENTS);
+        release = new CountDownLatch(1);
+    }
+
+    @After
+    public void tearDown() {
+        release.countDown();
+        clients.shutdownNow();
+        clientOrb.shutdown(true);
+        clientOrb.destroy();
+        host.stop();
+    }
+
+    @Test
+    public void testOrbPropertiesAreNotSystemProperties() {
+        host.setMaxConnections(50);
+        host.setMaxConcurrentRequests(4);
+
+        Properties properties = host.getOrbProperties();
+        host.start();
+
+        assertThat(properties.getProperty(CorbaOrbHost.ORB_SERVER_PORT_PROPERTY), is("0"));
+        assertThat(properties.getProperty(CorbaOrbHost.ORB_PERSISTENT_SERVER_PORT_PROPERTY),
+                is("0"));
+        assertThat(properties.getProperty(CorbaOrbHost.ORB_TCP_READ_TIMEOUTS_PROPERTY),
+                is("1:10000:10000:1"));
+        assertThat(properties.getProperty(CorbaOrbHost.ORB_HIGH_WATER_MARK_PROPERTY), is("50"));
+        assertThat(System.getProperty(CorbaOrbHost.ORB_SERVER_PORT_PROPERTY), nullValue());
+        assertThat(System.getProperty(CorbaOrbHost.ORB_TCP_READ_TIMEOUTS_PROPERTY), nullValue());
+    }
+
+    @Test
+    public void testRequestsAreDispatchedConcurrently() throws Exception {
+        String ior = startServer();
+
+        List<Future<?>> calls = callConcurrently(ior, CLIENTS);
+        waitForActiveRequests(CLIENTS);
+        release.countDown();
+
+        for (Future<?> call : calls) {
+            assertThat(call.get(WAIT_TIME, TimeUnit.SECONDS), nullValue());
+        }
+        assertThat(maxActiveRequests.get(), is(CLIENTS));
+        assertThat(host.getActiveRequestCount(), is(-1));
+    }
+
+    @Test
+    public void testConcurrentRequestsAreLimited() throws Exception {
+        host.setMaxConcurrentRequests(3);
+        String ior = startServer();
+
+        List<Future<?>> calls = callConcurrently(ior, CLIENTS);
+        waitForActiveRequests(3);
+        Thread.sleep(500);
+        assertThat(activeRequests.get(), is(3));
+        assertThat(host.getActiveRequestCount(), is(3));
+        release.countDown();
+
+        for (Future<?> call : calls) {
+            assertThat(call.get(WAIT_TIME, TimeUnit.SECONDS), nullValue());
+        }
+        assertThat(maxActiveRequests.get(), lessThanOrEqualTo(3));
+        assertThat(host.getActiveRequestCount(), is(0));
+    }
+
+    @Test
+    public void testRequestsThatWaitTooLongAreRejected() throws Exception {
+        host.setMaxConcurrentRequests(1);
+        host.setRequestWaitTimeoutSec(0);
+        String ior = startServer();
+
+        Future<?> first = callConcurrently(ior, 1).get(0);
+        waitForActiveRequests(1);
+        Object second = callConcurrently(ior, 1).get(0)
+                .get(WAIT_TIME, TimeUnit.SECONDS);
+        release.countDown();
+
+        assertThat(first.get(WAIT_TIME, TimeUnit.SECONDS), nullValue());
+        assertThat(second, instanceOf(TRANSIENT.class));
+        assertThat(host.getActiveRequestCount(), is(0));
+    }
+
+    @Test
+    public void testRestart() throws Exception {
+        host.setMaxConcurrentRequests(2);
+        ORB orb = host.start();
+        assertThat(orb, notNullValue());
+
+        host.setMaxConcurrentRequests(0);
+        ORB restarted = host.start();
+        assertThat(restarted, notNullValue());
+        assertThat(restarted == orb, is(false));
+        assertThat(host.getActiveRequestCount(), is(-1));
+    }
+
+    private String startServer() throws Exception {
+        ORB orb = host.start();
+        POA rootPoa = POAHelper.narrow(orb.resolve_initial_references("RootPOA"));
+        rootPoa.the_POAManager()
+                .activate();
+        return orb.object_to_string(rootPoa.servant_to_reference(new WaitingServant(orb)));
+    }
+
+    /**
+     * @return futures that complete with null, or with the exception a call failed with
+     */
+    private List<Future<?>> callConcurrently(String ior, int count) {
+        org.omg.CORBA.Object target = clientOrb.string_to_object(ior);
+        List<Future<?>> calls = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            calls.add(clients.submit(() -> {
+                try {
+                    Request request = target._request("waitForRelease");
+                    request.set_return_type(clientOrb.get_primitive_tc(TCKind.tk_void));
+                    request.invoke();
+                    return request.env()
+                            .exception();
+                } catch (RuntimeException e) {
+                    return e;
+                }
+            }));
+        }
+        return calls;
+    }
+
+    private void waitForActiveRequests(int count) throws InterruptedException {
+        long end = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(WAIT_TIME);
+        while (activeRequests.get() < count && System.currentTimeMillis() < end) {
+            Thread.sleep(10);
+        }
+        assertThat(activeRequests.get(), greaterThan(count - 1));
+    }
+
+    private class WaitingServant extends DynamicImplementation {
+
+        private final ORB orb;
+
+        WaitingServant(ORB orb) {
+            this.orb = orb;
+        }
+
+        @Override
+        public void invoke(ServerRequest request) {
+            request.arguments(orb.create_list(0));
+            int active = activeRequests.incrementAndGet();
+            maxActiveRequests.accumulateAndGet(active, Math::max);
+            try {
+                release.await(WAIT_TIME, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread()
+                        .interrupt();
+            } finally {
+                activeRequests.decrementAndGet();
+            }
+        }
+
+        @Override
+        public String[] _all_interfaces(POA poa, byte[] objectId) {
+            return new String[] {"IDL:codice.org/alliance/nsili/Waiting:1.0"};
+        }
+    }
+}
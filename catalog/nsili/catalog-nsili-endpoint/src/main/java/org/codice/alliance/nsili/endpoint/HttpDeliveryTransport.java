@@ -0,0 +1,107 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.nsili.endpoint;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.StatusLine;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.util.EntityUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sends ordered files to their HTTP destinations over a shared pool of connections, so that
+ * deliveries to the same host reuse connections instead of opening a new one for every file, and
+ * the number of deliveries made to each host at once is limited.
+ */
+public class HttpDeliveryTransport {
+
+    public static final int DEFAULT_MAX_CONNECTIONS = 20;
+
+    public static final int DEFAULT_MAX_CONNECTIONS_PER_HOST = 4;
+
+    /**
+     * Pooled connections are not reused after this long, in case the destination closed them
+     * while they were idle.
+     */
+    private static final long CONNECTION_TIME_TO_LIVE_SEC = 60;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(HttpDeliveryTransport.class);
+
+    private final PoolingHttpClientConnectionManager connectionManager;
+
+    private final CloseableHttpClient httpClient;
+
+    public HttpDeliveryTransport() {
+        this(DEFAULT_MAX_CONNECTIONS, DEFAULT_MAX_CONNECTIONS_PER_HOST);
+    }
+
+    public HttpDeliveryTransport(int maxConnections, int maxConnectionsPerHost) {
+        connectionManager = new PoolingHttpClientConnectionManager(CONNECTION_TIME_TO_LIVE_SEC,
+                TimeUnit.SECONDS);
+        setMaxConnections(maxConnections);
+        setMaxConnectionsPerHost(maxConnectionsPerHost);
+        httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .build();
+    }
+
+    public void setMaxConnections(int maxConnections) {
+        connectionManager.setMaxTotal(Math.max(1, maxConnections));
+    }
+
+    /**
+     * Sets how many files can be delivered to the same host at once. Deliveries beyond this wait
+     * for a connection to the host to be free.
+     */
+    public void setMaxConnectionsPerHost(int maxConnectionsPerHost) {
+        connectionManager.setDefaultMaxPerRoute(Math.max(1, maxConnectionsPerHost));
+    }
+
+    public void shutdown() {
+        try {
+            httpClient.close();
+        } catch (IOException e) {
+            LOGGER.debug("Unable to close delivery connections", e);
+        }
+    }
+
+    /**
+     * Sends a request and reads its response, returning the connection to the pool.
+     *
+     * @param request - the request to send
+     * @param context - the context to send the request in, such as credentials for the host
+     * @throws IOException if the request could not be sent or the destination did not accept it
+     */
+    public void send(HttpUriRequest request, HttpClientContext context) throws IOException {
+        try (CloseableHttpResponse response = httpClient.execute(request, context)) {
+            StatusLine statusLine = response.getStatusLine();
+            EntityUtils.consume(response.getEntity());
+
+            int statusCode = statusLine.getStatusCode();
+            if (statusCode < 200 || statusCode >= 300) {
+                throw new IOException(String.format("Destination %s rejected delivery: %s",
+                        request.getURI(),
+                        statusLine));
+            }
+        }
+    }
+}
@@ -15,18 +15,17 @@ package org.codice.alliance.nsili.endpoint;
 
 import static org.apache.commons.lang3.Validate.notNull;
 
-import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
+import java.util.Date;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.UUID;
 
 import org.codice.alliance.core.email.EmailSender;
-import org.codice.alliance.nsili.common.CorbaUtils;
+import org.codice.alliance.nsili.common.BqsQueryCache;
 import org.codice.alliance.nsili.common.GIAS.AccessCriteria;
 import org.codice.alliance.nsili.common.GIAS.CatalogMgrHelper;
 import org.codice.alliance.nsili.common.GIAS.CreationMgrHelper;
@@ -45,6 +44,7 @@ import org.codice.alliance.nsili.common.UCO.InvalidInputParameter;
 import org.codice.alliance.nsili.common.UCO.ProcessingFault;
 import org.codice.alliance.nsili.common.UCO.SystemFault;
 import org.codice.alliance.nsili.common.UCO.exception_details;
+import org.codice.alliance.nsili.endpoint.managers.AccessManagerImpl;
 import org.codice.alliance.nsili.endpoint.managers.CatalogMgrImpl;
 import org.codice.alliance.nsili.endpoint.managers.CreationMgrImpl;
 import org.codice.alliance.nsili.endpoint.managers.DataModelMgrImpl;
@@ -52,11 +52,9 @@ import org.codice.alliance.nsili.endpoint.managers.EmailConfiguration;
 import org.codice.alliance.nsili.endpoint.managers.OrderMgrImpl;
 import org.codice.alliance.nsili.endpoint.managers.ProductMgrImpl;
 import org.codice.alliance.nsili.endpoint.managers.StandingQueryMgrImpl;
+import org.codice.alliance.nsili.endpoint.requests.StandingQueryScheduler;
 import org.omg.CORBA.NO_IMPLEMENT;
 import org.omg.PortableServer.POA;
-import org.omg.PortableServer.POAPackage.ObjectAlreadyActive;
-import org.omg.PortableServer.POAPackage.ServantAlreadyActive;
-import org.omg.PortableServer.POAPackage.WrongPolicy;
 import org.slf4j.LoggerFactory;
 
 import ddf.catalog.CatalogFramework;
@@ -104,14 +102,36 @@ public class LibraryImpl extends LibraryPOA {
 
     private long maxWaitToStartTimeMsecs;
 
+    private ServantLifecycleManager servantLifecycleManager;
+
+    private ResultDAGConversionPipeline conversionPipeline;
+
+    private BqsQueryCache bqsQueryCache;
+
+    private StandingQueryScheduler standingQueryScheduler;
+
+    private ProductRetrievalPool retrievalPool;
+
+    private OrderExecutionService orderExecutionService;
+
+    private HttpDeliveryTransport deliveryTransport;
+
+    private MetacardCache metacardCache;
+
+    private int productBatchSize = AccessManagerImpl.DEFAULT_PRODUCT_BATCH_SIZE;
+
+    private final LibraryManagerPool managerPool;
+
     private static final org.slf4j.Logger LOGGER = LoggerFactory.getLogger(LibraryImpl.class);
 
     public LibraryImpl(POA poa) {
         this.poa = poa;
+        this.managerPool = new LibraryManagerPool(poa);
     }
 
     public void setCatalogFramework(CatalogFramework catalogFramework) {
         this.catalogFramework = catalogFramework;
+        managerPool.invalidate();
     }
 
     public void setMaxNumResults(int maxNumResults) {
@@ -120,14 +140,17 @@ public class LibraryImpl extends LibraryPOA {
 
     public void setFilterBuilder(FilterBuilder filterBuilder) {
         this.filterBuilder = filterBuilder;
+        managerPool.invalidate();
     }
 
     public void setDefaultUpdateFrequencyMsec(long defaultUpdateFrequencyMsec) {
         this.defaultUpdateFrequencyMsec = defaultUpdateFrequencyMsec;
+        managerPool.invalidate();
     }
 
     public void setMaxPendingResults(int maxPendingResults) {
         this.maxPendingResults = maxPendingResults;
+        managerPool.invalidate();
     }
 
     public void setQuerySources(Set<String> querySources) {
@@ -135,10 +158,12 @@ public class LibraryImpl extends LibraryPOA {
         if (querySources != null) {
             this.querySources.addAll(querySources);
         }
+        managerPool.invalidate();
     }
 
     public void setRemoveSourceLibrary(boolean removeSourceLibrary) {
         this.removeSourceLibrary = removeSourceLibrary;
+        managerPool.invalidate();
     }
 
     public void setLibraryVersion(String libraryVersion) {
@@ -151,10 +176,62 @@ public class LibraryImpl extends LibraryPOA {
 
     public void setOutgoingValidationEnabled(boolean outgoingValidationEnabled) {
         this.outgoingValidationEnabled = outgoingValidationEnabled;
+        managerPool.invalidate();
     }
 
     public void setMaxWaitToStartTimeMsecs(long maxWaitToStartTimeMsecs) {
         this.maxWaitToStartTimeMsecs = maxWaitToStartTimeMsecs;
+        managerPool.invalidate();
+    }
+
+    public void setServantLifecycleManager(ServantLifecycleManager servantLifecycleManager) {
+        this.servantLifecycleManager = servantLifecycleManager;
+        managerPool.setServantLifecycleManager(servantLifecycleManager);
+        managerPool.invalidate();
+    }
+
+    public void setMaxPooledManagers(int maxPooledManagers) {
+        managerPool.setMaxManagers(maxPooledManagers);
+    }
+
+    public void setConversionPipeline(ResultDAGConversionPipeline conversionPipeline) {
+        this.conversionPipeline = conversionPipeline;
+        managerPool.invalidate();
+    }
+
+    public void setBqsQueryCache(BqsQueryCache bqsQueryCache) {
+        this.bqsQueryCache = bqsQueryCache;
+        managerPool.invalidate();
+    }
+
+    public void setStandingQueryScheduler(StandingQueryScheduler standingQueryScheduler) {
+        this.standingQueryScheduler = standingQueryScheduler;
+        managerPool.invalidate();
+    }
+
+    public void setRetrievalPool(ProductRetrievalPool retrievalPool) {
+        this.retrievalPool = retrievalPool;
+        managerPool.invalidate();
+    }
+
+    public void setOrderExecutionService(OrderExecutionService orderExecutionService) {
+        this.orderExecutionService = orderExecutionService;
+        managerPool.invalidate();
+    }
+
+    public void setDeliveryTransport(HttpDeliveryTransport deliveryTransport) {
+        this.deliveryTransport = deliveryTransport;
+        managerPool.invalidate();
+    }
+
+    public void setMetacardCache(MetacardCache metacardCache) {
+        this.metacardCache = metacardCache;
+        managerPool.invalidate();
+    }
+
+    public void setProductBatchSize(int productBatchSize) {
+        this.productBatchSize = productBatchSize;
+        managerPool.invalidate();
     }
 
     @Override
@@ -168,116 +245,33 @@ public class LibraryImpl extends LibraryPOA {
     public LibraryManager get_manager(String manager_type, AccessCriteria access_criteria)
             throws ProcessingFault, InvalidInputParameter, SystemFault {
         org.omg.CORBA.Object obj;
-        String managerId = UUID.randomUUID()
-                .toString();
 
         if (manager_type.equals(NsiliManagerType.CATALOG_MGR.getSpecName())) {
-            CatalogMgrImpl catalogMgr = new CatalogMgrImpl(poa, filterBuilder, querySources);
-            catalogMgr.setCatalogFramework(catalogFramework);
-            catalogMgr.setOutgoingValidationEnabled(outgoingValidationEnabled);
-            catalogMgr.setRemoveSourceLibrary(removeSourceLibrary);
-            if (!CorbaUtils.isIdActive(poa,
-                    managerId.getBytes(Charset.forName(NsiliEndpoint.ENCODING)))) {
-                try {
-                    poa.activate_object_with_id(managerId.getBytes(Charset.forName(NsiliEndpoint.ENCODING)),
-                            catalogMgr);
-                } catch (ServantAlreadyActive | ObjectAlreadyActive | WrongPolicy e) {
-                    LOGGER.info("Error activating CatalogMgr: ", e);
-                }
-            }
-
-            obj =
-                    poa.create_reference_with_id(managerId.getBytes(Charset.forName(NsiliEndpoint.ENCODING)),
-                            CatalogMgrHelper.id());
+            obj = managerPool.createManager(manager_type,
+                    CatalogMgrHelper.id(),
+                    this::createCatalogMgr);
         } else if (manager_type.equals(NsiliManagerType.ORDER_MGR.getSpecName())) {
-            OrderMgrImpl orderMgr = new OrderMgrImpl();
-            orderMgr.setCatalogFramework(catalogFramework);
-            orderMgr.setFilterBuilder(filterBuilder);
-            orderMgr.setEmailConfiguration(emailConfiguration);
-
-            if (!CorbaUtils.isIdActive(poa,
-                    managerId.getBytes(Charset.forName(NsiliEndpoint.ENCODING)))) {
-                try {
-                    poa.activate_object_with_id(managerId.getBytes(Charset.forName(NsiliEndpoint.ENCODING)),
-                            orderMgr);
-                } catch (ServantAlreadyActive | ObjectAlreadyActive | WrongPolicy e) {
-                    LOGGER.info("Error activating OrderMgr: ", e);
-                }
-            }
-
-            obj =
-                    poa.create_reference_with_id(managerId.getBytes(Charset.forName(NsiliEndpoint.ENCODING)),
-                            OrderMgrHelper.id());
+            obj = managerPool.createManager(manager_type,
+                    OrderMgrHelper.id(),
+                    this::createOrderMgr);
         } else if (manager_type.equals(NsiliManagerType.PRODUCT_MGR.getSpecName())) {
-            ProductMgrImpl productMgr = new ProductMgrImpl(querySources);
-            productMgr.setCatalogFramework(catalogFramework);
-            productMgr.setFilterBuilder(filterBuilder);
-            productMgr.setOutgoingValidationEnabled(outgoingValidationEnabled);
-            if (!CorbaUtils.isIdActive(poa,
-                    managerId.getBytes(Charset.forName(NsiliEndpoint.ENCODING)))) {
-                try {
-                    poa.activate_object_with_id(managerId.getBytes(Charset.forName(NsiliEndpoint.ENCODING)),
-                            productMgr);
-                } catch (ServantAlreadyActive | ObjectAlreadyActive | WrongPolicy e) {
-                    LOGGER.info("Error activating ProductMgr: ", e);
-                }
-            }
-
-            obj =
-                    poa.create_reference_with_id(managerId.getBytes(Charset.forName(NsiliEndpoint.ENCODING)),
-                            ProductMgrHelper.id());
+            obj = managerPool.getManager(manager_type,
+                    access_criteria,
+                    ProductMgrHelper.id(),
+                    this::createProductMgr);
         } else if (manager_type.equals(NsiliManagerType.DATA_MODEL_MGR.getSpecName())) {
-            DataModelMgrImpl dataModelMgr = new DataModelMgrImpl();
-            if (!CorbaUtils.isIdActive(poa,
-                    managerId.getBytes(Charset.forName(NsiliEndpoint.ENCODING)))) {
-                try {
-                    poa.activate_object_with_id(managerId.getBytes(Charset.forName(NsiliEndpoint.ENCODING)),
-                            dataModelMgr);
-                } catch (ServantAlreadyActive | ObjectAlreadyActive | WrongPolicy e) {
-                    LOGGER.info("Error activating DataModelMgr: ", e);
-                }
-            }
-
-            obj =
-                    poa.create_reference_with_id(managerId.getBytes(Charset.forName(NsiliEndpoint.ENCODING)),
-                            DataModelMgrHelper.id());
+            obj = managerPool.getManager(manager_type,
+                    access_criteria,
+                    DataModelMgrHelper.id(),
+                    DataModelMgrImpl::new);
         } else if (manager_type.equals(NsiliManagerType.CREATION_MGR.getSpecName())) {
-            CreationMgrImpl creationMgr = new CreationMgrImpl();
-            if (!CorbaUtils.isIdActive(poa,
-                    managerId.getBytes(Charset.forName(NsiliEndpoint.ENCODING)))) {
-                try {
-                    poa.activate_object_with_id(managerId.getBytes(Charset.forName(NsiliEndpoint.ENCODING)),
-                            creationMgr);
-                } catch (ServantAlreadyActive | ObjectAlreadyActive | WrongPolicy e) {
-                    LOGGER.info("Error activating CreationMgr: ", e);
-                }
-            }
-
-            obj =
-                    poa.create_reference_with_id(managerId.getBytes(Charset.forName(NsiliEndpoint.ENCODING)),
-                            CreationMgrHelper.id());
+            obj = managerPool.createManager(manager_type,
+                    CreationMgrHelper.id(),
+                    CreationMgrImpl::new);
         } else if (manager_type.equals(NsiliManagerType.STANDING_QUERY_MGR.getSpecName())) {
-            StandingQueryMgrImpl standingQueryMgr = new StandingQueryMgrImpl(querySources);
-            standingQueryMgr.setCatalogFramework(catalogFramework);
-            standingQueryMgr.setFilterBuilder(filterBuilder);
-            standingQueryMgr.setDefaultUpdateFrequencyMsec(defaultUpdateFrequencyMsec);
-            standingQueryMgr.setMaxPendingResults(maxPendingResults);
-            standingQueryMgr.setRemoveSourceLibrary(removeSourceLibrary);
-            standingQueryMgr.setOutgoingValidationEnabled(outgoingValidationEnabled);
-            standingQueryMgr.setMaxWaitToStartTimeMsecs(maxWaitToStartTimeMsecs);
-            if (!CorbaUtils.isIdActive(poa,
-                    managerId.getBytes(Charset.forName(NsiliEndpoint.ENCODING)))) {
-                try {
-                    poa.activate_object_with_id(managerId.getBytes(Charset.forName(NsiliEndpoint.ENCODING)),
-                            standingQueryMgr);
-                } catch (ServantAlreadyActive | ObjectAlreadyActive | WrongPolicy e) {
-                    LOGGER.info("Error activating StandingQueryMgr: ", e);
-                }
-            }
-
-            obj =
-                    poa.create_reference_with_id(managerId.getBytes(Charset.forName(NsiliEndpoint.ENCODING)),
-                            StandingQueryMgrHelper.id());
+            obj = managerPool.createManager(manager_type,
+                    StandingQueryMgrHelper.id(),
+                    this::createStandingQueryMgr);
         } else {
             String[] bad_params = {manager_type};
             throw new InvalidInputParameter("UnknownMangerType",
@@ -288,11 +282,61 @@ public class LibraryImpl extends LibraryPOA {
 
         LibraryManager libraryManager = LibraryManagerHelper.narrow(obj);
 
-        LOGGER.trace("get_manager, type: {}, id: {}", manager_type, managerId);
+        LOGGER.trace("get_manager, type: {}", manager_type);
 
         return libraryManager;
     }
 
+    private CatalogMgrImpl createCatalogMgr() {
+        CatalogMgrImpl catalogMgr = new CatalogMgrImpl(poa, filterBuilder, querySources);
+        catalogMgr.setCatalogFramework(catalogFramework);
+        catalogMgr.setOutgoingValidationEnabled(outgoingValidationEnabled);
+        catalogMgr.setRemoveSourceLibrary(removeSourceLibrary);
+        catalogMgr.setServantLifecycleManager(servantLifecycleManager);
+        catalogMgr.setConversionPipeline(conversionPipeline);
+        catalogMgr.setBqsQueryCache(bqsQueryCache);
+        return catalogMgr;
+    }
+
+    private OrderMgrImpl createOrderMgr() {
+        OrderMgrImpl orderMgr = new OrderMgrImpl();
+        orderMgr.setCatalogFramework(catalogFramework);
+        orderMgr.setFilterBuilder(filterBuilder);
+        orderMgr.setEmailConfiguration(emailConfiguration);
+        orderMgr.setRetrievalPool(retrievalPool);
+        orderMgr.setOrderExecutionService(orderExecutionService);
+        orderMgr.setDeliveryTransport(deliveryTransport);
+        orderMgr.setMetacardCache(metacardCache);
+        orderMgr.setProductBatchSize(productBatchSize);
+        return orderMgr;
+    }
+
+    private ProductMgrImpl createProductMgr() {
+        ProductMgrImpl productMgr = new ProductMgrImpl(querySources);
+        productMgr.setCatalogFramework(catalogFramework);
+        productMgr.setFilterBuilder(filterBuilder);
+        productMgr.setOutgoingValidationEnabled(outgoingValidationEnabled);
+        productMgr.setMetacardCache(metacardCache);
+        productMgr.setProductBatchSize(productBatchSize);
+        return productMgr;
+    }
+
+    private StandingQueryMgrImpl createStandingQueryMgr() {
+        StandingQueryMgrImpl standingQueryMgr = new StandingQueryMgrImpl(querySources);
+        standingQueryMgr.setCatalogFramework(catalogFramework);
+        standingQueryMgr.setFilterBuilder(filterBuilder);
+        standingQueryMgr.setDefaultUpdateFrequencyMsec(defaultUpdateFrequencyMsec);
+        standingQueryMgr.setMaxPendingResults(maxPendingResults);
+        standingQueryMgr.setRemoveSourceLibrary(removeSourceLibrary);
+        standingQueryMgr.setOutgoingValidationEnabled(outgoingValidationEnabled);
+        standingQueryMgr.setMaxWaitToStartTimeMsecs(maxWaitToStartTimeMsecs);
+        standingQueryMgr.setStandingQueryScheduler(standingQueryScheduler);
+        standingQueryMgr.setBqsQueryCache(bqsQueryCache);
+        standingQueryMgr.setConversionPipeline(conversionPipeline);
+        standingQueryMgr.setServantLifecycleManager(servantLifecycleManager);
+        return standingQueryMgr;
+    }
+
     @Override
     public LibraryDescription get_library_description() throws ProcessingFault, SystemFault {
         LOGGER.trace("get_library_description called");
@@ -310,36 +354,39 @@ public class LibraryImpl extends LibraryPOA {
         throw new NO_IMPLEMENT();
     }
 
+    /**
+     * Removes duplicate results for the same product, keeping the most recently modified one.
+     * Results keep the order the catalog returned them in, each product in the position of its
+     * first result.
+     */
     public static List<Result> getLatestResults(List<Result> results) {
-        Map<String, Result> resultMap = new HashMap<>();
+        Map<String, Result> resultMap = new LinkedHashMap<>();
         if (results != null) {
             for (Result result : results) {
-                String metacardId = ResultDAGConverter.getMetacardId(result.getMetacard());
-                Result mappedRes = resultMap.get(metacardId);
-                if (mappedRes == null) {
-                    resultMap.put(metacardId, result);
-                } else {
-                    if (mappedRes.getMetacard()
-                            .getModifiedDate() != null) {
-                        if (result.getMetacard()
-                                .getModifiedDate() != null) {
-                            if (mappedRes.getMetacard()
-                                    .getModifiedDate()
-                                    .compareTo(result.getMetacard()
-                                            .getModifiedDate()) < 0) {
-                                resultMap.put(metacardId, result);
-                            }
-                        }
-                    } else {
-                        resultMap.put(metacardId, result);
-                    }
-                }
+                resultMap.merge(ResultDAGConverter.getMetacardId(result.getMetacard()),
+                        result,
+                        LibraryImpl::getLatestResult);
             }
         }
 
         return new ArrayList<>(resultMap.values());
     }
 
+    private static Result getLatestResult(Result mappedRes, Result result) {
+        Date mappedModified = mappedRes.getMetacard()
+                .getModifiedDate();
+        if (mappedModified == null) {
+            return result;
+        }
+
+        Date modified = result.getMetacard()
+                .getModifiedDate();
+        if (modified != null && mappedModified.compareTo(modified) < 0) {
+            return result;
+        }
+        return mappedRes;
+    }
+
     public static boolean queryContainsStatus(String bqsQuery) {
         return bqsQuery.toLowerCase()
                 .contains(LibraryImpl.CARD_STATUS.toLowerCase());
@@ -352,5 +399,6 @@ public class LibraryImpl extends LibraryPOA {
     public void setEmailConfiguration(EmailConfiguration emailConfiguration) {
         notNull(emailConfiguration, "emailConfiguration must be non-null");
         this.emailConfiguration = emailConfiguration;
+        managerPool.invalidate();
     }
 }
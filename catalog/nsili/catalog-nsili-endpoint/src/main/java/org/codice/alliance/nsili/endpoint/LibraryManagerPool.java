@@ -0,0 +1,169 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.nsili.endpoint;
+
+import java.nio.charset.Charset;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import org.codice.alliance.nsili.common.CorbaUtils;
+import org.codice.alliance.nsili.common.GIAS.AccessCriteria;
+import org.omg.PortableServer.POA;
+import org.omg.PortableServer.Servant;
+import org.omg.PortableServer.POAPackage.ObjectAlreadyActive;
+import org.omg.PortableServer.POAPackage.ServantAlreadyActive;
+import org.omg.PortableServer.POAPackage.WrongPolicy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Shares library manager servants between calls to get_manager. Only managers that hold nothing
+ * but the library's configuration are pooled; one servant of each such type serves every client
+ * that presents the same access criteria. Managers with state a client can change, such as the
+ * default timeout, are created for each call and never shared.
+ * <p>
+ * The number of pooled managers is bounded. Managers that are evicted from the pool, or replaced
+ * after a configuration change, are handed to the servant lifecycle manager so that clients still
+ * holding them can finish before they are deactivated.
+ */
+public class LibraryManagerPool {
+
+    public static final int DEFAULT_MAX_MANAGERS = 64;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LibraryManagerPool.class);
+
+    private final POA poa;
+
+    private final Map<String, String> managerIds = new LinkedHashMap<>(16, 0.75f, true);
+
+    private int maxManagers = DEFAULT_MAX_MANAGERS;
+
+    private ServantLifecycleManager servantLifecycleManager;
+
+    public LibraryManagerPool(POA poa) {
+        this.poa = poa;
+    }
+
+    public synchronized void setServantLifecycleManager(
+            ServantLifecycleManager servantLifecycleManager) {
+        this.servantLifecycleManager = servantLifecycleManager;
+    }
+
+    /**
+     * @param maxManagers - the maximum number of pooled managers, a value less than 1 gives every
+     *                    caller a new manager
+     */
+    public synchronized void setMaxManagers(int maxManagers) {
+        this.maxManagers = maxManagers;
+        removeEldest();
+    }
+
+    /**
+     * Returns a reference to the pooled manager for the manager type and access criteria,
+     * activating a new manager if there is not an active one.
+     *
+     * @param managerType    - the NSILI manager type
+     * @param accessCriteria - the access criteria the manager was requested with
+     * @param repositoryId   - the repository id of the manager interface
+     * @param managerFactory - creates a new manager servant
+     * @return a reference to the manager
+     */
+    public synchronized org.omg.CORBA.Object getManager(String managerType,
+            AccessCriteria accessCriteria, String repositoryId, Supplier<Servant> managerFactory) {
+        String key = getKey(managerType, accessCriteria);
+        String managerId = managerIds.get(key);
+        if (managerId == null || !CorbaUtils.isIdActive(poa, getObjectId(managerId))) {
+            managerId = activate(managerType, managerFactory);
+            if (maxManagers > 0) {
+                managerIds.put(key, managerId);
+                removeEldest();
+            }
+        }
+
+        return poa.create_reference_with_id(getObjectId(managerId), repositoryId);
+    }
+
+    /**
+     * Activates a new manager that is not shared with other clients. Used for managers whose state
+     * a client can change.
+     *
+     * @param managerType    - the NSILI manager type
+     * @param repositoryId   - the repository id of the manager interface
+     * @param managerFactory - creates a new manager servant
+     * @return a reference to the manager
+     */
+    public org.omg.CORBA.Object createManager(String managerType, String repositoryId,
+            Supplier<Servant> managerFactory) {
+        String managerId = activate(managerType, managerFactory);
+        return poa.create_reference_with_id(getObjectId(managerId), repositoryId);
+    }
+
+    private String activate(String managerType, Supplier<Servant> managerFactory) {
+        String managerId = UUID.randomUUID()
+                .toString();
+        try {
+            poa.activate_object_with_id(getObjectId(managerId), managerFactory.get());
+        } catch (ServantAlreadyActive | ObjectAlreadyActive | WrongPolicy e) {
+            LOGGER.info("Error activating {}: ", managerType, e);
+        }
+        LOGGER.debug("Activated {}, id: {}", managerType, managerId);
+        return managerId;
+    }
+
+    /**
+     * Removes every manager from the pool so that later requests get managers created with the
+     * current configuration.
+     */
+    public synchronized void invalidate() {
+        managerIds.values()
+                .forEach(this::retire);
+        managerIds.clear();
+    }
+
+    synchronized int size() {
+        return managerIds.size();
+    }
+
+    private void removeEldest() {
+        Iterator<String> iterator = managerIds.values()
+                .iterator();
+        while (managerIds.size() > Math.max(0, maxManagers) && iterator.hasNext()) {
+            String managerId = iterator.next();
+            iterator.remove();
+            retire(managerId);
+        }
+    }
+
+    private void retire(String managerId) {
+        if (servantLifecycleManager != null) {
+            servantLifecycleManager.track(poa, managerId);
+        }
+    }
+
+    private static byte[] getObjectId(String managerId) {
+        return managerId.getBytes(Charset.forName(NsiliEndpoint.ENCODING));
+    }
+
+    static String getKey(String managerType, AccessCriteria accessCriteria) {
+        if (accessCriteria == null) {
+            return managerType;
+        }
+        return managerType + "|" + Objects.toString(accessCriteria.userID, "") + "|"
+                + Objects.toString(accessCriteria.licenseKey, "");
+    }
+}
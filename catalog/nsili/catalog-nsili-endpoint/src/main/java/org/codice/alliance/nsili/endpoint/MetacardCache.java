@@ -0,0 +1,275 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.nsili.endpoint;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ddf.catalog.data.Metacard;
+
+/**
+ * Bounded, least recently used cache of the metacards that NSILI product references resolve to,
+ * so that repeated calls about the same products do not each query the catalog. Entries expire
+ * after a time to live, and are removed as soon as the catalog reports that their metacard was
+ * updated or deleted. Ids that do not resolve to a metacard are not cached.
+ */
+public class MetacardCache {
+
+    public static final int DEFAULT_MAX_ENTRIES = 1000;
+
+    public static final long DEFAULT_TIME_TO_LIVE_SEC = 60;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MetacardCache.class);
+
+    private final AtomicLong hitCount = new AtomicLong();
+
+    private final AtomicLong missCount = new AtomicLong();
+
+    private final Map<String, CachedMetacard> metacards;
+
+    private final LongSupplier clock;
+
+    private volatile int maxEntries;
+
+    private volatile long timeToLiveMillis;
+
+    /**
+     * Incremented whenever entries are invalidated, so that metacards loaded before an
+     * invalidation are not added to the cache after it.
+     */
+    private long generation = 0;
+
+    public MetacardCache() {
+        this(DEFAULT_MAX_ENTRIES, DEFAULT_TIME_TO_LIVE_SEC, System::currentTimeMillis);
+    }
+
+    MetacardCache(int maxEntries, long timeToLiveSec, LongSupplier clock) {
+        this.clock = clock;
+        this.maxEntries = maxEntries;
+        setTimeToLiveSec(timeToLiveSec);
+        this.metacards = new LinkedHashMap<String, CachedMetacard>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedMetacard> eldest) {
+                return size() > MetacardCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Sets the maximum number of cached metacards. A value less than 1 disables caching.
+     */
+    public void setMaxEntries(int maxEntries) {
+        this.maxEntries = maxEntries;
+        if (maxEntries < 1) {
+            invalidateAll();
+        }
+    }
+
+    /**
+     * Sets how long a metacard is cached before it is looked up again. A value less than 1
+     * disables caching.
+     */
+    public void setTimeToLiveSec(long timeToLiveSec) {
+        this.timeToLiveMillis = TimeUnit.SECONDS.toMillis(Math.max(0, timeToLiveSec));
+        if (timeToLiveSec < 1) {
+            invalidateAll();
+        }
+    }
+
+    /**
+     * Returns the cached metacard for an id, loading and caching it if it is not cached.
+     *
+     * @param id     - the metacard id
+     * @param loader - looks up the metacard when it is not cached, returning null if there is none
+     * @return the metacard, or null if the id does not resolve to one
+     */
+    public Metacard getMetacard(String id, Function<String, Metacard> loader) {
+        if (!isEnabled()) {
+            return loader.apply(id);
+        }
+
+        Metacard metacard = getCached(id);
+        if (metacard != null) {
+            hitCount.incrementAndGet();
+            return metacard;
+        }
+
+        missCount.incrementAndGet();
+        long loadGeneration = getGeneration();
+        metacard = loader.apply(id);
+        if (metacard != null) {
+            put(Collections.singletonMap(id, metacard), loadGeneration);
+        }
+        return metacard;
+    }
+
+    /**
+     * Returns the metacards for a collection of ids, loading every id that is not cached with a
+     * single call to the loader.
+     *
+     * @param ids    - the metacard ids
+     * @param loader - looks up the metacards for the ids that are not cached, returning a map that
+     *               does not contain ids without a metacard
+     * @return the metacards keyed by id, in the order of the ids, without the ids that do not
+     * resolve to a metacard
+     */
+    public Map<String, Metacard> getMetacards(Collection<String> ids,
+            Function<Collection<String>, Map<String, Metacard>> loader) {
+        Collection<String> uniqueIds = new LinkedHashSet<>(ids);
+        if (!isEnabled()) {
+            return order(uniqueIds, loader.apply(uniqueIds));
+        }
+
+        Map<String, Metacard> found = new LinkedHashMap<>();
+        List<String> missingIds = new ArrayList<>();
+        for (String id : uniqueIds) {
+            Metacard metacard = getCached(id);
+            if (metacard != null) {
+                found.put(id, metacard);
+            } else {
+                missingIds.add(id);
+            }
+        }
+
+        hitCount.addAndGet(found.size());
+        if (missingIds.isEmpty()) {
+            return found;
+        }
+
+        missCount.addAndGet(missingIds.size());
+        long loadGeneration = getGeneration();
+        Map<String, Metacard> loaded = loader.apply(missingIds);
+        if (loaded != null) {
+            put(loaded, loadGeneration);
+            found.putAll(loaded);
+        }
+
+        LOGGER.debug("Loaded {} of {} metacards not in the cache, {} metacards cached",
+                loaded == null ? 0 : loaded.size(),
+                missingIds.size(),
+                size());
+        return order(uniqueIds, found);
+    }
+
+    /**
+     * Removes the cached metacard for an id, if there is one.
+     */
+    public void invalidate(String id) {
+        synchronized (metacards) {
+            generation++;
+            metacards.remove(id);
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (metacards) {
+            generation++;
+            metacards.clear();
+        }
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public int size() {
+        synchronized (metacards) {
+            return metacards.size();
+        }
+    }
+
+    private boolean isEnabled() {
+        return maxEntries > 0 && timeToLiveMillis > 0;
+    }
+
+    private long getGeneration() {
+        synchronized (metacards) {
+            return generation;
+        }
+    }
+
+    private Metacard getCached(String id) {
+        synchronized (metacards) {
+            CachedMetacard cached = metacards.get(id);
+            if (cached == null) {
+                return null;
+            }
+
+            if (cached.expirationTime <= clock.getAsLong()) {
+                metacards.remove(id);
+                return null;
+            }
+            return cached.metacard;
+        }
+    }
+
+    private void put(Map<String, Metacard> loaded, long loadGeneration) {
+        long expirationTime = clock.getAsLong() + timeToLiveMillis;
+        synchronized (metacards) {
+            // Metacards loaded while entries were invalidated may already be out of date
+            if (loadGeneration != generation) {
+                return;
+            }
+
+            for (Map.Entry<String, Metacard> entry : loaded.entrySet()) {
+                if (entry.getValue() != null) {
+                    metacards.put(entry.getKey(),
+                            new CachedMetacard(entry.getValue(), expirationTime));
+                }
+            }
+        }
+    }
+
+    private static Map<String, Metacard> order(Collection<String> ids,
+            Map<String, Metacard> metacards) {
+        Map<String, Metacard> ordered = new LinkedHashMap<>();
+        if (metacards != null) {
+            for (String id : ids) {
+                Metacard metacard = metacards.get(id);
+                if (metacard != null) {
+                    ordered.put(id, metacard);
+                }
+            }
+        }
+        return ordered;
+    }
+
+    private static class CachedMetacard {
+
+        private final Metacard metacard;
+
+        private final long expirationTime;
+
+        CachedMetacard(Metacard metacard, long expirationTime) {
+            this.metacard = metacard;
+            this.expirationTime = expirationTime;
+        }
+    }
+}
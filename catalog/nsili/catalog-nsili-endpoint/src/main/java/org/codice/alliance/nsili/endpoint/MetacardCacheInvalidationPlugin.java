@@ -0,0 +1,69 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.nsili.endpoint;
+
+import ddf.catalog.data.Metacard;
+import ddf.catalog.operation.CreateResponse;
+import ddf.catalog.operation.DeleteResponse;
+import ddf.catalog.operation.Update;
+import ddf.catalog.operation.UpdateResponse;
+import ddf.catalog.plugin.PluginExecutionException;
+import ddf.catalog.plugin.PostIngestPlugin;
+
+/**
+ * Removes metacards from the metacard cache when they are updated or deleted in the catalog, so
+ * that NSILI clients do not see out of date products until the cached metacards expire.
+ */
+public class MetacardCacheInvalidationPlugin implements PostIngestPlugin {
+
+    private final MetacardCache metacardCache;
+
+    public MetacardCacheInvalidationPlugin(MetacardCache metacardCache) {
+        this.metacardCache = metacardCache;
+    }
+
+    @Override
+    public CreateResponse process(CreateResponse input) throws PluginExecutionException {
+        // Ids that were not found are not cached, so new metacards do not need to be reported
+        return input;
+    }
+
+    @Override
+    public UpdateResponse process(UpdateResponse input) throws PluginExecutionException {
+        if (input != null && input.getUpdatedMetacards() != null) {
+            for (Update update : input.getUpdatedMetacards()) {
+                if (update != null) {
+                    invalidate(update.getOldMetacard());
+                    invalidate(update.getNewMetacard());
+                }
+            }
+        }
+        return input;
+    }
+
+    @Override
+    public DeleteResponse process(DeleteResponse input) throws PluginExecutionException {
+        if (input != null && input.getDeletedMetacards() != null) {
+            input.getDeletedMetacards()
+                    .forEach(this::invalidate);
+        }
+        return input;
+    }
+
+    private void invalidate(Metacard metacard) {
+        if (metacard != null && metacard.getId() != null) {
+            metacardCache.invalidate(metacard.getId());
+        }
+    }
+}
@@ -27,8 +27,12 @@ import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 import org.codice.alliance.core.email.EmailSender;
+import org.codice.alliance.nsili.common.BqsQueryCache;
 import org.codice.alliance.nsili.common.NsilCorbaExceptionUtil;
+import org.codice.alliance.nsili.common.datamodel.NsiliDataModel;
+import org.codice.alliance.nsili.endpoint.managers.AccessManagerImpl;
 import org.codice.alliance.nsili.endpoint.managers.EmailConfiguration;
+import org.codice.alliance.nsili.endpoint.requests.StandingQueryScheduler;
 import org.codice.alliance.nsili.orb.api.CorbaOrb;
 import org.codice.alliance.nsili.orb.api.CorbaServiceListener;
 import org.codice.ddf.security.common.Security;
@@ -88,6 +92,10 @@ public class NsiliEndpoint implements CorbaServiceListener, QuerySources {
 
     private int maxPendingResults = 10000;
 
+    private int maxPooledManagers = LibraryManagerPool.DEFAULT_MAX_MANAGERS;
+
+    private int productBatchSize = AccessManagerImpl.DEFAULT_PRODUCT_BATCH_SIZE;
+
     private POA rootPOA = null;
 
     private CorbaOrb corbaOrb = null;
@@ -102,6 +110,23 @@ public class NsiliEndpoint implements CorbaServiceListener, QuerySources {
 
     private boolean removeSourceLibrary = true;
 
+    private final ServantLifecycleManager servantLifecycleManager = new ServantLifecycleManager();
+
+    private final ResultDAGConversionPipeline conversionPipeline =
+            new ResultDAGConversionPipeline();
+
+    private final BqsQueryCache bqsQueryCache = new BqsQueryCache();
+
+    private final StandingQueryScheduler standingQueryScheduler = new StandingQueryScheduler();
+
+    private final ProductRetrievalPool retrievalPool = new ProductRetrievalPool();
+
+    private final OrderExecutionService orderExecutionService = new OrderExecutionService();
+
+    private final HttpDeliveryTransport deliveryTransport = new HttpDeliveryTransport();
+
+    private final MetacardCache metacardCache = new MetacardCache();
+
     private static Subject guestSubject = null;
 
     private static final Logger LOGGER = LoggerFactory.getLogger(NsiliEndpoint.class);
@@ -119,6 +144,8 @@ public class NsiliEndpoint implements CorbaServiceListener, QuerySources {
     }
 
     private void setLibraryQuerySources(Set<String> querySources) {
+        // Cached metacards may have come from sources that are no longer queried
+        metacardCache.invalidateAll();
         Optional.ofNullable(library)
                 .ifPresent(l -> l.setQuerySources(querySources));
     }
@@ -190,6 +217,72 @@ public class NsiliEndpoint implements CorbaServiceListener, QuerySources {
         }
     }
 
+    public void setServantTimeoutSec(long servantTimeoutSec) {
+        servantLifecycleManager.setServantTimeoutSec(servantTimeoutSec);
+    }
+
+    public void setDagConversionThreads(int dagConversionThreads) {
+        conversionPipeline.setConversionThreads(dagConversionThreads);
+    }
+
+    public void setBqsQueryCacheSize(int bqsQueryCacheSize) {
+        bqsQueryCache.setMaxEntries(bqsQueryCacheSize);
+    }
+
+    public BqsQueryCache getBqsQueryCache() {
+        return bqsQueryCache;
+    }
+
+    public void setProductRetrievalThreads(int productRetrievalThreads) {
+        retrievalPool.setRetrievalThreads(productRetrievalThreads);
+    }
+
+    public void setOrderThreads(int orderThreads) {
+        orderExecutionService.setOrderThreads(orderThreads);
+    }
+
+    public void setMaxQueuedOrders(int maxQueuedOrders) {
+        orderExecutionService.setMaxQueuedOrders(maxQueuedOrders);
+    }
+
+    public void setMaxDeliveryConnectionsPerHost(int maxDeliveryConnectionsPerHost) {
+        deliveryTransport.setMaxConnectionsPerHost(maxDeliveryConnectionsPerHost);
+    }
+
+    public void setMetacardCacheSize(int metacardCacheSize) {
+        metacardCache.setMaxEntries(metacardCacheSize);
+    }
+
+    public void setMetacardCacheTimeToLiveSec(long metacardCacheTimeToLiveSec) {
+        metacardCache.setTimeToLiveSec(metacardCacheTimeToLiveSec);
+    }
+
+    public MetacardCache getMetacardCache() {
+        return metacardCache;
+    }
+
+    public void setStandingQueryThreads(int standingQueryThreads) {
+        standingQueryScheduler.setThreads(standingQueryThreads);
+    }
+
+    public void setMaxPooledManagers(int maxPooledManagers) {
+        this.maxPooledManagers = maxPooledManagers;
+        if (library != null) {
+            library.setMaxPooledManagers(maxPooledManagers);
+        }
+    }
+
+    public void setProductBatchSize(int productBatchSize) {
+        this.productBatchSize = productBatchSize;
+        if (library != null) {
+            library.setProductBatchSize(productBatchSize);
+        }
+    }
+
+    public StandingQueryScheduler getStandingQueryScheduler() {
+        return standingQueryScheduler;
+    }
+
     public void setSecurityHandler(AuthenticationHandler securityHandler) {
         this.securityHandler = securityHandler;
     }
@@ -326,6 +419,12 @@ public class NsiliEndpoint implements CorbaServiceListener, QuerySources {
         if (corbaOrb != null) {
             corbaOrb.removeCorbaServiceListener(this);
         }
+        servantLifecycleManager.shutdown();
+        conversionPipeline.shutdown();
+        retrievalPool.shutdown();
+        orderExecutionService.shutdown();
+        deliveryTransport.shutdown();
+        standingQueryScheduler.shutdown();
         library = null;
         iorString = "";
     }
@@ -342,6 +441,7 @@ public class NsiliEndpoint implements CorbaServiceListener, QuerySources {
 
     @Override
     public void corbaShutdown() {
+        servantLifecycleManager.shutdown();
         if (library != null && rootPOA != null && libraryRef != null) {
             try {
                 rootPOA.deactivate_object(rootPOA.reference_to_id(libraryRef));
@@ -357,6 +457,8 @@ public class NsiliEndpoint implements CorbaServiceListener, QuerySources {
 
     public void init() {
         LOGGER.debug("Initializing NSILI Endpoint");
+        // Build the shared data model now rather than while handling the first client request
+        NsiliDataModel.getInstance();
         try {
             initCorba();
         } catch (InvalidName | AdapterInactive | WrongPolicy | ServantNotActive e) {
@@ -394,6 +496,17 @@ public class NsiliEndpoint implements CorbaServiceListener, QuerySources {
         library.setOutgoingValidationEnabled(outgoingValidationEnabled);
         library.setMaxWaitToStartTimeMsecs(TimeUnit.SECONDS.toMillis(maxWaitToStartTimeSec));
         library.setEmailConfiguration(emailConfiguration);
+        library.setServantLifecycleManager(servantLifecycleManager);
+        library.setMaxPooledManagers(maxPooledManagers);
+        library.setConversionPipeline(conversionPipeline);
+        library.setRetrievalPool(retrievalPool);
+        library.setOrderExecutionService(orderExecutionService);
+        library.setDeliveryTransport(deliveryTransport);
+        library.setMetacardCache(metacardCache);
+        library.setProductBatchSize(productBatchSize);
+        library.setBqsQueryCache(bqsQueryCache);
+        library.setStandingQueryScheduler(standingQueryScheduler);
+        servantLifecycleManager.start();
 
         libraryRef = rootPOA.servant_to_reference(library);
 
@@ -0,0 +1,124 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.nsili.endpoint;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Fulfils orders in the background on a shared, bounded pool of threads, so that retrieving,
+ * packaging and delivering an order does not hold the ORB thread that placed it. Orders beyond
+ * what the threads and queue can take are not queued; they are fulfilled when their client calls
+ * complete, as they would be without this service.
+ */
+public class OrderExecutionService {
+
+    public static final int DEFAULT_ORDER_THREADS = 2;
+
+    public static final int DEFAULT_MAX_QUEUED_ORDERS = 100;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(OrderExecutionService.class);
+
+    private ThreadPoolExecutor executor;
+
+    private int orderThreads;
+
+    private int maxQueuedOrders;
+
+    public OrderExecutionService() {
+        this(DEFAULT_ORDER_THREADS, DEFAULT_MAX_QUEUED_ORDERS);
+    }
+
+    public OrderExecutionService(int orderThreads, int maxQueuedOrders) {
+        this.orderThreads = orderThreads;
+        this.maxQueuedOrders = maxQueuedOrders;
+        createExecutor();
+    }
+
+    /**
+     * Sets the number of orders fulfilled at once. A value less than 1 fulfils every order when
+     * its client calls complete.
+     */
+    public synchronized void setOrderThreads(int orderThreads) {
+        if (this.orderThreads != orderThreads) {
+            this.orderThreads = orderThreads;
+            createExecutor();
+        }
+    }
+
+    /**
+     * Sets the number of orders that can wait for a thread.
+     */
+    public synchronized void setMaxQueuedOrders(int maxQueuedOrders) {
+        if (this.maxQueuedOrders != maxQueuedOrders) {
+            this.maxQueuedOrders = maxQueuedOrders;
+            createExecutor();
+        }
+    }
+
+    public synchronized void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    /**
+     * Queues an order to be fulfilled.
+     *
+     * @param fulfilment - fulfils the order
+     * @return true if the order was queued, or false if it should be fulfilled by its caller
+     */
+    public synchronized boolean submit(Runnable fulfilment) {
+        if (executor == null) {
+            return false;
+        }
+
+        try {
+            executor.execute(fulfilment);
+            return true;
+        } catch (RejectedExecutionException e) {
+            LOGGER.debug("Order queue is full, order will be fulfilled when it is completed", e);
+            return false;
+        }
+    }
+
+    synchronized int getQueuedOrderCount() {
+        return executor == null ? 0 : executor.getQueue()
+                .size();
+    }
+
+    private void createExecutor() {
+        ThreadPoolExecutor oldExecutor = executor;
+        if (orderThreads > 0) {
+            // Orders that are already queued are left to finish on the old threads
+            executor = new ThreadPoolExecutor(orderThreads,
+                    orderThreads,
+                    0L,
+                    TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(Math.max(1, maxQueuedOrders)));
+        } else {
+            executor = null;
+        }
+
+        if (oldExecutor != null) {
+            oldExecutor.shutdown();
+        }
+    }
+}
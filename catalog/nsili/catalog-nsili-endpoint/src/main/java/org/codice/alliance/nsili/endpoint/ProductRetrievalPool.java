@@ -0,0 +1,100 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.nsili.endpoint;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Retrieves the products in an order concurrently on a shared, bounded pool of threads. Each
+ * product is read to the end on its pool thread, so that a large order waits for its slowest
+ * product rather than the sum of all of them while still limiting how many retrievals run at once
+ * across every order. Orders packaged as one file per product deliver those files on the same
+ * threads.
+ */
+public class ProductRetrievalPool {
+
+    public static final int DEFAULT_RETRIEVAL_THREADS = 4;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProductRetrievalPool.class);
+
+    private volatile ExecutorService executorService;
+
+    public ProductRetrievalPool() {
+        this(DEFAULT_RETRIEVAL_THREADS);
+    }
+
+    public ProductRetrievalPool(int retrievalThreads) {
+        setRetrievalThreads(retrievalThreads);
+    }
+
+    /**
+     * Sets the number of threads used to retrieve products. A value less than 2 retrieves every
+     * product on the calling thread.
+     */
+    public synchronized void setRetrievalThreads(int retrievalThreads) {
+        ExecutorService oldExecutorService = executorService;
+        if (retrievalThreads > 1) {
+            executorService = Executors.newFixedThreadPool(retrievalThreads);
+        } else {
+            executorService = null;
+        }
+
+        if (oldExecutorService != null) {
+            oldExecutorService.shutdown();
+        }
+    }
+
+    public synchronized void shutdown() {
+        if (executorService != null) {
+            executorService.shutdownNow();
+            executorService = null;
+        }
+    }
+
+    /**
+     * Starts retrieving products.
+     *
+     * @param retrievals - retrieves each product
+     * @return the pending retrievals, in the same order as the retrievals passed in
+     */
+    public <T> List<Future<T>> retrieve(List<Callable<T>> retrievals) {
+        ExecutorService executor = executorService;
+        List<Future<T>> futures = new ArrayList<>(retrievals.size());
+        for (Callable<T> retrieval : retrievals) {
+            FutureTask<T> future = new FutureTask<>(retrieval);
+            if (executor == null || retrievals.size() < 2) {
+                future.run();
+            } else {
+                try {
+                    executor.execute(future);
+                } catch (RejectedExecutionException e) {
+                    LOGGER.debug("Retrieval pool is shut down, retrieving product serially", e);
+                    future.run();
+                }
+            }
+            futures.add(future);
+        }
+        return futures;
+    }
+}
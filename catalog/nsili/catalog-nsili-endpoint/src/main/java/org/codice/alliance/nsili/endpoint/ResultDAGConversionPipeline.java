@@ -0,0 +1,172 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.nsili.endpoint;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.codice.alliance.nsili.common.DagParsingException;
+import org.codice.alliance.nsili.common.UCO.DAG;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ddf.catalog.data.Result;
+
+/**
+ * Converts pages of catalog results to DAGs on a shared, bounded pool of threads. Results are
+ * returned in the same order as the catalog results they were built from, and results that
+ * cannot be converted are skipped just as they are when converting serially.
+ */
+public class ResultDAGConversionPipeline {
+
+    public static final int DEFAULT_CONVERSION_THREADS = 4;
+
+    /**
+     * Pages smaller than this are converted on the calling thread since handing them off costs
+     * more than it saves.
+     */
+    static final int MIN_PARALLEL_RESULTS = 4;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ResultDAGConversionPipeline.class);
+
+    private volatile ExecutorService executorService;
+
+    public ResultDAGConversionPipeline() {
+        this(DEFAULT_CONVERSION_THREADS);
+    }
+
+    public ResultDAGConversionPipeline(int conversionThreads) {
+        setConversionThreads(conversionThreads);
+    }
+
+    /**
+     * Sets the number of threads used to convert results. A value less than 2 converts every page
+     * on the calling thread.
+     */
+    public synchronized void setConversionThreads(int conversionThreads) {
+        ExecutorService oldExecutorService = executorService;
+        if (conversionThreads > 1) {
+            executorService = Executors.newFixedThreadPool(conversionThreads);
+        } else {
+            executorService = null;
+        }
+
+        if (oldExecutorService != null) {
+            oldExecutorService.shutdown();
+        }
+    }
+
+    public synchronized void shutdown() {
+        if (executorService != null) {
+            executorService.shutdownNow();
+            executorService = null;
+        }
+    }
+
+    /**
+     * Converts results to DAGs, preserving their order.
+     *
+     * @param results    - the catalog results to convert
+     * @param converter  - converts a single result, returning null or throwing a
+     *                   DagParsingException if the result should not be returned
+     * @param maxResults - the maximum number of DAGs to return
+     * @return the converted DAGs, in result order
+     */
+    public List<DAG> convert(List<Result> results, ResultConverter converter, int maxResults) {
+        ExecutorService executor = executorService;
+        if (executor == null || results.size() < MIN_PARALLEL_RESULTS) {
+            return convertSerially(results, converter, maxResults);
+        }
+
+        // Converting a result can activate servants, so no more results are handed to the pool
+        // than are still needed. Results that fail to convert are replaced from the next wave.
+        List<DAG> dags = new ArrayList<>();
+        int next = 0;
+        while (dags.size() < maxResults && next < results.size()) {
+            int waveStart = next;
+            next = Math.min(results.size(), next + maxResults - dags.size());
+
+            List<Future<DAG>> futures = new ArrayList<>(next - waveStart);
+            try {
+                for (Result result : results.subList(waveStart, next)) {
+                    futures.add(executor.submit(() -> converter.convert(result)));
+                }
+            } catch (RejectedExecutionException e) {
+                LOGGER.debug("Conversion pool is shut down, converting results serially", e);
+                futures.forEach(future -> future.cancel(true));
+                dags.addAll(convertSerially(results.subList(waveStart, results.size()),
+                        converter,
+                        maxResults - dags.size()));
+                return dags;
+            }
+
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    DAG dag = futures.get(i)
+                            .get();
+                    if (dag != null) {
+                        dags.add(dag);
+                    }
+                } catch (ExecutionException e) {
+                    logConversionFailure(e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread()
+                            .interrupt();
+                    futures.subList(i, futures.size())
+                            .forEach(remaining -> remaining.cancel(true));
+                    return dags;
+                }
+            }
+        }
+        return dags;
+    }
+
+    private List<DAG> convertSerially(List<Result> results, ResultConverter converter,
+            int maxResults) {
+        List<DAG> dags = new ArrayList<>();
+        for (Result result : results) {
+            try {
+                DAG dag = converter.convert(result);
+                if (dag != null) {
+                    dags.add(dag);
+                }
+            } catch (DagParsingException | RuntimeException e) {
+                logConversionFailure(e);
+            }
+
+            if (dags.size() >= maxResults) {
+                break;
+            }
+        }
+        return dags;
+    }
+
+    private void logConversionFailure(Throwable cause) {
+        if (cause instanceof DagParsingException) {
+            LOGGER.debug("DAG could not be parsed and will not be returned to caller:", cause);
+        } else {
+            LOGGER.debug("Unable to convert result to a DAG", cause);
+        }
+    }
+
+    @FunctionalInterface
+    public interface ResultConverter {
+        DAG convert(Result result) throws DagParsingException;
+    }
+}
@@ -0,0 +1,231 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.nsili.endpoint;
+
+import java.nio.charset.Charset;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.omg.PortableServer.POA;
+import org.omg.PortableServer.POAPackage.ObjectNotActive;
+import org.omg.PortableServer.POAPackage.WrongPolicy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Deactivates the short-lived servants the endpoint activates for each request and result. A
+ * tracked servant stays active while it is being used and is deactivated once it has been idle
+ * longer than the servant timeout. A servant that reports it has completed its work is deactivated
+ * after a short grace period instead, which covers clients that make a final status call after
+ * retrieving results. Servants that do work of their own, such as standing queries, can be tracked
+ * with a callback that stops that work when the servant is deactivated.
+ */
+public class ServantLifecycleManager {
+
+    public static final long DEFAULT_SERVANT_TIMEOUT_SEC = TimeUnit.MINUTES.toSeconds(10);
+
+    public static final long DEFAULT_COMPLETION_GRACE_SEC = 30;
+
+    private static final long SWEEP_INTERVAL_SEC = 30;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ServantLifecycleManager.class);
+
+    private final Map<String, TrackedServant> servants = new ConcurrentHashMap<>();
+
+    private final LongSupplier clock;
+
+    private volatile long servantTimeoutMillis;
+
+    private volatile long completionGraceMillis;
+
+    private ScheduledExecutorService sweeper;
+
+    public ServantLifecycleManager() {
+        this(DEFAULT_SERVANT_TIMEOUT_SEC, DEFAULT_COMPLETION_GRACE_SEC, System::currentTimeMillis);
+    }
+
+    ServantLifecycleManager(long servantTimeoutSec, long completionGraceSec, LongSupplier clock) {
+        this.clock = clock;
+        setServantTimeoutSec(servantTimeoutSec);
+        setCompletionGraceSec(completionGraceSec);
+    }
+
+    public void setServantTimeoutSec(long servantTimeoutSec) {
+        this.servantTimeoutMillis = TimeUnit.SECONDS.toMillis(Math.max(1, servantTimeoutSec));
+    }
+
+    public void setCompletionGraceSec(long completionGraceSec) {
+        this.completionGraceMillis = TimeUnit.SECONDS.toMillis(Math.max(0, completionGraceSec));
+    }
+
+    public synchronized void start() {
+        if (sweeper == null) {
+            sweeper = Executors.newSingleThreadScheduledExecutor();
+            sweeper.scheduleWithFixedDelay(this::evictExpired,
+                    SWEEP_INTERVAL_SEC,
+                    SWEEP_INTERVAL_SEC,
+                    TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Stops sweeping and deactivates every tracked servant.
+     */
+    public synchronized void shutdown() {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+            sweeper = null;
+        }
+
+        Iterator<Map.Entry<String, TrackedServant>> iterator = servants.entrySet()
+                .iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, TrackedServant> entry = iterator.next();
+            iterator.remove();
+            deactivate(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Starts tracking an activated servant, or marks an already tracked servant as used.
+     *
+     * @param poa - the POA the servant was activated on
+     * @param id  - the object id the servant was activated with
+     */
+    public void track(POA poa, String id) {
+        track(poa, id, null);
+    }
+
+    /**
+     * Starts tracking an activated servant, or marks an already tracked servant as used.
+     *
+     * @param poa          - the POA the servant was activated on
+     * @param id           - the object id the servant was activated with
+     * @param onDeactivate - run when the servant is deactivated, may be null
+     */
+    public void track(POA poa, String id, Runnable onDeactivate) {
+        long expiry = clock.getAsLong() + servantTimeoutMillis;
+        servants.compute(id, (key, tracked) -> {
+            if (tracked == null) {
+                return new TrackedServant(poa, onDeactivate, expiry);
+            }
+            tracked.touch(expiry);
+            return tracked;
+        });
+    }
+
+    /**
+     * Marks a tracked servant as used, extending its idle timeout.
+     */
+    public void touch(String id) {
+        TrackedServant tracked = servants.get(id);
+        if (tracked != null) {
+            tracked.touch(clock.getAsLong() + servantTimeoutMillis);
+        }
+    }
+
+    /**
+     * Marks a tracked servant as finished so it is deactivated once the completion grace period
+     * has passed.
+     */
+    public void complete(String id) {
+        TrackedServant tracked = servants.get(id);
+        if (tracked != null) {
+            tracked.complete(clock.getAsLong() + completionGraceMillis);
+        }
+    }
+
+    /**
+     * Deactivates every servant whose idle timeout or completion grace period has passed.
+     *
+     * @return the number of servants deactivated
+     */
+    public int evictExpired() {
+        long now = clock.getAsLong();
+        int evicted = 0;
+        for (Map.Entry<String, TrackedServant> entry : servants.entrySet()) {
+            TrackedServant tracked = entry.getValue();
+            if (tracked.isExpired(now) && servants.remove(entry.getKey(), tracked)) {
+                deactivate(entry.getKey(), tracked);
+                evicted++;
+            }
+        }
+
+        if (evicted > 0) {
+            LOGGER.debug("Deactivated {} expired servants, {} remain active",
+                    evicted,
+                    servants.size());
+        }
+        return evicted;
+    }
+
+    public int getTrackedCount() {
+        return servants.size();
+    }
+
+    private void deactivate(String id, TrackedServant tracked) {
+        try {
+            if (tracked.onDeactivate != null) {
+                tracked.onDeactivate.run();
+            }
+        } catch (RuntimeException e) {
+            LOGGER.debug("Unable to stop servant {} before deactivating it", id, e);
+        }
+
+        try {
+            tracked.poa.deactivate_object(id.getBytes(Charset.forName(NsiliEndpoint.ENCODING)));
+        } catch (ObjectNotActive | WrongPolicy e) {
+            LOGGER.debug("Unable to deactivate servant {}", id, e);
+        } catch (RuntimeException e) {
+            LOGGER.debug("Unable to deactivate servant {}, POA may have been destroyed", id, e);
+        }
+    }
+
+    private static class TrackedServant {
+
+        private final POA poa;
+
+        private final Runnable onDeactivate;
+
+        private long expiry;
+
+        private boolean completed;
+
+        TrackedServant(POA poa, Runnable onDeactivate, long expiry) {
+            this.poa = poa;
+            this.onDeactivate = onDeactivate;
+            this.expiry = expiry;
+        }
+
+        synchronized void touch(long newExpiry) {
+            if (!completed) {
+                expiry = newExpiry;
+            }
+        }
+
+        synchronized void complete(long completionExpiry) {
+            completed = true;
+            expiry = Math.min(expiry, completionExpiry);
+        }
+
+        synchronized boolean isExpired(long now) {
+            return now >= expiry;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.nsili.endpoint;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.codice.alliance.nsili.endpoint.requests.StandingQueryScheduler;
+
+import ddf.catalog.core.versioning.MetacardVersion;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.operation.CreateResponse;
+import ddf.catalog.operation.DeleteResponse;
+import ddf.catalog.operation.Update;
+import ddf.catalog.operation.UpdateResponse;
+import ddf.catalog.plugin.PluginExecutionException;
+import ddf.catalog.plugin.PostIngestPlugin;
+
+/**
+ * Reports changes to the local catalog to the standing query scheduler, so that standing queries
+ * pick up new and changed products that match them promptly and skip querying the catalog when
+ * nothing they could match has changed.
+ */
+public class StandingQueryChangePlugin implements PostIngestPlugin {
+
+    private final StandingQueryScheduler scheduler;
+
+    public StandingQueryChangePlugin(StandingQueryScheduler scheduler) {
+        this.scheduler = scheduler;
+        scheduler.enableChangeTracking();
+    }
+
+    @Override
+    public CreateResponse process(CreateResponse input) throws PluginExecutionException {
+        if (input != null) {
+            reportResources(input.getCreatedMetacards());
+        }
+        return input;
+    }
+
+    @Override
+    public UpdateResponse process(UpdateResponse input) throws PluginExecutionException {
+        if (input != null && input.getUpdatedMetacards() != null) {
+            reportResources(input.getUpdatedMetacards()
+                    .stream()
+                    .map(Update::getNewMetacard)
+                    .collect(Collectors.toList()));
+        }
+        return input;
+    }
+
+    @Override
+    public DeleteResponse process(DeleteResponse input) throws PluginExecutionException {
+        if (input != null) {
+            reportResources(input.getDeletedMetacards());
+        }
+        return input;
+    }
+
+    private void reportResources(Collection<Metacard> metacards) {
+        if (metacards == null) {
+            return;
+        }
+
+        List<Metacard> resources = metacards.stream()
+                .filter(StandingQueryChangePlugin::isResource)
+                .collect(Collectors.toList());
+        if (!resources.isEmpty()) {
+            scheduler.catalogChanged(resources);
+        }
+    }
+
+    /**
+     * Standing queries only return resource metacards and their versions, so changes to other
+     * metacards such as workspaces do not need to be reported.
+     */
+    static boolean isResource(Metacard metacard) {
+        if (metacard == null) {
+            return false;
+        }
+
+        Set<String> tags = metacard.getTags();
+        return tags == null || tags.isEmpty() || tags.contains(Metacard.DEFAULT_TAG)
+                || tags.contains(MetacardVersion.VERSION_TAG);
+    }
+}
@@ -18,10 +18,17 @@ import java.io.UnsupportedEncodingException;
 import java.net.URL;
 import java.net.URLConnection;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.stream.Collectors;
 
 import org.apache.shiro.subject.ExecutionException;
 import org.codice.alliance.nsili.common.GIAS.AccessManagerPOA;
@@ -33,6 +40,7 @@ import org.codice.alliance.nsili.common.UCO.InvalidInputParameter;
 import org.codice.alliance.nsili.common.UCO.ProcessingFault;
 import org.codice.alliance.nsili.common.UCO.SystemFault;
 import org.codice.alliance.nsili.common.UID.Product;
+import org.codice.alliance.nsili.endpoint.MetacardCache;
 import org.codice.alliance.nsili.endpoint.NsiliEndpoint;
 import org.omg.PortableServer.POAPackage.WrongAdapter;
 import org.omg.PortableServer.POAPackage.WrongPolicy;
@@ -53,6 +61,8 @@ public class AccessManagerImpl extends AccessManagerPOA {
 
     public static final int DEFAULT_TIMEOUT = -1;
 
+    public static final int DEFAULT_PRODUCT_BATCH_SIZE = 50;
+
     private static final int QUERY_AVAILABILITY_DELAY = 10;
 
     private static final int NUM_PRIORITIES = 1;
@@ -69,6 +79,10 @@ public class AccessManagerImpl extends AccessManagerPOA {
 
     private int defaultTimeout = DEFAULT_TIMEOUT;
 
+    private MetacardCache metacardCache;
+
+    private int productBatchSize = DEFAULT_PRODUCT_BATCH_SIZE;
+
     public AccessManagerImpl() {
 
     }
@@ -81,6 +95,21 @@ public class AccessManagerImpl extends AccessManagerPOA {
         this.filterBuilder = filterBuilder;
     }
 
+    /**
+     * Sets the cache used to look up metacards. Metacards are not cached when this is null.
+     */
+    public void setMetacardCache(MetacardCache metacardCache) {
+        this.metacardCache = metacardCache;
+    }
+
+    /**
+     * Sets the maximum number of products looked up by a single catalog query. A value less than
+     * 1 looks up all of the requested products in one query.
+     */
+    public void setProductBatchSize(int productBatchSize) {
+        this.productBatchSize = productBatchSize;
+    }
+
     public void setQuerySources(Set<String> querySources) {
         this.querySources.clear();
         if (querySources != null) {
@@ -184,15 +213,111 @@ public class AccessManagerImpl extends AccessManagerPOA {
         return null;
     }
 
+    /**
+     * Looks up the metacards for several product references, querying the catalog in batches of
+     * products rather than once per product.
+     *
+     * @param products - the product references
+     * @return the metacards in the order of the products, without the products that do not
+     * resolve to a metacard
+     */
+    public List<Metacard> getMetacards(Product[] products)
+            throws UnsupportedEncodingException, WrongAdapter, WrongPolicy {
+        List<String> ids = new ArrayList<>();
+        if (products != null) {
+            for (Product product : products) {
+                if (product != null) {
+                    ids.add(getProductId(product));
+                }
+            }
+        }
+
+        Map<String, Metacard> metacards = getMetacards(ids);
+        return ids.stream()
+                .map(metacards::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
     public Metacard getMetacard(String id) {
-        Metacard metacard = null;
-        List<Result> results = new ArrayList<>();
+        if (metacardCache == null) {
+            return queryMetacard(id);
+        }
+        return metacardCache.getMetacard(id, this::queryMetacard);
+    }
 
+    /**
+     * Looks up the metacards for several ids, querying the catalog for the ids that are not cached
+     * in batches of at most the product batch size.
+     *
+     * @param ids - the metacard ids
+     * @return the metacards keyed by id, in the order of the ids, without the ids that do not
+     * resolve to a metacard
+     */
+    public Map<String, Metacard> getMetacards(Collection<String> ids) {
+        if (metacardCache == null) {
+            return queryMetacards(ids);
+        }
+        return metacardCache.getMetacards(ids, this::queryMetacards);
+    }
+
+    private Metacard queryMetacard(String id) {
         Filter filter = filterBuilder.attribute(Metacard.ID).is().equalTo().text(id);
+        List<Result> results = query(filter, 10);
+
+        if (!results.isEmpty()) {
+            return results.iterator().next().getMetacard();
+        }
+        return null;
+    }
+
+    private Map<String, Metacard> queryMetacards(Collection<String> ids) {
+        List<String> uniqueIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        int batchSize = productBatchSize < 1 ? uniqueIds.size() : productBatchSize;
+
+        Map<String, Metacard> metacards = new LinkedHashMap<>();
+        for (int start = 0; start < uniqueIds.size(); start += batchSize) {
+            metacards.putAll(queryBatch(uniqueIds.subList(start,
+                    Math.min(start + batchSize, uniqueIds.size()))));
+        }
+        return metacards;
+    }
+
+    /**
+     * Looks up the metacards for a batch of ids with a single OR-of-ids catalog query.
+     */
+    private Map<String, Metacard> queryBatch(List<String> ids) {
+        Map<String, Metacard> metacards = new LinkedHashMap<>();
+        Set<String> idSet = new HashSet<>(ids);
+        List<Filter> filters = idSet.stream()
+                .map(id -> filterBuilder.attribute(Metacard.ID).is().equalTo().text(id))
+                .collect(Collectors.toList());
+        Filter filter = filters.size() == 1 ? filters.get(0) : filterBuilder.anyOf(filters);
+
+        // Federated sources may return the same metacard more than once, keep the first
+        Map<String, Metacard> found = new HashMap<>();
+        for (Result result : query(filter, idSet.size() * 10)) {
+            Metacard metacard = result.getMetacard();
+            if (metacard != null && idSet.contains(metacard.getId())) {
+                found.putIfAbsent(metacard.getId(), metacard);
+            }
+        }
+
+        for (String id : ids) {
+            Metacard metacard = found.get(id);
+            if (metacard != null) {
+                metacards.put(id, metacard);
+            }
+        }
+        return metacards;
+    }
+
+    private List<Result> query(Filter filter, int pageSize) {
+        List<Result> results = new ArrayList<>();
 
         QueryImpl catalogQuery = new QueryImpl(filter);
         catalogQuery.setRequestsTotalResultsCount(false);
-        catalogQuery.setPageSize(10);
+        catalogQuery.setPageSize(pageSize);
 
         QueryRequestImpl catalogQueryRequest;
 
@@ -211,11 +336,7 @@ public class AccessManagerImpl extends AccessManagerPOA {
             LOGGER.debug("Unable to query catalog", e);
         }
 
-        if (!results.isEmpty()) {
-            metacard = results.iterator().next().getMetacard();
-        }
-
-        return metacard;
+        return results;
     }
 
     public boolean isUrlValid(String urlStr) {
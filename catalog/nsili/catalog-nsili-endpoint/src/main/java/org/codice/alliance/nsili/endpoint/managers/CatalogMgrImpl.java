@@ -20,6 +20,7 @@ import java.util.UUID;
 import java.util.concurrent.Callable;
 
 import org.codice.alliance.nsili.common.BqsConverter;
+import org.codice.alliance.nsili.common.BqsQueryCache;
 import org.codice.alliance.nsili.common.GIAS.CatalogMgrPOA;
 import org.codice.alliance.nsili.common.GIAS.HitCountRequest;
 import org.codice.alliance.nsili.common.GIAS.HitCountRequestHelper;
@@ -35,6 +36,8 @@ import org.codice.alliance.nsili.common.UCO.ProcessingFault;
 import org.codice.alliance.nsili.common.UCO.SystemFault;
 import org.codice.alliance.nsili.endpoint.LibraryImpl;
 import org.codice.alliance.nsili.endpoint.NsiliEndpoint;
+import org.codice.alliance.nsili.endpoint.ResultDAGConversionPipeline;
+import org.codice.alliance.nsili.endpoint.ServantLifecycleManager;
 import org.codice.alliance.nsili.endpoint.requests.HitCountRequestImpl;
 import org.codice.alliance.nsili.endpoint.requests.SubmitQueryRequestImpl;
 import org.omg.CORBA.NO_IMPLEMENT;
@@ -74,6 +77,12 @@ public class CatalogMgrImpl extends CatalogMgrPOA {
 
     private boolean outgoingValidationEnabled;
 
+    private ServantLifecycleManager servantLifecycleManager;
+
+    private ResultDAGConversionPipeline conversionPipeline;
+
+    private BqsQueryCache bqsQueryCache;
+
     public CatalogMgrImpl(POA poa, FilterBuilder filterBuilder, Set<String> querySources) {
         this.poa = poa;
         this.filterBuilder = filterBuilder;
@@ -98,6 +107,18 @@ public class CatalogMgrImpl extends CatalogMgrPOA {
         this.outgoingValidationEnabled = outgoingValidationEnabled;
     }
 
+    public void setServantLifecycleManager(ServantLifecycleManager servantLifecycleManager) {
+        this.servantLifecycleManager = servantLifecycleManager;
+    }
+
+    public void setConversionPipeline(ResultDAGConversionPipeline conversionPipeline) {
+        this.conversionPipeline = conversionPipeline;
+    }
+
+    public void setBqsQueryCache(BqsQueryCache bqsQueryCache) {
+        this.bqsQueryCache = bqsQueryCache;
+    }
+
     @Override
     public Request[] get_active_requests() throws ProcessingFault, SystemFault {
         return new Request[0];
@@ -136,7 +157,9 @@ public class CatalogMgrImpl extends CatalogMgrPOA {
     public SubmitQueryRequest submit_query(Query aQuery, String[] result_attributes,
             SortAttribute[] sort_attributes, NameValue[] properties)
             throws ProcessingFault, InvalidInputParameter, SystemFault {
-        BqsConverter bqsConverter = new BqsConverter(filterBuilder, removeSourceLibrary);
+        BqsConverter bqsConverter = new BqsConverter(filterBuilder,
+                removeSourceLibrary,
+                bqsQueryCache);
         SubmitQueryRequestImpl submitQueryRequest = new SubmitQueryRequestImpl(aQuery,
                 filterBuilder,
                 bqsConverter,
@@ -147,12 +170,17 @@ public class CatalogMgrImpl extends CatalogMgrPOA {
         submitQueryRequest.setOutgoingValidationEnabled(outgoingValidationEnabled);
 
         submitQueryRequest.setResultAttributes(result_attributes);
+        if (conversionPipeline != null) {
+            submitQueryRequest.setConversionPipeline(conversionPipeline);
+        }
 
         String queryId = UUID.randomUUID()
                 .toString();
+        submitQueryRequest.setServantLifecycleManager(servantLifecycleManager, queryId);
         try {
             poa.activate_object_with_id(queryId.getBytes(Charset.forName(NsiliEndpoint.ENCODING)),
                     submitQueryRequest);
+            trackServant(queryId);
         } catch (ServantAlreadyActive | ObjectAlreadyActive | WrongPolicy e) {
             LOGGER.debug("submit_query : Unable to activate submitQueryRequest object.", e);
         }
@@ -173,10 +201,12 @@ public class CatalogMgrImpl extends CatalogMgrPOA {
 
         String id = UUID.randomUUID()
                 .toString();
+        hitCountRequest.setServantLifecycleManager(servantLifecycleManager, id);
 
         try {
             poa.activate_object_with_id(id.getBytes(Charset.forName(NsiliEndpoint.ENCODING)),
                     hitCountRequest);
+            trackServant(id);
         } catch (ServantAlreadyActive | ObjectAlreadyActive | WrongPolicy e) {
             LOGGER.debug("hit_count : Unable to activate hitCountRequest object: {}", id, e);
         }
@@ -188,6 +218,12 @@ public class CatalogMgrImpl extends CatalogMgrPOA {
         return queryRequest;
     }
 
+    private void trackServant(String id) {
+        if (servantLifecycleManager != null) {
+            servantLifecycleManager.track(poa, id);
+        }
+    }
+
     @Override
     public String[] get_property_names() throws ProcessingFault, SystemFault {
         //Per the spec throw NO_IMPLEMENT
@@ -210,7 +246,9 @@ public class CatalogMgrImpl extends CatalogMgrPOA {
     protected long getResultCount(Query aQuery) {
         long resultCount = 0;
 
-        BqsConverter bqsConverter = new BqsConverter(filterBuilder, removeSourceLibrary);
+        BqsConverter bqsConverter = new BqsConverter(filterBuilder,
+                removeSourceLibrary,
+                bqsQueryCache);
         Filter parsedFilter = bqsConverter.convertBQSToDDF(aQuery);
 
         //Always need to ask for the DEFAULT_TAG or we get non-resource metacards
@@ -135,7 +135,7 @@ public class CreationMgrImpl extends CreationMgrPOA {
             throws InvalidInputParameter, ProcessingFault, SystemFault {
     }
 
-    private AccessManagerImpl getAccessManager() {
+    private synchronized AccessManagerImpl getAccessManager() {
         if (accessManager == null) {
             accessManager = new AccessManagerImpl();
             accessManager.setCatalogFramework(catalogFramework);
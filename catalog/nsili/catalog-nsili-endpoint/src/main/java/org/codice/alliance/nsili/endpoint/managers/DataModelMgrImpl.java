@@ -54,7 +54,7 @@ public class DataModelMgrImpl extends DataModelMgrPOA {
 
     private static final short MAX_VERTICES = 10;
 
-    private NsiliDataModel nsiliDataModel = new NsiliDataModel();
+    private final NsiliDataModel nsiliDataModel = NsiliDataModel.getInstance();
 
     static {
         VIEWS = new View[VIEW_NAMES.length];
@@ -118,16 +118,13 @@ public class DataModelMgrImpl extends DataModelMgrPOA {
     @Override
     public AttributeInformation[] get_attributes(String view_name, NameValue[] properties)
             throws InvalidInputParameter, ProcessingFault, SystemFault {
-        AttributeInformation[] attributes = nsiliDataModel.getAttributesForView(view_name)
-                .toArray(new AttributeInformation[0]);
-        return attributes;
+        return nsiliDataModel.getAttributesArrayForView(view_name);
     }
 
     @Override
     public AttributeInformation[] get_queryable_attributes(String view_name, NameValue[] properties)
             throws InvalidInputParameter, ProcessingFault, SystemFault {
-        return nsiliDataModel.getAttributesForView(view_name)
-                .toArray(new AttributeInformation[0]);
+        return nsiliDataModel.getAttributesArrayForView(view_name);
     }
 
     @Override
@@ -139,8 +136,7 @@ public class DataModelMgrImpl extends DataModelMgrPOA {
     @Override
     public AttributeInformation[] get_entity_attributes(String aEntity, NameValue[] properties)
             throws InvalidInputParameter, ProcessingFault, SystemFault {
-        return nsiliDataModel.getAttributeInformation(aEntity)
-                .toArray(new AttributeInformation[0]);
+        return nsiliDataModel.getAttributeInformationArray(aEntity);
     }
 
     @Override
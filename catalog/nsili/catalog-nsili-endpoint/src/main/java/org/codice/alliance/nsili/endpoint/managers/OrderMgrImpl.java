@@ -39,7 +39,11 @@ import org.codice.alliance.nsili.common.UCO.NameValue;
 import org.codice.alliance.nsili.common.UCO.ProcessingFault;
 import org.codice.alliance.nsili.common.UCO.SystemFault;
 import org.codice.alliance.nsili.common.UID.Product;
+import org.codice.alliance.nsili.endpoint.HttpDeliveryTransport;
+import org.codice.alliance.nsili.endpoint.MetacardCache;
 import org.codice.alliance.nsili.endpoint.NsiliEndpoint;
+import org.codice.alliance.nsili.endpoint.OrderExecutionService;
+import org.codice.alliance.nsili.endpoint.ProductRetrievalPool;
 import org.codice.alliance.nsili.endpoint.requests.OrderRequestImpl;
 import org.codice.alliance.nsili.transformer.DAGConverter;
 import org.omg.CORBA.NO_IMPLEMENT;
@@ -64,6 +68,16 @@ public class OrderMgrImpl extends OrderMgrPOA {
 
     private EmailConfiguration emailConfiguration;
 
+    private ProductRetrievalPool retrievalPool;
+
+    private OrderExecutionService orderExecutionService;
+
+    private HttpDeliveryTransport deliveryTransport;
+
+    private MetacardCache metacardCache;
+
+    private int productBatchSize = AccessManagerImpl.DEFAULT_PRODUCT_BATCH_SIZE;
+
     public void setCatalogFramework(CatalogFramework catalogFramework) {
         this.catalogFramework = catalogFramework;
     }
@@ -72,6 +86,26 @@ public class OrderMgrImpl extends OrderMgrPOA {
         this.filterBuilder = filterBuilder;
     }
 
+    public void setRetrievalPool(ProductRetrievalPool retrievalPool) {
+        this.retrievalPool = retrievalPool;
+    }
+
+    public void setOrderExecutionService(OrderExecutionService orderExecutionService) {
+        this.orderExecutionService = orderExecutionService;
+    }
+
+    public void setDeliveryTransport(HttpDeliveryTransport deliveryTransport) {
+        this.deliveryTransport = deliveryTransport;
+    }
+
+    public void setMetacardCache(MetacardCache metacardCache) {
+        this.metacardCache = metacardCache;
+    }
+
+    public void setProductBatchSize(int productBatchSize) {
+        this.productBatchSize = productBatchSize;
+    }
+
     public void setQuerySources(Set<String> querySources) {
         this.querySources.clear();
         if (querySources != null) {
@@ -118,6 +152,12 @@ public class OrderMgrImpl extends OrderMgrPOA {
                 getAccessManager(),
                 catalogFramework,
                 emailConfiguration);
+        if (retrievalPool != null) {
+            orderRequestImpl.setRetrievalPool(retrievalPool);
+        }
+        if (deliveryTransport != null) {
+            orderRequestImpl.setDeliveryTransport(deliveryTransport);
+        }
 
         String id = UUID.randomUUID()
                 .toString();
@@ -133,6 +173,10 @@ public class OrderMgrImpl extends OrderMgrPOA {
 
         OrderRequest orderRequest = OrderRequestHelper.narrow(obj);
 
+        if (orderExecutionService != null) {
+            orderRequestImpl.start(orderExecutionService);
+        }
+
         return orderRequest;
     }
 
@@ -219,12 +263,14 @@ public class OrderMgrImpl extends OrderMgrPOA {
         throw new NO_IMPLEMENT();
     }
 
-    private AccessManagerImpl getAccessManager() {
+    private synchronized AccessManagerImpl getAccessManager() {
         if (accessManager == null) {
             accessManager = new AccessManagerImpl();
             accessManager.setCatalogFramework(catalogFramework);
             accessManager.setFilterBuilder(filterBuilder);
             accessManager.setQuerySources(querySources);
+            accessManager.setMetacardCache(metacardCache);
+            accessManager.setProductBatchSize(productBatchSize);
 
             String managerId = UUID.randomUUID()
                     .toString();
@@ -15,7 +15,6 @@ package org.codice.alliance.nsili.endpoint.managers;
 
 import java.io.UnsupportedEncodingException;
 import java.nio.charset.Charset;
-import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -49,6 +48,7 @@ import org.codice.alliance.nsili.common.UCO.NameValue;
 import org.codice.alliance.nsili.common.UCO.ProcessingFault;
 import org.codice.alliance.nsili.common.UCO.SystemFault;
 import org.codice.alliance.nsili.common.UID.Product;
+import org.codice.alliance.nsili.endpoint.MetacardCache;
 import org.codice.alliance.nsili.endpoint.NsiliEndpoint;
 
 import ddf.catalog.CatalogFramework;
@@ -77,6 +77,10 @@ public class ProductMgrImpl extends ProductMgrPOA {
 
     private boolean outgoingValidationEnabled;
 
+    private MetacardCache metacardCache;
+
+    private int productBatchSize = AccessManagerImpl.DEFAULT_PRODUCT_BATCH_SIZE;
+
     public ProductMgrImpl(Set<String> querySources) {
         if (querySources != null) {
             this.querySources = new HashSet<>(querySources);
@@ -91,6 +95,14 @@ public class ProductMgrImpl extends ProductMgrPOA {
         this.filterBuilder = filterBuilder;
     }
 
+    public void setMetacardCache(MetacardCache metacardCache) {
+        this.metacardCache = metacardCache;
+    }
+
+    public void setProductBatchSize(int productBatchSize) {
+        this.productBatchSize = productBatchSize;
+    }
+
     public void setOutgoingValidationEnabled(boolean outgoingValidationEnabled) {
         this.outgoingValidationEnabled = outgoingValidationEnabled;
     }
@@ -114,6 +126,7 @@ public class ProductMgrImpl extends ProductMgrPOA {
                     filterBuilder,
                     querySources,
                     outgoingValidationEnabled);
+            getParametersRequest.setMetacardCache(metacardCache);
             _poa().activate_object_with_id(id.getBytes(Charset.forName(NsiliEndpoint.ENCODING)),
                     getParametersRequest);
 
@@ -148,14 +161,7 @@ public class ProductMgrImpl extends ProductMgrPOA {
                 .toString();
 
         try {
-            List<Metacard> metacards = new ArrayList<>();
-            AccessManagerImpl accessMgr = getAccessManager();
-            for (Product product : products) {
-                Metacard metacard = accessMgr.getMetacard(accessMgr.getProductId(product));
-                if (metacard != null) {
-                    metacards.add(metacard);
-                }
-            }
+            List<Metacard> metacards = getAccessManager().getMetacards(products);
 
             Integer port = getPort(properties);
             GetRelatedFilesRequestImpl getRelatedFilesRequest = new GetRelatedFilesRequestImpl(
@@ -273,12 +279,14 @@ public class ProductMgrImpl extends ProductMgrPOA {
         return port;
     }
 
-    private AccessManagerImpl getAccessManager() {
+    private synchronized AccessManagerImpl getAccessManager() {
         if (accessManager == null) {
             accessManager = new AccessManagerImpl();
             accessManager.setCatalogFramework(catalogFramework);
             accessManager.setFilterBuilder(filterBuilder);
             accessManager.setQuerySources(querySources);
+            accessManager.setMetacardCache(metacardCache);
+            accessManager.setProductBatchSize(productBatchSize);
 
             String managerId = UUID.randomUUID()
                     .toString();
@@ -18,6 +18,7 @@ import java.util.HashSet;
 import java.util.Set;
 import java.util.UUID;
 
+import org.codice.alliance.nsili.common.BqsQueryCache;
 import org.codice.alliance.nsili.common.GIAS.Event;
 import org.codice.alliance.nsili.common.GIAS.Library;
 import org.codice.alliance.nsili.common.GIAS.NamedEventType;
@@ -34,6 +35,9 @@ import org.codice.alliance.nsili.common.UCO.ProcessingFault;
 import org.codice.alliance.nsili.common.UCO.SystemFault;
 import org.codice.alliance.nsili.common.UCO.exception_details;
 import org.codice.alliance.nsili.endpoint.NsiliEndpoint;
+import org.codice.alliance.nsili.endpoint.ResultDAGConversionPipeline;
+import org.codice.alliance.nsili.endpoint.ServantLifecycleManager;
+import org.codice.alliance.nsili.endpoint.requests.StandingQueryScheduler;
 import org.codice.alliance.nsili.endpoint.requests.SubmitStandingQueryRequestImpl;
 import org.omg.CORBA.NO_IMPLEMENT;
 import org.omg.PortableServer.POAPackage.ObjectAlreadyActive;
@@ -69,6 +73,14 @@ public class StandingQueryMgrImpl extends StandingQueryMgrPOA {
 
     private long defaultTimeout = AccessManagerImpl.DEFAULT_TIMEOUT;
 
+    private StandingQueryScheduler standingQueryScheduler;
+
+    private BqsQueryCache bqsQueryCache;
+
+    private ResultDAGConversionPipeline conversionPipeline;
+
+    private ServantLifecycleManager servantLifecycleManager;
+
     public StandingQueryMgrImpl(Set<String> querySources) {
         if (querySources != null) {
             this.querySources.addAll(querySources);
@@ -104,6 +116,22 @@ public class StandingQueryMgrImpl extends StandingQueryMgrPOA {
         this.maxWaitToStartTimeMsecs = maxWaitToStartTimeMsecs;
     }
 
+    public void setStandingQueryScheduler(StandingQueryScheduler standingQueryScheduler) {
+        this.standingQueryScheduler = standingQueryScheduler;
+    }
+
+    public void setBqsQueryCache(BqsQueryCache bqsQueryCache) {
+        this.bqsQueryCache = bqsQueryCache;
+    }
+
+    public void setConversionPipeline(ResultDAGConversionPipeline conversionPipeline) {
+        this.conversionPipeline = conversionPipeline;
+    }
+
+    public void setServantLifecycleManager(ServantLifecycleManager servantLifecycleManager) {
+        this.servantLifecycleManager = servantLifecycleManager;
+    }
+
     protected void init() {
         NamedEventType startEventType = NamedEventType.from_int(NamedEventType._START_EVENT);
         Event startEvent = new Event("START_EVENT", startEventType, "");
@@ -149,13 +177,24 @@ public class StandingQueryMgrImpl extends StandingQueryMgrPOA {
                 maxPendingResults,
                 removeSourceLibrary,
                 outgoingValidationEnabled,
-                maxWaitToStartTimeMsecs);
+                maxWaitToStartTimeMsecs,
+                standingQueryScheduler,
+                bqsQueryCache);
+        if (conversionPipeline != null) {
+            standingQueryRequest.setConversionPipeline(conversionPipeline);
+        }
 
         String id = UUID.randomUUID()
                 .toString();
+        standingQueryRequest.setServantLifecycleManager(servantLifecycleManager, id);
         try {
             _poa().activate_object_with_id(id.getBytes(Charset.forName(NsiliEndpoint.ENCODING)),
                     standingQueryRequest);
+            if (servantLifecycleManager != null) {
+                // An abandoned standing query is stopped as well as deactivated, so the scheduler
+                // doesn't keep executing it.
+                servantLifecycleManager.track(_poa(), id, standingQueryRequest::stop);
+            }
         } catch (ServantAlreadyActive | ObjectAlreadyActive | WrongPolicy e) {
             LOGGER.debug("submit_standing_query : Unable to activate submitStandingQueryRequest object.", e);
         }
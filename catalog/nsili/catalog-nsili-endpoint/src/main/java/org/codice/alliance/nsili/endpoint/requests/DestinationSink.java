@@ -16,12 +16,23 @@ package org.codice.alliance.nsili.endpoint.requests;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
 
+import org.codice.ddf.platform.util.TemporaryFileBackedOutputStream;
+
+import com.google.common.io.ByteSource;
+
 import ddf.catalog.data.Metacard;
 
 public interface DestinationSink {
 
+    /**
+     * The number of bytes of a streamed file that are buffered in memory, by sinks that need the
+     * whole file before writing it, before the rest is buffered in a temporary file.
+     */
+    int MAX_MEMORY_SIZE = 100 * 1024 * 1024;
+
     /**
      * Write a data stream to a destination.
      *
@@ -34,4 +45,38 @@ public interface DestinationSink {
      */
     void writeFile(InputStream fileData, long size, String name, String contentType,
             List<Metacard> metacards) throws IOException;
+
+    /**
+     * Write data to a destination as it is produced, such as a package whose size isn't known
+     * until it has been written. By default the data is buffered and then passed to
+     * {@link #writeFile(InputStream, long, String, String, List)}.
+     *
+     * @param packageWriter writes the data to be written
+     * @param name        the name of the file to be written
+     * @param contentType the content type of the file to be written
+     * @param metacards   the metacards associated with the data
+     * @throws IOException exception indicating that data could not be written
+     */
+    default void writeStream(PackageWriter packageWriter, String name, String contentType,
+            List<Metacard> metacards) throws IOException {
+        try (TemporaryFileBackedOutputStream buffer = new TemporaryFileBackedOutputStream(
+                MAX_MEMORY_SIZE)) {
+            packageWriter.write(buffer);
+            ByteSource contents = buffer.asByteSource();
+            try (InputStream fileData = contents.openStream()) {
+                writeFile(fileData, contents.size(), name, contentType, metacards);
+            }
+        }
+    }
+
+    /**
+     * Writes the data of a streamed file, such as a package.
+     */
+    @FunctionalInterface
+    interface PackageWriter {
+        /**
+         * @param out the stream to write to, which must be left open
+         */
+        void write(OutputStream out) throws IOException;
+    }
 }
\ No newline at end of file
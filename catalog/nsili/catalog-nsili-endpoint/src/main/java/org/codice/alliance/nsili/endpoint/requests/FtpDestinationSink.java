@@ -24,13 +24,14 @@ import org.apache.http.auth.AuthScope;
 import org.apache.http.auth.UsernamePasswordCredentials;
 import org.apache.http.client.CredentialsProvider;
 import org.apache.http.client.methods.HttpPut;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.entity.EntityTemplate;
 import org.apache.http.entity.InputStreamEntity;
 import org.apache.http.impl.client.BasicCredentialsProvider;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
 import org.apache.http.protocol.HTTP;
 import org.codice.alliance.nsili.common.GIAS.Destination;
 import org.codice.alliance.nsili.common.UCO.FileLocation;
+import org.codice.alliance.nsili.endpoint.HttpDeliveryTransport;
 import org.slf4j.LoggerFactory;
 
 import ddf.catalog.data.Metacard;
@@ -49,47 +50,57 @@ public class FtpDestinationSink implements DestinationSink {
 
     private int port;
 
-    FtpDestinationSink(FileLocation fileLocation, int port, String protocol) {
+    private HttpDeliveryTransport deliveryTransport;
+
+    FtpDestinationSink(FileLocation fileLocation, int port, String protocol,
+            HttpDeliveryTransport deliveryTransport) {
         this.fileLocation = fileLocation;
         this.protocol = protocol;
         this.port = port;
+        this.deliveryTransport = deliveryTransport;
     }
 
     @Override
     public void writeFile(InputStream fileData, long size, String name, String contentType,
             List<Metacard> metacards) throws IOException {
-        CloseableHttpClient httpClient = null;
+        try {
+            put(name, contentType, new InputStreamEntity(fileData, size));
+        } finally {
+            fileData.close();
+        }
+    }
+
+    /**
+     * Uploads the data as it is written, using chunked transfer encoding, rather than buffering
+     * it first to find its size.
+     */
+    @Override
+    public void writeStream(PackageWriter packageWriter, String name, String contentType,
+            List<Metacard> metacards) throws IOException {
+        EntityTemplate httpEntity = new EntityTemplate(packageWriter::write);
+        httpEntity.setChunked(true);
+        put(name, contentType, httpEntity);
+    }
+
+    private void put(String name, String contentType, HttpEntity httpEntity) throws IOException {
         String urlPath = protocol + "://" + fileLocation.host_name + ":" + port + "/"
                 + fileLocation.path_name + "/" + name;
 
         LOGGER.debug("Writing ordered file to URL: {}", urlPath);
 
-        try {
-            HttpPut putMethod = new HttpPut(urlPath);
-            putMethod.addHeader(HTTP.CONTENT_TYPE, contentType);
-            HttpEntity httpEntity = new InputStreamEntity(fileData, size);
-            putMethod.setEntity(httpEntity);
-
-            if (StringUtils.isNotEmpty(fileLocation.user_name) && fileLocation.password != null) {
-                CredentialsProvider credsProvider = new BasicCredentialsProvider();
-                credsProvider.setCredentials(new AuthScope(fileLocation.host_name, port),
-                        new UsernamePasswordCredentials(fileLocation.user_name,
-                                fileLocation.password));
-                httpClient = HttpClients.custom()
-                        .setDefaultCredentialsProvider(credsProvider)
-                        .build();
-            } else {
-                httpClient = HttpClients.createDefault();
-            }
-
-            httpClient.execute(putMethod);
-            fileData.close();
-            putMethod.releaseConnection();
-        } finally {
-            if (httpClient != null) {
-                httpClient.close();
-            }
+        HttpPut putMethod = new HttpPut(urlPath);
+        putMethod.addHeader(HTTP.CONTENT_TYPE, contentType);
+        putMethod.setEntity(httpEntity);
+
+        HttpClientContext context = HttpClientContext.create();
+        if (StringUtils.isNotEmpty(fileLocation.user_name) && fileLocation.password != null) {
+            CredentialsProvider credsProvider = new BasicCredentialsProvider();
+            credsProvider.setCredentials(new AuthScope(fileLocation.host_name, port),
+                    new UsernamePasswordCredentials(fileLocation.user_name,
+                            fileLocation.password));
+            context.setCredentialsProvider(credsProvider);
         }
-    }
 
+        deliveryTransport.send(putMethod, context);
+    }
 }
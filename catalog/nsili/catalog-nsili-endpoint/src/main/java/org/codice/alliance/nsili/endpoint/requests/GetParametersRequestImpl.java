@@ -41,6 +41,7 @@ import org.codice.alliance.nsili.common.UCO.State;
 import org.codice.alliance.nsili.common.UCO.Status;
 import org.codice.alliance.nsili.common.UCO.StringDAGHolder;
 import org.codice.alliance.nsili.common.UCO.SystemFault;
+import org.codice.alliance.nsili.endpoint.MetacardCache;
 import org.codice.alliance.nsili.endpoint.NsiliEndpoint;
 import org.codice.alliance.nsili.common.datamodel.NsiliDataModel;
 import org.omg.CORBA.NO_IMPLEMENT;
@@ -50,6 +51,7 @@ import org.slf4j.LoggerFactory;
 import ddf.catalog.CatalogFramework;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.Result;
+import ddf.catalog.data.impl.ResultImpl;
 import ddf.catalog.filter.FilterBuilder;
 import ddf.catalog.operation.Query;
 import ddf.catalog.operation.QueryRequest;
@@ -75,6 +77,8 @@ public class GetParametersRequestImpl extends GetParametersRequestPOA {
 
     private boolean outgoingValidationEnabled;
 
+    private MetacardCache metacardCache;
+
     public GetParametersRequestImpl(String productIdStr, String[] desiredParameters,
             CatalogFramework catalogFramework, FilterBuilder filterBuilder,
             Set<String> querySources, boolean outgoingValidationEnabled) {
@@ -88,6 +92,14 @@ public class GetParametersRequestImpl extends GetParametersRequestPOA {
         this.outgoingValidationEnabled = outgoingValidationEnabled;
     }
 
+    /**
+     * Sets the cache used to look up the product's metacard. The metacard is not cached when this
+     * is null.
+     */
+    public void setMetacardCache(MetacardCache metacardCache) {
+        this.metacardCache = metacardCache;
+    }
+
     @Override
     public State complete(DAGHolder parameters) throws ProcessingFault, SystemFault {
         Filter filter = filterBuilder.attribute(Metacard.ID)
@@ -95,14 +107,23 @@ public class GetParametersRequestImpl extends GetParametersRequestPOA {
                 .equalTo()
                 .text(productIdStr);
         Query query = new QueryImpl(filter);
-        Result result = getResult(query);
+        Result result;
+        if (metacardCache == null) {
+            result = getResult(query);
+        } else {
+            Metacard metacard = metacardCache.getMetacard(productIdStr, id -> {
+                Result queryResult = getResult(query);
+                return queryResult != null ? queryResult.getMetacard() : null;
+            });
+            result = metacard != null ? new ResultImpl(metacard) : null;
+        }
 
         if (result != null) {
             Map<String, List<String>> mandatoryAttributes = new HashMap<>();
 
             if (outgoingValidationEnabled) {
-                NsiliDataModel nsiliDataModel = new NsiliDataModel();
-                mandatoryAttributes = nsiliDataModel.getRequiredAttrsForView(NsiliConstants.NSIL_ALL_VIEW);
+                mandatoryAttributes = NsiliDataModel.getInstance()
+                        .getRequiredAttrsForView(NsiliConstants.NSIL_ALL_VIEW);
             }
             try {
                 if (desiredParameters != null) {
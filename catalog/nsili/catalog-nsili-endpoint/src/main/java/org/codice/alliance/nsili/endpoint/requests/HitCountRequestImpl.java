@@ -24,19 +24,31 @@ import org.codice.alliance.nsili.common.UCO.RequestDescription;
 import org.codice.alliance.nsili.common.UCO.State;
 import org.codice.alliance.nsili.common.UCO.Status;
 import org.codice.alliance.nsili.common.UCO.SystemFault;
+import org.codice.alliance.nsili.endpoint.ServantLifecycleManager;
 
 public class HitCountRequestImpl extends HitCountRequestPOA {
 
     private int numberOfHits = 0;
 
+    private ServantLifecycleManager servantLifecycleManager;
+
+    private String servantId;
+
     public HitCountRequestImpl(int numberOfHits) {
         this.numberOfHits = numberOfHits;
     }
 
+    public void setServantLifecycleManager(ServantLifecycleManager servantLifecycleManager,
+            String servantId) {
+        this.servantLifecycleManager = servantLifecycleManager;
+        this.servantId = servantId;
+    }
+
     @Override
     public State complete(org.omg.CORBA.IntHolder number_of_hits)
             throws ProcessingFault, SystemFault {
         number_of_hits.value = numberOfHits;
+        markCompleted();
         return State.COMPLETED;
     }
 
@@ -63,7 +75,7 @@ public class HitCountRequestImpl extends HitCountRequestPOA {
 
     @Override
     public void cancel() throws ProcessingFault, SystemFault {
-        return;
+        markCompleted();
     }
 
     @Override
@@ -82,4 +94,10 @@ public class HitCountRequestImpl extends HitCountRequestPOA {
     public RequestManager get_request_manager() throws ProcessingFault, SystemFault {
         return new _RequestManagerStub();
     }
+
+    private void markCompleted() {
+        if (servantLifecycleManager != null) {
+            servantLifecycleManager.complete(servantId);
+        }
+    }
 }
@@ -0,0 +1,203 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.nsili.endpoint.requests;
+
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import org.apache.commons.io.input.ProxyInputStream;
+import org.codice.alliance.nsili.common.GIAS.DelayEstimate;
+import org.codice.alliance.nsili.common.UCO.State;
+import org.codice.alliance.nsili.common.UCO.Status;
+
+/**
+ * Tracks how far an order has got, so it can be reported through get_status and
+ * get_remaining_delay while the order is being fulfilled.
+ */
+class OrderProgress {
+
+    private final LongSupplier clock;
+
+    private final AtomicLong bytesRetrieved = new AtomicLong();
+
+    private State state = State.PENDING;
+
+    private boolean warning = false;
+
+    private String message = null;
+
+    private long startTime;
+
+    private int totalProducts;
+
+    private int productsRetrieved;
+
+    private int productsPackaged;
+
+    private long totalBytes;
+
+    private boolean totalBytesKnown = true;
+
+    private int destination;
+
+    private int destinations;
+
+    OrderProgress() {
+        this(System::currentTimeMillis);
+    }
+
+    OrderProgress(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    synchronized void started(int totalProducts, int destinations) {
+        if (state == State.PENDING) {
+            state = State.IN_PROGRESS;
+            startTime = clock.getAsLong();
+            this.totalProducts = totalProducts;
+            this.destinations = destinations;
+        }
+    }
+
+    /**
+     * Records a retrieved product. Bytes read from the returned stream are counted as retrieved.
+     */
+    synchronized InputStream productRetrieved(InputStream inputStream, long size) {
+        productsRetrieved++;
+        if (size > 0) {
+            totalBytes += size;
+        } else {
+            totalBytesKnown = false;
+        }
+
+        return new ProxyInputStream(inputStream) {
+            @Override
+            protected void afterRead(int n) {
+                if (n > 0) {
+                    bytesRetrieved.addAndGet(n);
+                }
+            }
+        };
+    }
+
+    /**
+     * Records a product being packaged. The product is counted as packaged once the returned
+     * stream has been read to the end.
+     */
+    InputStream productPackaging(InputStream inputStream) {
+        return new ProxyInputStream(inputStream) {
+            private boolean packaged = false;
+
+            @Override
+            protected void afterRead(int n) {
+                if (n < 0 && !packaged) {
+                    packaged = true;
+                    productPackaged();
+                }
+            }
+        };
+    }
+
+    private synchronized void productPackaged() {
+        productsPackaged++;
+    }
+
+    synchronized void delivering(int destination) {
+        this.destination = destination;
+    }
+
+    synchronized void completed() {
+        if (state == State.IN_PROGRESS || state == State.PENDING) {
+            state = State.COMPLETED;
+        }
+    }
+
+    synchronized void failed(String message) {
+        if (state == State.IN_PROGRESS || state == State.PENDING) {
+            state = State.COMPLETED;
+            warning = true;
+            this.message = message;
+        }
+    }
+
+    synchronized void cancelled() {
+        if (state == State.IN_PROGRESS || state == State.PENDING) {
+            state = State.CANCELED;
+        }
+    }
+
+    synchronized boolean isCancelled() {
+        return state == State.CANCELED;
+    }
+
+    synchronized Status getStatus() {
+        switch (state.value()) {
+        case State._PENDING:
+            return new Status(state, false, "Order is queued");
+        case State._IN_PROGRESS:
+            return new Status(state, false, getProgressMessage());
+        case State._CANCELED:
+            return new Status(state, false, "Order has been cancelled");
+        default:
+            return new Status(state,
+                    warning,
+                    message != null ? message : "Order has been delivered");
+        }
+    }
+
+    /**
+     * Estimates the time left from the rate products have been read at so far. The estimate is
+     * only valid once every product has been retrieved with a known size and reading has begun.
+     */
+    synchronized DelayEstimate getRemainingDelay() {
+        if (state != State.IN_PROGRESS) {
+            return new DelayEstimate(0, state != State.PENDING);
+        }
+
+        long bytesRead = bytesRetrieved.get();
+        long elapsed = clock.getAsLong() - startTime;
+        if (productsRetrieved < totalProducts || !totalBytesKnown || bytesRead <= 0
+                || elapsed <= 0) {
+            return new DelayEstimate(0, false);
+        }
+
+        long remainingBytes = Math.max(0, totalBytes - bytesRead);
+        long remainingMillis = (long) ((double) remainingBytes * elapsed / bytesRead);
+        long remainingSecs = TimeUnit.MILLISECONDS.toSeconds(remainingMillis + 999);
+        return new DelayEstimate((int) Math.min(Integer.MAX_VALUE, remainingSecs), true);
+    }
+
+    long getBytesRetrieved() {
+        return bytesRetrieved.get();
+    }
+
+    private String getProgressMessage() {
+        StringBuilder progressMessage = new StringBuilder();
+        progressMessage.append(String.format("Retrieved %d of %d products (%d bytes)",
+                productsRetrieved,
+                totalProducts,
+                bytesRetrieved.get()))
+                .append(String.format(", packaged %d of %d", productsPackaged, totalProducts));
+        if (destination > 0) {
+            progressMessage.append(String.format(", delivering to destination %d of %d",
+                    destination,
+                    destinations));
+        } else {
+            progressMessage.append(", awaiting delivery");
+        }
+        return progressMessage.toString();
+    }
+}
@@ -13,14 +13,22 @@
  */
 package org.codice.alliance.nsili.endpoint.requests;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
 import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.zip.GZIPOutputStream;
@@ -28,6 +36,7 @@ import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.CloseShieldOutputStream;
 import org.apache.shiro.subject.ExecutionException;
 import org.codice.alliance.nsili.common.CB.Callback;
 import org.codice.alliance.nsili.common.GIAS.DelayEstimate;
@@ -50,7 +59,10 @@ import org.codice.alliance.nsili.common.UCO.RequestDescription;
 import org.codice.alliance.nsili.common.UCO.State;
 import org.codice.alliance.nsili.common.UCO.Status;
 import org.codice.alliance.nsili.common.UCO.SystemFault;
+import org.codice.alliance.nsili.endpoint.HttpDeliveryTransport;
 import org.codice.alliance.nsili.endpoint.NsiliEndpoint;
+import org.codice.alliance.nsili.endpoint.OrderExecutionService;
+import org.codice.alliance.nsili.endpoint.ProductRetrievalPool;
 import org.codice.alliance.nsili.endpoint.managers.AccessManagerImpl;
 import org.codice.alliance.nsili.endpoint.managers.EmailConfiguration;
 import org.codice.ddf.platform.util.TemporaryFileBackedOutputStream;
@@ -63,8 +75,6 @@ import org.omg.PortableServer.POAPackage.WrongAdapter;
 import org.omg.PortableServer.POAPackage.WrongPolicy;
 import org.slf4j.LoggerFactory;
 
-import com.google.common.io.ByteSource;
-
 import ddf.catalog.CatalogFramework;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.operation.ResourceRequest;
@@ -83,18 +93,24 @@ public class OrderRequestImpl extends OrderRequestPOA {
 
     private static final int DEFAULT_TAR_PERMISSION = 660;
 
-    private static final int MB = 1024 * 1024;
-
-    private static final int MAX_MEMORY_SIZE = 100 * MB;
+    private static final int MAX_MEMORY_PRODUCT_SIZE = 1024 * 1024;
 
     private final Function<Destination, Optional<DestinationSink>> destinationSinkFactory;
 
+    private final OrderProgress progress = new OrderProgress();
+
     private OrderContents order;
 
     private AccessManagerImpl accessManager;
 
     private CatalogFramework catalogFramework;
 
+    private ProductRetrievalPool retrievalPool = new ProductRetrievalPool(0);
+
+    private HttpDeliveryTransport deliveryTransport;
+
+    private FutureTask<DeliveryManifest> fulfilment;
+
     /**
      * This constructor is only intended for unit testing.
      */
@@ -110,110 +126,303 @@ public class OrderRequestImpl extends OrderRequestPOA {
     public OrderRequestImpl(OrderContents order, String protocol, int port,
             AccessManagerImpl accessManager, CatalogFramework catalogFramework,
             EmailConfiguration emailConfiguration) {
-        this(order, accessManager, catalogFramework, destination -> {
+        this.order = order;
+        this.accessManager = accessManager;
+        this.catalogFramework = catalogFramework;
+        this.destinationSinkFactory = destination -> {
             switch (destination.discriminator()
                     .value()) {
             case DestinationType._FTP:
-                return Optional.of(new FtpDestinationSink(destination.f_dest(), port, protocol));
+                if (deliveryTransport == null) {
+                    LOGGER.warn("No delivery transport is configured, unable to deliver order");
+                    return Optional.empty();
+                }
+                return Optional.of(new FtpDestinationSink(destination.f_dest(),
+                        port,
+                        protocol,
+                        deliveryTransport));
             case DestinationType._EMAIL:
                 return Optional.of(new EmailDestinationSink(destination.e_dest(),
                         emailConfiguration));
             default:
                 return Optional.empty();
             }
-        });
+        };
+    }
+
+    /**
+     * Queues the order to be fulfilled in the background, so that its progress can be followed
+     * through get_status and get_remaining_delay. Orders that are not queued are fulfilled when
+     * complete is called.
+     */
+    public void start(OrderExecutionService orderExecutionService) {
+        if (order == null || order.prod_list == null || !orderContainsSupportedDelivery()) {
+            // complete reports why the order can't be fulfilled
+            return;
+        }
+
+        orderExecutionService.submit(getFulfilment());
     }
 
     @Override
     public State complete(DeliveryManifestHolder deliveryManifestHolder)
             throws ProcessingFault, SystemFault {
-        DeliveryManifest deliveryManifest = new DeliveryManifest();
-        List<PackageElement> packageElements = new ArrayList<>();
+        if (!orderContainsSupportedDelivery()) {
+            throw new NO_IMPLEMENT("Only HTTP(s) is supported");
+        }
 
-        if (orderContainsSupportedDelivery()) {
-            try {
-                String filename = null;
-                PackagingSpecFormatType packageFormatType = PackagingSpecFormatType.FILESUNC;
-
-                List<ResourceContainer> files = new ArrayList<>();
-
-                if (order.prod_list != null) {
-                    for (ProductDetails productDetails : order.prod_list) {
-                        if (productDetails != null) {
-                            Metacard metacard = accessManager.getMetacard(productDetails.aProduct);
-                            ResourceRequest resourceRequest =
-                                    new ResourceRequestById(metacard.getId());
-                            ResourceResponse resourceResponse;
-
-                            ResourceRequestCallable resourceRequestCallable =
-                                    new ResourceRequestCallable(resourceRequest,
-                                            metacard.getSourceId());
-                            resourceResponse = NsiliEndpoint.getGuestSubject()
-                                    .execute(resourceRequestCallable);
-
-                            if (resourceResponse != null
-                                    && resourceResponse.getResource() != null) {
-                                Resource resource = resourceResponse.getResource();
-                                ResourceContainer file =
-                                        new ResourceContainer(resource.getInputStream(),
-                                                resource.getName(),
-                                                resource.getSize(),
-                                                resource.getMimeTypeValue(),
-                                                metacard);
-                                files.add(file);
-                                // Alterations aren't supported, so we will only return original content
-                            }
-                        } else {
-                            LOGGER.debug("Order requested for a null product detail");
-                        }
-                    }
+        FutureTask<DeliveryManifest> fulfilment = getFulfilment();
+        // Fulfils the order on this thread unless it has already been taken from the queue
+        fulfilment.run();
+        if (fulfilment.isCancelled()) {
+            // Clear the interrupt that cancelled the order if it was being fulfilled on this
+            // thread, so it doesn't carry over to the next request this thread handles
+            Thread.interrupted();
+        }
+
+        try {
+            deliveryManifestHolder.value = fulfilment.get();
+        } catch (CancellationException e) {
+            deliveryManifestHolder.value = createDeliveryManifest(Collections.emptyList());
+            return State.CANCELED;
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                    .interrupt();
+            deliveryManifestHolder.value = createDeliveryManifest(Collections.emptyList());
+            return State.ABORTED;
+        } catch (java.util.concurrent.ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            LOGGER.debug("Unable to fulfil order:", cause);
+            deliveryManifestHolder.value = createDeliveryManifest(Collections.emptyList());
+        }
+
+        return State.COMPLETED;
+    }
+
+    public void setRetrievalPool(ProductRetrievalPool retrievalPool) {
+        this.retrievalPool = retrievalPool;
+    }
+
+    public void setDeliveryTransport(HttpDeliveryTransport deliveryTransport) {
+        this.deliveryTransport = deliveryTransport;
+    }
+
+    private synchronized FutureTask<DeliveryManifest> getFulfilment() {
+        if (fulfilment == null) {
+            // Product references can only be resolved while handling a CORBA request, so they
+            // are resolved before the order is handed to another thread
+            List<String> productIds = getProductIds();
+            fulfilment = new FutureTask<>(() -> fulfil(productIds));
+        }
+        return fulfilment;
+    }
+
+    private List<String> getProductIds() {
+        if (order.prod_list == null) {
+            throw new BAD_OPERATION("No products specified for the order");
+        }
+
+        List<String> productIds = new ArrayList<>();
+        try {
+            for (ProductDetails productDetails : order.prod_list) {
+                if (productDetails != null) {
+                    productIds.add(accessManager.getProductId(productDetails.aProduct));
                 } else {
-                    throw new BAD_OPERATION("No products specified for the order");
+                    LOGGER.debug("Order requested for a null product detail");
                 }
+            }
+        } catch (UnsupportedEncodingException | WrongAdapter | WrongPolicy e) {
+            LOGGER.debug("Unable to get Metacard for product:", e);
+            return null;
+        }
+        return productIds;
+    }
 
-                if (order.pSpec != null) {
-                    PackagingSpec packagingSpec = order.pSpec;
-                    filename = packagingSpec.package_identifier;
-                    packageFormatType =
-                            PackagingSpecFormatType.valueOf(packagingSpec.packaging_format_and_compression);
+    private DeliveryManifest fulfil(List<String> productIds) {
+        List<PackageElement> packageElements = new ArrayList<>();
+        if (productIds == null) {
+            progress.failed("Unable to find the products in the order");
+            return createDeliveryManifest(packageElements);
+        }
+
+        List<ResourceContainer> files = Collections.emptyList();
+        try {
+            String filename = null;
+            PackagingSpecFormatType packageFormatType = PackagingSpecFormatType.FILESUNC;
+
+            Map<String, Metacard> metacards = accessManager.getMetacards(productIds);
+            List<Callable<ResourceContainer>> retrievals = new ArrayList<>();
+            for (String productId : productIds) {
+                Metacard metacard = metacards.get(productId);
+                if (metacard == null) {
+                    LOGGER.debug("Unable to find metacard for ordered product: {}", productId);
+                    continue;
                 }
 
-                if (order.del_list != null) {
-                    for (DeliveryDetails deliveryDetails : order.del_list) {
-                        Destination destination = deliveryDetails.dests;
-
-                        Optional<DestinationSink> destinationSink = destinationSinkFactory.apply(
-                                destination);
-                        if (destinationSink.isPresent()) {
-                            List<String> filesSent = writeData(destinationSink.get(),
-                                    packageFormatType,
-                                    files,
-                                    filename);
-                            PackageElement packageElement = new PackageElement();
-                            packageElement.files = filesSent.toArray(new String[filesSent.size()]);
-                            packageElements.add(packageElement);
-                        }
+                ResourceRequest resourceRequest = new ResourceRequestById(metacard.getId());
+
+                ResourceRequestCallable resourceRequestCallable =
+                        new ResourceRequestCallable(resourceRequest, metacard.getSourceId());
+                retrievals.add(() -> retrieveProduct(resourceRequestCallable, metacard));
+            }
+
+            progress.started(retrievals.size(),
+                    order.del_list == null ? 0 : order.del_list.length);
+            files = getAll(retrievalPool.retrieve(retrievals));
 
+            if (order.pSpec != null) {
+                PackagingSpec packagingSpec = order.pSpec;
+                filename = packagingSpec.package_identifier;
+                packageFormatType =
+                        PackagingSpecFormatType.valueOf(packagingSpec.packaging_format_and_compression);
+            }
+
+            if (order.del_list != null) {
+                int destinationNum = 1;
+                for (DeliveryDetails deliveryDetails : order.del_list) {
+                    if (Thread.currentThread()
+                            .isInterrupted()) {
+                        throw new InterruptedException("Order was cancelled");
+                    }
+
+                    Destination destination = deliveryDetails.dests;
+                    progress.delivering(destinationNum++);
+
+                    Optional<DestinationSink> destinationSink = destinationSinkFactory.apply(
+                            destination);
+                    if (destinationSink.isPresent()) {
+                        List<String> filesSent = writeData(destinationSink.get(),
+                                packageFormatType,
+                                files,
+                                filename);
+                        PackageElement packageElement = new PackageElement();
+                        packageElement.files = filesSent.toArray(new String[filesSent.size()]);
+                        packageElements.add(packageElement);
                     }
                 }
-            } catch (UnsupportedEncodingException | WrongAdapter | WrongPolicy e) {
-                LOGGER.debug("Unable to get Metacard for product:", e);
-            } catch (IOException | ExecutionException | SecurityServiceException e) {
-                LOGGER.debug("Unable to retrieve resource:", e);
             }
-        } else {
-            throw new NO_IMPLEMENT("Only HTTP(s) is supported");
+            progress.completed();
+        } catch (IOException | ExecutionException | SecurityServiceException e) {
+            LOGGER.debug("Unable to retrieve resource:", e);
+            progress.failed("Unable to retrieve products: " + e.getMessage());
+        } catch (InterruptedException e) {
+            LOGGER.debug("Order was interrupted:", e);
+            progress.cancelled();
+        } catch (RuntimeException e) {
+            progress.failed("Unable to fulfil order: " + e.getMessage());
+            throw e;
+        } finally {
+            files.forEach(IOUtils::closeQuietly);
         }
 
+        return createDeliveryManifest(packageElements);
+    }
+
+    private DeliveryManifest createDeliveryManifest(List<PackageElement> packageElements) {
+        DeliveryManifest deliveryManifest = new DeliveryManifest();
         if (order.pSpec != null) {
             deliveryManifest.package_name = order.pSpec.package_identifier;
         }
 
         deliveryManifest.elements =
                 packageElements.toArray(new PackageElement[packageElements.size()]);
-        deliveryManifestHolder.value = deliveryManifest;
+        return deliveryManifest;
+    }
 
-        return State.COMPLETED;
+    /**
+     * Retrieves a product and reads it to the end on the calling thread, buffering it in memory or
+     * a temporary file, so that products retrieved on the pool are transferred concurrently rather
+     * than one at a time as they are packaged.
+     */
+    private ResourceContainer retrieveProduct(ResourceRequestCallable resourceRequestCallable,
+            Metacard metacard) throws SecurityServiceException, IOException {
+        ResourceResponse resourceResponse = NsiliEndpoint.getGuestSubject()
+                .execute(resourceRequestCallable);
+
+        if (resourceResponse != null && resourceResponse.getResource() != null) {
+            Resource resource = resourceResponse.getResource();
+            TemporaryFileBackedOutputStream contents =
+                    new TemporaryFileBackedOutputStream(MAX_MEMORY_PRODUCT_SIZE);
+            try (InputStream inputStream = progress.productRetrieved(resource.getInputStream(),
+                    resource.getSize())) {
+                IOUtils.copy(inputStream, contents);
+                if (Thread.currentThread()
+                        .isInterrupted()) {
+                    throw new InterruptedIOException("Order was cancelled");
+                }
+
+                // Alterations aren't supported, so we will only return original content
+                return new ResourceContainer(contents,
+                        resource.getName(),
+                        contents.asByteSource()
+                                .size(),
+                        resource.getMimeTypeValue(),
+                        metacard);
+            } catch (IOException | RuntimeException e) {
+                IOUtils.closeQuietly(contents);
+                throw e;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Waits for every product in the order to be retrieved or delivered, in order. If any fails
+     * the remaining ones are cancelled and the failure is rethrown.
+     */
+    private <T> List<T> getAll(List<Future<T>> tasks)
+            throws IOException, SecurityServiceException, InterruptedException {
+        List<T> results = new ArrayList<>();
+        try {
+            for (Future<T> task : tasks) {
+                T result = task.get();
+                if (result != null) {
+                    results.add(result);
+                }
+            }
+        } catch (java.util.concurrent.ExecutionException e) {
+            cancelAll(tasks);
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof SecurityServiceException) {
+                throw (SecurityServiceException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException("Unable to retrieve product", cause);
+        } catch (InterruptedException e) {
+            cancelAll(tasks);
+            Thread.currentThread()
+                    .interrupt();
+            throw e;
+        }
+        return results;
+    }
+
+    /**
+     * Cancels the tasks that are still running and releases the results of those that finished.
+     */
+    private <T> void cancelAll(List<Future<T>> tasks) {
+        for (Future<T> task : tasks) {
+            if (!task.cancel(true) && !task.isCancelled()) {
+                try {
+                    T result = task.get();
+                    if (result instanceof Closeable) {
+                        IOUtils.closeQuietly((Closeable) result);
+                    }
+                } catch (InterruptedException | java.util.concurrent.ExecutionException e) {
+                    LOGGER.trace("Task finished without a result to release", e);
+                }
+            }
+        }
     }
 
     @Override
@@ -228,16 +437,26 @@ public class OrderRequestImpl extends OrderRequestPOA {
 
     @Override
     public Status get_status() throws ProcessingFault, SystemFault {
-        return new Status();
+        return progress.getStatus();
     }
 
     @Override
     public DelayEstimate get_remaining_delay() throws ProcessingFault, SystemFault {
-        return new DelayEstimate();
+        return progress.getRemainingDelay();
     }
 
     @Override
     public void cancel() throws ProcessingFault, SystemFault {
+        FutureTask<DeliveryManifest> cancelledFulfilment;
+        synchronized (this) {
+            if (fulfilment == null) {
+                // Nothing has been done yet, so a cancelled order has nothing to deliver
+                fulfilment = new FutureTask<>(() -> null);
+            }
+            cancelledFulfilment = fulfilment;
+        }
+        progress.cancelled();
+        cancelledFulfilment.cancel(true);
     }
 
     @Override
@@ -278,7 +497,7 @@ public class OrderRequestImpl extends OrderRequestPOA {
 
     private List<String> writeData(DestinationSink destinationSink,
             PackagingSpecFormatType packagingSpecFormatType, List<ResourceContainer> files,
-            String filename) throws IOException {
+            String filename) throws IOException, SecurityServiceException, InterruptedException {
 
         List<String> sentFiles = new ArrayList<>();
 
@@ -288,405 +507,193 @@ public class OrderRequestImpl extends OrderRequestPOA {
                 String totalNumPortion = String.format(FILE_COUNT_FORMAT, totalNum);
 
                 switch (packagingSpecFormatType) {
-                case FILESUNC: {
+                case FILESUNC:
+                case FILESCOMPRESS:
+                case FILESGZIP: {
+                    // Each file is delivered separately, so they can be delivered concurrently
+                    List<Callable<String>> deliveries = new ArrayList<>();
                     int currNum = 1;
                     for (ResourceContainer file : files) {
                         String currNumPortion = String.format(FILE_COUNT_FORMAT, currNum);
                         String currFileName =
                                 filename + "." + currNumPortion + "." + totalNumPortion;
-                        destinationSink.writeFile(file.getInputStream(),
-                                file.getSize(),
+                        deliveries.add(() -> writeFile(destinationSink,
+                                packagingSpecFormatType,
                                 currFileName,
-                                file.getMimeTypeValue(),
-                                Collections.singletonList(file.getMetacard()));
+                                file));
                         currNum++;
-                        sentFiles.add(currFileName);
-                    }
-                }
-                break;
-                case FILESCOMPRESS: {
-                    int currNum = 1;
-                    for (ResourceContainer file : files) {
-                        try (TemporaryFileBackedOutputStream fos = new TemporaryFileBackedOutputStream(
-                                MAX_MEMORY_SIZE);
-                                ZipOutputStream zipOut = new ZipOutputStream(fos)) {
-                            getZip(zipOut, file.getInputStream(), file.getName());
-                            ByteSource contents = fos.asByteSource();
-                            String currNumPortion = String.format(FILE_COUNT_FORMAT, currNum);
-                            String currFileName =
-                                    filename + "." + currNumPortion + "." + totalNumPortion
-                                            + packagingSpecFormatType.getExtension();
-                            destinationSink.writeFile(contents.openStream(),
-                                    contents.size(),
-                                    currFileName,
-                                    packagingSpecFormatType.getContentType(),
-                                    Collections.singletonList(file.getMetacard()));
-                            sentFiles.add(currFileName);
-                            currNum++;
-                        }
-                    }
-                }
-                break;
-                case FILESZIP: {
-                    try (TemporaryFileBackedOutputStream fos = new TemporaryFileBackedOutputStream(
-                            MAX_MEMORY_SIZE); ZipOutputStream zipOut = new ZipOutputStream(fos)) {
-                        getZip(zipOut, files);
-                        ByteSource zip = fos.asByteSource();
-                        writeFile(destinationSink,
-                                packagingSpecFormatType,
-                                filename,
-                                sentFiles,
-                                zip,
-                                files.stream()
-                                        .map(ResourceContainer::getMetacard)
-                                        .collect(Collectors.toList()));
-                    }
-                }
-                break;
-                case FILESGZIP: {
-                    int currNum = 1;
-                    for (ResourceContainer file : files) {
-                        try (TemporaryFileBackedOutputStream fos = new TemporaryFileBackedOutputStream(
-                                MAX_MEMORY_SIZE);
-                                GZIPOutputStream zipOut = new GZIPOutputStream(fos)) {
-                            getGzip(zipOut, file.getInputStream());
-                            ByteSource contents = fos.asByteSource();
-                            String currNumPortion = String.format(FILE_COUNT_FORMAT, currNum);
-                            String currFileName =
-                                    filename + "." + currNumPortion + "." + totalNumPortion
-                                            + packagingSpecFormatType.getExtension();
-                            destinationSink.writeFile(contents.openStream(),
-                                    contents.size(),
-                                    currFileName,
-                                    packagingSpecFormatType.getContentType(),
-                                    Collections.singletonList(file.getMetacard()));
-                            sentFiles.add(currFileName);
-                            currNum++;
-                        }
-                    }
-                }
-                break;
-                case TARUNC: {
-                    try (TemporaryFileBackedOutputStream fos = new TemporaryFileBackedOutputStream(
-                            MAX_MEMORY_SIZE); TarOutputStream tarOut = new TarOutputStream(fos)) {
-                        getTar(tarOut, files);
-                        ByteSource tar = fos.asByteSource();
-                        writeFile(destinationSink,
-                                packagingSpecFormatType,
-                                filename,
-                                sentFiles,
-                                tar,
-                                files.stream()
-                                        .map(ResourceContainer::getMetacard)
-                                        .collect(Collectors.toList()));
-                    }
-                }
-                break;
-                case TARZIP: {
-                    try (TemporaryFileBackedOutputStream tarFos = new TemporaryFileBackedOutputStream(
-                            MAX_MEMORY_SIZE);
-                            TarOutputStream tarOut = new TarOutputStream(tarFos)) {
-                        getTar(tarOut, files);
-                        try (TemporaryFileBackedOutputStream zipFos = new TemporaryFileBackedOutputStream(
-                                MAX_MEMORY_SIZE); ZipOutputStream zipOut = new ZipOutputStream(
-                                zipFos)) {
-                            getZip(zipOut,
-                                    tarFos.asByteSource()
-                                            .openStream(),
-                                    filename + ".tar");
-                            ByteSource zip = zipFos.asByteSource();
-                            writeFile(destinationSink,
-                                    packagingSpecFormatType,
-                                    filename,
-                                    sentFiles,
-                                    zip,
-                                    files.stream()
-                                            .map(ResourceContainer::getMetacard)
-                                            .collect(Collectors.toList()));
-                        }
-                    }
-                }
-                break;
-                case TARGZIP: {
-                    try (TemporaryFileBackedOutputStream tarFos = new TemporaryFileBackedOutputStream(
-                            MAX_MEMORY_SIZE);
-                            TarOutputStream tarOut = new TarOutputStream(tarFos)) {
-                        getTar(tarOut, files);
-                        try (TemporaryFileBackedOutputStream gzipFos = new TemporaryFileBackedOutputStream(
-                                MAX_MEMORY_SIZE); GZIPOutputStream zipOut = new GZIPOutputStream(
-                                gzipFos)) {
-                            getGzip(zipOut,
-                                    tarFos.asByteSource()
-                                            .openStream());
-                            ByteSource zip = gzipFos.asByteSource();
-                            writeFile(destinationSink,
-                                    packagingSpecFormatType,
-                                    filename,
-                                    sentFiles,
-                                    zip,
-                                    files.stream()
-                                            .map(ResourceContainer::getMetacard)
-                                            .collect(Collectors.toList()));
-                        }
-                    }
-                }
-                break;
-                case TARCOMPRESS: {
-                    try (TemporaryFileBackedOutputStream tarFos = new TemporaryFileBackedOutputStream(
-                            MAX_MEMORY_SIZE);
-                            TarOutputStream tarOut = new TarOutputStream(tarFos)) {
-                        getTar(tarOut, files);
-                        try (TemporaryFileBackedOutputStream zipFos = new TemporaryFileBackedOutputStream(
-                                MAX_MEMORY_SIZE); ZipOutputStream zipOut = new ZipOutputStream(
-                                zipFos)) {
-                            getZip(zipOut,
-                                    tarFos.asByteSource()
-                                            .openStream(),
-                                    filename + ".tar");
-                            writeFile(destinationSink,
-                                    packagingSpecFormatType,
-                                    filename,
-                                    sentFiles,
-                                    zipFos.asByteSource(),
-                                    files.stream()
-                                            .map(ResourceContainer::getMetacard)
-                                            .collect(Collectors.toList()));
-                        }
-                    }
-                }
-                break;
-                default:
-                    break;
-                }
-
-            } else {
-                ResourceContainer file = files.iterator()
-                        .next();
-
-                List<Metacard> metacards = Collections.singletonList(file.getMetacard());
-
-                switch (packagingSpecFormatType) {
-                case FILESUNC: {
-                    destinationSink.writeFile(file.getInputStream(),
-                            file.getSize(),
-                            filename,
-                            file.getMimeTypeValue(),
-                            metacards);
-                    sentFiles.add(filename);
-                }
-                break;
-                case FILESCOMPRESS: {
-                    try (TemporaryFileBackedOutputStream fos = new TemporaryFileBackedOutputStream(
-                            MAX_MEMORY_SIZE); ZipOutputStream zipOut = new ZipOutputStream(fos)) {
-                        getZip(zipOut, file.getInputStream(), file.getName());
-                        ByteSource contents = fos.asByteSource();
-
-                        writeFile(destinationSink,
-                                packagingSpecFormatType,
-                                filename,
-                                sentFiles,
-                                contents,
-                                metacards);
-                    }
-                }
-                break;
-                case TARUNC:
-                    try (TemporaryFileBackedOutputStream fos = new TemporaryFileBackedOutputStream(
-                            MAX_MEMORY_SIZE); TarOutputStream tarOut = new TarOutputStream(fos)) {
-                        getTar(tarOut, file);
-                        ByteSource contents = fos.asByteSource();
-                        writeFile(destinationSink,
-                                packagingSpecFormatType,
-                                filename,
-                                sentFiles,
-                                contents,
-                                metacards);
-                    }
-                    break;
-                case TARZIP: {
-                    try (TemporaryFileBackedOutputStream tarFos = new TemporaryFileBackedOutputStream(
-                            MAX_MEMORY_SIZE);
-                            TarOutputStream tarOut = new TarOutputStream(tarFos)) {
-                        getTar(tarOut, file);
-                        try (TemporaryFileBackedOutputStream zipFos = new TemporaryFileBackedOutputStream(
-                                MAX_MEMORY_SIZE); ZipOutputStream zipOut = new ZipOutputStream(
-                                zipFos)) {
-                            getZip(zipOut,
-                                    tarFos.asByteSource()
-                                            .openStream(),
-                                    filename + ".tar");
-                            ByteSource contents = zipFos.asByteSource();
-
-                            writeFile(destinationSink,
-                                    packagingSpecFormatType,
-                                    filename,
-                                    sentFiles,
-                                    contents,
-                                    metacards);
-                        }
                     }
+                    sentFiles.addAll(getAll(retrievalPool.retrieve(deliveries)));
                 }
                 break;
                 case FILESZIP:
-                    try (TemporaryFileBackedOutputStream fos = new TemporaryFileBackedOutputStream(
-                            MAX_MEMORY_SIZE); GZIPOutputStream zipOut = new GZIPOutputStream(fos)) {
-                        getGzip(zipOut, file.getInputStream());
-                        ByteSource contents = fos.asByteSource();
-                        writeFile(destinationSink,
-                                packagingSpecFormatType,
-                                filename,
-                                sentFiles,
-                                contents,
-                                metacards);
-                    }
+                    sentFiles.add(writePackage(destinationSink,
+                            packagingSpecFormatType,
+                            filename,
+                            files,
+                            out -> writeZip(out, files)));
                     break;
-                case TARGZIP: {
-                    try (TemporaryFileBackedOutputStream tarFos = new TemporaryFileBackedOutputStream(
-                            MAX_MEMORY_SIZE);
-                            TarOutputStream tarOut = new TarOutputStream(tarFos)) {
-                        getTar(tarOut, file);
-                        try (TemporaryFileBackedOutputStream gzipFos = new TemporaryFileBackedOutputStream(
-                                MAX_MEMORY_SIZE); GZIPOutputStream zipOut = new GZIPOutputStream(
-                                gzipFos)) {
-                            getGzip(zipOut,
-                                    tarFos.asByteSource()
-                                            .openStream());
-                            ByteSource contents = gzipFos.asByteSource();
-                            writeFile(destinationSink,
-                                    packagingSpecFormatType,
-                                    filename,
-                                    sentFiles,
-                                    contents,
-                                    metacards);
-                        }
-                    }
-                }
-                break;
-                case FILESGZIP:
-                    try (TemporaryFileBackedOutputStream fos = new TemporaryFileBackedOutputStream(
-                            MAX_MEMORY_SIZE); GZIPOutputStream zipOut = new GZIPOutputStream(fos)) {
-                        getGzip(zipOut, file.getInputStream());
-                        ByteSource contents = fos.asByteSource();
-                        writeFile(destinationSink,
-                                packagingSpecFormatType,
-                                filename,
-                                sentFiles,
-                                contents,
-                                metacards);
-                    }
+                case TARUNC:
+                case TARZIP:
+                case TARGZIP:
+                case TARCOMPRESS:
+                    sentFiles.add(writePackage(destinationSink,
+                            packagingSpecFormatType,
+                            filename,
+                            files,
+                            out -> writeTarPackage(out, packagingSpecFormatType, filename, files)));
                     break;
-                case TARCOMPRESS: {
-                    try (TemporaryFileBackedOutputStream tarFos = new TemporaryFileBackedOutputStream(
-                            MAX_MEMORY_SIZE);
-                            TarOutputStream tarOut = new TarOutputStream(tarFos)) {
-                        getTar(tarOut, file);
-                        try (TemporaryFileBackedOutputStream zipFos = new TemporaryFileBackedOutputStream(
-                                MAX_MEMORY_SIZE); ZipOutputStream zipOut = new ZipOutputStream(
-                                zipFos)) {
-                            getZip(zipOut,
-                                    tarFos.asByteSource()
-                                            .openStream(),
-                                    filename + ".tar");
-                            ByteSource contents = zipFos.asByteSource();
-
-                            writeFile(destinationSink,
-                                    packagingSpecFormatType,
-                                    filename,
-                                    sentFiles,
-                                    contents,
-                                    metacards);
-                        }
-                    }
-                }
-                break;
                 default:
                     break;
                 }
+
+            } else {
+                sentFiles.add(writeFile(destinationSink,
+                        packagingSpecFormatType,
+                        filename,
+                        files.iterator()
+                                .next()));
             }
         }
 
         return sentFiles;
     }
 
-    private void writeFile(DestinationSink destinationSink,
+    /**
+     * Writes a single file, compressed on its own as the packaging format requires.
+     *
+     * @return the name the file was written as
+     */
+    private String writeFile(DestinationSink destinationSink,
+            PackagingSpecFormatType packagingSpecFormatType, String filename,
+            ResourceContainer file) throws IOException {
+        List<ResourceContainer> files = Collections.singletonList(file);
+
+        switch (packagingSpecFormatType) {
+        case FILESUNC:
+            try (InputStream inputStream = file.getInputStream()) {
+                destinationSink.writeFile(inputStream,
+                        file.getSize(),
+                        filename,
+                        file.getMimeTypeValue(),
+                        Collections.singletonList(file.getMetacard()));
+            }
+            return filename;
+        case FILESCOMPRESS:
+            return writePackage(destinationSink,
+                    packagingSpecFormatType,
+                    filename,
+                    files,
+                    out -> writeZip(out, files));
+        case FILESZIP:
+        case FILESGZIP:
+            return writePackage(destinationSink,
+                    packagingSpecFormatType,
+                    filename,
+                    files,
+                    out -> writeGzip(out, file));
+        default:
+            return writePackage(destinationSink,
+                    packagingSpecFormatType,
+                    filename,
+                    files,
+                    out -> writeTarPackage(out, packagingSpecFormatType, filename, files));
+        }
+    }
+
+    /**
+     * Writes a package to the destination as it is created.
+     *
+     * @return the name the package was written as
+     */
+    private String writePackage(DestinationSink destinationSink,
             PackagingSpecFormatType packagingSpecFormatType, String filename,
-            List<String> sentFiles, ByteSource contents, List<Metacard> metacards)
+            List<ResourceContainer> files, DestinationSink.PackageWriter packageWriter)
             throws IOException {
         String filenameWithExt = filename + packagingSpecFormatType.getExtension();
-        destinationSink.writeFile(contents.openStream(),
-                contents.size(),
+        destinationSink.writeStream(packageWriter,
                 filenameWithExt,
                 packagingSpecFormatType.getContentType(),
-                metacards);
-        sentFiles.add(filenameWithExt);
+                files.stream()
+                        .map(ResourceContainer::getMetacard)
+                        .collect(Collectors.toList()));
+        return filenameWithExt;
     }
 
-    private void getTar(TarOutputStream tarOut, List<ResourceContainer> files) throws IOException {
-        long modTime = System.currentTimeMillis() / 1000;
-        int permissions = DEFAULT_TAR_PERMISSION;
-
-        for (ResourceContainer file : files) {
-            TarHeader fileHeader = TarHeader.createHeader(file.getName(),
-                    file.getSize(),
-                    modTime,
-                    false,
-                    permissions);
-            tarOut.putNextEntry(new TarEntry(fileHeader));
-            IOUtils.copy(file.getInputStream(), tarOut);
+    /**
+     * Writes a tar of the files, compressed as the packaging format requires, in a single pass.
+     */
+    private void writeTarPackage(OutputStream out,
+            PackagingSpecFormatType packagingSpecFormatType, String filename,
+            List<ResourceContainer> files) throws IOException {
+        switch (packagingSpecFormatType) {
+        case TARZIP:
+        case TARCOMPRESS:
+            try (ZipOutputStream zipOut = new ZipOutputStream(new CloseShieldOutputStream(out))) {
+                zipOut.putNextEntry(new ZipEntry(filename + ".tar"));
+                writeTar(zipOut, files);
+            }
+            break;
+        case TARGZIP:
+            try (GZIPOutputStream gzipOut = new GZIPOutputStream(new CloseShieldOutputStream(
+                    out))) {
+                writeTar(gzipOut, files);
+            }
+            break;
+        default:
+            writeTar(out, files);
+            break;
         }
-
-        tarOut.flush();
     }
 
-    private void getTar(TarOutputStream tarOut, ResourceContainer file) throws IOException {
+    private void writeTar(OutputStream out, List<ResourceContainer> files) throws IOException {
         long modTime = System.currentTimeMillis() / 1000;
         int permissions = DEFAULT_TAR_PERMISSION;
 
-        TarHeader fileHeader = TarHeader.createHeader(file.getName(),
-                file.getSize(),
-                modTime,
-                false,
-                permissions);
-        tarOut.putNextEntry(new TarEntry(fileHeader));
-        IOUtils.copy(file.getInputStream(), tarOut);
-
-        tarOut.flush();
-
-    }
-
-    private void getGzip(GZIPOutputStream zipOut, InputStream data) throws IOException {
-        IOUtils.copy(data, zipOut);
-        zipOut.flush();
+        // Closing the tar stream writes the end of the archive without closing the stream the tar
+        // is being written to
+        try (TarOutputStream tarOut = new TarOutputStream(new CloseShieldOutputStream(out))) {
+            for (ResourceContainer file : files) {
+                TarHeader fileHeader = TarHeader.createHeader(file.getName(),
+                        file.getSize(),
+                        modTime,
+                        false,
+                        permissions);
+                tarOut.putNextEntry(new TarEntry(fileHeader));
+                try (InputStream inputStream = file.getInputStream()) {
+                    IOUtils.copy(inputStream, tarOut);
+                }
+            }
+        }
     }
 
-    private void getZip(ZipOutputStream zipOut, InputStream data, String name) throws IOException {
-
-        ZipEntry zipEntry = new ZipEntry(name);
-        zipOut.putNextEntry(zipEntry);
-        IOUtils.copy(data, zipOut);
-
-        zipOut.flush();
-
+    private void writeGzip(OutputStream out, ResourceContainer file) throws IOException {
+        try (GZIPOutputStream gzipOut = new GZIPOutputStream(new CloseShieldOutputStream(out));
+                InputStream inputStream = file.getInputStream()) {
+            IOUtils.copy(inputStream, gzipOut);
+        }
     }
 
-    private void getZip(ZipOutputStream zipOut, List<ResourceContainer> files) throws IOException {
-
-        List<String> addedFiles = new ArrayList<>();
-        for (ResourceContainer file : files) {
-            if (!addedFiles.contains(file.getName())) {
-                ZipEntry zipEntry = new ZipEntry(file.getName());
-                zipOut.putNextEntry(zipEntry);
-                IOUtils.copy(file.getInputStream(), zipOut);
-                addedFiles.add(file.getName());
+    private void writeZip(OutputStream out, List<ResourceContainer> files) throws IOException {
+        try (ZipOutputStream zipOut = new ZipOutputStream(new CloseShieldOutputStream(out))) {
+            List<String> addedFiles = new ArrayList<>();
+            for (ResourceContainer file : files) {
+                if (!addedFiles.contains(file.getName())) {
+                    ZipEntry zipEntry = new ZipEntry(file.getName());
+                    zipOut.putNextEntry(zipEntry);
+                    try (InputStream inputStream = file.getInputStream()) {
+                        IOUtils.copy(inputStream, zipOut);
+                    }
+                    addedFiles.add(file.getName());
+                }
             }
         }
-
-        zipOut.flush();
-
     }
 
-    class ResourceContainer {
-        private InputStream inputStream;
+    class ResourceContainer implements Closeable {
+        private TemporaryFileBackedOutputStream contents;
+
+        private AtomicBoolean packaged = new AtomicBoolean(false);
 
         private String name;
 
@@ -696,16 +703,25 @@ public class OrderRequestImpl extends OrderRequestPOA {
 
         private Metacard metacard;
 
-        public ResourceContainer(InputStream inputStream, String name, long size,
+        public ResourceContainer(TemporaryFileBackedOutputStream contents, String name, long size,
                 String mimeTypeValue, Metacard metacard) {
-            this.inputStream = inputStream;
+            this.contents = contents;
             this.name = name;
             this.mimeTypeValue = mimeTypeValue;
             this.size = size;
             this.metacard = metacard;
         }
 
-        public InputStream getInputStream() {
+        /**
+         * Opens the retrieved product. The product counts as packaged once the first stream
+         * opened has been read to the end.
+         */
+        public InputStream getInputStream() throws IOException {
+            InputStream inputStream = contents.asByteSource()
+                    .openStream();
+            if (packaged.compareAndSet(false, true)) {
+                return progress.productPackaging(inputStream);
+            }
             return inputStream;
         }
 
@@ -724,6 +740,11 @@ public class OrderRequestImpl extends OrderRequestPOA {
         public Metacard getMetacard() {
             return metacard;
         }
+
+        @Override
+        public void close() throws IOException {
+            contents.close();
+        }
     }
 
     class ResourceRequestCallable implements Callable<ResourceResponse> {
@@ -0,0 +1,434 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.nsili.endpoint.requests;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ddf.catalog.data.Metacard;
+
+/**
+ * Runs standing queries on a shared, fixed-size pool of threads.
+ * <p>
+ * Standing queries that would issue the same catalog query on the same schedule are batched: the
+ * batch runs the catalog query once and hands the results to every subscription in it. A new or
+ * resumed subscription first runs on its own to catch up from where it left off, then joins the
+ * batch for its query once it has retrieved everything the batch has. Paused subscriptions leave
+ * their batch so nothing they would have retrieved is skipped while they are paused.
+ * <p>
+ * When catalog changes are reported through {@link #catalogChanged(Collection)}, each batch that
+ * only queries the local catalog checks the changed metacards against its query. Batches with a
+ * matching change are run shortly afterwards instead of waiting for their next update, and batches
+ * without one skip their catalog query. Batches that query federated sources keep polling.
+ */
+public class StandingQueryScheduler {
+
+    public static final int DEFAULT_THREADS = 4;
+
+    /**
+     * Each run is rescheduled at the update rate plus or minus this fraction, so that
+     * subscriptions created together do not keep querying the catalog at the same instant.
+     */
+    static final double JITTER_FRACTION = 0.1;
+
+    /**
+     * How long to wait after a catalog change before running affected batches, so that a burst of
+     * ingests is picked up by a single query.
+     */
+    static final long CHANGE_DELAY_MSEC = 1000;
+
+    /**
+     * Batches query the catalog at least once in this many runs even if no changes were reported,
+     * in case the catalog was changed without going through the catalog framework.
+     */
+    static final int MAX_SKIPPED_RUNS = 10;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StandingQueryScheduler.class);
+
+    private final ScheduledThreadPoolExecutor executor;
+
+    private final LongSupplier clock;
+
+    private final Map<String, Batch> sharedBatches = new ConcurrentHashMap<>();
+
+    private volatile long changeTrackingStartTime = -1;
+
+    public StandingQueryScheduler() {
+        this(DEFAULT_THREADS);
+    }
+
+    public StandingQueryScheduler(int threads) {
+        this(new ScheduledThreadPoolExecutor(Math.max(1, threads)), System::currentTimeMillis);
+    }
+
+    StandingQueryScheduler(ScheduledThreadPoolExecutor executor, LongSupplier clock) {
+        this.executor = executor;
+        this.clock = clock;
+        executor.setRemoveOnCancelPolicy(true);
+    }
+
+    public void setThreads(int threads) {
+        executor.setCorePoolSize(Math.max(1, threads));
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+        sharedBatches.clear();
+    }
+
+    /**
+     * Starts running a standing query, after its start delay if it has one.
+     */
+    public void register(SubmitStandingQueryRequestImpl request) {
+        scheduleSolo(request, new QueryWindow(), request.getStartDelay());
+    }
+
+    /**
+     * Runs a standing query that left its batch while paused, catching up from where it left off.
+     */
+    void resume(SubmitStandingQueryRequestImpl request, QueryWindow pausedWindow) {
+        scheduleSolo(request, pausedWindow, 0);
+    }
+
+    /**
+     * Indicates that catalog changes are being reported, so batches may skip querying the catalog
+     * for periods in which no changes were reported.
+     */
+    public void enableChangeTracking() {
+        if (changeTrackingStartTime < 0) {
+            changeTrackingStartTime = clock.getAsLong();
+        }
+    }
+
+    /**
+     * Records changes to the local catalog and runs the batches whose query matches one of the
+     * changed metacards soon.
+     *
+     * @param metacards - the created, updated or deleted metacards
+     */
+    public void catalogChanged(Collection<Metacard> metacards) {
+        long changeTime = clock.getAsLong();
+        for (Batch batch : sharedBatches.values()) {
+            if (batch.localOnly && metacards.stream()
+                    .anyMatch(batch.changeFilter)) {
+                batch.lastChangeTime = changeTime;
+                expedite(batch);
+            }
+        }
+    }
+
+    int getSharedBatchCount() {
+        return sharedBatches.size();
+    }
+
+    private void scheduleSolo(SubmitStandingQueryRequestImpl request, QueryWindow window,
+            long delay) {
+        Batch batch = new Batch(request.getId(),
+                window,
+                request.getUpdateRate(),
+                request.isLocalQuery(),
+                request::matches);
+        batch.members.add(request);
+        schedule(batch, delay);
+    }
+
+    private void schedule(Batch batch, long delay) {
+        synchronized (batch) {
+            try {
+                batch.nextRun = executor.schedule(() -> run(batch),
+                        delay,
+                        TimeUnit.MILLISECONDS);
+                batch.nextRunTime = clock.getAsLong() + delay;
+            } catch (RejectedExecutionException e) {
+                LOGGER.debug("Standing query scheduler is shut down, not scheduling {}",
+                        batch.key,
+                        e);
+            }
+        }
+    }
+
+    private void expedite(Batch batch) {
+        synchronized (batch) {
+            if (batch.closed || batch.nextRun == null
+                    || batch.nextRunTime - clock.getAsLong() <= CHANGE_DELAY_MSEC) {
+                return;
+            }
+
+            // A batch that is already running will see the change when it next runs
+            if (batch.nextRun.cancel(false)) {
+                schedule(batch, CHANGE_DELAY_MSEC);
+            }
+        }
+    }
+
+    private void run(Batch batch) {
+        long nextDelay = -1;
+        try {
+            nextDelay = execute(batch);
+        } catch (RuntimeException e) {
+            LOGGER.debug("Unable to execute standing query {}", batch.key, e);
+            nextDelay = batch.updateRate;
+        } finally {
+            if (nextDelay >= 0) {
+                schedule(batch, nextDelay);
+            }
+        }
+    }
+
+    /**
+     * Runs one execution of a batch.
+     *
+     * @return the delay until the batch should run again, or -1 if it should not run again
+     */
+    private long execute(Batch batch) {
+        QueryWindow window = batch.window;
+        List<SubmitStandingQueryRequestImpl> members;
+        long queryTime;
+        // The members and the window are read together, so a subscription joining the batch either
+        // receives this run's results or sees that the window has moved past its own
+        synchronized (batch) {
+            members = removeInactiveMembers(batch);
+            if (members.isEmpty()) {
+                return -1;
+            }
+
+            queryTime = window.lastExecutionTime - 1000;
+
+            //Don't want to change the query time until we process all of the results from the
+            //last query
+            if (!window.moreResultsAvailable) {
+                window.lastExecutionTime = clock.getAsLong();
+            }
+        }
+
+        List<SubmitStandingQueryRequestImpl> receivers = new ArrayList<>(members.size());
+        for (SubmitStandingQueryRequestImpl member : members) {
+            if (member.isExpired(window.lastExecutionTime)) {
+                leave(batch, member);
+                member.stop();
+            } else {
+                receivers.add(member);
+            }
+        }
+
+        if (!receivers.isEmpty()) {
+            SubmitStandingQueryRequestImpl leader = receivers.get(0);
+            DAGQueryResult queryResult = null;
+            if (receivers.stream()
+                    .anyMatch(SubmitStandingQueryRequestImpl::canAcceptResults)) {
+                if (isUnchangedSince(batch, queryTime)) {
+                    batch.skippedRuns++;
+                    LOGGER.trace("No catalog changes since last run, skipping query: {}",
+                            batch.key);
+                } else {
+                    batch.skippedRuns = 0;
+                    queryResult = leader.getData(window, queryTime);
+                }
+            }
+
+            for (SubmitStandingQueryRequestImpl receiver : receivers) {
+                receiver.deliver(queryResult);
+            }
+        }
+
+        synchronized (batch) {
+            if (batch.closed) {
+                return -1;
+            }
+        }
+
+        if (!batch.shared && !window.moreResultsAvailable) {
+            return joinSharedBatch(batch);
+        }
+
+        //Don't wait if more results are available. Need clients to pick up results as fast as
+        //possible to catch up.
+        if (window.moreResultsAvailable) {
+            return 0;
+        }
+        return getJitteredDelay(batch.updateRate);
+    }
+
+    /**
+     * @return true if the batch's query can be skipped because no catalog changes that it could
+     * match have been reported since the given time
+     */
+    private boolean isUnchangedSince(Batch batch, long queryTime) {
+        long trackingStartTime = changeTrackingStartTime;
+        return batch.localOnly && batch.shared && !batch.window.moreResultsAvailable
+                && trackingStartTime >= 0 && trackingStartTime <= queryTime
+                && batch.lastChangeTime < queryTime && batch.skippedRuns < MAX_SKIPPED_RUNS;
+    }
+
+    /**
+     * Removes cancelled and paused subscriptions from a batch, keeping where paused
+     * subscriptions left off so they can catch up when resumed.
+     */
+    private List<SubmitStandingQueryRequestImpl> removeInactiveMembers(Batch batch) {
+        List<SubmitStandingQueryRequestImpl> active = new ArrayList<>();
+        synchronized (batch) {
+            for (SubmitStandingQueryRequestImpl member : new ArrayList<>(batch.members)) {
+                if (!member.isRunning() || member.detachIfPaused(batch.window)) {
+                    leave(batch, member);
+                } else {
+                    active.add(member);
+                }
+            }
+        }
+        return active;
+    }
+
+    private void leave(Batch batch, SubmitStandingQueryRequestImpl member) {
+        synchronized (batch) {
+            batch.members.remove(member);
+            if (batch.members.isEmpty()) {
+                batch.closed = true;
+                if (batch.shared) {
+                    sharedBatches.remove(batch.key, batch);
+                }
+            }
+        }
+    }
+
+    /**
+     * Moves the members of a caught up solo batch into the shared batch for its query, or makes
+     * it the shared batch if there is not one yet. The batch key is read now rather than when the
+     * subscription was created, since the client may have changed its page size since then.
+     * <p>
+     * Members only join a shared batch whose window has not moved past their own, since the
+     * shared batch will not query for changes they have not retrieved yet. Otherwise they keep
+     * running on their own and try again after their next run.
+     *
+     * @return the delay until the solo batch should run again, or -1 if its members joined
+     * another batch
+     */
+    private long joinSharedBatch(Batch solo) {
+        synchronized (solo) {
+            solo.key = solo.members.get(0)
+                    .getBatchKey();
+        }
+
+        while (true) {
+            Batch shared = sharedBatches.putIfAbsent(solo.key, solo);
+            if (shared == null) {
+                synchronized (solo) {
+                    // Changes reported before the batch was shared were not checked against it
+                    solo.lastChangeTime = clock.getAsLong();
+                    solo.shared = true;
+                }
+                return getJitteredDelay(solo.updateRate);
+            }
+
+            synchronized (shared) {
+                if (!shared.closed) {
+                    if (shared.window.moreResultsAvailable
+                            || shared.window.lastExecutionTime > solo.window.lastExecutionTime) {
+                        LOGGER.trace("Standing query is behind its batch, catching up: {}",
+                                solo.key);
+                        return getJitteredDelay(solo.updateRate);
+                    }
+
+                    synchronized (solo) {
+                        shared.members.addAll(solo.members);
+                        solo.members.clear();
+                        solo.closed = true;
+                    }
+                    LOGGER.debug("Standing query joined batch with {} subscriptions: {}",
+                            shared.members.size(),
+                            solo.key);
+                    return -1;
+                }
+            }
+            sharedBatches.remove(solo.key, shared);
+        }
+    }
+
+    static long getJitteredDelay(long updateRate) {
+        long jitter = (long) (updateRate * JITTER_FRACTION);
+        if (jitter <= 0) {
+            return updateRate;
+        }
+        return updateRate + ThreadLocalRandom.current()
+                .nextLong(-jitter, jitter + 1);
+    }
+
+    /**
+     * The range of the catalog that a standing query has already retrieved.
+     */
+    static class QueryWindow {
+
+        volatile long lastExecutionTime = 0;
+
+        volatile boolean moreResultsAvailable = false;
+
+        volatile int startIndex = 1;
+
+        QueryWindow copy() {
+            QueryWindow copy = new QueryWindow();
+            copy.lastExecutionTime = lastExecutionTime;
+            copy.moreResultsAvailable = moreResultsAvailable;
+            copy.startIndex = startIndex;
+            return copy;
+        }
+    }
+
+    private static class Batch {
+
+        private volatile String key;
+
+        private final QueryWindow window;
+
+        private final long updateRate;
+
+        private final boolean localOnly;
+
+        private final Predicate<Metacard> changeFilter;
+
+        private final List<SubmitStandingQueryRequestImpl> members = new ArrayList<>();
+
+        private boolean shared = false;
+
+        private boolean closed = false;
+
+        private ScheduledFuture<?> nextRun;
+
+        private long nextRunTime;
+
+        private int skippedRuns = 0;
+
+        private volatile long lastChangeTime = 0;
+
+        Batch(String key, QueryWindow window, long updateRate, boolean localOnly,
+                Predicate<Metacard> changeFilter) {
+            this.key = key;
+            this.window = window;
+            this.updateRate = updateRate;
+            this.localOnly = localOnly;
+            this.changeFilter = changeFilter;
+        }
+    }
+}
@@ -26,7 +26,6 @@ import java.util.concurrent.Callable;
 import org.apache.shiro.subject.ExecutionException;
 import org.codice.alliance.nsili.common.BqsConverter;
 import org.codice.alliance.nsili.common.CB.Callback;
-import org.codice.alliance.nsili.common.DagParsingException;
 import org.codice.alliance.nsili.common.GIAS.DelayEstimate;
 import org.codice.alliance.nsili.common.GIAS.Query;
 import org.codice.alliance.nsili.common.GIAS.RequestManager;
@@ -47,7 +46,11 @@ import org.codice.alliance.nsili.common.UCO.SystemFault;
 import org.codice.alliance.nsili.common.datamodel.NsiliDataModel;
 import org.codice.alliance.nsili.endpoint.LibraryImpl;
 import org.codice.alliance.nsili.endpoint.NsiliEndpoint;
+import org.codice.alliance.nsili.endpoint.ResultDAGConversionPipeline;
+import org.codice.alliance.nsili.endpoint.ServantLifecycleManager;
 import org.omg.CORBA.NO_IMPLEMENT;
+import org.omg.CORBA.ORB;
+import org.omg.PortableServer.POA;
 import org.opengis.filter.Filter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -88,6 +91,14 @@ public class SubmitQueryRequestImpl extends SubmitQueryRequestPOA {
 
     private boolean outgoingValidationEnabled;
 
+    private ServantLifecycleManager servantLifecycleManager;
+
+    private String servantId;
+
+    private ResultDAGConversionPipeline conversionPipeline = new ResultDAGConversionPipeline(0);
+
+    private Map<String, List<String>> mandatoryAttributes;
+
     public SubmitQueryRequestImpl(Query query, FilterBuilder filterBuilder,
             BqsConverter bqsConverter, CatalogFramework catalogFramework,
             Set<String> querySources) {
@@ -126,6 +137,17 @@ public class SubmitQueryRequestImpl extends SubmitQueryRequestPOA {
 
     public void setOutgoingValidationEnabled(boolean outgoingValidationEnabled) {
         this.outgoingValidationEnabled = outgoingValidationEnabled;
+        this.mandatoryAttributes = null;
+    }
+
+    public void setConversionPipeline(ResultDAGConversionPipeline conversionPipeline) {
+        this.conversionPipeline = conversionPipeline;
+    }
+
+    public void setServantLifecycleManager(ServantLifecycleManager servantLifecycleManager,
+            String servantId) {
+        this.servantLifecycleManager = servantLifecycleManager;
+        this.servantId = servantId;
     }
 
     @Override
@@ -133,38 +155,28 @@ public class SubmitQueryRequestImpl extends SubmitQueryRequestPOA {
         DAG[] noResults = new DAG[0];
         results.value = noResults;
 
-        List<DAG> dags = new ArrayList<>();
-        int totalHits = 0;
         List<Result> queryResults = getResults(query, totalHitsReturned);
 
         LOGGER.debug("Query: {} return NSILI results: {}", query.bqs_query, queryResults.size());
 
-        Map<String, List<String>> mandatoryAttributes = new HashMap<>();
-        if (outgoingValidationEnabled) {
-            NsiliDataModel nsiliDataModel = new NsiliDataModel();
-            mandatoryAttributes =
-                    nsiliDataModel.getRequiredAttrsForView(NsiliConstants.NSIL_ALL_VIEW);
-        }
-        for (Result result : queryResults) {
-            try {
-                DAG dag = ResultDAGConverter.convertResult(result,
-                        _orb(),
-                        _poa(),
-                        resultAttributes,
-                        mandatoryAttributes);
-                if (dag != null) {
-                    dags.add(dag);
-                    totalHits++;
-                    totalHitsReturned++;
-                }
-            } catch (DagParsingException dpe) {
-                LOGGER.debug("DAG could not be parsed and will not be returned to caller:", dpe);
+        // Results may be converted on other threads, so resolve the ORB and POA for this
+        // invocation up front.
+        ORB orb = _orb();
+        POA poa = _poa();
+        Map<String, List<String>> mandatoryAttributes = getMandatoryAttributes();
+        List<DAG> dags = conversionPipeline.convert(queryResults, result -> {
+            DAG dag = ResultDAGConverter.convertResult(result,
+                    orb,
+                    poa,
+                    resultAttributes,
+                    mandatoryAttributes);
+            if (dag != null) {
+                trackProduct(poa, result);
             }
+            return dag;
+        }, maxNumReturnedHits);
+        totalHitsReturned += dags.size();
 
-            if (totalHits >= maxNumReturnedHits) {
-                break;
-            }
-        }
         if (!dags.isEmpty()) {
             results.value = dags.toArray(new DAG[0]);
             LOGGER.debug("Number of results being returned: {}, requested: {}",
@@ -175,6 +187,15 @@ public class SubmitQueryRequestImpl extends SubmitQueryRequestPOA {
             results.value = noResults;
         }
 
+        if (servantLifecycleManager != null) {
+            // A short catalog page means there is nothing left for a later call to return.
+            if (queryResults.size() < maxNumReturnedHits) {
+                servantLifecycleManager.complete(servantId);
+            } else {
+                servantLifecycleManager.touch(servantId);
+            }
+        }
+
         return State.COMPLETED;
     }
 
@@ -213,7 +234,9 @@ public class SubmitQueryRequestImpl extends SubmitQueryRequestPOA {
 
     @Override
     public void cancel() throws ProcessingFault, SystemFault {
-
+        if (servantLifecycleManager != null) {
+            servantLifecycleManager.complete(servantId);
+        }
     }
 
     @Override
@@ -237,6 +260,30 @@ public class SubmitQueryRequestImpl extends SubmitQueryRequestPOA {
         return new _RequestManagerStub();
     }
 
+    /**
+     * The mandatory attributes are the same for every page of this query, so they are looked up
+     * once rather than for each call to complete_DAG_results.
+     */
+    private Map<String, List<String>> getMandatoryAttributes() {
+        if (mandatoryAttributes == null) {
+            if (outgoingValidationEnabled) {
+                mandatoryAttributes = NsiliDataModel.getInstance()
+                        .getRequiredAttrsForView(NsiliConstants.NSIL_ALL_VIEW);
+            } else {
+                mandatoryAttributes = new HashMap<>();
+            }
+        }
+        return mandatoryAttributes;
+    }
+
+    private void trackProduct(POA poa, Result result) {
+        if (servantLifecycleManager != null) {
+            servantLifecycleManager.track(poa,
+                    result.getMetacard()
+                            .getId());
+        }
+    }
+
     private void notifyCallbacks() {
         if (!callbacks.isEmpty()) {
             for (Callback callback : callbacks.values()) {
@@ -20,6 +20,7 @@ import java.time.ZoneOffset;
 import java.time.temporal.TemporalAdjusters;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -33,8 +34,8 @@ import java.util.stream.Collectors;
 
 import org.apache.shiro.subject.ExecutionException;
 import org.codice.alliance.nsili.common.BqsConverter;
+import org.codice.alliance.nsili.common.BqsQueryCache;
 import org.codice.alliance.nsili.common.CB.Callback;
-import org.codice.alliance.nsili.common.DagParsingException;
 import org.codice.alliance.nsili.common.GIAS.DayEvent;
 import org.codice.alliance.nsili.common.GIAS.DayEventTime;
 import org.codice.alliance.nsili.common.GIAS.DelayEstimate;
@@ -63,12 +64,16 @@ import org.codice.alliance.nsili.common.UCO.Time;
 import org.codice.alliance.nsili.common.datamodel.NsiliDataModel;
 import org.codice.alliance.nsili.endpoint.LibraryImpl;
 import org.codice.alliance.nsili.endpoint.NsiliEndpoint;
+import org.codice.alliance.nsili.endpoint.ResultDAGConversionPipeline;
+import org.codice.alliance.nsili.endpoint.ServantLifecycleManager;
 import org.codice.alliance.nsili.endpoint.managers.RequestManagerImpl;
 import org.codice.alliance.nsili.transformer.DAGConverter;
 import org.joda.time.DateTime;
 import org.joda.time.DateTimeZone;
 import org.omg.CORBA.NO_IMPLEMENT;
+import org.omg.CORBA.ORB;
 import org.omg.CORBA.StringHolder;
+import org.omg.PortableServer.POA;
 import org.omg.PortableServer.POAPackage.ObjectAlreadyActive;
 import org.omg.PortableServer.POAPackage.ServantAlreadyActive;
 import org.omg.PortableServer.POAPackage.WrongPolicy;
@@ -110,9 +115,24 @@ public class SubmitStandingQueryRequestImpl extends SubmitStandingQueryRequestPO
 
     private String user = "alliance";
 
-    private boolean paused = false;
+    private volatile boolean paused = false;
 
-    private ExecutionThread executionThread;
+    private volatile boolean running = true;
+
+    private StandingQueryScheduler.QueryWindow pausedWindow;
+
+    private final Object pauseLockObj = new Object();
+
+    private final StandingQueryScheduler scheduler;
+
+    private final boolean ownsScheduler;
+
+    private volatile ResultDAGConversionPipeline conversionPipeline =
+            new ResultDAGConversionPipeline(0);
+
+    private volatile long lastCompletedExecutionTime = 0;
+
+    private boolean removeSourceLibrary;
 
     private int pageSize = NsiliEndpoint.DEFAULT_MAX_NUM_RESULTS;
 
@@ -144,6 +164,10 @@ public class SubmitStandingQueryRequestImpl extends SubmitStandingQueryRequestPO
 
     private long maxWaitToStartTimeMsecs;
 
+    private ServantLifecycleManager servantLifecycleManager;
+
+    private String servantId;
+
     private static final org.slf4j.Logger LOGGER = LoggerFactory.getLogger(
             SubmitStandingQueryRequestImpl.class);
 
@@ -153,6 +177,34 @@ public class SubmitStandingQueryRequestImpl extends SubmitStandingQueryRequestPO
             long defaultUpdateFrequencyMsec, Set<String> querySources, int maxPendingResults,
             boolean removeSourceLibrary, boolean outgoingValidationEnabled,
             long maxWaitToStartTimeMsecs) {
+        this(aQuery,
+                result_attributes,
+                sort_attributes,
+                lifespan,
+                properties,
+                catalogFramework,
+                filterBuilder,
+                defaultUpdateFrequencyMsec,
+                querySources,
+                maxPendingResults,
+                removeSourceLibrary,
+                outgoingValidationEnabled,
+                maxWaitToStartTimeMsecs,
+                null,
+                null);
+    }
+
+    /**
+     * Creates a standing query that runs on a shared scheduler. If no scheduler is given the
+     * query runs on a scheduler of its own.
+     */
+    public SubmitStandingQueryRequestImpl(Query aQuery, String[] result_attributes,
+            SortAttribute[] sort_attributes, QueryLifeSpan lifespan, NameValue[] properties,
+            CatalogFramework catalogFramework, FilterBuilder filterBuilder,
+            long defaultUpdateFrequencyMsec, Set<String> querySources, int maxPendingResults,
+            boolean removeSourceLibrary, boolean outgoingValidationEnabled,
+            long maxWaitToStartTimeMsecs, StandingQueryScheduler scheduler,
+            BqsQueryCache bqsQueryCache) {
         id = UUID.randomUUID()
                 .toString();
         if (result_attributes != null) {
@@ -164,7 +216,8 @@ public class SubmitStandingQueryRequestImpl extends SubmitStandingQueryRequestPO
         this.catalogFramework = catalogFramework;
         this.filterBuilder = filterBuilder;
         this.maxPendingResults = maxPendingResults;
-        this.bqsConverter = new BqsConverter(filterBuilder, removeSourceLibrary);
+        this.removeSourceLibrary = removeSourceLibrary;
+        this.bqsConverter = new BqsConverter(filterBuilder, removeSourceLibrary, bqsQueryCache);
         this.query = aQuery;
         if (querySources != null) {
             this.querySources = new HashSet<>(querySources);
@@ -186,11 +239,20 @@ public class SubmitStandingQueryRequestImpl extends SubmitStandingQueryRequestPO
             }
         }
 
-        this.updateFrequencyMsec = defaultUpdateFrequencyMsec;
+        if (defaultUpdateFrequencyMsec > 0) {
+            this.updateFrequencyMsec = defaultUpdateFrequencyMsec;
+        } else {
+            this.updateFrequencyMsec = DEFAULT_UPDATE_RATE;
+        }
 
-        executionThread = new ExecutionThread();
-        executionThread.setUpdateRate(defaultUpdateFrequencyMsec);
-        executionThread.start();
+        if (scheduler != null) {
+            this.scheduler = scheduler;
+            this.ownsScheduler = false;
+        } else {
+            this.scheduler = new StandingQueryScheduler(1);
+            this.ownsScheduler = true;
+        }
+        this.scheduler.register(this);
     }
 
     public String getId() {
@@ -240,24 +302,36 @@ public class SubmitStandingQueryRequestImpl extends SubmitStandingQueryRequestPO
 
     @Override
     public void pause() throws ProcessingFault, SystemFault {
-        this.paused = true;
+        touchServant();
+        synchronized (pauseLockObj) {
+            this.paused = true;
+        }
     }
 
     @Override
     public void resume() throws ProcessingFault, SystemFault {
-        this.paused = false;
-        executionThread.interrupt();
+        touchServant();
+        StandingQueryScheduler.QueryWindow window;
+        synchronized (pauseLockObj) {
+            this.paused = false;
+            window = pausedWindow;
+            pausedWindow = null;
+        }
+
+        if (window != null && running) {
+            scheduler.resume(this, window);
+        }
     }
 
     @Override
     public AbsTime get_time_last_executed() throws ProcessingFault, SystemFault {
-        long lastExecMillis = executionThread.getLastCompletedExecutionTime();
+        long lastExecMillis = lastCompletedExecutionTime;
         return ResultDAGConverter.getAbsTime(new Date(lastExecMillis));
     }
 
     @Override
     public AbsTime get_time_next_execution() throws ProcessingFault, SystemFault {
-        long nextExecMillis = executionThread.getNextExecutionTime();
+        long nextExecMillis = getNextExecutionTime();
         return ResultDAGConverter.getAbsTime(new Date(nextExecMillis));
     }
 
@@ -271,6 +345,7 @@ public class SubmitStandingQueryRequestImpl extends SubmitStandingQueryRequestPO
         }
 
         List<DAG> returnData = standingQueryData.getResultData(pageSize);
+        touchServant();
 
         if (LOGGER.isTraceEnabled()) {
             returnData.forEach(dag -> DAGConverter.printDAG(dag));
@@ -308,7 +383,8 @@ public class SubmitStandingQueryRequestImpl extends SubmitStandingQueryRequestPO
 
     @Override
     public Status get_status() throws ProcessingFault, SystemFault {
-        if (!executionThread.isRunning()) {
+        touchServant();
+        if (!running) {
             return new Status(State.CANCELED, false, "Request has been cancelled");
         }
         if (paused) {
@@ -324,14 +400,14 @@ public class SubmitStandingQueryRequestImpl extends SubmitStandingQueryRequestPO
     @Override
     public DelayEstimate get_remaining_delay() throws ProcessingFault, SystemFault {
         long delayUntilNextExec =
-                executionThread.getNextExecutionTime() - System.currentTimeMillis();
+                getNextExecutionTime() - System.currentTimeMillis();
         int delayTimeSecs = (int) delayUntilNextExec / 1000;
         return new DelayEstimate(delayTimeSecs, delayTimeSecs > 0);
     }
 
     @Override
     public void cancel() throws ProcessingFault, SystemFault {
-        executionThread.stopRunning();
+        stop();
     }
 
     @Override
@@ -382,278 +458,350 @@ public class SubmitStandingQueryRequestImpl extends SubmitStandingQueryRequestPO
         return requestManager;
     }
 
-    class ExecutionThread extends Thread {
-        private boolean running = true;
+    String getBatchKey() {
+        List<String> sources = new ArrayList<>();
+        if (querySources != null) {
+            sources.addAll(querySources);
+            Collections.sort(sources);
+        }
+        return String.join("|",
+                query.view,
+                query.bqs_query.trim(),
+                String.valueOf(pageSize),
+                String.valueOf(updateFrequencyMsec),
+                String.valueOf(removeSourceLibrary),
+                String.valueOf(outgoingValidationEnabled),
+                String.join(",", sources),
+                String.join(",", resultAttributes));
+    }
 
-        private long updateRate = DEFAULT_UPDATE_RATE;
+    long getUpdateRate() {
+        return updateFrequencyMsec;
+    }
 
-        private long lastExecutionTime = 0;
+    public void setConversionPipeline(ResultDAGConversionPipeline conversionPipeline) {
+        this.conversionPipeline = conversionPipeline;
+    }
 
-        private long lastCompletedExecutionTime = 0;
+    public void setServantLifecycleManager(ServantLifecycleManager servantLifecycleManager,
+            String servantId) {
+        this.servantLifecycleManager = servantLifecycleManager;
+        this.servantId = servantId;
+    }
 
-        private boolean moreResultsAvailOnLastQuery = false;
+    /**
+     * @return true if this standing query only queries the local catalog
+     */
+    boolean isLocalQuery() {
+        return querySources == null || querySources.isEmpty();
+    }
 
-        private int startIndex = 1;
+    /**
+     * @return true if the metacard matches this standing query, or if it can't be evaluated
+     * against the query
+     */
+    boolean matches(Metacard metacard) {
+        if (bqsFilter == null) {
+            return true;
+        }
 
-        private QueryImpl catalogQuery = null;
+        try {
+            return bqsFilter.evaluate(metacard);
+        } catch (RuntimeException e) {
+            LOGGER.debug("Unable to evaluate standing query against metacard", e);
+            return true;
+        }
+    }
 
-        public boolean hasMoreResultsAvailOnLastQuery() {
-            return moreResultsAvailOnLastQuery;
+    /**
+     * @return how long to wait before the first execution when the start time is in the future,
+     * limited to the maximum wait to start time
+     */
+    long getStartDelay() {
+        if (startDate != null) {
+            long now = System.currentTimeMillis();
+            if (startDate.getTime() > now) {
+                long waitToStart = startDate.getTime() - now;
+                LOGGER.debug("Start time for subscription is in the future, waiting {} seconds",
+                        TimeUnit.MILLISECONDS.toSeconds(waitToStart));
+                return Math.min(waitToStart, maxWaitToStartTimeMsecs);
+            }
         }
+        return 0;
+    }
 
-        public void run() {
-            while (running) {
-                long queryTime = lastExecutionTime - 1000;
+    boolean isRunning() {
+        return running;
+    }
 
-                //Don't want to change the query time until we process all of the results from the
-                //last query
-                if (!moreResultsAvailOnLastQuery && !paused) {
-                    lastExecutionTime = System.currentTimeMillis();
-                }
+    boolean isPaused() {
+        return paused;
+    }
 
-                if (endDate != null) {
-                    if (lastExecutionTime > endDate.getTime()) {
-                        running = false;
-                        break;
-                    }
-                }
+    /**
+     * If this query is paused, records where it left off so it can catch up when resumed.
+     *
+     * @return true if the query is paused
+     */
+    boolean detachIfPaused(StandingQueryScheduler.QueryWindow window) {
+        synchronized (pauseLockObj) {
+            if (paused) {
+                pausedWindow = window.copy();
+            }
+            return paused;
+        }
+    }
 
-                if (startDate != null) {
-                    long now = System.currentTimeMillis();
-                    if (startDate.getTime() > now) {
-                        long waitToStart = startDate.getTime() - now;
-                        long waitSecs = TimeUnit.MILLISECONDS.toSeconds(waitToStart);
-                        waitToStart = Math.min(waitToStart, maxWaitToStartTimeMsecs);
-                        LOGGER.debug("Start time for subscription is in the future, waiting {} seconds", waitSecs);
-                        try {
-                            Thread.sleep(waitToStart);
-                        } catch (Exception ignore) {}
-                    }
-                }
+    boolean isExpired(long executionTime) {
+        return endDate != null && executionTime > endDate.getTime();
+    }
 
-                //Right now we don't produce the Association View
-                if (!query.view.equals(NsiliConstants.NSIL_ASSOCIATION_VIEW) && !paused) {
-                    if (standingQueryData.size() <= maxPendingResults) {
-                        DAGQueryResult queryResult = getData(queryTime);
-                        if (queryResult != null) {
-                            standingQueryData.add(queryResult);
-                        }
-                    }
+    /**
+     * @return true if results should be queried for this standing query on its next execution
+     */
+    boolean canAcceptResults() {
+        //Right now we don't produce the Association View
+        return !query.view.equals(NsiliConstants.NSIL_ASSOCIATION_VIEW)
+                && standingQueryData.size() <= maxPendingResults;
+    }
 
-                    if (standingQueryData.size() > 0) {
-                        List<Callback> failedCallbacks = new ArrayList<>();
-                        for (Callback callback : callbacks.values()) {
-                            try {
-                                if (standingQueryData.size() > 0) {
-                                    LOGGER.trace("Notifying callback that results are available: {}",
-                                            standingQueryData.size());
-                                    callback._notify(org.codice.alliance.nsili.common.UCO.State.RESULTS_AVAILABLE,
-                                            get_request_description());
-                                }
-                            } catch (InvalidInputParameter invalidInputParameter) {
-                                LOGGER.debug("Unable to notify callback", invalidInputParameter);
-                            } catch (ProcessingFault processingFault) {
-                                LOGGER.debug("Unable to notify callback", processingFault);
-                            } catch (SystemFault systemFault) {
-                                LOGGER.debug("Unable to notify callback", systemFault);
-                            } catch (Exception e) {
-                                failedCallbacks.add(callback);
-                            }
-                        }
-
-                        failedCallbacks.stream()
-                                .forEach(c -> freeCallback(c));
-                    }
-                    lastCompletedExecutionTime = System.currentTimeMillis();
-                }
+    /**
+     * Stores the results of an execution and notifies callbacks that results are available.
+     */
+    void deliver(DAGQueryResult queryResult) {
+        //Right now we don't produce the Association View
+        if (query.view.equals(NsiliConstants.NSIL_ASSOCIATION_VIEW)) {
+            return;
+        }
 
-                //Don't sleep if more results available. Need client to pick up results as fast
-                //as possible to catch up.
-                if (!executionThread.hasMoreResultsAvailOnLastQuery()) {
-                    try {
-                        Thread.sleep(updateRate);
-                    } catch (Exception ignore) {
-                    }
-                }
-            }
+        if (queryResult != null && standingQueryData.size() <= maxPendingResults) {
+            // Results may be shared with other subscriptions, and are consumed as they are read
+            standingQueryData.add(new DAGQueryResult(queryResult.getTimeOfResult(),
+                    queryResult.getResults()));
+        }
 
-            synchronized (callbackLockObj) {
-                callbacks.clear();
-            }
+        if (standingQueryData.size() > 0) {
+            notifyCallbacks();
         }
+        lastCompletedExecutionTime = System.currentTimeMillis();
 
-        protected DAGQueryResult getData(long queryTime) {
-            DAGQueryResult result = null;
-
-            List<Result> catalogResults = new ArrayList<>();
-
-            Filter parsedFilter = bqsFilter;
-            if (!moreResultsAvailOnLastQuery && queryTime > 0) {
-                parsedFilter = filterBuilder.allOf(bqsFilter,
-                        filterBuilder.attribute(Metacard.MODIFIED)
-                                .is()
-                                .after()
-                                .date(new Date(queryTime)));
-
-                //Always need to ask for the DEFAULT_TAG or we get non-resource metacards
-                Filter resourceFilter = filterBuilder.allOf(parsedFilter, filterBuilder.attribute(
-                        Metacard.TAGS)
-                        .is()
-                        .like()
-                        .text(Metacard.DEFAULT_TAG));
-
-                //Default for NSILI is to include OBSOLETE (deleted) items
-                if (!LibraryImpl.queryContainsStatus(query.bqs_query)) {
-                    parsedFilter = filterBuilder.anyOf(resourceFilter,
-                            filterBuilder.allOf(parsedFilter,
-                                    filterBuilder.attribute(Metacard.TAGS)
-                                            .is()
-                                            .like()
-                                            .text(MetacardVersion.VERSION_TAG),
-                                    filterBuilder.attribute(MetacardVersion.VERSION_TAGS)
-                                            .is()
-                                            .like()
-                                            .text(Metacard.DEFAULT_TAG),
-                                    filterBuilder.attribute(MetacardVersion.ACTION)
-                                            .is()
-                                            .like()
-                                            .text(MetacardVersion.Action.DELETED.getKey())));
-                }
-            } else {
-                //Always need to ask for the DEFAULT_TAG or we get non-resource metacards
-                Filter resourceFilter = filterBuilder.allOf(bqsFilter, filterBuilder.attribute(
-                        Metacard.TAGS)
-                        .is()
-                        .like()
-                        .text(Metacard.DEFAULT_TAG));
-
-                if (!LibraryImpl.queryContainsStatus(query.bqs_query)) {
-                    parsedFilter = filterBuilder.anyOf(resourceFilter,
-                            filterBuilder.allOf(bqsFilter,
-                                    filterBuilder.attribute(Metacard.TAGS)
-                                            .is()
-                                            .like()
-                                            .text(MetacardVersion.VERSION_TAG),
-                                    filterBuilder.attribute(MetacardVersion.VERSION_TAGS)
-                                            .is()
-                                            .like()
-                                            .text(Metacard.DEFAULT_TAG),
-                                    filterBuilder.attribute(MetacardVersion.ACTION)
-                                            .is()
-                                            .like()
-                                            .text(MetacardVersion.Action.DELETED.getKey())));
-                }
-            }
+        // A client that registered a callback waits to be notified rather than polling.
+        boolean hasCallbacks;
+        synchronized (callbackLockObj) {
+            hasCallbacks = !callbacks.isEmpty();
+        }
+        if (hasCallbacks) {
+            touchServant();
+        }
+    }
 
-            catalogQuery = new QueryImpl(parsedFilter);
-            catalogQuery.setRequestsTotalResultsCount(true);
-            catalogQuery.setPageSize(pageSize);
-            if (moreResultsAvailOnLastQuery) {
-                catalogQuery.setStartIndex(startIndex);
-            }
+    /**
+     * Stops executing this standing query and releases its callbacks.
+     */
+    public void stop() {
+        running = false;
+        synchronized (callbackLockObj) {
+            callbacks.clear();
+        }
 
-            QueryRequestImpl catalogQueryRequest;
-            if (querySources == null || querySources.isEmpty()) {
-                LOGGER.trace("Query request will be local, no sources specified: {}", parsedFilter);
-                catalogQueryRequest = new QueryRequestImpl(catalogQuery);
-            } else {
-                if (LOGGER.isTraceEnabled()) {
-                    String sourceList = querySources.stream()
-                            .sorted()
-                            .collect(Collectors.joining(", "));
-                    LOGGER.trace("Query will use the following sources: {}", sourceList);
-                }
-                catalogQueryRequest = new QueryRequestImpl(catalogQuery, false, querySources, null);
-            }
+        if (ownsScheduler) {
+            scheduler.shutdown();
+        }
 
-            try {
-                QueryResultsCallable queryCallable = new QueryResultsCallable(catalogQueryRequest);
-
-                try {
-                    QueryResponse queryResponse = NsiliEndpoint.getGuestSubject()
-                            .execute(queryCallable);
-                    int numHits = (int) queryResponse.getHits();
-                    List<Result> results = queryResponse.getResults();
-                    int origResultSize = results.size();
-                    results = LibraryImpl.getLatestResults(results);
-                    catalogResults.addAll(results);
-                    int accumResults = origResultSize + (startIndex - 1);
-
-                    LOGGER.trace("Processing Result {} of {}", accumResults, numHits);
-
-                    if (results.isEmpty()) {
-                        moreResultsAvailOnLastQuery = false;
-                        startIndex = 1;
-                    } else {
-                        if (accumResults < numHits) {
-                            moreResultsAvailOnLastQuery = true;
-                            startIndex = accumResults + 1;
-                        } else {
-                            moreResultsAvailOnLastQuery = false;
-                            startIndex = 1;
-                        }
-                    }
-                } catch (SecurityServiceException e) {
-                    LOGGER.debug("Unable to update subject on NSILI Library", e);
-                }
+        if (servantLifecycleManager != null) {
+            servantLifecycleManager.complete(servantId);
+        }
+    }
 
-            } catch (ExecutionException e) {
-                LOGGER.debug("Unable to query catalog", e);
-            }
+    private void touchServant() {
+        if (servantLifecycleManager != null) {
+            servantLifecycleManager.touch(servantId);
+        }
+    }
 
-            List<DAG> dags = new ArrayList<>();
+    private long getNextExecutionTime() {
+        return lastCompletedExecutionTime + updateFrequencyMsec;
+    }
 
-            Map<String, List<String>> mandatoryAttributes = new HashMap<>();
-            if (outgoingValidationEnabled) {
-                NsiliDataModel nsiliDataModel = new NsiliDataModel();
-                mandatoryAttributes =
-                        nsiliDataModel.getRequiredAttrsForView(NsiliConstants.NSIL_ALL_VIEW);
-            }
-            for (Result catalogResult : catalogResults) {
-                try {
-                    DAG dag = ResultDAGConverter.convertResult(catalogResult,
-                            _orb(),
-                            _poa(),
-                            resultAttributes,
-                            mandatoryAttributes);
-                    dags.add(dag);
-                } catch (DagParsingException dpe) {
-                    LOGGER.debug("DAG could not be parsed and will not be returned to caller:",
-                            dpe);
+    private void notifyCallbacks() {
+        List<Callback> currentCallbacks;
+        synchronized (callbackLockObj) {
+            currentCallbacks = new ArrayList<>(callbacks.values());
+        }
+
+        List<Callback> failedCallbacks = new ArrayList<>();
+        for (Callback callback : currentCallbacks) {
+            try {
+                if (standingQueryData.size() > 0) {
+                    LOGGER.trace("Notifying callback that results are available: {}",
+                            standingQueryData.size());
+                    callback._notify(org.codice.alliance.nsili.common.UCO.State.RESULTS_AVAILABLE,
+                            get_request_description());
                 }
+            } catch (InvalidInputParameter invalidInputParameter) {
+                LOGGER.debug("Unable to notify callback", invalidInputParameter);
+            } catch (ProcessingFault processingFault) {
+                LOGGER.debug("Unable to notify callback", processingFault);
+            } catch (SystemFault systemFault) {
+                LOGGER.debug("Unable to notify callback", systemFault);
+            } catch (Exception e) {
+                failedCallbacks.add(callback);
             }
+        }
 
-            if (!dags.isEmpty()) {
-                result = new DAGQueryResult(System.currentTimeMillis(), dags);
+        failedCallbacks.stream()
+                .forEach(c -> freeCallback(c));
+    }
+
+    /**
+     * Queries the catalog for the part of this standing query's results that falls in a window,
+     * advancing the window's paging state.
+     */
+    DAGQueryResult getData(StandingQueryScheduler.QueryWindow window, long queryTime) {
+        DAGQueryResult result = null;
+
+        List<Result> catalogResults = new ArrayList<>();
+
+        Filter parsedFilter = bqsFilter;
+        if (!window.moreResultsAvailable && queryTime > 0) {
+            parsedFilter = filterBuilder.allOf(bqsFilter,
+                    filterBuilder.attribute(Metacard.MODIFIED)
+                            .is()
+                            .after()
+                            .date(new Date(queryTime)));
+
+            //Always need to ask for the DEFAULT_TAG or we get non-resource metacards
+            Filter resourceFilter = filterBuilder.allOf(parsedFilter, filterBuilder.attribute(
+                    Metacard.TAGS)
+                    .is()
+                    .like()
+                    .text(Metacard.DEFAULT_TAG));
+
+            //Default for NSILI is to include OBSOLETE (deleted) items
+            if (!LibraryImpl.queryContainsStatus(query.bqs_query)) {
+                parsedFilter = filterBuilder.anyOf(resourceFilter,
+                        filterBuilder.allOf(parsedFilter,
+                                filterBuilder.attribute(Metacard.TAGS)
+                                        .is()
+                                        .like()
+                                        .text(MetacardVersion.VERSION_TAG),
+                                filterBuilder.attribute(MetacardVersion.VERSION_TAGS)
+                                        .is()
+                                        .like()
+                                        .text(Metacard.DEFAULT_TAG),
+                                filterBuilder.attribute(MetacardVersion.ACTION)
+                                        .is()
+                                        .like()
+                                        .text(MetacardVersion.Action.DELETED.getKey())));
+            }
+        } else {
+            //Always need to ask for the DEFAULT_TAG or we get non-resource metacards
+            Filter resourceFilter = filterBuilder.allOf(bqsFilter, filterBuilder.attribute(
+                    Metacard.TAGS)
+                    .is()
+                    .like()
+                    .text(Metacard.DEFAULT_TAG));
+
+            if (!LibraryImpl.queryContainsStatus(query.bqs_query)) {
+                parsedFilter = filterBuilder.anyOf(resourceFilter,
+                        filterBuilder.allOf(bqsFilter,
+                                filterBuilder.attribute(Metacard.TAGS)
+                                        .is()
+                                        .like()
+                                        .text(MetacardVersion.VERSION_TAG),
+                                filterBuilder.attribute(MetacardVersion.VERSION_TAGS)
+                                        .is()
+                                        .like()
+                                        .text(Metacard.DEFAULT_TAG),
+                                filterBuilder.attribute(MetacardVersion.ACTION)
+                                        .is()
+                                        .like()
+                                        .text(MetacardVersion.Action.DELETED.getKey())));
             }
-            return result;
         }
 
-        public long getLastExecutionTime() {
-            return lastExecutionTime;
+        QueryImpl catalogQuery = new QueryImpl(parsedFilter);
+        catalogQuery.setRequestsTotalResultsCount(true);
+        catalogQuery.setPageSize(pageSize);
+        if (window.moreResultsAvailable) {
+            catalogQuery.setStartIndex(window.startIndex);
         }
 
-        public long getLastCompletedExecutionTime() {
-            return lastCompletedExecutionTime;
+        QueryRequestImpl catalogQueryRequest;
+        if (querySources == null || querySources.isEmpty()) {
+            LOGGER.trace("Query request will be local, no sources specified: {}", parsedFilter);
+            catalogQueryRequest = new QueryRequestImpl(catalogQuery);
+        } else {
+            if (LOGGER.isTraceEnabled()) {
+                String sourceList = querySources.stream()
+                        .sorted()
+                        .collect(Collectors.joining(", "));
+                LOGGER.trace("Query will use the following sources: {}", sourceList);
+            }
+            catalogQueryRequest = new QueryRequestImpl(catalogQuery, false, querySources, null);
         }
 
-        public long getNextExecutionTime() {
-            return lastCompletedExecutionTime + updateRate;
+        try {
+            QueryResultsCallable queryCallable = new QueryResultsCallable(catalogQueryRequest);
+
+            try {
+                QueryResponse queryResponse = NsiliEndpoint.getGuestSubject()
+                        .execute(queryCallable);
+                int numHits = (int) queryResponse.getHits();
+                List<Result> results = queryResponse.getResults();
+                int origResultSize = results.size();
+                results = LibraryImpl.getLatestResults(results);
+                catalogResults.addAll(results);
+                int accumResults = origResultSize + (window.startIndex - 1);
+
+                LOGGER.trace("Processing Result {} of {}", accumResults, numHits);
+
+                if (results.isEmpty()) {
+                    window.moreResultsAvailable = false;
+                    window.startIndex = 1;
+                } else {
+                    if (accumResults < numHits) {
+                        window.moreResultsAvailable = true;
+                        window.startIndex = accumResults + 1;
+                    } else {
+                        window.moreResultsAvailable = false;
+                        window.startIndex = 1;
+                    }
+                }
+            } catch (SecurityServiceException e) {
+                LOGGER.debug("Unable to update subject on NSILI Library", e);
+            }
+
+        } catch (ExecutionException e) {
+            LOGGER.debug("Unable to query catalog", e);
         }
 
-        public void setUpdateRate(long updateRate) {
-            this.updateRate = updateRate;
-            interrupt();
+        if (catalogResults.isEmpty()) {
+            return result;
         }
 
-        public boolean isRunning() {
-            return running;
+        Map<String, List<String>> mandatoryAttributes;
+        if (outgoingValidationEnabled) {
+            mandatoryAttributes = NsiliDataModel.getInstance()
+                    .getRequiredAttrsForView(NsiliConstants.NSIL_ALL_VIEW);
+        } else {
+            mandatoryAttributes = new HashMap<>();
         }
 
-        public void stopRunning() {
-            this.running = false;
-            interrupt();
+        ORB orb = _orb();
+        POA poa = _poa();
+        List<DAG> dags = conversionPipeline.convert(catalogResults,
+                catalogResult -> ResultDAGConverter.convertResult(catalogResult,
+                        orb,
+                        poa,
+                        resultAttributes,
+                        mandatoryAttributes),
+                catalogResults.size());
+
+        if (!dags.isEmpty()) {
+            result = new DAGQueryResult(System.currentTimeMillis(), dags);
         }
+        return result;
     }
 
     protected void parseLifeSpan(QueryLifeSpan lifespan) {
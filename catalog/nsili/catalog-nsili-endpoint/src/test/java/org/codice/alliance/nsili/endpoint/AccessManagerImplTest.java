@@ -17,13 +17,18 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.greaterThan;
 import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.IOException;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import org.codice.alliance.nsili.common.CorbaUtils;
@@ -202,6 +207,54 @@ public class AccessManagerImplTest extends NsiliCommonTest {
         assertThat(timeout, is(-1));
     }
 
+    @Test
+    public void testGetMetacardsQueriesOnce() throws Exception {
+        String otherMetacardId = UUID.randomUUID()
+                .toString();
+        MetacardImpl otherMetacard = new MetacardImpl();
+        otherMetacard.setId(otherMetacardId);
+        MetacardImpl testMetacard = new MetacardImpl();
+        testMetacard.setId(testMetacardId);
+
+        List<Result> results = new ArrayList<>();
+        results.add(new ResultImpl(otherMetacard));
+        results.add(new ResultImpl(testMetacard));
+        when(mockCatalogFramework.query(any(QueryRequest.class))).thenReturn(new QueryResponseImpl(
+                null,
+                results,
+                results.size()));
+
+        Map<String, Metacard> metacards = accessManager.getMetacards(Arrays.asList(testMetacardId,
+                "missing",
+                otherMetacardId));
+
+        assertThat(new ArrayList<>(metacards.keySet()),
+                is(Arrays.asList(testMetacardId, otherMetacardId)));
+        verify(mockCatalogFramework, times(1)).query(any(QueryRequest.class));
+    }
+
+    @Test
+    public void testGetMetacardsQueriesInBatches() throws Exception {
+        accessManager.setProductBatchSize(2);
+
+        accessManager.getMetacards(Arrays.asList("a", "b", "c", "b", "d", "e"));
+
+        verify(mockCatalogFramework, times(3)).query(any(QueryRequest.class));
+    }
+
+    @Test
+    public void testGetMetacardUsesCache() throws Exception {
+        accessManager.setMetacardCache(new MetacardCache());
+
+        Metacard metacard = accessManager.getMetacard(testMetacardId);
+        assertThat(metacard.getId(), is(testMetacardId));
+        assertThat(accessManager.getMetacard(testMetacardId), is(metacard));
+        assertThat(accessManager.getMetacards(Collections.singletonList(testMetacardId))
+                .get(testMetacardId), is(metacard));
+
+        verify(mockCatalogFramework, times(1)).query(any(QueryRequest.class));
+    }
+
     private void setupAccessMgrMocks() throws Exception {
         int testTotalHits = 5;
         List<Result> results = new ArrayList<>(testTotalHits);
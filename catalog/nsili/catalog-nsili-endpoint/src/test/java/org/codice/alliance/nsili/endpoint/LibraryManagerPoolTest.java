@@ -0,0 +1,189 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.nsili.endpoint;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.Charset;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.codice.alliance.nsili.common.GIAS.AccessCriteria;
+import org.codice.alliance.nsili.common.NsiliManagerType;
+import org.junit.Before;
+import org.junit.Test;
+import org.omg.PortableServer.POA;
+import org.omg.PortableServer.Servant;
+import org.omg.PortableServer.POAPackage.ObjectNotActive;
+
+public class LibraryManagerPoolTest {
+
+    private static final String PRODUCT_MGR = NsiliManagerType.PRODUCT_MGR.getSpecName();
+
+    private static final String STANDING_QUERY_MGR =
+            NsiliManagerType.STANDING_QUERY_MGR.getSpecName();
+
+    private static final String DATA_MODEL_MGR = NsiliManagerType.DATA_MODEL_MGR.getSpecName();
+
+    private static final String REPOSITORY_ID = "IDL:test:1.0";
+
+    private static final long TIMEOUT_SEC = 60;
+
+    private final Map<String, Servant> activeObjects = new ConcurrentHashMap<>();
+
+    private final AtomicLong now = new AtomicLong(0);
+
+    private POA poa;
+
+    private LibraryManagerPool pool;
+
+    private ServantLifecycleManager servantLifecycleManager;
+
+    @Before
+    public void setUp() throws Exception {
+        poa = mock(POA.class);
+        doAnswer(invocation -> {
+            activeObjects.put(toId(invocation.getArguments()[0]),
+                    (Servant) invocation.getArguments()[1]);
+            return null;
+        }).when(poa)
+                .activate_object_with_id(any(byte[].class), any(Servant.class));
+        doAnswer(invocation -> {
+            activeObjects.remove(toId(invocation.getArguments()[0]));
+            return null;
+        }).when(poa)
+                .deactivate_object(any(byte[].class));
+        when(poa.id_to_servant(any(byte[].class))).thenAnswer(invocation -> {
+            Servant servant = activeObjects.get(toId(invocation.getArguments()[0]));
+            if (servant == null) {
+                throw new ObjectNotActive();
+            }
+            return servant;
+        });
+
+        servantLifecycleManager = new ServantLifecycleManager(TIMEOUT_SEC, 0, now::get);
+        pool = new LibraryManagerPool(poa);
+        pool.setServantLifecycleManager(servantLifecycleManager);
+    }
+
+    @Test
+    public void testRepeatedRequestsShareManager() {
+        AccessCriteria accessCriteria = new AccessCriteria("user", "password", "");
+        for (int i = 0; i < 1000; i++) {
+            pool.getManager(PRODUCT_MGR, accessCriteria, REPOSITORY_ID, this::createServant);
+            pool.getManager(DATA_MODEL_MGR, accessCriteria, REPOSITORY_ID, this::createServant);
+        }
+
+        assertThat(activeObjects.size(), is(2));
+        assertThat(pool.size(), is(2));
+    }
+
+    @Test
+    public void testAccessCriteriaAreNotShared() {
+        pool.getManager(PRODUCT_MGR,
+                new AccessCriteria("user1", "", ""),
+                REPOSITORY_ID,
+                this::createServant);
+        pool.getManager(PRODUCT_MGR,
+                new AccessCriteria("user2", "", ""),
+                REPOSITORY_ID,
+                this::createServant);
+
+        assertThat(activeObjects.size(), is(2));
+    }
+
+    @Test
+    public void testPoolIsBounded() {
+        pool.setMaxManagers(10);
+        for (int i = 0; i < 1000; i++) {
+            pool.getManager(PRODUCT_MGR,
+                    new AccessCriteria("user" + i, "", ""),
+                    REPOSITORY_ID,
+                    this::createServant);
+        }
+        assertThat(pool.size(), is(10));
+
+        // Evicted managers stay active for clients still using them until they time out
+        now.addAndGet(TIMEOUT_SEC * 1000);
+        servantLifecycleManager.evictExpired();
+        assertThat(activeObjects.size(), is(10));
+    }
+
+    @Test
+    public void testInvalidateReplacesManagers() {
+        AccessCriteria accessCriteria = new AccessCriteria("user", "", "");
+        Servant first = createServant();
+        pool.getManager(PRODUCT_MGR, accessCriteria, REPOSITORY_ID, () -> first);
+
+        pool.invalidate();
+        pool.getManager(PRODUCT_MGR, accessCriteria, REPOSITORY_ID, this::createServant);
+        assertThat(activeObjects.size(), is(2));
+
+        now.addAndGet(TIMEOUT_SEC * 1000);
+        servantLifecycleManager.evictExpired();
+        assertThat(activeObjects.size(), is(1));
+        assertThat(activeObjects.values()
+                .iterator()
+                .next(), not(first));
+    }
+
+    @Test
+    public void testDeactivatedManagerIsReplaced() throws Exception {
+        AccessCriteria accessCriteria = new AccessCriteria("user", "", "");
+        pool.getManager(PRODUCT_MGR, accessCriteria, REPOSITORY_ID, this::createServant);
+        activeObjects.clear();
+
+        pool.getManager(PRODUCT_MGR, accessCriteria, REPOSITORY_ID, this::createServant);
+
+        assertThat(activeObjects.size(), is(1));
+        assertThat(pool.size(), is(1));
+    }
+
+    @Test
+    public void testPoolingDisabled() {
+        pool.setMaxManagers(0);
+        AccessCriteria accessCriteria = new AccessCriteria("user", "", "");
+        for (int i = 0; i < 5; i++) {
+            pool.getManager(PRODUCT_MGR, accessCriteria, REPOSITORY_ID, this::createServant);
+        }
+
+        assertThat(activeObjects.size(), is(5));
+        assertThat(pool.size(), is(0));
+    }
+
+    @Test
+    public void testCreatedManagersAreNotShared() {
+        for (int i = 0; i < 5; i++) {
+            pool.createManager(STANDING_QUERY_MGR, REPOSITORY_ID, this::createServant);
+        }
+
+        assertThat(activeObjects.size(), is(5));
+        assertThat(pool.size(), is(0));
+    }
+
+    private Servant createServant() {
+        return mock(Servant.class);
+    }
+
+    private static String toId(Object oid) {
+        return new String((byte[]) oid, Charset.forName(NsiliEndpoint.ENCODING));
+    }
+}
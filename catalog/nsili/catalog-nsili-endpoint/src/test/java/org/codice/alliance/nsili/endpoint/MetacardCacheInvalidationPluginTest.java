@@ -0,0 +1,93 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.nsili.endpoint;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import ddf.catalog.data.Metacard;
+import ddf.catalog.operation.CreateResponse;
+import ddf.catalog.operation.DeleteResponse;
+import ddf.catalog.operation.Update;
+import ddf.catalog.operation.UpdateResponse;
+
+public class MetacardCacheInvalidationPluginTest {
+
+    private MetacardCache metacardCache;
+
+    private MetacardCacheInvalidationPlugin plugin;
+
+    @Before
+    public void setUp() {
+        metacardCache = mock(MetacardCache.class);
+        plugin = new MetacardCacheInvalidationPlugin(metacardCache);
+    }
+
+    @Test
+    public void testCreateDoesNotInvalidate() throws Exception {
+        CreateResponse response = mock(CreateResponse.class);
+
+        assertThat(plugin.process(response), is(response));
+        verifyZeroInteractions(metacardCache);
+    }
+
+    @Test
+    public void testUpdateInvalidates() throws Exception {
+        Update update = mock(Update.class);
+        Metacard oldMetacard = createMetacard("old");
+        Metacard newMetacard = createMetacard("new");
+        when(update.getOldMetacard()).thenReturn(oldMetacard);
+        when(update.getNewMetacard()).thenReturn(newMetacard);
+        UpdateResponse response = mock(UpdateResponse.class);
+        when(response.getUpdatedMetacards()).thenReturn(Collections.singletonList(update));
+
+        assertThat(plugin.process(response), is(response));
+        verify(metacardCache).invalidate("old");
+        verify(metacardCache).invalidate("new");
+    }
+
+    @Test
+    public void testDeleteInvalidates() throws Exception {
+        DeleteResponse response = mock(DeleteResponse.class);
+        when(response.getDeletedMetacards()).thenReturn(Arrays.asList(createMetacard("first"),
+                createMetacard("second")));
+
+        assertThat(plugin.process(response), is(response));
+        verify(metacardCache).invalidate("first");
+        verify(metacardCache).invalidate("second");
+    }
+
+    @Test
+    public void testNullResponses() throws Exception {
+        assertThat(plugin.process((UpdateResponse) null), is((UpdateResponse) null));
+        assertThat(plugin.process((DeleteResponse) null), is((DeleteResponse) null));
+        verifyZeroInteractions(metacardCache);
+    }
+
+    private Metacard createMetacard(String id) {
+        Metacard metacard = mock(Metacard.class);
+        when(metacard.getId()).thenReturn(id);
+        return metacard;
+    }
+}
@@ -0,0 +1,188 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.nsili.endpoint;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.impl.MetacardImpl;
+
+public class MetacardCacheTest {
+
+    private static final long TTL_SEC = 60;
+
+    private AtomicLong now = new AtomicLong(0);
+
+    private AtomicInteger loads = new AtomicInteger();
+
+    private List<Collection<String>> batchLoads = new ArrayList<>();
+
+    private MetacardCache cache;
+
+    @Before
+    public void setUp() {
+        cache = new MetacardCache(3, TTL_SEC, now::get);
+    }
+
+    @Test
+    public void testMetacardIsCached() {
+        Metacard metacard = cache.getMetacard("a", this::load);
+
+        assertThat(metacard.getId(), is("a"));
+        assertThat(cache.getMetacard("a", this::load), is(metacard));
+        assertThat(loads.get(), is(1));
+        assertThat(cache.getHitCount(), is(1L));
+        assertThat(cache.getMissCount(), is(1L));
+    }
+
+    @Test
+    public void testMissingMetacardIsNotCached() {
+        assertThat(cache.getMetacard("a", id -> null), is(nullValue()));
+        assertThat(cache.size(), is(0));
+
+        cache.getMetacard("a", this::load);
+        assertThat(loads.get(), is(1));
+    }
+
+    @Test
+    public void testExpiredMetacardIsReloaded() {
+        cache.getMetacard("a", this::load);
+
+        advanceSeconds(TTL_SEC - 1);
+        cache.getMetacard("a", this::load);
+        assertThat(loads.get(), is(1));
+
+        advanceSeconds(1);
+        cache.getMetacard("a", this::load);
+        assertThat(loads.get(), is(2));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedMetacardIsEvicted() {
+        cache.getMetacard("a", this::load);
+        cache.getMetacard("b", this::load);
+        cache.getMetacard("c", this::load);
+        cache.getMetacard("a", this::load);
+        cache.getMetacard("d", this::load);
+
+        assertThat(cache.size(), is(3));
+        cache.getMetacard("a", this::load);
+        assertThat(loads.get(), is(4));
+        cache.getMetacard("b", this::load);
+        assertThat(loads.get(), is(5));
+    }
+
+    @Test
+    public void testInvalidate() {
+        cache.getMetacard("a", this::load);
+        cache.getMetacard("b", this::load);
+
+        cache.invalidate("a");
+        cache.getMetacard("a", this::load);
+        cache.getMetacard("b", this::load);
+        assertThat(loads.get(), is(3));
+
+        cache.invalidateAll();
+        assertThat(cache.size(), is(0));
+    }
+
+    @Test
+    public void testMetacardLoadedDuringInvalidationIsNotCached() {
+        cache.getMetacard("a", id -> {
+            cache.invalidate(id);
+            return load(id);
+        });
+
+        assertThat(cache.size(), is(0));
+    }
+
+    @Test
+    public void testGetMetacardsLoadsMissingIdsTogether() {
+        cache.getMetacard("b", this::load);
+
+        Map<String, Metacard> metacards = cache.getMetacards(Arrays.asList("a",
+                "b",
+                "missing",
+                "c",
+                "a"), this::loadAll);
+
+        assertThat(new ArrayList<>(metacards.keySet()), is(Arrays.asList("a", "b", "c")));
+        assertThat(batchLoads.size(), is(1));
+        assertThat(batchLoads.get(0), is(Arrays.asList("a", "missing", "c")));
+
+        cache.getMetacards(Arrays.asList("a", "b", "c"), this::loadAll);
+        assertThat(batchLoads.size(), is(1));
+    }
+
+    @Test
+    public void testDisabledCache() {
+        cache.setMaxEntries(0);
+        cache.getMetacard("a", this::load);
+        cache.getMetacard("a", this::load);
+        assertThat(loads.get(), is(2));
+
+        Map<String, Metacard> metacards = cache.getMetacards(Arrays.asList("c", "missing", "b"),
+                this::loadAll);
+        assertThat(new ArrayList<>(metacards.keySet()), is(Arrays.asList("c", "b")));
+        assertThat(cache.size(), is(0));
+    }
+
+    @Test
+    public void testZeroTimeToLiveDisablesCache() {
+        cache.setTimeToLiveSec(0);
+        cache.getMetacard("a", this::load);
+        cache.getMetacard("a", this::load);
+        assertThat(loads.get(), is(2));
+        assertThat(cache.size(), is(0));
+    }
+
+    private Metacard load(String id) {
+        loads.incrementAndGet();
+        MetacardImpl metacard = new MetacardImpl();
+        metacard.setId(id);
+        return metacard;
+    }
+
+    private Map<String, Metacard> loadAll(Collection<String> ids) {
+        batchLoads.add(new ArrayList<>(ids));
+        Map<String, Metacard> metacards = new HashMap<>();
+        for (String id : ids) {
+            if (!id.equals("missing")) {
+                MetacardImpl metacard = new MetacardImpl();
+                metacard.setId(id);
+                metacards.put(id, metacard);
+            }
+        }
+        return metacards;
+    }
+
+    private void advanceSeconds(long seconds) {
+        now.addAndGet(TimeUnit.SECONDS.toMillis(seconds));
+    }
+}
@@ -14,6 +14,7 @@
 package org.codice.alliance.nsili.endpoint;
 
 import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.junit.Assert.assertThat;
@@ -21,9 +22,17 @@ import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
 
 import org.codice.alliance.core.email.EmailSender;
+import org.codice.alliance.nsili.common.GIAS.AccessCriteria;
 import org.codice.alliance.nsili.common.GIAS.LibraryDescription;
+import org.codice.alliance.nsili.common.GIAS.LibraryManager;
+import org.codice.alliance.nsili.common.GIAS.StandingQueryMgr;
+import org.codice.alliance.nsili.common.GIAS.StandingQueryMgrHelper;
+import org.codice.alliance.nsili.common.NsiliManagerType;
 import org.codice.alliance.nsili.common.UCO.InvalidInputParameter;
 import org.codice.alliance.nsili.common.UCO.ProcessingFault;
 import org.codice.alliance.nsili.common.UCO.SystemFault;
@@ -37,6 +46,9 @@ import org.omg.PortableServer.POAManagerPackage.AdapterInactive;
 import org.omg.PortableServer.POAPackage.ServantNotActive;
 import org.omg.PortableServer.POAPackage.WrongPolicy;
 
+import ddf.catalog.data.Result;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.data.impl.ResultImpl;
 import ddf.security.service.SecurityManager;
 import ddf.security.service.SecurityServiceException;
 
@@ -94,11 +106,66 @@ public class NsiliLibraryImplTest extends NsiliCommonTest {
         library.get_other_libraries(null);
     }
 
+    @Test
+    public void testClientsShareProductManager() throws Exception {
+        AccessCriteria accessCriteria = new AccessCriteria("", "", "");
+        LibraryManager firstClient =
+                library.get_manager(NsiliManagerType.PRODUCT_MGR.getSpecName(), accessCriteria);
+        LibraryManager secondClient =
+                library.get_manager(NsiliManagerType.PRODUCT_MGR.getSpecName(), accessCriteria);
+
+        assertThat(firstClient._is_equivalent(secondClient), is(true));
+    }
+
+    @Test
+    public void testClientDefaultTimeoutIsNotShared() throws Exception {
+        AccessCriteria accessCriteria = new AccessCriteria("", "", "");
+        StandingQueryMgr firstClient = StandingQueryMgrHelper.narrow(library.get_manager(
+                NsiliManagerType.STANDING_QUERY_MGR.getSpecName(),
+                accessCriteria));
+        StandingQueryMgr secondClient = StandingQueryMgrHelper.narrow(library.get_manager(
+                NsiliManagerType.STANDING_QUERY_MGR.getSpecName(),
+                accessCriteria));
+        int defaultTimeout = secondClient.get_default_timeout();
+
+        firstClient.set_default_timeout(defaultTimeout + 30);
+
+        assertThat(firstClient._is_equivalent(secondClient), is(false));
+        assertThat(firstClient.get_default_timeout(), is(defaultTimeout + 30));
+        assertThat(secondClient.get_default_timeout(), is(defaultTimeout));
+    }
+
     @Test
     public void testSetMaxResults() {
         library.setMaxNumResults(999);
     }
 
+    @Test
+    public void testLatestResultsKeepOrder() {
+        Result first = createResult("1", new Date(1000));
+        Result second = createResult("2", new Date(1000));
+        Result secondUpdated = createResult("2", new Date(2000));
+        Result third = createResult("3", null);
+
+        List<Result> latestResults = LibraryImpl.getLatestResults(Arrays.asList(second,
+                first,
+                third,
+                secondUpdated));
+
+        assertThat(latestResults, contains(secondUpdated, first, third));
+    }
+
+    @Test
+    public void testLatestResultsKeepModifiedResult() {
+        Result modified = createResult("1", new Date(1000));
+        Result unmodified = createResult("1", null);
+
+        assertThat(LibraryImpl.getLatestResults(Arrays.asList(modified, unmodified)),
+                contains(modified));
+        assertThat(LibraryImpl.getLatestResults(Arrays.asList(unmodified, modified)),
+                contains(modified));
+    }
+
     @After
     public void tearDown() {
         if (orb != null) {
@@ -108,6 +175,13 @@ public class NsiliLibraryImplTest extends NsiliCommonTest {
         orb = null;
     }
 
+    private Result createResult(String id, Date modified) {
+        MetacardImpl metacard = new MetacardImpl();
+        metacard.setId(id);
+        metacard.setModifiedDate(modified);
+        return new ResultImpl(metacard);
+    }
+
     private void createNsiliEndpoint() {
         nsiliEndpoint = new NsiliEndpoint();
         nsiliEndpoint.setSecurityManager(securityManager);
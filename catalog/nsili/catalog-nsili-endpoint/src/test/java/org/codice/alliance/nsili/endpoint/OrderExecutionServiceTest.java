@@ -0,0 +1,92 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.nsili.endpoint;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class OrderExecutionServiceTest {
+
+    private static final long WAIT_SEC = 5;
+
+    private final CountDownLatch running = new CountDownLatch(1);
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private OrderExecutionService orderExecutionService;
+
+    @After
+    public void tearDown() {
+        release.countDown();
+        if (orderExecutionService != null) {
+            orderExecutionService.shutdown();
+        }
+    }
+
+    @Test
+    public void testOrdersBeyondQueueAreNotAccepted() throws Exception {
+        orderExecutionService = new OrderExecutionService(1, 1);
+
+        assertThat(orderExecutionService.submit(this::blockingOrder), is(true));
+        assertThat(running.await(WAIT_SEC, TimeUnit.SECONDS), is(true));
+
+        assertThat(orderExecutionService.submit(() -> { }), is(true));
+        assertThat(orderExecutionService.getQueuedOrderCount(), is(1));
+        assertThat(orderExecutionService.submit(() -> { }), is(false));
+    }
+
+    @Test
+    public void testNoOrderThreads() {
+        orderExecutionService = new OrderExecutionService(0, 1);
+        assertThat(orderExecutionService.submit(() -> { }), is(false));
+    }
+
+    @Test
+    public void testShutdown() {
+        orderExecutionService = new OrderExecutionService();
+        orderExecutionService.shutdown();
+        assertThat(orderExecutionService.submit(() -> { }), is(false));
+    }
+
+    @Test
+    public void testQueuedOrdersFinishAfterReconfiguring() throws Exception {
+        orderExecutionService = new OrderExecutionService(1, 1);
+        CountDownLatch queuedOrderRan = new CountDownLatch(1);
+
+        orderExecutionService.submit(this::blockingOrder);
+        assertThat(running.await(WAIT_SEC, TimeUnit.SECONDS), is(true));
+        orderExecutionService.submit(queuedOrderRan::countDown);
+
+        orderExecutionService.setOrderThreads(2);
+        release.countDown();
+
+        assertThat(queuedOrderRan.await(WAIT_SEC, TimeUnit.SECONDS), is(true));
+    }
+
+    private void blockingOrder() {
+        running.countDown();
+        try {
+            release.await(WAIT_SEC, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                    .interrupt();
+        }
+    }
+}
@@ -20,6 +20,8 @@ import static org.hamcrest.Matchers.arrayContaining;
 import static org.hamcrest.Matchers.arrayContainingInAnyOrder;
 import static org.hamcrest.Matchers.greaterThan;
 import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.IOException;
@@ -28,6 +30,12 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.codice.alliance.nsili.common.CorbaUtils;
 import org.codice.alliance.nsili.common.GIAS.GetParametersRequest;
@@ -136,6 +144,41 @@ public class ProductMgrImplTest extends NsiliCommonTest {
         assertThat(avail, is(false));
     }
 
+    @Test
+    public void testConcurrentFirstUse() throws Exception {
+        // Pooled managers are shared, so their access manager may first be needed by several
+        // clients at once
+        ProductMgrImpl sharedProductMgr = new ProductMgrImpl(null);
+        sharedProductMgr.setFilterBuilder(new GeotoolsFilterBuilder());
+        sharedProductMgr.setCatalogFramework(mockCatalogFramework);
+        rootPOA.activate_object_with_id(UUID.randomUUID()
+                .toString()
+                .getBytes(Charset.forName(NsiliEndpoint.ENCODING)), sharedProductMgr);
+
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Short>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                Callable<Short> call = () -> {
+                    start.await();
+                    assertThat(sharedProductMgr.get_use_modes(),
+                            arrayContainingInAnyOrder("OrderAccess"));
+                    return sharedProductMgr.get_number_of_priorities();
+                };
+                futures.add(executor.submit(call));
+            }
+            start.countDown();
+
+            for (Future<Short> future : futures) {
+                assertThat(future.get(10, TimeUnit.SECONDS), is((short) 1));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     @Test
     public void testGetParameters() throws Exception {
         MetacardImpl testMetacard = new MetacardImpl();
@@ -214,6 +257,33 @@ public class ProductMgrImplTest extends NsiliCommonTest {
         assertThat(request, notNullValue());
     }
 
+    @Test
+    public void testGetRelatedFilesResolvesProductsInBatches() throws Exception {
+        productMgr.setProductBatchSize(2);
+        Product[] products = new Product[3];
+        for (int i = 0; i < products.length; i++) {
+            MetacardImpl testMetacard = new MetacardImpl();
+            testMetacard.setId(UUID.randomUUID()
+                    .toString()
+                    .replaceAll("-", ""));
+            DAG dag = ResultDAGConverter.convertResult(new ResultImpl(testMetacard),
+                    orb,
+                    rootPOA,
+                    new ArrayList<>(),
+                    new HashMap<>());
+            products[i] = ProductHelper.extract(dag.nodes[0].value);
+        }
+        FileLocation location = new FileLocation("", "", "localhost", "/nsili/file", null);
+
+        GetRelatedFilesRequest request = productMgr.get_related_files(products,
+                location,
+                NsiliConstants.THUMBNAIL_TYPE,
+                new NameValue[0]);
+
+        assertThat(request, notNullValue());
+        verify(mockCatalogFramework, times(2)).query(any(QueryRequest.class));
+    }
+
     @Test
     public void testGetRelatedFilesWithPort() throws Exception {
         MetacardImpl testMetacard = new MetacardImpl();
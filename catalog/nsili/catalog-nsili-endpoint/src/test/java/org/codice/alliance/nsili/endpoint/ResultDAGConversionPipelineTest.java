@@ -0,0 +1,199 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.nsili.endpoint;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.codice.alliance.nsili.common.DagParsingException;
+import org.codice.alliance.nsili.common.UCO.DAG;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.Result;
+
+public class ResultDAGConversionPipelineTest {
+
+    private static final int NUM_RESULTS = 20;
+
+    private ResultDAGConversionPipeline pipeline;
+
+    private List<Result> results;
+
+    private Map<DAG, String> dagIds;
+
+    @Before
+    public void setUp() {
+        pipeline = new ResultDAGConversionPipeline(4);
+        results = new ArrayList<>();
+        for (int i = 0; i < NUM_RESULTS; i++) {
+            results.add(createResult(String.valueOf(i)));
+        }
+        dagIds = Collections.synchronizedMap(new IdentityHashMap<>());
+    }
+
+    @After
+    public void tearDown() {
+        pipeline.shutdown();
+    }
+
+    @Test
+    public void testResultOrderIsPreserved() {
+        List<DAG> dags = pipeline.convert(results, result -> {
+            int index = Integer.parseInt(getId(result));
+            // Convert later results faster so they finish first
+            sleep(NUM_RESULTS - index);
+            return createDag(result);
+        }, NUM_RESULTS);
+
+        assertThat(getIds(dags), is(getIds(results)));
+    }
+
+    @Test
+    public void testResultsAreConvertedConcurrently() throws Exception {
+        CountDownLatch allStarted = new CountDownLatch(4);
+        List<DAG> dags = pipeline.convert(results.subList(0, 4), result -> {
+            allStarted.countDown();
+            try {
+                allStarted.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread()
+                        .interrupt();
+            }
+            return createDag(result);
+        }, NUM_RESULTS);
+
+        assertThat(allStarted.getCount(), is(0L));
+        assertThat(dags.size(), is(4));
+    }
+
+    @Test
+    public void testFailedResultsAreSkipped() {
+        List<DAG> dags = pipeline.convert(results, result -> {
+            int index = Integer.parseInt(getId(result));
+            if (index % 2 == 0) {
+                throw new DagParsingException("missing mandatory attribute");
+            } else if (index == 5) {
+                return null;
+            } else if (index == 7) {
+                throw new IllegalStateException("unexpected");
+            }
+            return createDag(result);
+        }, NUM_RESULTS);
+
+        assertThat(getIds(dags), contains("1", "3", "9", "11", "13", "15", "17", "19"));
+    }
+
+    @Test
+    public void testMaxResults() {
+        List<DAG> dags = pipeline.convert(results, this::createDag, 5);
+
+        assertThat(getIds(dags), contains("0", "1", "2", "3", "4"));
+    }
+
+    @Test
+    public void testOnlyNeededResultsAreConverted() {
+        Set<String> converted = Collections.newSetFromMap(new ConcurrentHashMap<>());
+        List<DAG> dags = pipeline.convert(results, result -> {
+            String id = getId(result);
+            converted.add(id);
+            if (Integer.parseInt(id) % 2 == 0) {
+                throw new DagParsingException("missing mandatory attribute");
+            }
+            return createDag(result);
+        }, 3);
+
+        assertThat(getIds(dags), contains("1", "3", "5"));
+        assertThat(converted, containsInAnyOrder("0", "1", "2", "3", "4", "5"));
+    }
+
+    @Test
+    public void testSerialConversion() {
+        Set<Thread> threads = Collections.newSetFromMap(new ConcurrentHashMap<>());
+        pipeline.setConversionThreads(1);
+
+        List<DAG> dags = pipeline.convert(results, result -> {
+            threads.add(Thread.currentThread());
+            return createDag(result);
+        }, 3);
+
+        assertThat(getIds(dags), contains("0", "1", "2"));
+        assertThat(threads, contains(Thread.currentThread()));
+    }
+
+    @Test
+    public void testConversionAfterShutdown() {
+        pipeline.shutdown();
+
+        List<DAG> dags = pipeline.convert(results, this::createDag, NUM_RESULTS);
+
+        assertThat(dags.size(), is(NUM_RESULTS));
+    }
+
+    private DAG createDag(Result result) {
+        DAG dag = new DAG();
+        dagIds.put(dag, getId(result));
+        return dag;
+    }
+
+    private List<String> getIds(List<?> items) {
+        List<String> ids = new ArrayList<>();
+        for (Object item : items) {
+            if (item instanceof DAG) {
+                ids.add(dagIds.get(item));
+            } else {
+                ids.add(getId((Result) item));
+            }
+        }
+        return ids;
+    }
+
+    private String getId(Result result) {
+        return result.getMetacard()
+                .getId();
+    }
+
+    private Result createResult(String id) {
+        Metacard metacard = mock(Metacard.class);
+        when(metacard.getId()).thenReturn(id);
+        Result result = mock(Result.class);
+        when(result.getMetacard()).thenReturn(metacard);
+        return result;
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                    .interrupt();
+        }
+    }
+}
@@ -0,0 +1,161 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.nsili.endpoint;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.nio.charset.Charset;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.omg.PortableServer.POA;
+import org.omg.PortableServer.POAPackage.ObjectNotActive;
+
+public class ServantLifecycleManagerTest {
+
+    private static final String QUERY_ID = "query-id";
+
+    private static final String PRODUCT_ID = "product-id";
+
+    private static final long TIMEOUT_SEC = 60;
+
+    private static final long GRACE_SEC = 5;
+
+    private AtomicLong now = new AtomicLong(0);
+
+    private POA poa;
+
+    private ServantLifecycleManager manager;
+
+    @Before
+    public void setUp() {
+        poa = mock(POA.class);
+        manager = new ServantLifecycleManager(TIMEOUT_SEC, GRACE_SEC, now::get);
+    }
+
+    @Test
+    public void testIdleServantIsDeactivated() throws Exception {
+        manager.track(poa, QUERY_ID);
+
+        advanceSeconds(TIMEOUT_SEC - 1);
+        assertThat(manager.evictExpired(), is(0));
+
+        advanceSeconds(1);
+        assertThat(manager.evictExpired(), is(1));
+        assertThat(manager.getTrackedCount(), is(0));
+        verify(poa).deactivate_object(oid(QUERY_ID));
+    }
+
+    @Test
+    public void testTouchExtendsTimeout() throws Exception {
+        manager.track(poa, QUERY_ID);
+
+        advanceSeconds(TIMEOUT_SEC - 1);
+        manager.touch(QUERY_ID);
+        advanceSeconds(TIMEOUT_SEC - 1);
+
+        assertThat(manager.evictExpired(), is(0));
+        verify(poa, never()).deactivate_object(any());
+    }
+
+    @Test
+    public void testTrackAgainExtendsTimeout() throws Exception {
+        manager.track(poa, PRODUCT_ID);
+        advanceSeconds(TIMEOUT_SEC - 1);
+        manager.track(poa, PRODUCT_ID);
+        advanceSeconds(TIMEOUT_SEC - 1);
+
+        assertThat(manager.evictExpired(), is(0));
+        assertThat(manager.getTrackedCount(), is(1));
+    }
+
+    @Test
+    public void testCompletedServantIsDeactivatedAfterGracePeriod() throws Exception {
+        manager.track(poa, QUERY_ID);
+        manager.complete(QUERY_ID);
+
+        advanceSeconds(GRACE_SEC - 1);
+        manager.touch(QUERY_ID);
+        assertThat(manager.evictExpired(), is(0));
+
+        advanceSeconds(1);
+        assertThat(manager.evictExpired(), is(1));
+        verify(poa).deactivate_object(oid(QUERY_ID));
+    }
+
+    @Test
+    public void testUntrackedIdsAreIgnored() throws Exception {
+        manager.touch(QUERY_ID);
+        manager.complete(QUERY_ID);
+
+        advanceSeconds(TIMEOUT_SEC);
+        assertThat(manager.evictExpired(), is(0));
+        verify(poa, never()).deactivate_object(any());
+    }
+
+    @Test
+    public void testDeactivationFailureStillEvicts() throws Exception {
+        doThrow(new ObjectNotActive()).when(poa)
+                .deactivate_object(oid(QUERY_ID));
+        manager.track(poa, QUERY_ID);
+
+        advanceSeconds(TIMEOUT_SEC);
+        assertThat(manager.evictExpired(), is(1));
+        assertThat(manager.getTrackedCount(), is(0));
+    }
+
+    @Test
+    public void testDeactivationStopsServant() throws Exception {
+        AtomicInteger stopped = new AtomicInteger();
+        manager.track(poa, QUERY_ID, stopped::incrementAndGet);
+
+        advanceSeconds(TIMEOUT_SEC - 1);
+        assertThat(manager.evictExpired(), is(0));
+        assertThat(stopped.get(), is(0));
+
+        advanceSeconds(1);
+        assertThat(manager.evictExpired(), is(1));
+        assertThat(stopped.get(), is(1));
+        verify(poa).deactivate_object(oid(QUERY_ID));
+    }
+
+    @Test
+    public void testShutdownDeactivatesAllServants() throws Exception {
+        manager.start();
+        manager.track(poa, QUERY_ID);
+        manager.track(poa, PRODUCT_ID);
+
+        manager.shutdown();
+
+        assertThat(manager.getTrackedCount(), is(0));
+        verify(poa, times(2)).deactivate_object(any());
+    }
+
+    private void advanceSeconds(long seconds) {
+        now.addAndGet(seconds * 1000);
+    }
+
+    private byte[] oid(String id) {
+        return id.getBytes(Charset.forName(NsiliEndpoint.ENCODING));
+    }
+}
@@ -0,0 +1,125 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.nsili.endpoint;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Matchers.anyCollectionOf;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import org.codice.alliance.nsili.endpoint.requests.StandingQueryScheduler;
+import org.junit.Before;
+import org.junit.Test;
+
+import ddf.catalog.core.versioning.MetacardVersion;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.operation.CreateResponse;
+import ddf.catalog.operation.DeleteResponse;
+import ddf.catalog.operation.Update;
+import ddf.catalog.operation.UpdateResponse;
+
+public class StandingQueryChangePluginTest {
+
+    private StandingQueryScheduler scheduler;
+
+    private StandingQueryChangePlugin plugin;
+
+    @Before
+    public void setUp() {
+        scheduler = mock(StandingQueryScheduler.class);
+        plugin = new StandingQueryChangePlugin(scheduler);
+    }
+
+    @Test
+    public void testChangeTrackingEnabled() {
+        verify(scheduler).enableChangeTracking();
+    }
+
+    @Test
+    public void testResourceCreated() throws Exception {
+        CreateResponse response = mock(CreateResponse.class);
+        List<Metacard> created = Collections.singletonList(createMetacard(Metacard.DEFAULT_TAG));
+        when(response.getCreatedMetacards()).thenReturn(created);
+
+        assertThat(plugin.process(response), is(response));
+        verify(scheduler).catalogChanged(created);
+    }
+
+    @Test
+    public void testWorkspaceCreated() throws Exception {
+        CreateResponse response = mock(CreateResponse.class);
+        List<Metacard> created = Collections.singletonList(createMetacard("workspace"));
+        when(response.getCreatedMetacards()).thenReturn(created);
+
+        assertThat(plugin.process(response), is(response));
+        verify(scheduler, never()).catalogChanged(anyCollectionOf(Metacard.class));
+    }
+
+    @Test
+    public void testOnlyResourcesReported() throws Exception {
+        CreateResponse response = mock(CreateResponse.class);
+        Metacard resource = createMetacard(Metacard.DEFAULT_TAG);
+        List<Metacard> created = Arrays.asList(createMetacard("workspace"), resource);
+        when(response.getCreatedMetacards()).thenReturn(created);
+
+        plugin.process(response);
+        verify(scheduler).catalogChanged(Collections.singletonList(resource));
+    }
+
+    @Test
+    public void testResourceUpdated() throws Exception {
+        Update update = mock(Update.class);
+        Metacard metacard = createMetacard();
+        when(update.getNewMetacard()).thenReturn(metacard);
+        UpdateResponse response = mock(UpdateResponse.class);
+        when(response.getUpdatedMetacards()).thenReturn(Collections.singletonList(update));
+
+        assertThat(plugin.process(response), is(response));
+        verify(scheduler).catalogChanged(Collections.singletonList(metacard));
+    }
+
+    @Test
+    public void testResourceDeleted() throws Exception {
+        DeleteResponse response = mock(DeleteResponse.class);
+        List<Metacard> deleted =
+                Collections.singletonList(createMetacard(MetacardVersion.VERSION_TAG));
+        when(response.getDeletedMetacards()).thenReturn(deleted);
+
+        assertThat(plugin.process(response), is(response));
+        verify(scheduler).catalogChanged(deleted);
+    }
+
+    @Test
+    public void testNoChanges() throws Exception {
+        DeleteResponse response = mock(DeleteResponse.class);
+        when(response.getDeletedMetacards()).thenReturn(Collections.emptyList());
+
+        plugin.process(response);
+        verify(scheduler, never()).catalogChanged(anyCollectionOf(Metacard.class));
+    }
+
+    private Metacard createMetacard(String... tags) {
+        Metacard metacard = mock(Metacard.class);
+        when(metacard.getTags()).thenReturn(new HashSet<>(Arrays.asList(tags)));
+        return metacard;
+    }
+}
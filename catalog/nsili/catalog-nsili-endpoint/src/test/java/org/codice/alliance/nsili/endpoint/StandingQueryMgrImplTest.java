@@ -26,6 +26,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.codice.alliance.nsili.common.CorbaUtils;
 import org.codice.alliance.nsili.common.GIAS.Event;
@@ -138,19 +139,32 @@ public class StandingQueryMgrImplTest extends NsiliCommonTest {
             throws InvalidInputParameter, SystemFault, ProcessingFault {
         String[] resultAttributes = new String[0];
         SortAttribute[] sortAttributes = new SortAttribute[0];
-        LifeEvent start = new LifeEvent();
-        start.at(LifeEventType.ABSOLUTE_TIME, new AbsTime(new Date((short)2016, (short)05, (short)01), new Time((short)00, (short)00, (short)00)));
-        LifeEvent stop = new LifeEvent();
-        stop.at(LifeEventType.ABSOLUTE_TIME, new AbsTime(new Date((short)2050, (short)05, (short)01), new Time((short)00, (short)00, (short)00)));
-        LifeEvent frequency1 = new LifeEvent();
-        frequency1.rt(LifeEventType.RELATIVE_TIME, new Time((short)00, (short)01, (short)00));
-        LifeEvent[] frequency = new LifeEvent[]{frequency1};
-        QueryLifeSpan lifeSpan = new QueryLifeSpan(start, stop, frequency);
+        QueryLifeSpan lifeSpan = createLifeSpan();
         Query query = new Query(NsiliConstants.NSIL_ALL_VIEW, bqsQuery);
         SubmitStandingQueryRequest request = standingQueryMgr.submit_standing_query(query, resultAttributes, sortAttributes, lifeSpan, new NameValue[0]);
         assertThat(request, notNullValue());
     }
 
+    @Test
+    public void testStandingQueryServantIsTracked() throws Exception {
+        AtomicLong now = new AtomicLong(0);
+        ServantLifecycleManager servantLifecycleManager = new ServantLifecycleManager(60,
+                5,
+                now::get);
+        standingQueryMgr.setServantLifecycleManager(servantLifecycleManager);
+
+        SubmitStandingQueryRequest request = standingQueryMgr.submit_standing_query(new Query(
+                NsiliConstants.NSIL_ALL_VIEW,
+                bqsQuery), new String[0], new SortAttribute[0], createLifeSpan(), new NameValue[0]);
+        assertThat(servantLifecycleManager.getTrackedCount(), is(1));
+
+        request.cancel();
+        now.addAndGet(TimeUnit.SECONDS.toMillis(5));
+
+        assertThat(servantLifecycleManager.evictExpired(), is(1));
+        assertThat(servantLifecycleManager.getTrackedCount(), is(0));
+    }
+
     @Test
     public void testGetTimeout() throws InvalidInputParameter, SystemFault, ProcessingFault {
         int timeout = standingQueryMgr.get_timeout(null);
@@ -184,6 +198,16 @@ public class StandingQueryMgrImplTest extends NsiliCommonTest {
         standingQueryMgr.get_libraries();
     }
 
+    private QueryLifeSpan createLifeSpan() {
+        LifeEvent start = new LifeEvent();
+        start.at(LifeEventType.ABSOLUTE_TIME, new AbsTime(new Date((short)2016, (short)05, (short)01), new Time((short)00, (short)00, (short)00)));
+        LifeEvent stop = new LifeEvent();
+        stop.at(LifeEventType.ABSOLUTE_TIME, new AbsTime(new Date((short)2050, (short)05, (short)01), new Time((short)00, (short)00, (short)00)));
+        LifeEvent frequency = new LifeEvent();
+        frequency.rt(LifeEventType.RELATIVE_TIME, new Time((short)00, (short)01, (short)00));
+        return new QueryLifeSpan(start, stop, new LifeEvent[]{frequency});
+    }
+
     private void setupStandingQueryMgrMocks()
             throws UnsupportedQueryException, SourceUnavailableException, FederationException {
         int testTotalHits = 5;
@@ -0,0 +1,152 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.nsili.endpoint.requests;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.Header;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpInetConnection;
+import org.apache.http.HttpStatus;
+import org.apache.http.impl.bootstrap.HttpServer;
+import org.apache.http.impl.bootstrap.ServerBootstrap;
+import org.apache.http.protocol.HttpCoreContext;
+import org.apache.http.util.EntityUtils;
+import org.codice.alliance.nsili.common.UCO.FileLocation;
+import org.codice.alliance.nsili.endpoint.HttpDeliveryTransport;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class FtpDestinationSinkTest {
+
+    private static final String PATH = "orders";
+
+    private static final String CONTENT = "ordered product";
+
+    private final Map<String, String> receivedFiles = new ConcurrentHashMap<>();
+
+    private final Map<String, Header> transferEncodings = new ConcurrentHashMap<>();
+
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+
+    private volatile int responseStatus = HttpStatus.SC_CREATED;
+
+    private HttpServer server;
+
+    private HttpDeliveryTransport deliveryTransport;
+
+    private FtpDestinationSink destinationSink;
+
+    @Before
+    public void setUp() throws IOException {
+        server = ServerBootstrap.bootstrap()
+                .setListenerPort(0)
+                .registerHandler("*", (request, response, context) -> {
+                    String name = request.getRequestLine()
+                            .getUri();
+                    receivedFiles.put(name,
+                            EntityUtils.toString(((HttpEntityEnclosingRequest) request).getEntity(),
+                                    StandardCharsets.UTF_8));
+                    Header transferEncoding = request.getFirstHeader("Transfer-Encoding");
+                    if (transferEncoding != null) {
+                        transferEncodings.put(name, transferEncoding);
+                    }
+                    clientPorts.add(((HttpInetConnection) HttpCoreContext.adapt(context)
+                            .getConnection()).getRemotePort());
+                    response.setStatusCode(responseStatus);
+                })
+                .create();
+        server.start();
+
+        FileLocation fileLocation = new FileLocation();
+        fileLocation.host_name = "localhost";
+        fileLocation.path_name = PATH;
+
+        deliveryTransport = new HttpDeliveryTransport();
+        destinationSink = new FtpDestinationSink(fileLocation,
+                server.getLocalPort(),
+                "http",
+                deliveryTransport);
+    }
+
+    @After
+    public void tearDown() {
+        deliveryTransport.shutdown();
+        server.shutdown(0, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testWriteFile() throws IOException {
+        destinationSink.writeFile(getContent(),
+                CONTENT.length(),
+                "file.txt",
+                "text/plain",
+                Collections.emptyList());
+
+        assertThat(receivedFiles.get("/" + PATH + "/file.txt"), is(CONTENT));
+        assertThat(transferEncodings.get("/" + PATH + "/file.txt"), nullValue());
+    }
+
+    @Test
+    public void testWriteStreamIsChunked() throws IOException {
+        destinationSink.writeStream(out -> out.write(CONTENT.getBytes(StandardCharsets.UTF_8)),
+                "package.tar",
+                "application/x-tar",
+                Collections.emptyList());
+
+        assertThat(receivedFiles.get("/" + PATH + "/package.tar"), is(CONTENT));
+        assertThat(transferEncodings.get("/" + PATH + "/package.tar")
+                .getValue(), is("chunked"));
+    }
+
+    @Test
+    public void testConnectionIsReused() throws IOException {
+        for (int i = 0; i < 3; i++) {
+            destinationSink.writeFile(getContent(),
+                    CONTENT.length(),
+                    "file" + i + ".txt",
+                    "text/plain",
+                    Collections.emptyList());
+        }
+
+        assertThat(receivedFiles.size(), is(3));
+        assertThat(clientPorts.size(), is(1));
+    }
+
+    @Test(expected = IOException.class)
+    public void testRejectedDelivery() throws IOException {
+        responseStatus = HttpStatus.SC_FORBIDDEN;
+        destinationSink.writeFile(getContent(),
+                CONTENT.length(),
+                "file.txt",
+                "text/plain",
+                Collections.emptyList());
+    }
+
+    private ByteArrayInputStream getContent() {
+        return new ByteArrayInputStream(CONTENT.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -13,21 +13,38 @@
  */
 package org.codice.alliance.nsili.endpoint.requests;
 
+import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.UnsupportedEncodingException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import org.apache.commons.io.IOUtils;
 
 import org.apache.cxf.common.i18n.Exception;
 import org.codice.alliance.core.email.EmailSender;
@@ -43,14 +60,20 @@ import org.codice.alliance.nsili.common.UCO.FileLocation;
 import org.codice.alliance.nsili.common.UCO.InvalidInputParameter;
 import org.codice.alliance.nsili.common.UCO.ProcessingFault;
 import org.codice.alliance.nsili.common.UCO.RequestDescription;
+import org.codice.alliance.nsili.common.UCO.State;
 import org.codice.alliance.nsili.common.UCO.Status;
 import org.codice.alliance.nsili.common.UCO.SystemFault;
 import org.codice.alliance.nsili.common.UID.Product;
 import org.codice.alliance.nsili.endpoint.NsiliCommonTest;
+import org.codice.alliance.nsili.endpoint.OrderExecutionService;
+import org.codice.alliance.nsili.endpoint.ProductRetrievalPool;
 import org.codice.alliance.nsili.endpoint.managers.AccessManagerImpl;
 import org.codice.alliance.nsili.endpoint.managers.EmailConfiguration;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.kamranzafar.jtar.TarInputStream;
 import org.omg.CORBA.BAD_OPERATION;
 import org.omg.PortableServer.POAPackage.WrongAdapter;
 import org.omg.PortableServer.POAPackage.WrongPolicy;
@@ -68,6 +91,8 @@ public class OrderRequestImplTest extends NsiliCommonTest {
 
     private static final int PORT = 20080;
 
+    private static final long WAIT_SEC = 5;
+
     private AccessManagerImpl accessManager = mock(AccessManagerImpl.class);
 
     private CatalogFramework mockCatalogFramework = mock(CatalogFramework.class);
@@ -84,6 +109,13 @@ public class OrderRequestImplTest extends NsiliCommonTest {
 
     private String mockResName = "testresource.jpg";
 
+    private final CountDownLatch deliveryStarted = new CountDownLatch(1);
+
+    private final CountDownLatch releaseDelivery = new CountDownLatch(1);
+
+    @Rule
+    public TemporaryFolder deliveryFolder = new TemporaryFolder();
+
     @Before
     public void setUp() throws Exception, SecurityServiceException, URISyntaxException,
             UnsupportedEncodingException, WrongAdapter, WrongPolicy {
@@ -96,8 +128,12 @@ public class OrderRequestImplTest extends NsiliCommonTest {
     private void setupMocks()
             throws Exception, URISyntaxException, UnsupportedEncodingException, WrongAdapter,
             WrongPolicy {
+        doReturn("testProductId").when(accessManager)
+                .getProductId(any(Product.class));
         doReturn(getTestMetacard()).when(accessManager)
-                .getMetacard(any(Product.class));
+                .getMetacard(any(String.class));
+        doReturn(Collections.singletonMap("testProductId", getTestMetacard())).when(accessManager)
+                .getMetacards(any(Collection.class));
         doReturn(mockResourceResponse).when(mockSubject)
                 .execute(any(Callable.class));
         doReturn(mockResource).when(mockResourceResponse)
@@ -130,6 +166,22 @@ public class OrderRequestImplTest extends NsiliCommonTest {
         assertThat(holder.value.elements[0].files.length, is(1));
     }
 
+    @Test
+    public void testOrderWithoutDeliveryTransport() throws SystemFault, ProcessingFault {
+        OrderContents order = getUncompressedTestOrder();
+
+        OrderRequestImpl orderRequest = new OrderRequestImpl(order,
+                "http",
+                80,
+                accessManager,
+                mockCatalogFramework,
+                null);
+
+        DeliveryManifestHolder holder = new DeliveryManifestHolder();
+        orderRequest.complete(holder);
+        assertThat(holder.value.elements.length, is(0));
+    }
+
     @Test
     public void testSingleCompressedOrder() throws SystemFault, ProcessingFault {
         OrderContents order = getUncompressedTestOrder();
@@ -369,6 +421,99 @@ public class OrderRequestImplTest extends NsiliCommonTest {
         assertThat(holder.value.elements[0].files.length, is(1));
     }
 
+    @Test
+    public void testMultipleTarGZipOrderContents()
+            throws SystemFault, ProcessingFault, IOException {
+        OrderContents order = getMultipleUncompressedTestOrder();
+        order.pSpec.packaging_format_and_compression = PackagingSpecFormatType.TARGZIP.name();
+
+        byte[] sent = completeWithRetrievalPool(order);
+
+        try (TarInputStream tarIn = new TarInputStream(new GZIPInputStream(new ByteArrayInputStream(
+                sent)))) {
+            assertTarContents(tarIn, 2);
+        }
+    }
+
+    @Test
+    public void testMultipleTarZipOrderContents()
+            throws SystemFault, ProcessingFault, IOException {
+        OrderContents order = getMultipleUncompressedTestOrder();
+        order.pSpec.packaging_format_and_compression = PackagingSpecFormatType.TARZIP.name();
+
+        byte[] sent = completeWithRetrievalPool(order);
+
+        try (ZipInputStream zipIn = new ZipInputStream(new ByteArrayInputStream(sent))) {
+            ZipEntry zipEntry = zipIn.getNextEntry();
+            assertThat(zipEntry.getName(), is(order.pSpec.package_identifier + ".tar"));
+            assertTarContents(new TarInputStream(zipIn), 2);
+        }
+    }
+
+    @Test
+    public void testProductsAreReadConcurrently()
+            throws SystemFault, ProcessingFault, IOException {
+        CountDownLatch productsReading = new CountDownLatch(2);
+        AtomicBoolean readConcurrently = new AtomicBoolean(true);
+        when(mockResource.getInputStream()).thenAnswer((invocation) -> new ByteArrayInputStream(
+                mockResName.getBytes()) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                // Each product waits until the other one is being read too
+                productsReading.countDown();
+                try {
+                    if (!productsReading.await(WAIT_SEC, TimeUnit.SECONDS)) {
+                        readConcurrently.set(false);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread()
+                            .interrupt();
+                }
+                return super.read(b, off, len);
+            }
+        });
+        OrderContents order = getMultipleUncompressedTestOrder();
+        order.pSpec.packaging_format_and_compression = PackagingSpecFormatType.TARUNC.name();
+
+        byte[] sent = completeWithRetrievalPool(order);
+
+        assertThat(readConcurrently.get(), is(true));
+        try (TarInputStream tarIn = new TarInputStream(new ByteArrayInputStream(sent))) {
+            assertTarContents(tarIn, 2);
+        }
+    }
+
+    private byte[] completeWithRetrievalPool(OrderContents order)
+            throws SystemFault, ProcessingFault {
+        ByteArrayOutputStream sent = new ByteArrayOutputStream();
+        OrderRequestImpl orderRequest = new OrderRequestImpl(order,
+                accessManager,
+                mockCatalogFramework,
+                destination -> Optional.of((fileData, size, name, contentType, metacards) -> {
+                    IOUtils.copy(fileData, sent);
+                }));
+        ProductRetrievalPool retrievalPool = new ProductRetrievalPool(2);
+        orderRequest.setRetrievalPool(retrievalPool);
+
+        try {
+            DeliveryManifestHolder holder = new DeliveryManifestHolder();
+            orderRequest.complete(holder);
+            assertThat(holder.value.elements[0].files.length, is(1));
+        } finally {
+            retrievalPool.shutdown();
+        }
+        return sent.toByteArray();
+    }
+
+    private void assertTarContents(TarInputStream tarIn, int expectedEntries) throws IOException {
+        int entries = 0;
+        while (tarIn.getNextEntry() != null) {
+            assertThat(IOUtils.toString(tarIn, StandardCharsets.UTF_8), is(mockResName));
+            entries++;
+        }
+        assertThat(entries, is(expectedEntries));
+    }
+
     @Test
     public void testSupportedEmailDelivery() throws SystemFault, ProcessingFault {
         OrderContents order = getUncompressedTestOrder();
@@ -421,6 +566,103 @@ public class OrderRequestImplTest extends NsiliCommonTest {
         assertThat(holder.value.elements[0].files.length, is(1));
     }
 
+    @Test
+    public void testQueuedOrderReportsProgress()
+            throws SystemFault, ProcessingFault, InterruptedException {
+        OrderContents order = getMultipleUncompressedTestOrder();
+        order.pSpec.packaging_format_and_compression = PackagingSpecFormatType.FILESUNC.name();
+        OrderRequestImpl orderRequest = new OrderRequestImpl(order,
+                accessManager,
+                mockCatalogFramework,
+                destination -> Optional.of(getLocalFileSink()));
+
+        assertThat(orderRequest.get_status().completion_state, is(State.PENDING));
+
+        OrderExecutionService orderExecutionService = new OrderExecutionService(1, 1);
+        try {
+            orderRequest.start(orderExecutionService);
+            assertThat(deliveryStarted.await(WAIT_SEC, TimeUnit.SECONDS), is(true));
+
+            Status status = orderRequest.get_status();
+            assertThat(status.completion_state, is(State.IN_PROGRESS));
+            assertThat(status.status_message, containsString("Retrieved 2 of 2 products"));
+            assertThat(status.status_message, containsString("delivering to destination 1 of 1"));
+
+            releaseDelivery.countDown();
+            DeliveryManifestHolder holder = new DeliveryManifestHolder();
+            assertThat(orderRequest.complete(holder), is(State.COMPLETED));
+            assertThat(holder.value.elements[0].files.length, is(2));
+        } finally {
+            orderExecutionService.shutdown();
+        }
+
+        assertThat(orderRequest.get_status().completion_state, is(State.COMPLETED));
+        assertThat(orderRequest.get_remaining_delay().time_delay, is(0));
+        assertThat(deliveryFolder.getRoot()
+                .list().length, is(2));
+    }
+
+    @Test
+    public void testCancelQueuedOrder() throws SystemFault, ProcessingFault, InterruptedException {
+        OrderContents order = getMultipleUncompressedTestOrder();
+        order.pSpec.packaging_format_and_compression = PackagingSpecFormatType.FILESUNC.name();
+        OrderRequestImpl orderRequest = new OrderRequestImpl(order,
+                accessManager,
+                mockCatalogFramework,
+                destination -> Optional.of(getLocalFileSink()));
+
+        OrderExecutionService orderExecutionService = new OrderExecutionService(1, 1);
+        try {
+            orderRequest.start(orderExecutionService);
+            assertThat(deliveryStarted.await(WAIT_SEC, TimeUnit.SECONDS), is(true));
+
+            orderRequest.cancel();
+
+            DeliveryManifestHolder holder = new DeliveryManifestHolder();
+            assertThat(orderRequest.complete(holder), is(State.CANCELED));
+            assertThat(holder.value.elements.length, is(0));
+            assertThat(orderRequest.get_status().completion_state, is(State.CANCELED));
+        } finally {
+            orderExecutionService.shutdown();
+        }
+    }
+
+    @Test
+    public void testCancelOrderBeforeCompleting() throws SystemFault, ProcessingFault {
+        OrderContents order = getUncompressedTestOrder();
+        DestinationSink destinationSink = mock(DestinationSink.class);
+        OrderRequestImpl orderRequest = new OrderRequestImpl(order,
+                accessManager,
+                mockCatalogFramework,
+                destination -> Optional.of(destinationSink));
+
+        orderRequest.cancel();
+
+        DeliveryManifestHolder holder = new DeliveryManifestHolder();
+        assertThat(orderRequest.complete(holder), is(State.CANCELED));
+        verifyZeroInteractions(destinationSink);
+    }
+
+    /**
+     * Writes delivered files to a local folder, once the test allows delivery to go ahead.
+     */
+    private DestinationSink getLocalFileSink() {
+        return (fileData, size, name, contentType, metacards) -> {
+            deliveryStarted.countDown();
+            try {
+                releaseDelivery.await(WAIT_SEC, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread()
+                        .interrupt();
+                throw new InterruptedIOException("Delivery was interrupted");
+            }
+            Files.copy(fileData,
+                    deliveryFolder.getRoot()
+                            .toPath()
+                            .resolve(name));
+        };
+    }
+
     @Test(expected = BAD_OPERATION.class)
     public void testNoProduct() throws SystemFault, ProcessingFault {
         OrderContents order = getUncompressedTestOrder();
@@ -0,0 +1,476 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.nsili.endpoint.requests;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.PriorityQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import ddf.catalog.data.Metacard;
+
+public class StandingQuerySchedulerTest {
+
+    private static final long START_TIME = 10000;
+
+    /**
+     * Short enough that runs are not jittered, so each run's time is known.
+     */
+    private static final long UPDATE_RATE = 5;
+
+    private static final long LONG_UPDATE_RATE = 60000;
+
+    private ManualExecutor executor;
+
+    private StandingQueryScheduler scheduler;
+
+    private AtomicInteger catalogQueries = new AtomicInteger();
+
+    private AtomicInteger deliveries = new AtomicInteger();
+
+    private AtomicBoolean paused = new AtomicBoolean(false);
+
+    private AtomicBoolean running = new AtomicBoolean(true);
+
+    private Metacard changedMetacard = mock(Metacard.class);
+
+    @Before
+    public void setUp() {
+        executor = new ManualExecutor();
+        scheduler = new StandingQueryScheduler(executor, executor::now);
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void testSubscriptionsWithSameQueryAreBatched() throws Exception {
+        SubmitStandingQueryRequestImpl first = createRequest("key");
+        SubmitStandingQueryRequestImpl second = createRequest("key");
+
+        scheduler.register(first);
+        scheduler.register(second);
+        executor.runNext();
+        executor.runNext();
+
+        assertThat(scheduler.getSharedBatchCount(), is(1));
+        assertThat(executor.getPendingTaskCount(), is(1));
+
+        for (int i = 0; i < 5; i++) {
+            executor.runNext();
+        }
+
+        // Once batched, each catalog query is delivered to both subscriptions
+        assertThat(catalogQueries.get(), is(7));
+        verify(first, times(6)).deliver(any(DAGQueryResult.class));
+        verify(second, times(6)).deliver(any(DAGQueryResult.class));
+    }
+
+    @Test
+    public void testSubscriptionsWithDifferentQueriesAreNotBatched() throws Exception {
+        SubmitStandingQueryRequestImpl first = createRequest("first");
+        SubmitStandingQueryRequestImpl second = createRequest("second");
+
+        scheduler.register(first);
+        scheduler.register(second);
+        executor.runNext();
+        executor.runNext();
+
+        assertThat(scheduler.getSharedBatchCount(), is(2));
+        assertThat(executor.getPendingTaskCount(), is(2));
+    }
+
+    @Test
+    public void testBatchKeyIsReadWhenCaughtUp() throws Exception {
+        AtomicReference<String> firstKey = new AtomicReference<>("default-page-size");
+        SubmitStandingQueryRequestImpl first = createRequest("key");
+        when(first.getBatchKey()).thenAnswer(invocation -> firstKey.get());
+        SubmitStandingQueryRequestImpl second = createRequest("key");
+
+        scheduler.register(first);
+        // The client sets its page size after the standing query was created
+        firstKey.set("key");
+        scheduler.register(second);
+        executor.runNext();
+        executor.runNext();
+
+        assertThat(scheduler.getSharedBatchCount(), is(1));
+        assertThat(executor.getPendingTaskCount(), is(1));
+    }
+
+    @Test
+    public void testSubscriptionBehindBatchCatchesUpBeforeJoining() throws Exception {
+        SubmitStandingQueryRequestImpl first = createRequest("key");
+        scheduler.register(first);
+        executor.runNext();
+
+        SubmitStandingQueryRequestImpl second = createRequest("key");
+        AtomicBoolean batchRan = new AtomicBoolean(false);
+        when(second.getData(any(StandingQueryScheduler.QueryWindow.class),
+                anyLong())).thenAnswer(invocation -> {
+            // The batch runs while the new subscription is querying, so it gets ahead of it
+            if (batchRan.compareAndSet(false, true)) {
+                executor.runNext();
+            }
+            return createResult();
+        });
+        scheduler.register(second);
+        executor.runNext();
+
+        assertThat(executor.getPendingTaskCount(), is(2));
+        verify(first, times(2)).deliver(any(DAGQueryResult.class));
+        verify(second, times(1)).deliver(any(DAGQueryResult.class));
+
+        // The batch runs again, then the subscription catches up to it and joins
+        executor.runNext();
+        executor.runNext();
+        assertThat(executor.getPendingTaskCount(), is(1));
+
+        executor.runNext();
+        verify(first, times(4)).deliver(any(DAGQueryResult.class));
+        verify(second, times(3)).deliver(any(DAGQueryResult.class));
+    }
+
+    @Test
+    public void testMoreResultsAreRetrievedWithoutWaiting() throws Exception {
+        SubmitStandingQueryRequestImpl request = createRequest("key");
+        AtomicInteger pages = new AtomicInteger();
+        when(request.getData(any(StandingQueryScheduler.QueryWindow.class),
+                anyLong())).thenAnswer(invocation -> {
+            StandingQueryScheduler.QueryWindow window =
+                    (StandingQueryScheduler.QueryWindow) invocation.getArguments()[0];
+            window.moreResultsAvailable = pages.incrementAndGet() < 3;
+            return createResult();
+        });
+
+        scheduler.register(request);
+        for (int i = 0; i < 3; i++) {
+            executor.runNext();
+        }
+
+        verify(request, times(3)).deliver(any(DAGQueryResult.class));
+        assertThat(executor.now(), is(START_TIME));
+    }
+
+    @Test
+    public void testPausedSubscriptionCatchesUpWhenResumed() throws Exception {
+        SubmitStandingQueryRequestImpl request = createRequest("key");
+        scheduler.register(request);
+        executor.runNext();
+        executor.runNext();
+        verify(request, times(2)).deliver(any(DAGQueryResult.class));
+
+        paused.set(true);
+        executor.runNext();
+        verify(request, times(2)).deliver(any(DAGQueryResult.class));
+        assertThat(executor.getPendingTaskCount(), is(0));
+        assertThat(scheduler.getSharedBatchCount(), is(0));
+
+        StandingQueryScheduler.QueryWindow window = new StandingQueryScheduler.QueryWindow();
+        window.lastExecutionTime = 1000;
+        paused.set(false);
+        scheduler.resume(request, window);
+        executor.runNext();
+
+        verify(request).getData(window, 0);
+        verify(request, times(3)).deliver(any(DAGQueryResult.class));
+    }
+
+    @Test
+    public void testExpiredSubscriptionIsStopped() throws Exception {
+        SubmitStandingQueryRequestImpl request = createRequest("key");
+        when(request.isExpired(anyLong())).thenReturn(true);
+
+        scheduler.register(request);
+        executor.runNext();
+
+        verify(request).stop();
+        assertThat(catalogQueries.get(), is(0));
+        assertThat(executor.getPendingTaskCount(), is(0));
+        assertThat(scheduler.getSharedBatchCount(), is(0));
+    }
+
+    @Test
+    public void testCancelledSubscriptionIsRemoved() throws Exception {
+        SubmitStandingQueryRequestImpl request = createRequest("key");
+        scheduler.register(request);
+        executor.runNext();
+        executor.runNext();
+
+        running.set(false);
+        executor.runNext();
+
+        assertThat(catalogQueries.get(), is(2));
+        assertThat(executor.getPendingTaskCount(), is(0));
+        assertThat(scheduler.getSharedBatchCount(), is(0));
+    }
+
+    @Test
+    public void testFullSubscriptionDoesNotQuery() throws Exception {
+        SubmitStandingQueryRequestImpl request = createRequest("key");
+        when(request.canAcceptResults()).thenReturn(false);
+
+        scheduler.register(request);
+        for (int i = 0; i < 3; i++) {
+            executor.runNext();
+        }
+
+        verify(request, times(3)).deliver(null);
+        assertThat(catalogQueries.get(), is(0));
+    }
+
+    @Test
+    public void testStartDelay() throws Exception {
+        SubmitStandingQueryRequestImpl request = createRequest("key");
+        when(request.getStartDelay()).thenReturn(UPDATE_RATE * 10);
+
+        scheduler.register(request);
+
+        executor.advance(UPDATE_RATE * 10 - 1);
+        assertThat(catalogQueries.get(), is(0));
+        executor.advance(1);
+        assertThat(catalogQueries.get(), is(1));
+    }
+
+    @Test
+    public void testUnchangedCatalogIsNotQueried() throws Exception {
+        scheduler.enableChangeTracking();
+        SubmitStandingQueryRequestImpl first = createRequest("key");
+        SubmitStandingQueryRequestImpl second = createRequest("key");
+
+        scheduler.register(first);
+        scheduler.register(second);
+
+        // Queries overlap the previous one, so skipping starts once that overlap has passed
+        executor.advance(StandingQueryScheduler.CHANGE_DELAY_MSEC + UPDATE_RATE * 2);
+        int queries = catalogQueries.get();
+        int delivered = deliveries.get();
+        for (int i = 0; i <= StandingQueryScheduler.MAX_SKIPPED_RUNS; i++) {
+            executor.runNext();
+        }
+
+        assertThat(deliveries.get(), is(delivered + 2 * (StandingQueryScheduler.MAX_SKIPPED_RUNS
+                + 1)));
+        // One periodic query in case of changes that were not reported
+        assertThat(catalogQueries.get(), is(queries + 1));
+    }
+
+    @Test
+    public void testCatalogChangeRunsQueryEarly() throws Exception {
+        scheduler.enableChangeTracking();
+        SubmitStandingQueryRequestImpl request = createRequest("key", LONG_UPDATE_RATE);
+
+        scheduler.register(request);
+        executor.runNext();
+        assertThat(scheduler.getSharedBatchCount(), is(1));
+
+        scheduler.catalogChanged(Collections.singletonList(changedMetacard));
+
+        executor.advance(StandingQueryScheduler.CHANGE_DELAY_MSEC - 1);
+        assertThat(catalogQueries.get(), is(1));
+        executor.advance(1);
+        assertThat(catalogQueries.get(), is(2));
+        assertThat(executor.getPendingTaskCount(), is(1));
+    }
+
+    @Test
+    public void testCatalogChangeDoesNotRunRemoteQueryEarly() throws Exception {
+        scheduler.enableChangeTracking();
+        SubmitStandingQueryRequestImpl request = createRequest("key", LONG_UPDATE_RATE);
+        when(request.isLocalQuery()).thenReturn(false);
+
+        scheduler.register(request);
+        executor.runNext();
+        assertThat(scheduler.getSharedBatchCount(), is(1));
+
+        scheduler.catalogChanged(Collections.singletonList(changedMetacard));
+        executor.advance(StandingQueryScheduler.CHANGE_DELAY_MSEC * 2);
+
+        assertThat(catalogQueries.get(), is(1));
+    }
+
+    @Test
+    public void testCatalogChangeNotMatchingQueryIsSkipped() throws Exception {
+        scheduler.enableChangeTracking();
+        SubmitStandingQueryRequestImpl request = createRequest("key", LONG_UPDATE_RATE);
+        Metacard otherMetacard = mock(Metacard.class);
+        when(request.matches(otherMetacard)).thenReturn(false);
+
+        scheduler.register(request);
+        executor.runNext();
+        assertThat(scheduler.getSharedBatchCount(), is(1));
+
+        scheduler.catalogChanged(Collections.singletonList(otherMetacard));
+        executor.advance(StandingQueryScheduler.CHANGE_DELAY_MSEC * 2);
+
+        verify(request).matches(eq(otherMetacard));
+        assertThat(catalogQueries.get(), is(1));
+    }
+
+    @Test
+    public void testJitteredDelay() {
+        for (int i = 0; i < 100; i++) {
+            long delay = StandingQueryScheduler.getJitteredDelay(1000);
+            assertThat(delay, greaterThanOrEqualTo(900L));
+            assertThat(delay, lessThanOrEqualTo(1100L));
+        }
+        assertThat(StandingQueryScheduler.getJitteredDelay(5), is(5L));
+    }
+
+    private SubmitStandingQueryRequestImpl createRequest(String key) {
+        return createRequest(key, UPDATE_RATE);
+    }
+
+    private SubmitStandingQueryRequestImpl createRequest(String key, long updateRate) {
+        SubmitStandingQueryRequestImpl request = mock(SubmitStandingQueryRequestImpl.class);
+        when(request.getBatchKey()).thenReturn(key);
+        when(request.getUpdateRate()).thenReturn(updateRate);
+        when(request.getStartDelay()).thenReturn(0L);
+        when(request.isRunning()).thenAnswer(invocation -> running.get());
+        when(request.detachIfPaused(any(StandingQueryScheduler.QueryWindow.class))).thenAnswer(
+                invocation -> paused.get());
+        when(request.canAcceptResults()).thenReturn(true);
+        when(request.isLocalQuery()).thenReturn(true);
+        when(request.matches(any(Metacard.class))).thenReturn(true);
+        when(request.getData(any(StandingQueryScheduler.QueryWindow.class),
+                anyLong())).thenAnswer(invocation -> {
+            catalogQueries.incrementAndGet();
+            return createResult();
+        });
+        doAnswer(invocation -> {
+            deliveries.incrementAndGet();
+            return null;
+        })
+                .when(request)
+                .deliver(any(DAGQueryResult.class));
+        return request;
+    }
+
+    private DAGQueryResult createResult() {
+        return new DAGQueryResult(executor.now(), Collections.emptyList());
+    }
+
+    /**
+     * Runs scheduled tasks on the test thread when told to, advancing its clock to the time each
+     * task was scheduled for.
+     */
+    private static class ManualExecutor extends ScheduledThreadPoolExecutor {
+
+        private final PriorityQueue<ManualTask> tasks = new PriorityQueue<>();
+
+        private long now = START_TIME;
+
+        private long sequence = 0;
+
+        ManualExecutor() {
+            super(1);
+        }
+
+        long now() {
+            return now;
+        }
+
+        int getPendingTaskCount() {
+            tasks.removeIf(Future::isCancelled);
+            return tasks.size();
+        }
+
+        /**
+         * Runs the next task, advancing the clock to its scheduled time.
+         */
+        void runNext() {
+            getPendingTaskCount();
+            ManualTask task = tasks.poll();
+            assertThat("No task is scheduled", task, notNullValue());
+            now = Math.max(now, task.time);
+            task.run();
+        }
+
+        /**
+         * Advances the clock, running the tasks scheduled up to then in order.
+         */
+        void advance(long msec) {
+            long until = now + msec;
+            while (getPendingTaskCount() > 0 && tasks.peek().time <= until) {
+                runNext();
+            }
+            now = until;
+        }
+
+        @Override
+        public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+            if (isShutdown()) {
+                throw new RejectedExecutionException("Executor is shut down");
+            }
+            ManualTask task = new ManualTask(command, now + unit.toMillis(delay), sequence++);
+            tasks.add(task);
+            return task;
+        }
+
+        private class ManualTask extends FutureTask<Void> implements ScheduledFuture<Void> {
+
+            private final long time;
+
+            private final long order;
+
+            ManualTask(Runnable command, long time, long order) {
+                super(command, null);
+                this.time = time;
+                this.order = order;
+            }
+
+            @Override
+            public long getDelay(TimeUnit unit) {
+                return unit.convert(time - now, TimeUnit.MILLISECONDS);
+            }
+
+            @Override
+            public int compareTo(Delayed other) {
+                ManualTask otherTask = (ManualTask) other;
+                if (time != otherTask.time) {
+                    return Long.compare(time, otherTask.time);
+                }
+                return Long.compare(order, otherTask.order);
+            }
+        }
+    }
+}
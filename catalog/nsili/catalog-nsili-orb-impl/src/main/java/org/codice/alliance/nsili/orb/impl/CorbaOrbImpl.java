@@ -19,6 +19,7 @@ import java.util.Map;
 import java.util.Set;
 
 import org.apache.commons.collections.MapUtils;
+import org.codice.alliance.nsili.common.orb.CorbaOrbHost;
 import org.codice.alliance.nsili.orb.api.CorbaOrb;
 import org.codice.alliance.nsili.orb.api.CorbaServiceListener;
 import org.codice.ddf.configuration.PropertyResolver;
@@ -36,13 +37,13 @@ public class CorbaOrbImpl extends MaskableImpl implements CorbaOrb {
 
     public static final String CORBA_PORT = "corbaPort";
 
-    public static final String ORB_PERSISTENT_SERVER_PORT_PROPERTY =
-            "com.sun.CORBA.POA.ORBPersistentServerPort";
+    public static final String MAX_CONNECTIONS = "maxConnections";
 
-    public static final String ORB_SERVER_PORT_PROPERTY = "com.sun.CORBA.ORBServerPort";
+    public static final String MAX_CONCURRENT_REQUESTS = "maxConcurrentRequests";
 
-    public static final String ORB_TCP_READ_TIMEOUTS_PROPERTY =
-            "com.sun.CORBA.transport.ORBTCPReadTimeouts";
+    public static final String REQUEST_WAIT_TIMEOUT = "requestWaitTimeout";
+
+    private final CorbaOrbHost orbHost = new CorbaOrbHost();
 
     private int corbaPort;
 
@@ -50,8 +51,6 @@ public class CorbaOrbImpl extends MaskableImpl implements CorbaOrb {
 
     private ORB orb = null;
 
-    private Thread orbRunThread = null;
-
     private Set<CorbaServiceListener> corbaServiceListeners = new HashSet<>(5);
 
     public int getCorbaPort() {
@@ -87,10 +86,21 @@ public class CorbaOrbImpl extends MaskableImpl implements CorbaOrb {
     public void setCorbaTimeout(int corbaTimeout) {
         if (this.corbaTimeout != corbaTimeout) {
             this.corbaTimeout = corbaTimeout;
-            System.setProperty(ORB_TCP_READ_TIMEOUTS_PROPERTY, getCorbaWaitTime());
         }
     }
 
+    public void setMaxConnections(int maxConnections) {
+        orbHost.setMaxConnections(maxConnections);
+    }
+
+    public void setMaxConcurrentRequests(int maxConcurrentRequests) {
+        orbHost.setMaxConcurrentRequests(maxConcurrentRequests);
+    }
+
+    public void setRequestWaitTimeout(int requestWaitTimeout) {
+        orbHost.setRequestWaitTimeoutSec(requestWaitTimeout);
+    }
+
     @Override
     public void shutdown() {
         if (orb != null) {
@@ -98,12 +108,9 @@ public class CorbaOrbImpl extends MaskableImpl implements CorbaOrb {
                 listener.corbaShutdown();
             }
 
-            LOGGER.debug("Stopping ORB on port: {}", corbaPort);
-            orb.shutdown(true);
-            orb.destroy();
+            orbHost.stop();
         }
 
-        orbRunThread = null;
         orb = null;
     }
 
@@ -121,33 +128,36 @@ public class CorbaOrbImpl extends MaskableImpl implements CorbaOrb {
             setCorbaPort((String) configuration.get(CORBA_PORT));
         }
 
+        if (configuration.get(MAX_CONNECTIONS) instanceof Integer) {
+            setMaxConnections((Integer) configuration.get(MAX_CONNECTIONS));
+        }
+
+        if (configuration.get(MAX_CONCURRENT_REQUESTS) instanceof Integer) {
+            setMaxConcurrentRequests((Integer) configuration.get(MAX_CONCURRENT_REQUESTS));
+        }
+
+        if (configuration.get(REQUEST_WAIT_TIMEOUT) instanceof Integer) {
+            setRequestWaitTimeout((Integer) configuration.get(REQUEST_WAIT_TIMEOUT));
+        }
+
         init();
     }
 
     /**
-     * Initializes the Corba ORB with no additional arguments
+     * Initializes the Corba ORB with its own ORB properties, leaving system properties untouched
      */
     public void init() {
         shutdown();
 
-        System.setProperty(ORB_PERSISTENT_SERVER_PORT_PROPERTY, String.valueOf(corbaPort));
-        System.setProperty(ORB_SERVER_PORT_PROPERTY, String.valueOf(corbaPort));
-        System.setProperty(ORB_TCP_READ_TIMEOUTS_PROPERTY, getCorbaWaitTime());
-
-        orb = org.omg.CORBA.ORB.init(new String[0], null);
+        orbHost.setPort(corbaPort);
+        orbHost.setReadTimeoutSec(corbaTimeout);
+        orb = orbHost.start();
         if (orb != null) {
             LOGGER.debug("Successfully initialized CORBA orb on port: {}", corbaPort);
         } else {
             LOGGER.warn("Unable to initialize CORBA orb on port: {}", corbaPort);
         }
 
-        orbRunThread = new Thread(() -> orb.run());
-        orbRunThread.start();
-
-        System.clearProperty(ORB_PERSISTENT_SERVER_PORT_PROPERTY);
-        System.clearProperty(ORB_SERVER_PORT_PROPERTY);
-        System.clearProperty(ORB_TCP_READ_TIMEOUTS_PROPERTY);
-
         for (CorbaServiceListener listener : corbaServiceListeners) {
             listener.corbaInitialized();
         }
@@ -162,9 +172,4 @@ public class CorbaOrbImpl extends MaskableImpl implements CorbaOrb {
     public void removeCorbaServiceListener(CorbaServiceListener corbaServiceListener) {
         corbaServiceListeners.remove(corbaServiceListener);
     }
-
-    private String getCorbaWaitTime() {
-        long waitTimeMillis = corbaTimeout * 1000;
-        return "1:" + waitTimeMillis + ":" + waitTimeMillis + ":" + 1;
-    }
 }
\ No newline at end of file
@@ -16,10 +16,12 @@ package org.codice.alliance.nsili.orb.impl;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.core.IsNull.notNullValue;
+import static org.hamcrest.core.IsNull.nullValue;
 
 import java.util.HashMap;
 import java.util.Map;
 
+import org.codice.alliance.nsili.common.orb.CorbaOrbHost;
 import org.codice.alliance.nsili.orb.api.CorbaServiceListener;
 import org.junit.Test;
 import org.omg.CORBA.ORB;
@@ -59,6 +61,25 @@ public class CorbaOrbImplTest {
         assertThat(orb, notNullValue());
     }
 
+    @Test
+    public void testDispatchPropRefresh() {
+        CorbaOrbImpl corbaOrb = new CorbaOrbImpl();
+        corbaOrb.setCorbaTimeout(100);
+        corbaOrb.setCorbaPort(0);
+        corbaOrb.init();
+
+        Map<String, Object> props = new HashMap<>();
+        props.put(CorbaOrbImpl.MAX_CONNECTIONS, 50);
+        props.put(CorbaOrbImpl.MAX_CONCURRENT_REQUESTS, 10);
+        props.put(CorbaOrbImpl.REQUEST_WAIT_TIMEOUT, 5);
+        corbaOrb.refresh(props);
+        ORB orb = corbaOrb.getOrb();
+        assertThat(orb, notNullValue());
+        assertThat(System.getProperty(CorbaOrbHost.ORB_SERVER_PORT_PROPERTY), nullValue());
+        assertThat(System.getProperty(CorbaOrbHost.ORB_HIGH_WATER_MARK_PROPERTY), nullValue());
+        corbaOrb.shutdown();
+    }
+
     @Test
     public void testEmptyPropRefresh() {
         CorbaOrbImpl corbaOrb = new CorbaOrbImpl();
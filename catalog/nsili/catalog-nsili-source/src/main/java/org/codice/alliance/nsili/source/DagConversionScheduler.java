@@ -0,0 +1,182 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.nsili.source;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs DAG to Metacard conversions for all in-flight queries of a source. Each query submits its
+ * conversions as a batch and only waits on its own batch. Pending batches are served round-robin
+ * so a query with a large result set cannot starve smaller queries, and the total number of
+ * conversions running at once never exceeds the configured parallelism.
+ */
+class DagConversionScheduler {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DagConversionScheduler.class);
+
+    private final ExecutorService executorService = Executors.newCachedThreadPool();
+
+    private final Deque<Queue<FutureTask<?>>> pendingBatches = new ArrayDeque<>();
+
+    private int maxParallelism;
+
+    private int running;
+
+    DagConversionScheduler(int maxParallelism) {
+        setMaxParallelism(maxParallelism);
+    }
+
+    synchronized void setMaxParallelism(int maxParallelism) {
+        this.maxParallelism = Math.max(1, maxParallelism);
+        dispatch();
+    }
+
+    synchronized int getMaxParallelism() {
+        return maxParallelism;
+    }
+
+    /**
+     * Schedules a batch of conversions and blocks until they have all finished. Conversions that
+     * fail are logged and skipped. Conversions cancelled because the scheduler was shut down are
+     * run on the calling thread instead. If the calling thread is interrupted, the remaining
+     * conversions of the batch are cancelled and the results completed so far are returned.
+     *
+     * @param tasks - the conversions for a single query
+     * @return the non-null results, in the order the tasks were given
+     */
+    <T> List<T> convert(List<Callable<T>> tasks) {
+        List<Future<T>> futures = submit(tasks);
+        List<T> results = new ArrayList<>(futures.size());
+        boolean interrupted = false;
+
+        for (int i = 0; i < futures.size(); i++) {
+            Future<T> future = futures.get(i);
+            if (interrupted) {
+                future.cancel(false);
+                continue;
+            }
+            try {
+                addResult(results, future.get());
+            } catch (ExecutionException e) {
+                LOGGER.debug("Unable to create result.", e);
+            } catch (CancellationException e) {
+                LOGGER.debug("Conversion was cancelled, converting on the calling thread.", e);
+                addResult(results, convertSerially(tasks.get(i)));
+            } catch (InterruptedException e) {
+                interrupted = true;
+                future.cancel(false);
+            }
+        }
+
+        if (interrupted) {
+            Thread.currentThread()
+                    .interrupt();
+        }
+        return results;
+    }
+
+    private <T> void addResult(List<T> results, T result) {
+        if (result != null) {
+            results.add(result);
+        }
+    }
+
+    private <T> T convertSerially(Callable<T> task) {
+        try {
+            return task.call();
+        } catch (Exception e) {
+            LOGGER.debug("Unable to create result.", e);
+        }
+        return null;
+    }
+
+    <T> List<Future<T>> submit(List<Callable<T>> tasks) {
+        List<Future<T>> futures = new ArrayList<>(tasks.size());
+        Queue<FutureTask<?>> batch = new ArrayDeque<>(tasks.size());
+        for (Callable<T> task : tasks) {
+            FutureTask<T> futureTask = new FutureTask<>(task);
+            futures.add(futureTask);
+            batch.add(futureTask);
+        }
+
+        if (!batch.isEmpty()) {
+            synchronized (this) {
+                pendingBatches.addLast(batch);
+                dispatch();
+            }
+        }
+        return futures;
+    }
+
+    void shutdown() {
+        synchronized (this) {
+            for (Queue<FutureTask<?>> batch : pendingBatches) {
+                batch.forEach(task -> task.cancel(false));
+            }
+            pendingBatches.clear();
+        }
+        executorService.shutdownNow();
+    }
+
+    /**
+     * Hands out free slots one task at a time, rotating through the pending batches. Must be
+     * called while holding the scheduler lock.
+     */
+    private void dispatch() {
+        while (running < maxParallelism && !pendingBatches.isEmpty()) {
+            Queue<FutureTask<?>> batch = pendingBatches.pollFirst();
+            FutureTask<?> task = batch.poll();
+            if (!batch.isEmpty()) {
+                pendingBatches.addLast(batch);
+            }
+
+            if (task != null && !task.isDone()) {
+                running++;
+                try {
+                    executorService.execute(() -> runTask(task));
+                } catch (RejectedExecutionException e) {
+                    LOGGER.debug("Conversion scheduler has been shut down.", e);
+                    running--;
+                    task.cancel(false);
+                }
+            }
+        }
+    }
+
+    private void runTask(FutureTask<?> task) {
+        try {
+            task.run();
+        } finally {
+            synchronized (this) {
+                running--;
+                dispatch();
+            }
+        }
+    }
+}
@@ -0,0 +1,148 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.nsili.source;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Decides whether a query needs a hit_count round trip before it is submitted, and works out the
+ * hit count reported for each page. Counts come from one of three places:
+ * <ul>
+ * <li>a hit_count request, which is issued when the query asks for the total result count, or
+ * when exact counts are enabled on the source for every query, and no recent count is cached. This
+ * count is always reported as is.</li>
+ * <li>the results themselves, once a window comes back short and the remote query is known to be
+ * exhausted</li>
+ * <li>a short-lived cache of the counts found by either of the above</li>
+ * </ul>
+ * When none of these is available, which only happens for queries that did not ask for the total,
+ * the reported count is a lower bound of one more than the number of results seen, so callers know
+ * another page may exist.
+ */
+class NsiliQueryPlanner {
+
+    private static final int MAX_CACHED_COUNTS = 1000;
+
+    private final Map<String, CachedCount> hitCounts = new LinkedHashMap<String, CachedCount>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedCount> eldest) {
+            return size() > MAX_CACHED_COUNTS;
+        }
+    };
+
+    private final LongSupplier clock;
+
+    private long cacheTtlMillis;
+
+    private boolean requestExactHitCount;
+
+    NsiliQueryPlanner(long cacheTtlSeconds) {
+        this(cacheTtlSeconds, System::currentTimeMillis);
+    }
+
+    NsiliQueryPlanner(long cacheTtlSeconds, LongSupplier clock) {
+        this.clock = clock;
+        setCacheTtl(cacheTtlSeconds);
+    }
+
+    synchronized void setCacheTtl(long cacheTtlSeconds) {
+        this.cacheTtlMillis = TimeUnit.SECONDS.toMillis(Math.max(0, cacheTtlSeconds));
+        if (cacheTtlMillis == 0) {
+            hitCounts.clear();
+        }
+    }
+
+    synchronized void setRequestExactHitCount(boolean requestExactHitCount) {
+        this.requestExactHitCount = requestExactHitCount;
+    }
+
+    synchronized boolean isRequestExactHitCount() {
+        return requestExactHitCount;
+    }
+
+    /**
+     * @param requestsTotalResultsCount - whether the caller asked for the total result count
+     * @param queryKey                  - the key identifying the remote query
+     * @return true if a hit_count request should be made before submitting the query
+     */
+    synchronized boolean isHitCountRequired(boolean requestsTotalResultsCount, String queryKey) {
+        return (requestsTotalResultsCount || requestExactHitCount)
+                && getCachedHitCount(queryKey) == null;
+    }
+
+    synchronized void cacheHitCount(String queryKey, long hitCount) {
+        if (cacheTtlMillis > 0) {
+            hitCounts.put(queryKey, new CachedCount(hitCount, clock.getAsLong()));
+        }
+    }
+
+    synchronized Long getCachedHitCount(String queryKey) {
+        CachedCount cachedCount = hitCounts.get(queryKey);
+        if (cachedCount == null) {
+            return null;
+        }
+
+        if (clock.getAsLong() - cachedCount.created >= cacheTtlMillis) {
+            hitCounts.remove(queryKey);
+            return null;
+        }
+        return cachedCount.count;
+    }
+
+    /**
+     * Works out the hit count to report after a window of results has been fetched.
+     *
+     * @param queryKey      - the key identifying the remote query
+     * @param numSeen       - the number of results the remote query has returned so far
+     * @param knownHitCount - the exact count from a hit_count request, or null
+     * @param exhausted     - true if the remote query returned fewer results than requested
+     * @return the exact count if it is known, otherwise a lower bound
+     */
+    synchronized long resolveHitCount(String queryKey, long numSeen, Long knownHitCount,
+            boolean exhausted) {
+        if (knownHitCount != null) {
+            return knownHitCount;
+        }
+
+        if (exhausted) {
+            cacheHitCount(queryKey, numSeen);
+            return numSeen;
+        }
+
+        Long cachedCount = getCachedHitCount(queryKey);
+        if (cachedCount != null && cachedCount > numSeen) {
+            return cachedCount;
+        }
+        return numSeen + 1;
+    }
+
+    synchronized void clear() {
+        hitCounts.clear();
+    }
+
+    private static class CachedCount {
+
+        private final long count;
+
+        private final long created;
+
+        CachedCount(long count, long created) {
+            this.count = count;
+            this.created = created;
+        }
+    }
+}
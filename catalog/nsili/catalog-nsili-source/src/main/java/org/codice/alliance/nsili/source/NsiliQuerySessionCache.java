@@ -0,0 +1,242 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.nsili.source;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+import org.codice.alliance.nsili.common.GIAS.Query;
+import org.codice.alliance.nsili.common.GIAS.SortAttribute;
+import org.codice.alliance.nsili.common.GIAS.SubmitQueryRequest;
+import org.codice.alliance.nsili.common.NsilCorbaExceptionUtil;
+import org.codice.alliance.nsili.common.UCO.ProcessingFault;
+import org.codice.alliance.nsili.common.UCO.SystemFault;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps remote {@link SubmitQueryRequest}s alive between pages of the same query. A STANAG 4559
+ * SubmitQueryRequest returns the next window of results on every call to complete_DAG_results, so
+ * a request that has already returned results 1 to N can serve the page starting at N + 1 without
+ * the source re-fetching the earlier pages.
+ * <p>
+ * Sessions are keyed by the query and the index of the next result they will return. A session is
+ * checked out for the duration of a page request so it is never shared between two queries, and
+ * sessions left idle longer than the timeout are cancelled on the remote server. A session whose
+ * page request fails is discarded, which also cancels it on the remote server.
+ */
+class NsiliQuerySessionCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(NsiliQuerySessionCache.class);
+
+    private static final int DEFAULT_MAX_SESSIONS = 100;
+
+    private final Map<String, QuerySession> sessions = new LinkedHashMap<>();
+
+    private final LongSupplier clock;
+
+    private long idleTimeoutMillis;
+
+    private int maxSessions = DEFAULT_MAX_SESSIONS;
+
+    NsiliQuerySessionCache(long idleTimeoutSeconds) {
+        this(idleTimeoutSeconds, System::currentTimeMillis);
+    }
+
+    NsiliQuerySessionCache(long idleTimeoutSeconds, LongSupplier clock) {
+        this.clock = clock;
+        setIdleTimeout(idleTimeoutSeconds);
+    }
+
+    /**
+     * @param idleTimeoutSeconds - how long an unused session is kept, 0 disables session reuse
+     */
+    void setIdleTimeout(long idleTimeoutSeconds) {
+        synchronized (this) {
+            this.idleTimeoutMillis = TimeUnit.SECONDS.toMillis(Math.max(0, idleTimeoutSeconds));
+        }
+        purgeExpired();
+    }
+
+    void setMaxSessions(int maxSessions) {
+        synchronized (this) {
+            this.maxSessions = Math.max(0, maxSessions);
+        }
+        purgeExpired();
+    }
+
+    /**
+     * Removes and returns the session that will continue the given query at startIndex.
+     *
+     * @return the session, or null if there is no live session positioned at startIndex
+     */
+    QuerySession checkout(String queryKey, int startIndex) {
+        purgeExpired();
+        synchronized (this) {
+            return sessions.remove(getSessionKey(queryKey, startIndex));
+        }
+    }
+
+    /**
+     * Makes a session available to the request for its next page.
+     */
+    void checkin(QuerySession session) {
+        List<QuerySession> evicted = new ArrayList<>();
+        synchronized (this) {
+            if (idleTimeoutMillis > 0 && maxSessions > 0) {
+                session.lastAccessed = clock.getAsLong();
+                QuerySession replaced = sessions.put(getSessionKey(session.queryKey,
+                        session.nextIndex), session);
+                if (replaced != null) {
+                    evicted.add(replaced);
+                }
+                evictOverflow(evicted);
+            } else {
+                evicted.add(session);
+            }
+        }
+        cancel(evicted);
+    }
+
+    /**
+     * Removes a session that can no longer be used and cancels it on the remote server.
+     *
+     * @param session - the session to discard, may be null
+     */
+    void discard(QuerySession session) {
+        if (session == null) {
+            return;
+        }
+        synchronized (this) {
+            sessions.remove(getSessionKey(session.queryKey, session.nextIndex), session);
+        }
+        cancel(Collections.singletonList(session));
+    }
+
+    void purgeExpired() {
+        List<QuerySession> expired = new ArrayList<>();
+        synchronized (this) {
+            long now = clock.getAsLong();
+            Iterator<QuerySession> iterator = sessions.values()
+                    .iterator();
+            while (iterator.hasNext()) {
+                QuerySession session = iterator.next();
+                if (now - session.lastAccessed >= idleTimeoutMillis) {
+                    expired.add(session);
+                    iterator.remove();
+                }
+            }
+            evictOverflow(expired);
+        }
+        cancel(expired);
+    }
+
+    void clear() {
+        List<QuerySession> removed;
+        synchronized (this) {
+            removed = new ArrayList<>(sessions.values());
+            sessions.clear();
+        }
+        cancel(removed);
+    }
+
+    synchronized int size() {
+        return sessions.size();
+    }
+
+    static String getQueryKey(Query query, String[] resultAttributes,
+            SortAttribute[] sortAttributes) {
+        String sortKey = Arrays.stream(sortAttributes)
+                .map(sortAttribute -> sortAttribute.attribute_name + " "
+                        + sortAttribute.sort_polarity.value())
+                .collect(Collectors.joining(","));
+        return query.view + "|" + query.bqs_query + "|" + Arrays.toString(resultAttributes) + "|"
+                + sortKey;
+    }
+
+    private static String getSessionKey(String queryKey, int nextIndex) {
+        return nextIndex + "|" + queryKey;
+    }
+
+    /* Sessions are kept in check-in order, so the first entries are the least recently used. */
+    private void evictOverflow(List<QuerySession> evicted) {
+        Iterator<QuerySession> iterator = sessions.values()
+                .iterator();
+        while (sessions.size() > maxSessions && iterator.hasNext()) {
+            evicted.add(iterator.next());
+            iterator.remove();
+        }
+    }
+
+    private void cancel(List<QuerySession> removed) {
+        for (QuerySession session : removed) {
+            try {
+                session.submitQueryRequest.cancel();
+            } catch (ProcessingFault | SystemFault | RuntimeException e) {
+                LOGGER.debug("Unable to cancel query session. {}",
+                        NsilCorbaExceptionUtil.getExceptionDetails(e),
+                        e);
+            }
+        }
+    }
+
+    /**
+     * A remote query request and the position of the next result it will return.
+     */
+    static class QuerySession {
+
+        private final String queryKey;
+
+        private final SubmitQueryRequest submitQueryRequest;
+
+        private final Long hitCount;
+
+        private int nextIndex = 1;
+
+        private long lastAccessed;
+
+        QuerySession(String queryKey, SubmitQueryRequest submitQueryRequest, Long hitCount) {
+            this.queryKey = queryKey;
+            this.submitQueryRequest = submitQueryRequest;
+            this.hitCount = hitCount;
+        }
+
+        SubmitQueryRequest getSubmitQueryRequest() {
+            return submitQueryRequest;
+        }
+
+        /**
+         * @return the exact hit count known when the query was submitted, or null
+         */
+        Long getHitCount() {
+            return hitCount;
+        }
+
+        int getNextIndex() {
+            return nextIndex;
+        }
+
+        void advance(int numResults) {
+            nextIndex += numResults;
+        }
+    }
+}
@@ -20,8 +20,10 @@ import java.io.Serializable;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -29,15 +31,14 @@ import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.Callable;
-import java.util.concurrent.CompletionService;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorCompletionService;
-import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.apache.commons.collections.MapUtils;
 import org.apache.commons.lang.StringUtils;
@@ -76,6 +77,7 @@ import org.codice.alliance.nsili.common.UCO.SystemFault;
 import org.codice.alliance.nsili.orb.api.CorbaOrb;
 import org.codice.alliance.nsili.orb.api.CorbaServiceListener;
 import org.codice.alliance.nsili.transformer.DAGConverter;
+import org.codice.alliance.nsili.transformer.ThumbnailPrefetcher;
 import org.codice.ddf.cxf.SecureCxfClientFactory;
 import org.codice.ddf.spatial.ogc.catalog.common.AvailabilityCommand;
 import org.codice.ddf.spatial.ogc.catalog.common.AvailabilityTask;
@@ -90,6 +92,7 @@ import ddf.catalog.data.ContentType;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.MetacardType;
 import ddf.catalog.data.Result;
+import ddf.catalog.data.impl.MetacardImpl;
 import ddf.catalog.data.impl.ResultImpl;
 import ddf.catalog.filter.FilterAdapter;
 import ddf.catalog.operation.Query;
@@ -134,6 +137,18 @@ public class NsiliSource extends MaskableImpl
 
     public static final String ACCESS_LICENSE_KEY = "accessLicenseKey";
 
+    public static final String MAX_CONCURRENT_QUERIES = "maxConcurrentQueries";
+
+    public static final String PAGING_SESSION_TIMEOUT = "pagingSessionTimeout";
+
+    public static final String REQUEST_EXACT_HIT_COUNT = "requestExactHitCount";
+
+    public static final String HIT_COUNT_CACHE_TTL = "hitCountCacheTtl";
+
+    public static final String THUMBNAIL_FETCH_THREADS = "thumbnailFetchThreads";
+
+    public static final String THUMBNAIL_WAIT_TIME = "thumbnailWaitTime";
+
     private static final Logger LOGGER = LoggerFactory.getLogger(NsiliSource.class);
 
     private static final String DESCRIBABLE_PROPERTIES_FILE = "/describable.properties";
@@ -170,6 +185,18 @@ public class NsiliSource extends MaskableImpl
 
     private static final String FTP_SCHEME = "ftp";
 
+    private static final int DEFAULT_MAX_CONCURRENT_QUERIES = 8;
+
+    private static final int DEFAULT_PAGING_SESSION_TIMEOUT = 300;
+
+    private static final int PAGING_SESSION_PURGE_INTERVAL = 60;
+
+    private static final int DEFAULT_HIT_COUNT_CACHE_TTL = 60;
+
+    private static final int DEFAULT_THUMBNAIL_FETCH_THREADS = 8;
+
+    private static final int DEFAULT_THUMBNAIL_WAIT_TIME = 1000;
+
     private static Library library;
 
     private static Properties describableProperties = new Properties();
@@ -250,13 +277,30 @@ public class NsiliSource extends MaskableImpl
 
     private String additionalQueryParams = "";
 
-    private ExecutorService executorService;
-
-    private CompletionService<Result> completionService;
+    private DagConversionScheduler conversionScheduler;
 
     private CorbaOrb corbaOrb = null;
 
-    private Object queryLockObj = new Object();
+    private int maxConcurrentQueries = DEFAULT_MAX_CONCURRENT_QUERIES;
+
+    private Semaphore querySemaphore = new Semaphore(DEFAULT_MAX_CONCURRENT_QUERIES, true);
+
+    private int pagingSessionTimeout = DEFAULT_PAGING_SESSION_TIMEOUT;
+
+    private NsiliQuerySessionCache querySessionCache =
+            new NsiliQuerySessionCache(DEFAULT_PAGING_SESSION_TIMEOUT);
+
+    private ScheduledFuture<?> sessionPurgeFuture;
+
+    private int hitCountCacheTtl = DEFAULT_HIT_COUNT_CACHE_TTL;
+
+    private NsiliQueryPlanner queryPlanner = new NsiliQueryPlanner(DEFAULT_HIT_COUNT_CACHE_TTL);
+
+    private int thumbnailFetchThreads = DEFAULT_THUMBNAIL_FETCH_THREADS;
+
+    private int thumbnailWaitTime = DEFAULT_THUMBNAIL_WAIT_TIME;
+
+    private ThumbnailPrefetcher thumbnailPrefetcher;
 
     private MetacardType nsiliMetacardType = null;
 
@@ -293,6 +337,16 @@ public class NsiliSource extends MaskableImpl
         corbaOrb.addCorbaServiceListener(this);
         initCorbaClient();
         setupAvailabilityPoll();
+        setupSessionPurge();
+    }
+
+    private synchronized void setupSessionPurge() {
+        if (sessionPurgeFuture == null || sessionPurgeFuture.isCancelled()) {
+            sessionPurgeFuture = scheduler.scheduleWithFixedDelay(querySessionCache::purgeExpired,
+                    PAGING_SESSION_PURGE_INTERVAL,
+                    PAGING_SESSION_PURGE_INTERVAL,
+                    TimeUnit.SECONDS);
+        }
     }
 
     @Override
@@ -652,7 +706,18 @@ public class NsiliSource extends MaskableImpl
             corbaOrb.removeCorbaServiceListener(this);
         }
         availabilityPollFuture.cancel(true);
+        if (sessionPurgeFuture != null) {
+            sessionPurgeFuture.cancel(true);
+        }
         scheduler.shutdownNow();
+        querySessionCache.clear();
+        queryPlanner.clear();
+        if (thumbnailPrefetcher != null) {
+            thumbnailPrefetcher.shutdown();
+        }
+        if (conversionScheduler != null) {
+            conversionScheduler.shutdown();
+        }
     }
 
     public void refresh(Map<String, Object> configuration) {
@@ -682,6 +747,8 @@ public class NsiliSource extends MaskableImpl
         String iorUrl = (String) configuration.get(IOR_URL);
         if (StringUtils.isNotBlank(iorUrl) && !iorUrl.equals(this.iorUrl)) {
             setIorUrl(iorUrl);
+            // Open query sessions belong to the previous server
+            querySessionCache.clear();
         }
 
         String additionalQueryParams = (String) configuration.get(ADDITIONAL_QUERY_PARAMS);
@@ -707,6 +774,30 @@ public class NsiliSource extends MaskableImpl
         if (StringUtils.isNotBlank(accessLicenseKey)) {
             setAccessLicenseKey(accessLicenseKey);
         }
+        Integer maxConcurrentQueries = (Integer) configuration.get(MAX_CONCURRENT_QUERIES);
+        if (maxConcurrentQueries != null && maxConcurrentQueries != this.maxConcurrentQueries) {
+            setMaxConcurrentQueries(maxConcurrentQueries);
+        }
+        Integer pagingSessionTimeout = (Integer) configuration.get(PAGING_SESSION_TIMEOUT);
+        if (pagingSessionTimeout != null) {
+            setPagingSessionTimeout(pagingSessionTimeout);
+        }
+        Boolean requestExactHitCount = (Boolean) configuration.get(REQUEST_EXACT_HIT_COUNT);
+        if (requestExactHitCount != null) {
+            setRequestExactHitCount(requestExactHitCount);
+        }
+        Integer hitCountCacheTtl = (Integer) configuration.get(HIT_COUNT_CACHE_TTL);
+        if (hitCountCacheTtl != null) {
+            setHitCountCacheTtl(hitCountCacheTtl);
+        }
+        Integer thumbnailFetchThreads = (Integer) configuration.get(THUMBNAIL_FETCH_THREADS);
+        if (thumbnailFetchThreads != null && thumbnailFetchThreads != this.thumbnailFetchThreads) {
+            setThumbnailFetchThreads(thumbnailFetchThreads);
+        }
+        Integer thumbnailWaitTime = (Integer) configuration.get(THUMBNAIL_WAIT_TIME);
+        if (thumbnailWaitTime != null) {
+            setThumbnailWaitTime(thumbnailWaitTime);
+        }
         init();
     }
 
@@ -740,6 +831,101 @@ public class NsiliSource extends MaskableImpl
         return submitQuery(queryRequest, query, results, sortAttributes, propertiesList);
     }
 
+    /**
+     * Waits up to the thumbnail wait time for the page's thumbnails, then sets the ones that have
+     * arrived. Thumbnails still being retrieved are cached for later queries instead of holding up
+     * this response.
+     */
+    private void applyPrefetchedThumbnails(
+            List<Map.Entry<MetacardImpl, CompletableFuture<byte[]>>> pendingThumbnails) {
+        if (pendingThumbnails.isEmpty()) {
+            return;
+        }
+
+        CompletableFuture<?>[] fetches = pendingThumbnails.stream()
+                .map(Map.Entry::getValue)
+                .toArray(CompletableFuture[]::new);
+        try {
+            CompletableFuture.allOf(fetches)
+                    .get(thumbnailWaitTime, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            LOGGER.debug("{} : Returning results before all thumbnails were retrieved", getId());
+        } catch (ExecutionException e) {
+            LOGGER.debug("{} : Unable to retrieve thumbnails", getId(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                    .interrupt();
+        }
+
+        for (Map.Entry<MetacardImpl, CompletableFuture<byte[]>> pendingThumbnail : pendingThumbnails) {
+            byte[] thumbnail = pendingThumbnail.getValue()
+                    .getNow(null);
+            if (thumbnail != null) {
+                pendingThumbnail.getKey()
+                        .setThumbnail(thumbnail);
+            }
+        }
+    }
+
+    private NsiliQuerySessionCache.QuerySession createQuerySession(String queryKey,
+            org.codice.alliance.nsili.common.GIAS.Query query, String[] resultAttributes,
+            SortAttribute[] sortAttributes, NameValue[] properties,
+            boolean requestsTotalResultsCount)
+            throws ProcessingFault, SystemFault, InvalidInputParameter {
+        LOGGER.debug("{} : Submit query: {}", id, query.bqs_query);
+        LOGGER.debug("{} : Requesting result attributes: {}", id, Arrays.toString(resultAttributes));
+        LOGGER.debug("{} : Sort Attributes: {}", id, Arrays.toString(sortAttributes));
+        LOGGER.debug("{} : Properties: {}", id, Arrays.toString(properties));
+        Long hitCount = queryPlanner.getCachedHitCount(queryKey);
+        if (hitCount == null && queryPlanner.isHitCountRequired(requestsTotalResultsCount,
+                queryKey)) {
+            HitCountRequest hitCountRequest = catalogMgr.hit_count(query, properties);
+            IntHolder hitHolder = new IntHolder();
+            hitCountRequest.complete(hitHolder);
+            hitCount = (long) hitHolder.value;
+            queryPlanner.cacheHitCount(queryKey, hitCount);
+        }
+
+        // Sorting is only skipped when the query is known to match at most one result.
+        SubmitQueryRequest submitQueryRequest;
+        if (hitCount == null || hitCount > 1) {
+            submitQueryRequest = catalogMgr.submit_query(query,
+                    resultAttributes,
+                    sortAttributes,
+                    properties);
+        } else {
+            submitQueryRequest = catalogMgr.submit_query(query,
+                    resultAttributes,
+                    new SortAttribute[0],
+                    new NameValue[0]);
+        }
+        submitQueryRequest.set_user_info(ddfOrgName);
+        return new NsiliQuerySessionCache.QuerySession(queryKey, submitQueryRequest, hitCount);
+    }
+
+    /**
+     * Advances a new session to the requested start index. The skipped DAGs are discarded without
+     * being converted, and are fetched in windows no larger than the max hit count.
+     */
+    private void skipResults(NsiliQuerySessionCache.QuerySession session, int numToSkip)
+            throws ProcessingFault, SystemFault, InvalidInputParameter {
+        int remaining = numToSkip;
+        while (remaining > 0) {
+            int window = Math.min(remaining, Math.max(1, maxHitCount));
+            DAGListHolder skipped = new DAGListHolder();
+            session.getSubmitQueryRequest()
+                    .set_number_of_hits(window);
+            session.getSubmitQueryRequest()
+                    .complete_DAG_results(skipped);
+            int numSkipped = skipped.value == null ? 0 : skipped.value.length;
+            session.advance(numSkipped);
+            if (numSkipped < window) {
+                return;
+            }
+            remaining -= numSkipped;
+        }
+    }
+
     /**
      * Uses the NsiliFilterDelegate to create a STANAG 4559 BQS (Boolean Syntax Query) from the DDF Query
      *
@@ -769,10 +955,8 @@ public class NsiliSource extends MaskableImpl
             NameValue[] properties) {
         IntHolder intHolder = new IntHolder();
         try {
-            synchronized (queryLockObj) {
-                HitCountRequest hitCountRequest = catalogMgr.hit_count(query, properties);
-                hitCountRequest.complete(intHolder);
-            }
+            HitCountRequest hitCountRequest = catalogMgr.hit_count(query, properties);
+            hitCountRequest.complete(intHolder);
         } catch (ProcessingFault | SystemFault | InvalidInputParameter e) {
             LOGGER.debug("{} : Unable to get hit count for query. : {}",
                     getId(),
@@ -802,50 +986,99 @@ public class NsiliSource extends MaskableImpl
         SourceResponseImpl sourceResponse = null;
 
         long numHits = 0;
+
+        int startIndex = Math.max(1,
+                queryRequest.getQuery()
+                        .getStartIndex());
+        int pageSize = queryRequest.getQuery()
+                .getPageSize();
+        int windowSize = pageSize > 0 ? Math.min(pageSize, maxHitCount) : maxHitCount;
+        String queryKey = NsiliQuerySessionCache.getQueryKey(query,
+                resultAttributes,
+                sortAttributes);
+
+        // Each query gets its own SubmitQueryRequest from the remote CatalogMgr, so queries only
+        // share the permit pool that caps how many are in flight against the source at once.
+        Semaphore semaphore = querySemaphore;
         try {
-            synchronized (queryLockObj) {
-                LOGGER.debug("{} : Submit query: {}", id, query.bqs_query);
-                LOGGER.debug("{} : Requesting result attributes: {}", id, Arrays.toString(resultAttributes));
-                LOGGER.debug("{} : Sort Attributes: {}", id, Arrays.toString(sortAttributes));
-                LOGGER.debug("{} : Properties: {}", id, Arrays.toString(properties));
-                HitCountRequest hitCountRequest = catalogMgr.hit_count(query, properties);
-                IntHolder hitHolder = new IntHolder();
-                hitCountRequest.complete(hitHolder);
-                numHits = hitHolder.value;
-                SubmitQueryRequest submitQueryRequest;
-                if (hitHolder.value > 1) {
-                    submitQueryRequest = catalogMgr.submit_query(query,
-                            resultAttributes,
-                            sortAttributes,
-                            properties);
-                } else {
-                    submitQueryRequest = catalogMgr.submit_query(query,
-                            resultAttributes,
-                            new SortAttribute[0],
-                            new NameValue[0]);
-                }
-                submitQueryRequest.set_user_info(ddfOrgName);
-                submitQueryRequest.set_number_of_hits(maxHitCount);
+            semaphore.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                    .interrupt();
+            LOGGER.debug("{} : Interrupted while waiting to query source.", id, e);
+            return null;
+        }
+
+        NsiliQuerySessionCache.QuerySession session = null;
+        boolean succeeded = false;
+        try {
+            session = querySessionCache.checkout(queryKey, startIndex);
+            if (session == null) {
+                session = createQuerySession(queryKey,
+                        query,
+                        resultAttributes,
+                        sortAttributes,
+                        properties,
+                        queryRequest.getQuery()
+                                .requestsTotalResultsCount());
+                skipResults(session, startIndex - 1);
+            } else {
+                LOGGER.debug("{} : Continuing paged query at index {}", id, startIndex);
+            }
+
+            if (session.getNextIndex() == startIndex) {
+                SubmitQueryRequest submitQueryRequest = session.getSubmitQueryRequest();
+                submitQueryRequest.set_number_of_hits(windowSize);
                 submitQueryRequest.complete_DAG_results(dagListHolder);
+                if (dagListHolder.value != null) {
+                    session.advance(dagListHolder.value.length);
+                    // A short window means the remote request has no further results to page.
+                    if (dagListHolder.value.length == windowSize) {
+                        querySessionCache.checkin(session);
+                    }
+                }
+            } else {
+                dagListHolder.value = new DAG[0];
+            }
+
+            if (dagListHolder.value != null) {
+                numHits = queryPlanner.resolveHitCount(queryKey,
+                        session.getNextIndex() - 1,
+                        session.getHitCount(),
+                        dagListHolder.value.length < windowSize);
             }
+            succeeded = true;
         } catch (ProcessingFault | SystemFault | InvalidInputParameter e) {
             LOGGER.debug("{} : Unable to query source. {}",
                     id,
                     NsilCorbaExceptionUtil.getExceptionDetails(e),
                     e);
+        } finally {
+            if (!succeeded) {
+                // The remote request is at an unknown position, so it cannot serve a later page.
+                querySessionCache.discard(session);
+            }
+            semaphore.release();
         }
 
         if (dagListHolder.value != null) {
-            List<Result> results = new ArrayList<>();
             String id = getId();
-            List<Future> futures = new ArrayList<>(dagListHolder.value.length);
+            List<Callable<Result>> conversions = new ArrayList<>(dagListHolder.value.length);
+            ThumbnailPrefetcher prefetcher = thumbnailPrefetcher;
+            List<Map.Entry<MetacardImpl, CompletableFuture<byte[]>>> pendingThumbnails =
+                    Collections.synchronizedList(new ArrayList<>());
 
             for (DAG dag : dagListHolder.value) {
                 Callable<Result> convertRunner = () -> {
                     DAGConverter dagConverter = new DAGConverter(resourceReader);
                     dagConverter.setNsiliMetacardType(nsiliMetacardType);
-                    Metacard card = dagConverter.convertDAG(dag, swapCoordinates, id);
+                    dagConverter.setThumbnailPrefetcher(prefetcher);
+                    MetacardImpl card = dagConverter.convertDAG(dag, swapCoordinates, id);
                     if (card != null) {
+                        if (dagConverter.getPendingThumbnail() != null) {
+                            pendingThumbnails.add(new AbstractMap.SimpleImmutableEntry<>(card,
+                                    dagConverter.getPendingThumbnail()));
+                        }
                         if (LOGGER.isTraceEnabled()) {
                             DAGConverter.logMetacard(card, getId());
                         }
@@ -856,22 +1089,11 @@ public class NsiliSource extends MaskableImpl
                     }
                     return null;
                 };
-                futures.add(completionService.submit(convertRunner));
-            }
-
-            Future<Result> completedFuture;
-            while (!futures.isEmpty()) {
-                try {
-                    completedFuture = completionService.take();
-                    futures.remove(completedFuture);
-                    results.add(completedFuture.get());
-                } catch (ExecutionException e) {
-                    LOGGER.debug("Unable to create result.", e);
-                } catch (InterruptedException ignore) {
-                    //ignore
-                }
+                conversions.add(convertRunner);
             }
 
+            List<Result> results = conversionScheduler.convert(conversions);
+            applyPrefetchedThumbnails(pendingThumbnails);
             sourceResponse = new SourceResponseImpl(queryRequest, results, numHits);
 
         } else {
@@ -1071,22 +1293,112 @@ public class NsiliSource extends MaskableImpl
     }
 
     public void setNumberWorkerThreads(int numberWorkerThreads) {
-        List<Runnable> waitingTasks = null;
-        if (executorService != null) {
-            waitingTasks = executorService.shutdownNow();
+        if (conversionScheduler == null) {
+            conversionScheduler = new DagConversionScheduler(numberWorkerThreads);
+        } else {
+            conversionScheduler.setMaxParallelism(numberWorkerThreads);
         }
+    }
 
-        executorService = Executors.newFixedThreadPool(numberWorkerThreads);
-        completionService = new ExecutorCompletionService(executorService);
-        if (waitingTasks != null) {
-            for (Runnable task : waitingTasks) {
-                executorService.submit(task);
-            }
+    public int getMaxConcurrentQueries() {
+        return maxConcurrentQueries;
+    }
+
+    /**
+     * Sets the maximum number of queries that may be in flight against the remote CatalogMgr at
+     * the same time. Queries already holding a permit finish against the previous limit.
+     *
+     * @param maxConcurrentQueries - the query concurrency limit, values less than 1 use the default
+     */
+    public void setMaxConcurrentQueries(int maxConcurrentQueries) {
+        if (maxConcurrentQueries < 1) {
+            LOGGER.debug("Invalid maxConcurrentQueries value [{}], using default [{}]",
+                    maxConcurrentQueries,
+                    DEFAULT_MAX_CONCURRENT_QUERIES);
+            maxConcurrentQueries = DEFAULT_MAX_CONCURRENT_QUERIES;
         }
+
+        this.maxConcurrentQueries = maxConcurrentQueries;
+        this.querySemaphore = new Semaphore(maxConcurrentQueries, true);
+    }
+
+    public int getPagingSessionTimeout() {
+        return pagingSessionTimeout;
+    }
+
+    /**
+     * Sets how long, in seconds, an idle paged query is kept open on the remote server so the
+     * next page can continue from it. A value of 0 disables paging sessions.
+     */
+    public void setPagingSessionTimeout(int pagingSessionTimeout) {
+        this.pagingSessionTimeout = Math.max(0, pagingSessionTimeout);
+        querySessionCache.setIdleTimeout(this.pagingSessionTimeout);
+    }
+
+    public boolean isRequestExactHitCount() {
+        return queryPlanner.isRequestExactHitCount();
+    }
+
+    /**
+     * Sets whether every query makes a hit_count request before it is submitted. Queries that ask
+     * for the total result count always do; when disabled, other queries report a hit count
+     * derived from the results returned.
+     */
+    public void setRequestExactHitCount(boolean requestExactHitCount) {
+        queryPlanner.setRequestExactHitCount(requestExactHitCount);
+    }
+
+    public int getHitCountCacheTtl() {
+        return hitCountCacheTtl;
+    }
+
+    /**
+     * Sets how long, in seconds, a known hit count is reused for the same query. A value of 0
+     * disables the cache.
+     */
+    public void setHitCountCacheTtl(int hitCountCacheTtl) {
+        this.hitCountCacheTtl = Math.max(0, hitCountCacheTtl);
+        queryPlanner.setCacheTtl(this.hitCountCacheTtl);
     }
 
     public void setResourceReader(ResourceReader resourceReader) {
         this.resourceReader = resourceReader;
+        createThumbnailPrefetcher();
+    }
+
+    public int getThumbnailFetchThreads() {
+        return thumbnailFetchThreads;
+    }
+
+    /**
+     * Sets how many thumbnails may be retrieved at once. A value of 0 retrieves each thumbnail
+     * while its DAG is converted.
+     */
+    public void setThumbnailFetchThreads(int thumbnailFetchThreads) {
+        this.thumbnailFetchThreads = Math.max(0, thumbnailFetchThreads);
+        createThumbnailPrefetcher();
+    }
+
+    public int getThumbnailWaitTime() {
+        return thumbnailWaitTime;
+    }
+
+    /**
+     * Sets how long, in milliseconds, a query waits for its thumbnails before returning results.
+     */
+    public void setThumbnailWaitTime(int thumbnailWaitTime) {
+        this.thumbnailWaitTime = Math.max(0, thumbnailWaitTime);
+    }
+
+    private void createThumbnailPrefetcher() {
+        if (thumbnailPrefetcher != null) {
+            thumbnailPrefetcher.shutdown();
+            thumbnailPrefetcher = null;
+        }
+
+        if (resourceReader != null && thumbnailFetchThreads > 0) {
+            thumbnailPrefetcher = new ThumbnailPrefetcher(resourceReader, thumbnailFetchThreads);
+        }
     }
 
     public void setPollInterval(Integer interval) {
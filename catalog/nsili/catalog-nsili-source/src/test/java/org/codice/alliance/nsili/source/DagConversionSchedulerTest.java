@@ -0,0 +1,159 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.nsili.source;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DagConversionSchedulerTest {
+
+    private DagConversionScheduler scheduler;
+
+    @Before
+    public void setUp() {
+        scheduler = new DagConversionScheduler(1);
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void testResultsKeepSubmissionOrder() {
+        scheduler.setMaxParallelism(4);
+        List<Callable<Integer>> tasks = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            int value = i;
+            tasks.add(() -> {
+                Thread.sleep(5 * (5 - value));
+                return value;
+            });
+        }
+
+        assertThat(scheduler.convert(tasks), contains(0, 1, 2, 3, 4));
+    }
+
+    @Test
+    public void testFailedAndNullConversionsAreSkipped() {
+        List<Callable<String>> tasks = new ArrayList<>();
+        tasks.add(() -> "first");
+        tasks.add(() -> null);
+        tasks.add(() -> {
+            throw new IllegalStateException("bad DAG");
+        });
+        tasks.add(() -> "last");
+
+        assertThat(scheduler.convert(tasks), contains("first", "last"));
+    }
+
+    @Test
+    public void testCancelledConversionsRunOnCallingThread() {
+        scheduler.shutdown();
+        List<Callable<String>> tasks = new ArrayList<>();
+        tasks.add(() -> Thread.currentThread()
+                .getName());
+        tasks.add(() -> null);
+        tasks.add(() -> {
+            throw new IllegalStateException("bad DAG");
+        });
+
+        assertThat(scheduler.convert(tasks),
+                contains(Thread.currentThread()
+                        .getName()));
+    }
+
+    @Test
+    public void testBatchesAreServedRoundRobin() throws Exception {
+        List<String> executionOrder = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch blockFirst = new CountDownLatch(1);
+
+        List<Callable<String>> largeBatch = new ArrayList<>();
+        largeBatch.add(() -> {
+            blockFirst.await(5, TimeUnit.SECONDS);
+            executionOrder.add("large");
+            return "large";
+        });
+        for (int i = 0; i < 5; i++) {
+            largeBatch.add(() -> {
+                executionOrder.add("large");
+                return "large";
+            });
+        }
+
+        List<Callable<String>> smallBatch = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            smallBatch.add(() -> {
+                executionOrder.add("small");
+                return "small";
+            });
+        }
+
+        List<Future<String>> largeFutures = scheduler.submit(largeBatch);
+        List<Future<String>> smallFutures = scheduler.submit(smallBatch);
+        blockFirst.countDown();
+
+        for (Future<String> future : smallFutures) {
+            future.get(5, TimeUnit.SECONDS);
+        }
+        for (Future<String> future : largeFutures) {
+            future.get(5, TimeUnit.SECONDS);
+        }
+
+        assertThat(executionOrder.lastIndexOf("small"), is(4));
+    }
+
+    @Test
+    public void testParallelismIsBounded() throws Exception {
+        scheduler.setMaxParallelism(3);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+
+        List<List<Future<Integer>>> batches = new ArrayList<>();
+        for (int batch = 0; batch < 4; batch++) {
+            List<Callable<Integer>> tasks = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                tasks.add(() -> {
+                    maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                    Thread.sleep(2);
+                    return inFlight.decrementAndGet();
+                });
+            }
+            batches.add(scheduler.submit(tasks));
+        }
+
+        for (List<Future<Integer>> futures : batches) {
+            for (Future<Integer> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        }
+
+        assertThat(maxInFlight.get(), lessThanOrEqualTo(3));
+    }
+}
@@ -0,0 +1,97 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.nsili.source;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class NsiliQueryPlannerTest {
+
+    private static final String QUERY_KEY = "queryKey";
+
+    private static final long TTL_SECONDS = 60;
+
+    private AtomicLong now = new AtomicLong(1000);
+
+    private NsiliQueryPlanner planner;
+
+    @Before
+    public void setUp() {
+        planner = new NsiliQueryPlanner(TTL_SECONDS, now::get);
+    }
+
+    @Test
+    public void testHitCountRequiredWhenTotalRequested() {
+        assertThat(planner.isHitCountRequired(true, QUERY_KEY), is(true));
+        assertThat(planner.isHitCountRequired(false, QUERY_KEY), is(false));
+    }
+
+    @Test
+    public void testExactHitCountForEveryQuery() {
+        planner.setRequestExactHitCount(true);
+
+        assertThat(planner.isHitCountRequired(false, QUERY_KEY), is(true));
+        assertThat(planner.isHitCountRequired(true, QUERY_KEY), is(true));
+    }
+
+    @Test
+    public void testCachedHitCountSkipsRequest() {
+        planner.cacheHitCount(QUERY_KEY, 42);
+
+        assertThat(planner.isHitCountRequired(true, QUERY_KEY), is(false));
+        assertThat(planner.getCachedHitCount(QUERY_KEY), is(42L));
+    }
+
+    @Test
+    public void testCachedHitCountExpires() {
+        planner.cacheHitCount(QUERY_KEY, 42);
+
+        now.addAndGet(TTL_SECONDS * 1000);
+        assertThat(planner.getCachedHitCount(QUERY_KEY), is(nullValue()));
+    }
+
+    @Test
+    public void testCacheDisabled() {
+        planner.setCacheTtl(0);
+        planner.cacheHitCount(QUERY_KEY, 42);
+
+        assertThat(planner.getCachedHitCount(QUERY_KEY), is(nullValue()));
+    }
+
+    @Test
+    public void testResolveExhaustedQuery() {
+        assertThat(planner.resolveHitCount(QUERY_KEY, 7, null, true), is(7L));
+        assertThat(planner.getCachedHitCount(QUERY_KEY), is(7L));
+    }
+
+    @Test
+    public void testResolveLowerBound() {
+        assertThat(planner.resolveHitCount(QUERY_KEY, 10, null, false), is(11L));
+    }
+
+    @Test
+    public void testResolvePrefersKnownCount() {
+        planner.cacheHitCount(QUERY_KEY, 50);
+
+        assertThat(planner.resolveHitCount(QUERY_KEY, 10, 100L, false), is(100L));
+        assertThat(planner.resolveHitCount(QUERY_KEY, 10, null, false), is(50L));
+        assertThat(planner.resolveHitCount(QUERY_KEY, 60, null, false), is(61L));
+    }
+}
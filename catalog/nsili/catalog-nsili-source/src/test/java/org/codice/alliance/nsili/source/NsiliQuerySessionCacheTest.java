@@ -0,0 +1,147 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.nsili.source;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.codice.alliance.nsili.common.GIAS.Polarity;
+import org.codice.alliance.nsili.common.GIAS.Query;
+import org.codice.alliance.nsili.common.GIAS.SortAttribute;
+import org.codice.alliance.nsili.common.GIAS.SubmitQueryRequest;
+import org.codice.alliance.nsili.common.NsiliConstants;
+import org.junit.Before;
+import org.junit.Test;
+
+public class NsiliQuerySessionCacheTest {
+
+    private static final String QUERY_KEY = "queryKey";
+
+    private static final long TIMEOUT_SECONDS = 60;
+
+    private AtomicLong now = new AtomicLong(1000);
+
+    private NsiliQuerySessionCache cache;
+
+    @Before
+    public void setUp() {
+        cache = new NsiliQuerySessionCache(TIMEOUT_SECONDS, now::get);
+    }
+
+    @Test
+    public void testCheckoutAtNextIndex() throws Exception {
+        NsiliQuerySessionCache.QuerySession session = createSession(10);
+        cache.checkin(session);
+
+        assertThat(cache.checkout(QUERY_KEY, 1), is(nullValue()));
+        assertThat(cache.checkout(QUERY_KEY, 11), is(sameInstance(session)));
+        assertThat(cache.checkout(QUERY_KEY, 11), is(nullValue()));
+    }
+
+    @Test
+    public void testIdleSessionsExpire() throws Exception {
+        NsiliQuerySessionCache.QuerySession session = createSession(10);
+        cache.checkin(session);
+
+        now.addAndGet(TIMEOUT_SECONDS * 1000 - 1);
+        cache.purgeExpired();
+        assertThat(cache.size(), is(1));
+        verify(session.getSubmitQueryRequest(), never()).cancel();
+
+        now.addAndGet(1);
+        assertThat(cache.checkout(QUERY_KEY, 11), is(nullValue()));
+        verify(session.getSubmitQueryRequest()).cancel();
+    }
+
+    @Test
+    public void testOldestSessionEvicted() throws Exception {
+        cache.setMaxSessions(1);
+        NsiliQuerySessionCache.QuerySession first = createSession(10);
+        NsiliQuerySessionCache.QuerySession second = createSession(20);
+        cache.checkin(first);
+        cache.checkin(second);
+
+        assertThat(cache.size(), is(1));
+        verify(first.getSubmitQueryRequest()).cancel();
+        assertThat(cache.checkout(QUERY_KEY, 21), is(sameInstance(second)));
+    }
+
+    @Test
+    public void testDisabledCacheCancelsSessions() throws Exception {
+        cache.setIdleTimeout(0);
+        NsiliQuerySessionCache.QuerySession session = createSession(10);
+        cache.checkin(session);
+
+        assertThat(cache.size(), is(0));
+        verify(session.getSubmitQueryRequest()).cancel();
+    }
+
+    @Test
+    public void testClearCancelsSessions() throws Exception {
+        NsiliQuerySessionCache.QuerySession session = createSession(10);
+        cache.checkin(session);
+        cache.clear();
+
+        assertThat(cache.size(), is(0));
+        verify(session.getSubmitQueryRequest()).cancel();
+    }
+
+    @Test
+    public void testDiscardCancelsSession() throws Exception {
+        NsiliQuerySessionCache.QuerySession checkedIn = createSession(10);
+        NsiliQuerySessionCache.QuerySession checkedOut = createSession(20);
+        cache.checkin(checkedIn);
+
+        cache.discard(checkedIn);
+        cache.discard(checkedOut);
+        cache.discard(null);
+
+        assertThat(cache.size(), is(0));
+        verify(checkedIn.getSubmitQueryRequest()).cancel();
+        verify(checkedOut.getSubmitQueryRequest()).cancel();
+    }
+
+    @Test
+    public void testQueryKeyIncludesSortOrder() throws Exception {
+        Query query = new Query(NsiliConstants.NSIL_ALL_VIEW, "NSIL_FILE.format = 'GMTI'");
+        String[] resultAttributes = new String[] {NsiliConstants.NSIL_CARD};
+        SortAttribute[] ascending = new SortAttribute[] {new SortAttribute(NsiliConstants.NSIL_CARD,
+                Polarity.ASCENDING)};
+        SortAttribute[] descending = new SortAttribute[] {new SortAttribute(
+                NsiliConstants.NSIL_CARD,
+                Polarity.DESCENDING)};
+
+        assertThat(NsiliQuerySessionCache.getQueryKey(query, resultAttributes, ascending),
+                is(NsiliQuerySessionCache.getQueryKey(query, resultAttributes, ascending)));
+        assertThat(NsiliQuerySessionCache.getQueryKey(query, resultAttributes, ascending),
+                is(not(NsiliQuerySessionCache.getQueryKey(query, resultAttributes, descending))));
+    }
+
+    private NsiliQuerySessionCache.QuerySession createSession(int numReturned) {
+        NsiliQuerySessionCache.QuerySession session = new NsiliQuerySessionCache.QuerySession(
+                QUERY_KEY,
+                mock(SubmitQueryRequest.class),
+                100L);
+        session.advance(numReturned);
+        return session;
+    }
+}
@@ -16,10 +16,16 @@ package org.codice.alliance.nsili.source;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -28,6 +34,16 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.ws.rs.core.Response;
 
@@ -48,6 +64,7 @@ import org.codice.alliance.nsili.common.NsiliConstants;
 import org.codice.alliance.nsili.common.UCO.DAG;
 import org.codice.alliance.nsili.common.UCO.DAGListHolder;
 import org.codice.alliance.nsili.common.UCO.NameValue;
+import org.codice.alliance.nsili.common.UCO.ProcessingFault;
 import org.codice.alliance.nsili.common.UCO.State;
 import org.codice.alliance.nsili.common.UCO.Status;
 import org.codice.ddf.cxf.SecureCxfClientFactory;
@@ -56,8 +73,10 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Mockito;
 import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 import org.omg.CORBA.IntHolder;
 import org.omg.CORBA.ORB;
 import org.opengis.filter.sort.SortBy;
@@ -260,6 +279,7 @@ public class NsiliSourceTest {
                 .is()
                 .like()
                 .text("*"));
+        propertyIsLikeQuery.setRequestsTotalResultsCount(true);
         SourceResponse sourceResponse = source.query(new QueryRequestImpl(propertyIsLikeQuery));
         assertThat(sourceResponse.getHits(), is(LONG));
     }
@@ -270,6 +290,7 @@ public class NsiliSourceTest {
                 .is()
                 .equalTo()
                 .text(GMTI));
+        propertyIsLikeQuery.setRequestsTotalResultsCount(true);
         SourceResponse sourceResponse = source.query(new QueryRequestImpl(propertyIsLikeQuery));
         ArgumentCaptor<Query> argumentCaptor = ArgumentCaptor.forClass(Query.class);
         verify(catalogMgr).submit_query(argumentCaptor.capture(),
@@ -286,6 +307,7 @@ public class NsiliSourceTest {
                 .is()
                 .like()
                 .text("*"));
+        propertyIsLikeQuery.setRequestsTotalResultsCount(true);
         SourceResponse sourceResponse = source.query(new QueryRequestImpl(propertyIsLikeQuery));
         ArgumentCaptor<Query> argumentCaptor = ArgumentCaptor.forClass(Query.class);
         verify(catalogMgr).submit_query(argumentCaptor.capture(),
@@ -302,6 +324,7 @@ public class NsiliSourceTest {
                 .is()
                 .like()
                 .text("%"));
+        propertyIsLikeQuery.setRequestsTotalResultsCount(true);
         SourceResponse sourceResponse = source.query(new QueryRequestImpl(propertyIsLikeQuery));
         ArgumentCaptor<Query> argumentCaptor = ArgumentCaptor.forClass(Query.class);
         verify(catalogMgr).submit_query(argumentCaptor.capture(),
@@ -356,6 +379,270 @@ public class NsiliSourceTest {
         assertChangedConfiguration(source, GMTI, 0);
     }
 
+    @Test
+    public void testConcurrentQueriesAreNotSerialized() throws Exception {
+        int numQueries = 3;
+        CyclicBarrier barrier = new CyclicBarrier(numQueries);
+        AtomicBoolean overlapped = new AtomicBoolean(true);
+        source.setMaxConcurrentQueries(numQueries);
+
+        stubDagResults((InvocationOnMock invocationOnMock) -> {
+            try {
+                barrier.await(5, TimeUnit.SECONDS);
+            } catch (TimeoutException | BrokenBarrierException e) {
+                overlapped.set(false);
+            }
+            return State.COMPLETED;
+        });
+
+        runQueries(numQueries);
+        assertThat(overlapped.get(), is(true));
+    }
+
+    @Test
+    public void testMaxConcurrentQueries() throws Exception {
+        int numQueries = 4;
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        source.setMaxConcurrentQueries(1);
+
+        stubDagResults((InvocationOnMock invocationOnMock) -> {
+            int current = inFlight.incrementAndGet();
+            maxInFlight.accumulateAndGet(current, Math::max);
+            Thread.sleep(50);
+            inFlight.decrementAndGet();
+            return State.COMPLETED;
+        });
+
+        runQueries(numQueries);
+        assertThat(maxInFlight.get(), is(1));
+        verify(catalogMgr, times(numQueries)).submit_query(any(Query.class),
+                any(String[].class),
+                any(SortAttribute[].class),
+                any(NameValue[].class));
+    }
+
+    @Test
+    public void testRefreshMaxConcurrentQueries() throws Exception {
+        HashMap<String, Object> configuration = new HashMap<>();
+        configuration.put(NsiliSource.MAX_CONCURRENT_QUERIES, 2);
+
+        source.refresh(configuration);
+        assertThat(source.getMaxConcurrentQueries(), is(2));
+
+        source.setMaxConcurrentQueries(0);
+        assertThat(source.getMaxConcurrentQueries(), is(8));
+    }
+
+    @Test
+    public void testPagedQueryContinuesRemoteRequest() throws Exception {
+        SubmitQueryRequest submitQueryRequest = stubPagedResults(5);
+
+        QueryImpl firstPage = getPagedQuery(1, 2);
+        firstPage.setRequestsTotalResultsCount(true);
+        source.query(new QueryRequestImpl(firstPage));
+        source.query(new QueryRequestImpl(getPagedQuery(3, 2)));
+        source.query(new QueryRequestImpl(getPagedQuery(5, 2)));
+
+        verify(catalogMgr, times(1)).submit_query(any(Query.class),
+                any(String[].class),
+                any(SortAttribute[].class),
+                any(NameValue[].class));
+        verify(catalogMgr, times(1)).hit_count(any(Query.class), any(NameValue[].class));
+        verify(submitQueryRequest, times(3)).complete_DAG_results(any(DAGListHolder.class));
+    }
+
+    @Test
+    public void testRefreshIorUrlEndsPagingSessions() throws Exception {
+        stubPagedResults(5);
+        source.query(new QueryRequestImpl(getPagedQuery(1, 2)));
+
+        HashMap<String, Object> configuration = new HashMap<>();
+        configuration.put(NsiliSource.IOR_URL, "http://localhost:20002/other/ior");
+        source.refresh(configuration);
+        source.query(new QueryRequestImpl(getPagedQuery(3, 2)));
+
+        verify(catalogMgr, times(2)).submit_query(any(Query.class),
+                any(String[].class),
+                any(SortAttribute[].class),
+                any(NameValue[].class));
+    }
+
+    @Test
+    public void testHitCountDerivedWhenTotalNotRequested() throws Exception {
+        stubPagedResults(5);
+
+        QueryImpl firstPage = getPagedQuery(1, 2);
+        SourceResponse sourceResponse = source.query(new QueryRequestImpl(firstPage));
+        assertThat(sourceResponse.getHits(), is(3L));
+
+        sourceResponse = source.query(new QueryRequestImpl(getPagedQuery(3, 2)));
+        assertThat(sourceResponse.getHits(), is(5L));
+
+        sourceResponse = source.query(new QueryRequestImpl(getPagedQuery(5, 2)));
+        assertThat(sourceResponse.getHits(), is(5L));
+        verify(catalogMgr, never()).hit_count(any(Query.class), any(NameValue[].class));
+    }
+
+    @Test
+    public void testExactHitCountIsCached() throws Exception {
+        stubPagedResults(5);
+
+        QueryImpl query = getPagedQuery(1, 2);
+        query.setRequestsTotalResultsCount(true);
+        SourceResponse sourceResponse = source.query(new QueryRequestImpl(query));
+        assertThat(sourceResponse.getHits(), is(LONG));
+
+        sourceResponse = source.query(new QueryRequestImpl(query));
+        assertThat(sourceResponse.getHits(), is(LONG));
+        verify(catalogMgr, times(1)).hit_count(any(Query.class), any(NameValue[].class));
+    }
+
+    @Test
+    public void testExactHitCountOnlyWhenRequested() throws Exception {
+        stubPagedResults(5);
+
+        QueryImpl query = getPagedQuery(1, 2);
+        query.setRequestsTotalResultsCount(false);
+        source.query(new QueryRequestImpl(query));
+
+        verify(catalogMgr, never()).hit_count(any(Query.class), any(NameValue[].class));
+    }
+
+    @Test
+    public void testExactHitCountForEveryQuery() throws Exception {
+        source.setRequestExactHitCount(true);
+        stubPagedResults(5);
+
+        QueryImpl query = getPagedQuery(1, 2);
+        query.setRequestsTotalResultsCount(false);
+        SourceResponse sourceResponse = source.query(new QueryRequestImpl(query));
+
+        assertThat(sourceResponse.getHits(), is(LONG));
+        verify(catalogMgr, times(1)).hit_count(any(Query.class), any(NameValue[].class));
+    }
+
+    @Test
+    public void testStartIndexSkipsEarlierResults() throws Exception {
+        SubmitQueryRequest submitQueryRequest = stubPagedResults(10);
+
+        source.query(new QueryRequestImpl(getPagedQuery(4, 2)));
+
+        InOrder inOrder = inOrder(submitQueryRequest);
+        inOrder.verify(submitQueryRequest)
+                .set_number_of_hits(3);
+        inOrder.verify(submitQueryRequest)
+                .complete_DAG_results(any(DAGListHolder.class));
+        inOrder.verify(submitQueryRequest)
+                .set_number_of_hits(2);
+        inOrder.verify(submitQueryRequest)
+                .complete_DAG_results(any(DAGListHolder.class));
+    }
+
+    @Test
+    public void testPagingSessionsDisabled() throws Exception {
+        source.setPagingSessionTimeout(0);
+        SubmitQueryRequest submitQueryRequest = stubPagedResults(5);
+
+        source.query(new QueryRequestImpl(getPagedQuery(1, 2)));
+        source.query(new QueryRequestImpl(getPagedQuery(3, 2)));
+
+        verify(catalogMgr, times(2)).submit_query(any(Query.class),
+                any(String[].class),
+                any(SortAttribute[].class),
+                any(NameValue[].class));
+        verify(submitQueryRequest).cancel();
+    }
+
+    @Test
+    public void testFailedPageCancelsSession() throws Exception {
+        SubmitQueryRequest submitQueryRequest = stubPagedResults(5);
+        source.query(new QueryRequestImpl(getPagedQuery(1, 2)));
+
+        doThrow(new ProcessingFault()).when(submitQueryRequest)
+                .complete_DAG_results(any(DAGListHolder.class));
+        source.query(new QueryRequestImpl(getPagedQuery(3, 2)));
+        verify(submitQueryRequest).cancel();
+
+        source.query(new QueryRequestImpl(getPagedQuery(3, 2)));
+        verify(catalogMgr, times(2)).submit_query(any(Query.class),
+                any(String[].class),
+                any(SortAttribute[].class),
+                any(NameValue[].class));
+    }
+
+    private QueryImpl getPagedQuery(int startIndex, int pageSize) {
+        QueryImpl query = new QueryImpl(builder.attribute(Metacard.CONTENT_TYPE)
+                .is()
+                .equalTo()
+                .text(GMTI));
+        query.setStartIndex(startIndex);
+        query.setPageSize(pageSize);
+        query.setRequestsTotalResultsCount(false);
+        return query;
+    }
+
+    /* Mimics the endpoint, where each complete_DAG_results call returns the next window. */
+    private SubmitQueryRequest stubPagedResults(int totalResults) throws Exception {
+        AtomicInteger windowSize = new AtomicInteger();
+        AtomicInteger returned = new AtomicInteger();
+        SubmitQueryRequest submitQueryRequest = mock(SubmitQueryRequest.class);
+        doAnswer((InvocationOnMock invocationOnMock) -> {
+            windowSize.set((Integer) invocationOnMock.getArguments()[0]);
+            return null;
+        }).when(submitQueryRequest)
+                .set_number_of_hits(anyInt());
+        when(submitQueryRequest.complete_DAG_results(any(DAGListHolder.class))).thenAnswer((InvocationOnMock invocationOnMock) -> {
+            DAGListHolder dagListHolder = (DAGListHolder) invocationOnMock.getArguments()[0];
+            int numResults = Math.min(windowSize.get(), totalResults - returned.get());
+            returned.addAndGet(numResults);
+            dagListHolder.value = new DAG[numResults];
+            Arrays.setAll(dagListHolder.value, i -> new DAG());
+            return State.COMPLETED;
+        });
+        doReturn(submitQueryRequest).when(catalogMgr)
+                .submit_query(any(Query.class),
+                        any(String[].class),
+                        any(SortAttribute[].class),
+                        any(NameValue[].class));
+        return submitQueryRequest;
+    }
+
+    private void stubDagResults(Answer<State> answer) throws Exception {
+        SubmitQueryRequest submitQueryRequest = mock(SubmitQueryRequest.class);
+        when(submitQueryRequest.complete_DAG_results(any(DAGListHolder.class))).thenAnswer((InvocationOnMock invocationOnMock) -> {
+            DAGListHolder dagListHolder = (DAGListHolder) invocationOnMock.getArguments()[0];
+            dagListHolder.value = new DAG[0];
+            return answer.answer(invocationOnMock);
+        });
+        doReturn(submitQueryRequest).when(catalogMgr)
+                .submit_query(any(Query.class),
+                        any(String[].class),
+                        any(SortAttribute[].class),
+                        any(NameValue[].class));
+    }
+
+    private void runQueries(int numQueries) throws Exception {
+        QueryImpl query = new QueryImpl(builder.attribute(Metacard.CONTENT_TYPE)
+                .is()
+                .equalTo()
+                .text(GMTI));
+
+        List<Callable<SourceResponse>> queries = new ArrayList<>();
+        for (int i = 0; i < numQueries; i++) {
+            queries.add(() -> source.query(new QueryRequestImpl(query)));
+        }
+
+        ExecutorService queryExecutor = Executors.newFixedThreadPool(numQueries);
+        try {
+            for (Future<SourceResponse> future : queryExecutor.invokeAll(queries)) {
+                assertThat(future.get(10, TimeUnit.SECONDS) != null, is(true));
+            }
+        } finally {
+            queryExecutor.shutdownNow();
+        }
+    }
+
     private NsiliSource buildSource() throws Exception {
         NsiliSource source;
         Nsili nsili = mock(Nsili.class);
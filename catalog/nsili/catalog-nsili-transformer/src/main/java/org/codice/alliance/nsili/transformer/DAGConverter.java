@@ -13,17 +13,16 @@
  */
 package org.codice.alliance.nsili.transformer;
 
-import java.io.IOException;
 import java.io.Serializable;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 import org.apache.commons.lang.StringUtils;
@@ -69,9 +68,6 @@ import ddf.catalog.data.types.Core;
 import ddf.catalog.data.types.DateTime;
 import ddf.catalog.data.types.Location;
 import ddf.catalog.data.types.Media;
-import ddf.catalog.operation.ResourceResponse;
-import ddf.catalog.resource.ResourceNotFoundException;
-import ddf.catalog.resource.ResourceNotSupportedException;
 import ddf.catalog.resource.ResourceReader;
 
 public class DAGConverter {
@@ -94,6 +90,12 @@ public class DAGConverter {
 
     private MetacardType nsiliMetacardType;
 
+    private ThumbnailPrefetcher thumbnailPrefetcher;
+
+    private String thumbnailUrl;
+
+    private CompletableFuture<byte[]> pendingThumbnail;
+
     public DAGConverter(ResourceReader resourceReader) {
         this.resourceReader = resourceReader;
     }
@@ -102,10 +104,31 @@ public class DAGConverter {
         this.nsiliMetacardType = nsiliMetacardType;
     }
 
+    /**
+     * Sets the prefetcher used to retrieve thumbnails. When set, conversion no longer waits for
+     * thumbnails: cached thumbnails are set on the metacard and any other thumbnail is retrieved in
+     * the background and made available through {@link #getPendingThumbnail()}. A thumbnail that
+     * is retrieved after the caller stopped waiting for it is set by the next conversion of the
+     * same product.
+     */
+    public void setThumbnailPrefetcher(ThumbnailPrefetcher thumbnailPrefetcher) {
+        this.thumbnailPrefetcher = thumbnailPrefetcher;
+    }
+
+    /**
+     * @return the background retrieval of the last converted metacard's thumbnail, or null if
+     * there is none
+     */
+    public CompletableFuture<byte[]> getPendingThumbnail() {
+        return pendingThumbnail;
+    }
+
     public MetacardImpl convertDAG(DAG dag, boolean swapCoordinates, String logSourceId) {
         MetacardImpl metacard = null;
         sourceId = logSourceId;
         String metadata;
+        thumbnailUrl = null;
+        pendingThumbnail = null;
 
         //Need to have at least 2 nodes and an edge for anything useful
         if (dag.nodes != null && dag.edges != null) {
@@ -127,6 +150,7 @@ public class DAGConverter {
 
             metacard = parseGraph(graph, swapCoordinates);
             metacard.setSourceId(sourceId);
+            prefetchThumbnail(metacard);
 
             metadata = dagToXML(dag);
             metacard.setMetadata(metadata);
@@ -668,7 +692,7 @@ public class DAGConverter {
             relatedFileType = getString(node.value);
             if (StringUtils.isNotBlank(relatedFileUrl)) {
                 if (relatedFileType.equalsIgnoreCase(NsiliConstants.THUMBNAIL_TYPE)) {
-                    metacard.setThumbnail(getThumbnail(relatedFileUrl));
+                    setThumbnail(metacard, relatedFileUrl);
                 }
             }
             break;
@@ -676,7 +700,7 @@ public class DAGConverter {
             relatedFileUrl = getString(node.value);
             if (relatedFileType.equalsIgnoreCase(NsiliConstants.THUMBNAIL_TYPE)) {
                 if (StringUtils.isNotBlank(relatedFileUrl)) {
-                    metacard.setThumbnail(getThumbnail(relatedFileUrl));
+                    setThumbnail(metacard, relatedFileUrl);
                 }
             }
             break;
@@ -847,24 +871,26 @@ public class DAGConverter {
                 .collect(Collectors.joining(", "));
     }
 
-    private byte[] getThumbnail(String thumbnailUrlStr) {
-        byte[] thumbnail = null;
+    private void setThumbnail(MetacardImpl metacard, String url) {
+        if (thumbnailPrefetcher == null) {
+            metacard.setThumbnail(ThumbnailPrefetcher.retrieveThumbnail(resourceReader, url));
+        } else {
+            thumbnailUrl = url;
+        }
+    }
 
-        try {
-            URI thumbnailURI = new URI(thumbnailUrlStr);
-            ResourceResponse resourceResponse = null;
-            try {
-                resourceResponse = resourceReader.retrieveResource(thumbnailURI, new HashMap<>());
-                thumbnail = resourceResponse.getResource()
-                        .getByteArray();
-            } catch (ResourceNotSupportedException e) {
-                LOGGER.debug("Resource is not supported: {} ", thumbnailURI, e);
-            }
-        } catch (IOException | ResourceNotFoundException | URISyntaxException e) {
-            LOGGER.debug("Unable to get thumbnail from URL {}", thumbnailUrlStr, e);
+    /* The product id is only known once the whole graph is parsed, so the fetch starts here. */
+    private void prefetchThumbnail(MetacardImpl metacard) {
+        if (thumbnailPrefetcher == null || thumbnailUrl == null) {
+            return;
         }
 
-        return thumbnail;
+        byte[] thumbnail = thumbnailPrefetcher.getCachedThumbnail(metacard.getId(), thumbnailUrl);
+        if (thumbnail != null) {
+            metacard.setThumbnail(thumbnail);
+        } else {
+            pendingThumbnail = thumbnailPrefetcher.prefetch(metacard.getId(), thumbnailUrl);
+        }
     }
 
     private void addDescription(Metacard metacard, String description) {
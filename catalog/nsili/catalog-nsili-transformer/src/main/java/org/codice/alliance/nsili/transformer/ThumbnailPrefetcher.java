@@ -0,0 +1,198 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p/>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p/>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.nsili.transformer;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ddf.catalog.operation.ResourceResponse;
+import ddf.catalog.resource.ResourceNotFoundException;
+import ddf.catalog.resource.ResourceNotSupportedException;
+import ddf.catalog.resource.ResourceReader;
+
+/**
+ * Retrieves result thumbnails in the background so DAG conversion does not wait on a remote
+ * fetch for every result. Fetches run on a fixed number of threads, concurrent requests for the
+ * same thumbnail share a single fetch, and retrieved thumbnails are kept in a bounded LRU cache
+ * keyed by product id and thumbnail URL. A thumbnail that is retrieved after its query stopped
+ * waiting for it is still cached, so the next conversion of the same product attaches it. Cached
+ * thumbnails expire after a time to live, so a thumbnail changed on the server is eventually
+ * retrieved again.
+ */
+public class ThumbnailPrefetcher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ThumbnailPrefetcher.class);
+
+    private static final int DEFAULT_MAX_CACHE_ENTRIES = 1000;
+
+    public static final long DEFAULT_CACHE_TTL_SEC = TimeUnit.MINUTES.toSeconds(10);
+
+    private final ResourceReader resourceReader;
+
+    private final ExecutorService executorService;
+
+    private final Map<String, CompletableFuture<byte[]>> inFlight = new ConcurrentHashMap<>();
+
+    private final Map<String, CachedThumbnail> thumbnails;
+
+    private final long cacheTtlMillis;
+
+    private final LongSupplier clock;
+
+    public ThumbnailPrefetcher(ResourceReader resourceReader, int maxParallelism) {
+        this(resourceReader, maxParallelism, DEFAULT_MAX_CACHE_ENTRIES);
+    }
+
+    public ThumbnailPrefetcher(ResourceReader resourceReader, int maxParallelism,
+            int maxCacheEntries) {
+        this(resourceReader,
+                maxParallelism,
+                maxCacheEntries,
+                DEFAULT_CACHE_TTL_SEC,
+                System::currentTimeMillis);
+    }
+
+    ThumbnailPrefetcher(ResourceReader resourceReader, int maxParallelism, int maxCacheEntries,
+            long cacheTtlSec, LongSupplier clock) {
+        this.resourceReader = resourceReader;
+        this.executorService = Executors.newFixedThreadPool(Math.max(1, maxParallelism));
+        this.cacheTtlMillis = TimeUnit.SECONDS.toMillis(Math.max(1, cacheTtlSec));
+        this.clock = clock;
+        this.thumbnails = new LinkedHashMap<String, CachedThumbnail>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedThumbnail> eldest) {
+                return size() > maxCacheEntries;
+            }
+        };
+    }
+
+    /**
+     * @return the cached thumbnail, or null if it has not been retrieved yet or has expired
+     */
+    public byte[] getCachedThumbnail(String productId, String thumbnailUrl) {
+        String key = getKey(productId, thumbnailUrl);
+        synchronized (thumbnails) {
+            CachedThumbnail cached = thumbnails.get(key);
+            if (cached == null) {
+                return null;
+            }
+            if (cached.expirationTime <= clock.getAsLong()) {
+                thumbnails.remove(key);
+                return null;
+            }
+            return cached.thumbnail;
+        }
+    }
+
+    /**
+     * Starts retrieving a thumbnail unless it is already cached or being retrieved. The returned
+     * future completes with null if the thumbnail could not be retrieved; it never completes
+     * exceptionally.
+     */
+    public CompletableFuture<byte[]> prefetch(String productId, String thumbnailUrl) {
+        String key = getKey(productId, thumbnailUrl);
+        byte[] cached = getCachedThumbnail(productId, thumbnailUrl);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        CompletableFuture<byte[]> fetch = new CompletableFuture<>();
+        CompletableFuture<byte[]> existing = inFlight.putIfAbsent(key, fetch);
+        if (existing != null) {
+            return existing;
+        }
+
+        try {
+            executorService.execute(() -> {
+                byte[] thumbnail = null;
+                try {
+                    thumbnail = retrieveThumbnail(resourceReader, thumbnailUrl);
+                    if (thumbnail != null) {
+                        long expirationTime = clock.getAsLong() + cacheTtlMillis;
+                        synchronized (thumbnails) {
+                            thumbnails.put(key, new CachedThumbnail(thumbnail, expirationTime));
+                        }
+                    }
+                } catch (RuntimeException e) {
+                    LOGGER.debug("Unable to get thumbnail from URL {}", thumbnailUrl, e);
+                } finally {
+                    inFlight.remove(key, fetch);
+                    fetch.complete(thumbnail);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            LOGGER.debug("Unable to schedule thumbnail retrieval for {}", thumbnailUrl, e);
+            inFlight.remove(key, fetch);
+            fetch.complete(null);
+        }
+        return fetch;
+    }
+
+    public void shutdown() {
+        executorService.shutdownNow();
+        inFlight.values()
+                .forEach(fetch -> fetch.complete(null));
+        inFlight.clear();
+    }
+
+    static byte[] retrieveThumbnail(ResourceReader resourceReader, String thumbnailUrlStr) {
+        byte[] thumbnail = null;
+
+        try {
+            URI thumbnailURI = new URI(thumbnailUrlStr);
+            ResourceResponse resourceResponse = null;
+            try {
+                resourceResponse = resourceReader.retrieveResource(thumbnailURI, new HashMap<>());
+                thumbnail = resourceResponse.getResource()
+                        .getByteArray();
+            } catch (ResourceNotSupportedException e) {
+                LOGGER.debug("Resource is not supported: {} ", thumbnailURI, e);
+            }
+        } catch (IOException | ResourceNotFoundException | URISyntaxException e) {
+            LOGGER.debug("Unable to get thumbnail from URL {}", thumbnailUrlStr, e);
+        }
+
+        return thumbnail;
+    }
+
+    private static String getKey(String productId, String thumbnailUrl) {
+        return productId + "|" + thumbnailUrl;
+    }
+
+    private static class CachedThumbnail {
+
+        private final byte[] thumbnail;
+
+        private final long expirationTime;
+
+        CachedThumbnail(byte[] thumbnail, long expirationTime) {
+            this.thumbnail = thumbnail;
+            this.expirationTime = expirationTime;
+        }
+    }
+}
@@ -17,11 +17,15 @@ import static org.hamcrest.CoreMatchers.hasItem;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Matchers.anyMap;
 import static org.mockito.Matchers.anyObject;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 import java.io.File;
 import java.io.IOException;
@@ -34,6 +38,9 @@ import java.util.GregorianCalendar;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import org.codice.alliance.catalog.core.api.impl.types.IsrAttributes;
@@ -94,6 +101,7 @@ import ddf.catalog.data.types.Location;
 import ddf.catalog.data.types.Media;
 import ddf.catalog.operation.ResourceResponse;
 import ddf.catalog.resource.Resource;
+import ddf.catalog.resource.ResourceReader;
 import ddf.catalog.resource.impl.URLResourceReader;
 
 public class DAGConverterTest {
@@ -282,6 +290,8 @@ public class DAGConverterTest {
 
     private static final boolean SHOULD_PRINT_CARD = false;
 
+    private static final byte[] THUMBNAIL_BYTES = "TEST RETURN".getBytes();
+
     @Before
     public void setUp() throws Exception {
         this.orb = ORB.init();
@@ -842,6 +852,92 @@ public class DAGConverterTest {
         checkCoverageAttributes(metacard);
     }
 
+    @Test
+    public void testThumbnailPrefetch() throws Exception {
+        ThumbnailPrefetcher thumbnailPrefetcher = new ThumbnailPrefetcher(mockResourceReader, 2);
+        dagConverter.setThumbnailPrefetcher(thumbnailPrefetcher);
+
+        try {
+            MetacardImpl metacard = dagConverter.convertDAG(createThumbnailDAG(), false, SOURCE_ID);
+            assertThat(metacard.getThumbnail(), nullValue());
+            assertThat(dagConverter.getPendingThumbnail()
+                    .get(5, TimeUnit.SECONDS), is(THUMBNAIL_BYTES));
+
+            MetacardImpl cachedMetacard = dagConverter.convertDAG(createThumbnailDAG(),
+                    false,
+                    SOURCE_ID);
+            assertThat(cachedMetacard.getThumbnail(), is(THUMBNAIL_BYTES));
+            assertThat(dagConverter.getPendingThumbnail(), nullValue());
+            verify(mockResourceReader, times(1)).retrieveResource(anyObject(), anyMap());
+        } finally {
+            thumbnailPrefetcher.shutdown();
+        }
+    }
+
+    @Test
+    public void testLateThumbnailIsAttachedOnLaterConversion() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        ResourceReader slowResourceReader = mock(ResourceReader.class);
+        ResourceResponse thumbnailResponse = createThumbnailResponse();
+        doAnswer(invocationOnMock -> {
+            release.await(5, TimeUnit.SECONDS);
+            return thumbnailResponse;
+        }).when(slowResourceReader)
+                .retrieveResource(anyObject(), anyMap());
+        ThumbnailPrefetcher thumbnailPrefetcher = new ThumbnailPrefetcher(slowResourceReader, 2);
+        dagConverter.setThumbnailPrefetcher(thumbnailPrefetcher);
+
+        try {
+            MetacardImpl metacard = dagConverter.convertDAG(createThumbnailDAG(), false, SOURCE_ID);
+            CompletableFuture<byte[]> pendingThumbnail = dagConverter.getPendingThumbnail();
+            assertThat(metacard.getThumbnail(), nullValue());
+            assertThat(pendingThumbnail.isDone(), is(false));
+
+            MetacardImpl inFlightMetacard = dagConverter.convertDAG(createThumbnailDAG(),
+                    false,
+                    SOURCE_ID);
+            assertThat(inFlightMetacard.getThumbnail(), nullValue());
+            assertThat(dagConverter.getPendingThumbnail(), is(sameInstance(pendingThumbnail)));
+
+            release.countDown();
+            pendingThumbnail.get(5, TimeUnit.SECONDS);
+
+            MetacardImpl laterMetacard = dagConverter.convertDAG(createThumbnailDAG(),
+                    false,
+                    SOURCE_ID);
+            assertThat(laterMetacard.getThumbnail(), is(THUMBNAIL_BYTES));
+            assertThat(dagConverter.getPendingThumbnail(), nullValue());
+            verify(slowResourceReader, times(1)).retrieveResource(anyObject(), anyMap());
+        } finally {
+            release.countDown();
+            thumbnailPrefetcher.shutdown();
+        }
+    }
+
+    @Test
+    public void testThumbnailWithoutPrefetcher() throws Exception {
+        MetacardImpl metacard = dagConverter.convertDAG(createThumbnailDAG(), false, SOURCE_ID);
+
+        assertThat(metacard.getThumbnail(), is(THUMBNAIL_BYTES));
+        assertThat(dagConverter.getPendingThumbnail(), nullValue());
+    }
+
+    private DAG createThumbnailDAG() {
+        DAG dag = new DAG();
+        DirectedAcyclicGraph<Node, Edge> graph = new DirectedAcyclicGraph<>(Edge.class);
+
+        Node productNode = createRootNode();
+        graph.addVertex(productNode);
+        addCardNode(graph, productNode);
+        addRelatedFile(graph, productNode);
+
+        NsiliCommonUtils.setUCOEdgeIds(graph);
+        NsiliCommonUtils.setUCOEdges(productNode, graph);
+        dag.edges = NsiliCommonUtils.getEdgeArrayFromGraph(graph);
+        dag.nodes = NsiliCommonUtils.getNodeArrayFromGraph(graph);
+        return dag;
+    }
+
     @Test
     public void testOnlyRootNodeDAG() {
         DAG dag = new DAG();
@@ -2798,7 +2894,13 @@ public class DAGConverterTest {
     }
 
     private void setupMocks() throws Exception {
-        byte[] testReturn = "TEST RETURN".getBytes();
+        ResourceResponse mockResponse = createThumbnailResponse();
+        doReturn(mockResponse).when(mockResourceReader)
+                .retrieveResource(anyObject(), anyMap());
+    }
+
+    private ResourceResponse createThumbnailResponse() throws Exception {
+        byte[] testReturn = THUMBNAIL_BYTES;
         Resource mockResource = mock(Resource.class);
         ResourceResponse mockResponse = mock(ResourceResponse.class);
         doReturn(Long.valueOf(testReturn.length)).when(mockResource)
@@ -2807,8 +2909,7 @@ public class DAGConverterTest {
                 .getByteArray();
         doReturn(mockResource).when(mockResponse)
                 .getResource();
-        doReturn(mockResponse).when(mockResourceReader)
-                .retrieveResource(anyObject(), anyMap());
+        return mockResponse;
     }
 
     private void removeNode(Graph<Node, Edge> graph, String nodeName) {
@@ -0,0 +1,242 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p/>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p/>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.nsili.transformer;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyMap;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+
+import com.sun.net.httpserver.HttpServer;
+
+import ddf.catalog.operation.ResourceResponse;
+import ddf.catalog.resource.Resource;
+import ddf.catalog.resource.ResourceNotFoundException;
+import ddf.catalog.resource.ResourceReader;
+
+public class ThumbnailPrefetcherTest {
+
+    private static final String PRODUCT_ID = "productId";
+
+    private static final String THUMBNAIL_URL = "http://localhost/thumbnail.jpg";
+
+    private static final byte[] THUMBNAIL_BYTES = "THUMBNAIL".getBytes();
+
+    private ResourceReader resourceReader = mock(ResourceReader.class);
+
+    private ThumbnailPrefetcher thumbnailPrefetcher;
+
+    private HttpServer httpServer;
+
+    @Before
+    public void setUp() {
+        thumbnailPrefetcher = new ThumbnailPrefetcher(resourceReader, 2);
+    }
+
+    @After
+    public void tearDown() {
+        thumbnailPrefetcher.shutdown();
+        if (httpServer != null) {
+            httpServer.stop(0);
+        }
+    }
+
+    @Test
+    public void testPrefetchedThumbnailIsCached() throws Exception {
+        doReturn(createResponse(THUMBNAIL_BYTES)).when(resourceReader)
+                .retrieveResource(any(URI.class), anyMap());
+
+        assertThat(thumbnailPrefetcher.getCachedThumbnail(PRODUCT_ID, THUMBNAIL_URL), nullValue());
+        assertThat(thumbnailPrefetcher.prefetch(PRODUCT_ID, THUMBNAIL_URL)
+                .get(5, TimeUnit.SECONDS), is(THUMBNAIL_BYTES));
+        assertThat(thumbnailPrefetcher.getCachedThumbnail(PRODUCT_ID, THUMBNAIL_URL),
+                is(THUMBNAIL_BYTES));
+        assertThat(thumbnailPrefetcher.prefetch(PRODUCT_ID, THUMBNAIL_URL)
+                .isDone(), is(true));
+
+        verify(resourceReader, times(1)).retrieveResource(any(URI.class), anyMap());
+    }
+
+    @Test
+    public void testConcurrentRequestsShareFetch() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(resourceReader.retrieveResource(any(URI.class), anyMap())).thenAnswer((InvocationOnMock invocationOnMock) -> {
+            release.await(5, TimeUnit.SECONDS);
+            return createResponse(THUMBNAIL_BYTES);
+        });
+
+        CompletableFuture<byte[]> first = thumbnailPrefetcher.prefetch(PRODUCT_ID, THUMBNAIL_URL);
+        CompletableFuture<byte[]> second = thumbnailPrefetcher.prefetch(PRODUCT_ID, THUMBNAIL_URL);
+        assertThat(second, is(sameInstance(first)));
+
+        release.countDown();
+        assertThat(first.get(5, TimeUnit.SECONDS), is(THUMBNAIL_BYTES));
+        verify(resourceReader, times(1)).retrieveResource(any(URI.class), anyMap());
+    }
+
+    @Test
+    public void testParallelismIsBounded() throws Exception {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        when(resourceReader.retrieveResource(any(URI.class), anyMap())).thenAnswer((InvocationOnMock invocationOnMock) -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            Thread.sleep(20);
+            inFlight.decrementAndGet();
+            return createResponse(THUMBNAIL_BYTES);
+        });
+
+        List<CompletableFuture<byte[]>> fetches = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            fetches.add(thumbnailPrefetcher.prefetch(PRODUCT_ID + i, THUMBNAIL_URL));
+        }
+        for (CompletableFuture<byte[]> fetch : fetches) {
+            assertThat(fetch.get(5, TimeUnit.SECONDS), is(THUMBNAIL_BYTES));
+        }
+
+        assertThat(maxInFlight.get(), lessThanOrEqualTo(2));
+    }
+
+    @Test
+    public void testLateThumbnailIsCachedForLaterRequest() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(resourceReader.retrieveResource(any(URI.class), anyMap())).thenAnswer((InvocationOnMock invocationOnMock) -> {
+            release.await(5, TimeUnit.SECONDS);
+            return createResponse(THUMBNAIL_BYTES);
+        });
+
+        CompletableFuture<byte[]> fetch = thumbnailPrefetcher.prefetch(PRODUCT_ID, THUMBNAIL_URL);
+        assertThat(fetch.getNow(null), nullValue());
+
+        release.countDown();
+        fetch.get(5, TimeUnit.SECONDS);
+
+        assertThat(thumbnailPrefetcher.getCachedThumbnail(PRODUCT_ID, THUMBNAIL_URL),
+                is(THUMBNAIL_BYTES));
+        verify(resourceReader, times(1)).retrieveResource(any(URI.class), anyMap());
+    }
+
+    @Test
+    public void testCachedThumbnailExpires() throws Exception {
+        AtomicLong clock = new AtomicLong(1000);
+        thumbnailPrefetcher.shutdown();
+        thumbnailPrefetcher = new ThumbnailPrefetcher(resourceReader, 2, 10, 60, clock::get);
+        doReturn(createResponse(THUMBNAIL_BYTES)).when(resourceReader)
+                .retrieveResource(any(URI.class), anyMap());
+
+        thumbnailPrefetcher.prefetch(PRODUCT_ID, THUMBNAIL_URL)
+                .get(5, TimeUnit.SECONDS);
+        clock.addAndGet(TimeUnit.SECONDS.toMillis(59));
+        assertThat(thumbnailPrefetcher.getCachedThumbnail(PRODUCT_ID, THUMBNAIL_URL),
+                is(THUMBNAIL_BYTES));
+
+        clock.addAndGet(TimeUnit.SECONDS.toMillis(1));
+        assertThat(thumbnailPrefetcher.getCachedThumbnail(PRODUCT_ID, THUMBNAIL_URL), nullValue());
+        assertThat(thumbnailPrefetcher.prefetch(PRODUCT_ID, THUMBNAIL_URL)
+                .get(5, TimeUnit.SECONDS), is(THUMBNAIL_BYTES));
+        verify(resourceReader, times(2)).retrieveResource(any(URI.class), anyMap());
+    }
+
+    @Test
+    public void testFailedFetchIsNotCached() throws Exception {
+        when(resourceReader.retrieveResource(any(URI.class),
+                anyMap())).thenThrow(new ResourceNotFoundException("not found"));
+
+        assertThat(thumbnailPrefetcher.prefetch(PRODUCT_ID, THUMBNAIL_URL)
+                .get(5, TimeUnit.SECONDS), nullValue());
+        assertThat(thumbnailPrefetcher.getCachedThumbnail(PRODUCT_ID, THUMBNAIL_URL), nullValue());
+    }
+
+    @Test
+    public void testPrefetchFromHttpServer() throws Exception {
+        AtomicInteger requests = new AtomicInteger();
+        httpServer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        httpServer.createContext("/thumbnail.jpg", exchange -> {
+            requests.incrementAndGet();
+            exchange.sendResponseHeaders(200, THUMBNAIL_BYTES.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(THUMBNAIL_BYTES);
+            }
+        });
+        httpServer.start();
+        String url = "http://localhost:" + httpServer.getAddress()
+                .getPort() + "/thumbnail.jpg";
+
+        when(resourceReader.retrieveResource(any(URI.class), anyMap())).thenAnswer((InvocationOnMock invocationOnMock) -> {
+            URI uri = (URI) invocationOnMock.getArguments()[0];
+            try (InputStream inputStream = uri.toURL()
+                    .openStream()) {
+                return createResponse(readFully(inputStream));
+            }
+        });
+
+        List<CompletableFuture<byte[]>> fetches = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            fetches.add(thumbnailPrefetcher.prefetch(PRODUCT_ID, url));
+        }
+        for (CompletableFuture<byte[]> fetch : fetches) {
+            assertThat(fetch.get(5, TimeUnit.SECONDS), is(THUMBNAIL_BYTES));
+        }
+        thumbnailPrefetcher.prefetch(PRODUCT_ID, url)
+                .get(5, TimeUnit.SECONDS);
+
+        assertThat(requests.get(), is(1));
+    }
+
+    private static ResourceResponse createResponse(byte[] bytes) throws IOException {
+        Resource resource = mock(Resource.class);
+        doReturn(bytes).when(resource)
+                .getByteArray();
+        ResourceResponse resourceResponse = mock(ResourceResponse.class);
+        doReturn(resource).when(resourceResponse)
+                .getResource();
+        return resourceResponse;
+    }
+
+    private static byte[] readFully(InputStream inputStream) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        int read;
+        while ((read = inputStream.read(buffer)) != -1) {
+            outputStream.write(buffer, 0, read);
+        }
+        return outputStream.toByteArray();
+    }
+}
@@ -0,0 +1,181 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.nsili.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Benchmark settings, parsed from arguments in the format {@code key=value,key=value}. The
+ * defaults are used for results that are compared from release to release, so they should not
+ * be changed lightly.
+ */
+public class BenchmarkConfiguration {
+
+    private List<String> targets = Arrays.asList("endpoint", "mock");
+
+    private List<Workload> workloads = Arrays.asList(Workload.values());
+
+    private int threads = 8;
+
+    private int warmupSec = 10;
+
+    private int durationSec = 30;
+
+    private int records = 1000;
+
+    private int pageSize = 100;
+
+    private int productSize = 64 * 1024;
+
+    private int standingQueryFrequencySec = 1;
+
+    private int maxConcurrentRequests = 0;
+
+    private String label = "local";
+
+    private String output = "nsili-benchmark-results.csv";
+
+    public static BenchmarkConfiguration parse(String[] args) {
+        BenchmarkConfiguration configuration = new BenchmarkConfiguration();
+        if (args.length == 0) {
+            return configuration;
+        }
+
+        for (String argument : String.join(",", args)
+                .split(",")) {
+            String[] parts = argument.split("=", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected key=value but was: " + argument);
+            }
+            configuration.set(parts[0].trim(), parts[1].trim());
+        }
+        return configuration;
+    }
+
+    private void set(String key, String value) {
+        switch (key) {
+        case "target":
+            targets = "both".equalsIgnoreCase(value) ?
+                    Arrays.asList("endpoint", "mock") :
+                    Arrays.asList(value.split("\\+"));
+            break;
+        case "workloads":
+            workloads = Arrays.stream(value.split("\\+"))
+                    .map(Workload::fromArgumentName)
+                    .collect(Collectors.toList());
+            break;
+        case "threads":
+            threads = parsePositive(key, value);
+            break;
+        case "warmup":
+            warmupSec = Integer.parseInt(value);
+            break;
+        case "duration":
+            durationSec = parsePositive(key, value);
+            break;
+        case "records":
+            records = parsePositive(key, value);
+            break;
+        case "pageSize":
+            pageSize = parsePositive(key, value);
+            break;
+        case "productSize":
+            productSize = parsePositive(key, value);
+            break;
+        case "standingQueryFrequency":
+            standingQueryFrequencySec = parsePositive(key, value);
+            break;
+        case "maxConcurrentRequests":
+            maxConcurrentRequests = Integer.parseInt(value);
+            break;
+        case "label":
+            label = value;
+            break;
+        case "output":
+            output = value;
+            break;
+        default:
+            throw new IllegalArgumentException("Unknown argument: " + key);
+        }
+    }
+
+    private static int parsePositive(String key, String value) {
+        int parsed = Integer.parseInt(value);
+        if (parsed <= 0) {
+            throw new IllegalArgumentException(key + " must be greater than 0");
+        }
+        return parsed;
+    }
+
+    public List<BenchmarkTarget> createTargets() {
+        List<BenchmarkTarget> benchmarkTargets = new ArrayList<>();
+        for (String target : targets) {
+            if ("endpoint".equalsIgnoreCase(target)) {
+                benchmarkTargets.add(new EndpointTarget(this));
+            } else if ("mock".equalsIgnoreCase(target)) {
+                benchmarkTargets.add(new MockServerTarget(this));
+            } else {
+                throw new IllegalArgumentException("Unknown target: " + target);
+            }
+        }
+        return benchmarkTargets;
+    }
+
+    public List<Workload> getWorkloads() {
+        return workloads;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public int getWarmupSec() {
+        return warmupSec;
+    }
+
+    public int getDurationSec() {
+        return durationSec;
+    }
+
+    public int getRecords() {
+        return records;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public int getProductSize() {
+        return productSize;
+    }
+
+    public int getStandingQueryFrequencySec() {
+        return standingQueryFrequencySec;
+    }
+
+    public int getMaxConcurrentRequests() {
+        return maxConcurrentRequests;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public String getOutput() {
+        return output;
+    }
+}
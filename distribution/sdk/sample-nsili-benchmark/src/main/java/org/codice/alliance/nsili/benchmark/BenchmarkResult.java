@@ -0,0 +1,141 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.nsili.benchmark;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The latencies and throughput of one workload against one target.
+ */
+public class BenchmarkResult {
+
+    public static final String CSV_HEADER =
+            "timestamp,label,java,target,workload,threads,records,pageSize,productSize,"
+                    + "durationSec,operations,errors,throughputPerSec,minMs,meanMs,p50Ms,p90Ms,"
+                    + "p99Ms,p999Ms,maxMs";
+
+    public static final String TABLE_HEADER = String.format(Locale.ROOT,
+            "%-9s %-14s %9s %7s %10s %9s %9s %9s %9s %9s %9s",
+            "target",
+            "workload",
+            "ops",
+            "errors",
+            "ops/sec",
+            "mean ms",
+            "p50 ms",
+            "p90 ms",
+            "p99 ms",
+            "p99.9 ms",
+            "max ms");
+
+    private final String target;
+
+    private final Workload workload;
+
+    private final long durationNanos;
+
+    private final int operations;
+
+    private final int errors;
+
+    private final long[] sortedLatencies;
+
+    private final double meanNanos;
+
+    public BenchmarkResult(String target, Workload workload, long durationNanos,
+            LatencyRecorder recorder) {
+        this.target = target;
+        this.workload = workload;
+        this.durationNanos = durationNanos;
+        this.operations = recorder.getCount();
+        this.errors = recorder.getErrors();
+        this.sortedLatencies = recorder.getSortedLatencies();
+
+        long total = 0;
+        for (long latency : sortedLatencies) {
+            total += latency;
+        }
+        this.meanNanos = sortedLatencies.length == 0 ? 0 : (double) total / sortedLatencies.length;
+    }
+
+    public String getTarget() {
+        return target;
+    }
+
+    public Workload getWorkload() {
+        return workload;
+    }
+
+    public int getOperations() {
+        return operations;
+    }
+
+    public int getErrors() {
+        return errors;
+    }
+
+    public double getThroughput() {
+        return operations / (durationNanos / (double) TimeUnit.SECONDS.toNanos(1));
+    }
+
+    public double getPercentileMillis(double percentile) {
+        return toMillis(LatencyRecorder.percentile(sortedLatencies, percentile));
+    }
+
+    public String toTableRow() {
+        return String.format(Locale.ROOT,
+                "%-9s %-14s %9d %7d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f %9.2f",
+                target,
+                workload.getArgumentName(),
+                operations,
+                errors,
+                getThroughput(),
+                toMillis(meanNanos),
+                getPercentileMillis(50),
+                getPercentileMillis(90),
+                getPercentileMillis(99),
+                getPercentileMillis(99.9),
+                getPercentileMillis(100));
+    }
+
+    public String toCsvRow(BenchmarkConfiguration configuration, String timestamp) {
+        return String.format(Locale.ROOT,
+                "%s,%s,%s,%s,%s,%d,%d,%d,%d,%.1f,%d,%d,%.2f,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f",
+                timestamp,
+                configuration.getLabel(),
+                System.getProperty("java.version"),
+                target,
+                workload.getArgumentName(),
+                configuration.getThreads(),
+                configuration.getRecords(),
+                configuration.getPageSize(),
+                configuration.getProductSize(),
+                durationNanos / (double) TimeUnit.SECONDS.toNanos(1),
+                operations,
+                errors,
+                getThroughput(),
+                getPercentileMillis(0),
+                toMillis(meanNanos),
+                getPercentileMillis(50),
+                getPercentileMillis(90),
+                getPercentileMillis(99),
+                getPercentileMillis(99.9),
+                getPercentileMillis(100));
+    }
+
+    private static double toMillis(double nanos) {
+        return nanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
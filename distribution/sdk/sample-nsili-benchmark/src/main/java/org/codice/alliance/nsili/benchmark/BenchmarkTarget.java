@@ -0,0 +1,57 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.nsili.benchmark;
+
+import org.codice.alliance.nsili.common.orb.CorbaOrbHost;
+import org.omg.CORBA.ORB;
+
+/**
+ * A NSILI library hosted in-process on its own ORB, which the benchmark client reaches over the
+ * loopback interface like any remote client would.
+ */
+public abstract class BenchmarkTarget {
+
+    private final CorbaOrbHost orbHost = new CorbaOrbHost();
+
+    private String iorString;
+
+    protected BenchmarkTarget(BenchmarkConfiguration configuration) {
+        orbHost.setPort(0);
+        orbHost.setMaxConcurrentRequests(configuration.getMaxConcurrentRequests());
+    }
+
+    public abstract String getName();
+
+    public String getIorString() {
+        return iorString;
+    }
+
+    public void start() throws Exception {
+        iorString = publish(orbHost.start());
+    }
+
+    public void stop() {
+        unpublish();
+        orbHost.stop();
+    }
+
+    /**
+     * Activates the library on the ORB.
+     *
+     * @return the IOR of the library
+     */
+    protected abstract String publish(ORB orb) throws Exception;
+
+    protected abstract void unpublish();
+}
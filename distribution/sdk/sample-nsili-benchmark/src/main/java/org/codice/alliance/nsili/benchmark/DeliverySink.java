@@ -0,0 +1,78 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.nsili.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Receives ordered products delivered by HTTP PUT and discards them, so that orders can be
+ * fulfilled without an external FTP or web server.
+ */
+public class DeliverySink {
+
+    private final HttpServer server;
+
+    private final ExecutorService executor;
+
+    private final AtomicLong bytesReceived = new AtomicLong();
+
+    public DeliverySink(int threads) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        executor = Executors.newFixedThreadPool(Math.max(1, threads));
+        server.setExecutor(executor);
+        server.createContext(NsiliBenchmarkClient.DELIVERY_PATH, this::handle);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    public int getPort() {
+        return server.getAddress()
+                .getPort();
+    }
+
+    public long getBytesReceived() {
+        return bytesReceived.get();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        byte[] buffer = new byte[8192];
+        long received = 0;
+        try (InputStream inputStream = exchange.getRequestBody()) {
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                received += read;
+            }
+        }
+        bytesReceived.addAndGet(received);
+
+        int status = "PUT".equalsIgnoreCase(exchange.getRequestMethod()) ? 200 : 405;
+        exchange.sendResponseHeaders(status, -1);
+        exchange.close();
+    }
+}
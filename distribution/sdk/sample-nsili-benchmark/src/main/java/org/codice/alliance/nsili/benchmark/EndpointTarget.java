@@ -0,0 +1,77 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.nsili.benchmark;
+
+import org.codice.alliance.nsili.endpoint.NsiliEndpoint;
+import org.omg.CORBA.ORB;
+
+import ddf.catalog.filter.proxy.builder.GeotoolsFilterBuilder;
+import ddf.security.Subject;
+
+/**
+ * Benchmarks the NSILI endpoint, backed by an in-memory catalog and guest security.
+ */
+public class EndpointTarget extends BenchmarkTarget {
+
+    private final BenchmarkConfiguration configuration;
+
+    private NsiliEndpoint endpoint;
+
+    private InMemoryCatalogFramework catalogFramework;
+
+    public EndpointTarget(BenchmarkConfiguration configuration) {
+        super(configuration);
+        this.configuration = configuration;
+    }
+
+    @Override
+    public String getName() {
+        return "endpoint";
+    }
+
+    public InMemoryCatalogFramework getCatalogFramework() {
+        return catalogFramework;
+    }
+
+    @Override
+    protected String publish(ORB orb) throws Exception {
+        catalogFramework = new InMemoryCatalogFramework(configuration.getRecords(),
+                configuration.getProductSize());
+
+        Subject guestSubject = GuestSecurity.createSubject();
+        NsiliEndpoint.setGuestSubject(guestSubject);
+
+        endpoint = new NsiliEndpoint();
+        endpoint.setFramework(catalogFramework.createProxy());
+        endpoint.setFilterBuilder(new GeotoolsFilterBuilder());
+        endpoint.setSecurityManager(GuestSecurity.createSecurityManager(guestSubject));
+        endpoint.setDefaultUpdateFrequencySec(configuration.getStandingQueryFrequencySec());
+        endpoint.setOrb(orb);
+        endpoint.init();
+
+        String iorString = endpoint.getIorString();
+        if (iorString == null || iorString.isEmpty()) {
+            throw new IllegalStateException("NSILI endpoint did not start");
+        }
+        return iorString;
+    }
+
+    @Override
+    protected void unpublish() {
+        if (endpoint != null) {
+            endpoint.destroy();
+            endpoint = null;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.nsili.benchmark;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.security.Principal;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.cxf.ws.security.tokenstore.SecurityToken;
+import org.apache.shiro.subject.ExecutionException;
+import org.apache.shiro.subject.PrincipalCollection;
+
+import ddf.security.Subject;
+import ddf.security.assertion.SecurityAssertion;
+import ddf.security.service.SecurityManager;
+
+/**
+ * Provides the guest subject the endpoint runs catalog operations as, without a security token
+ * service. The subject runs everything it is given and its token never expires.
+ */
+public final class GuestSecurity {
+
+    private static final String GUEST_NAME = "benchmark";
+
+    private GuestSecurity() {
+    }
+
+    public static Subject createSubject() {
+        SecurityToken securityToken = new SecurityToken(GUEST_NAME,
+                new Date(),
+                new Date(System.currentTimeMillis() + TimeUnit.DAYS.toMillis(365)));
+        Principal principal = () -> GUEST_NAME;
+
+        SecurityAssertion securityAssertion = createProxy(SecurityAssertion.class,
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                    case "getSecurityToken":
+                        return securityToken;
+                    case "getPrincipal":
+                        return principal;
+                    default:
+                        return defaultValue(proxy, method.getReturnType(), method.getName(), args);
+                    }
+                });
+
+        PrincipalCollection principals = createProxy(PrincipalCollection.class,
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                    case "oneByType":
+                        return ((Class<?>) args[0]).isInstance(securityAssertion) ?
+                                securityAssertion :
+                                null;
+                    case "getPrimaryPrincipal":
+                        return GUEST_NAME;
+                    case "asList":
+                        return Collections.singletonList(GUEST_NAME);
+                    case "asSet":
+                        return Collections.singleton(GUEST_NAME);
+                    case "isEmpty":
+                        return false;
+                    default:
+                        return defaultValue(proxy, method.getReturnType(), method.getName(), args);
+                    }
+                });
+
+        return createProxy(Subject.class, (proxy, method, args) -> {
+            switch (method.getName()) {
+            case "execute":
+                return execute(args[0]);
+            case "getPrincipals":
+                return principals;
+            case "getPrincipal":
+                return GUEST_NAME;
+            case "isAuthenticated":
+            case "isGuest":
+                return true;
+            default:
+                return defaultValue(proxy, method.getReturnType(), method.getName(), args);
+            }
+        });
+    }
+
+    public static SecurityManager createSecurityManager(Subject subject) {
+        return createProxy(SecurityManager.class, (proxy, method, args) -> {
+            if ("getSubject".equals(method.getName())) {
+                return subject;
+            }
+            return defaultValue(proxy, method.getReturnType(), method.getName(), args);
+        });
+    }
+
+    private static Object execute(Object task) throws ExecutionException {
+        if (task instanceof Runnable) {
+            ((Runnable) task).run();
+            return null;
+        }
+        try {
+            return ((Callable<?>) task).call();
+        } catch (Exception e) {
+            throw new ExecutionException(e);
+        }
+    }
+
+    private static <T> T createProxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(GuestSecurity.class.getClassLoader(),
+                new Class[] {type},
+                handler));
+    }
+
+    private static Object defaultValue(Object proxy, Class<?> returnType, String methodName,
+            Object[] args) {
+        switch (methodName) {
+        case "hashCode":
+            return System.identityHashCode(proxy);
+        case "equals":
+            return proxy == args[0];
+        case "toString":
+            return GUEST_NAME;
+        default:
+            break;
+        }
+
+        if (returnType == boolean.class) {
+            return false;
+        } else if (returnType == int.class) {
+            return 0;
+        } else if (returnType == long.class) {
+            return 0L;
+        } else if (List.class.isAssignableFrom(returnType)) {
+            return Collections.emptyList();
+        } else if (Set.class.isAssignableFrom(returnType)
+                || Collection.class.isAssignableFrom(returnType)) {
+            return Collections.emptySet();
+        }
+        return null;
+    }
+}
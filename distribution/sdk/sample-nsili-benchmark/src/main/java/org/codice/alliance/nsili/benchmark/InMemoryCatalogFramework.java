@@ -0,0 +1,229 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.nsili.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import ddf.catalog.CatalogFramework;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.Result;
+import ddf.catalog.data.impl.AttributeImpl;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.data.impl.ResultImpl;
+import ddf.catalog.data.types.Core;
+import ddf.catalog.filter.FilterAdapter;
+import ddf.catalog.filter.FilterDelegate;
+import ddf.catalog.filter.proxy.adapter.GeotoolsFilterAdapterImpl;
+import ddf.catalog.operation.Query;
+import ddf.catalog.operation.QueryRequest;
+import ddf.catalog.operation.ResourceRequest;
+import ddf.catalog.operation.impl.QueryResponseImpl;
+import ddf.catalog.operation.impl.ResourceResponseImpl;
+import ddf.catalog.resource.impl.ResourceImpl;
+import ddf.catalog.source.UnsupportedQueryException;
+
+/**
+ * A catalog framework that serves a fixed set of generated records from memory, so that
+ * benchmarks measure the NSILI endpoint rather than a catalog provider.
+ * <p>
+ * Queries for specific metacard IDs return those records. Every other query matches all records
+ * and is paged by its start index and page size. Every resource request returns a product of the
+ * configured size.
+ */
+public class InMemoryCatalogFramework implements InvocationHandler {
+
+    public static final String SOURCE_ID = "benchmark";
+
+    private static final long BASE_TIME = 1451606400000L;
+
+    private final FilterAdapter filterAdapter = new GeotoolsFilterAdapterImpl();
+
+    private final Map<String, Metacard> metacards = new LinkedHashMap<>();
+
+    private final List<Metacard> metacardList;
+
+    private final byte[] product;
+
+    private final AtomicLong queries = new AtomicLong();
+
+    private final AtomicLong resourceRequests = new AtomicLong();
+
+    public InMemoryCatalogFramework(int records, int productSize) {
+        for (int i = 0; i < records; i++) {
+            Metacard metacard = createMetacard(i, productSize);
+            metacards.put(metacard.getId(), metacard);
+        }
+        metacardList = new ArrayList<>(metacards.values());
+
+        // Seeded so that every run delivers the same bytes
+        product = new byte[productSize];
+        new Random(records).nextBytes(product);
+    }
+
+    public CatalogFramework createProxy() {
+        return (CatalogFramework) Proxy.newProxyInstance(CatalogFramework.class.getClassLoader(),
+                new Class[] {CatalogFramework.class},
+                this);
+    }
+
+    public long getQueryCount() {
+        return queries.get();
+    }
+
+    public long getResourceRequestCount() {
+        return resourceRequests.get();
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        switch (method.getName()) {
+        case "query":
+            return query((QueryRequest) args[0]);
+        case "getResource":
+            return getResource((ResourceRequest) args[0]);
+        case "getSourceIds":
+            return Collections.singleton(SOURCE_ID);
+        case "getId":
+            return SOURCE_ID;
+        case "hashCode":
+            return System.identityHashCode(proxy);
+        case "equals":
+            return proxy == args[0];
+        case "toString":
+            return InMemoryCatalogFramework.class.getSimpleName();
+        default:
+            throw new UnsupportedOperationException(method.getName()
+                    + " is not supported by the benchmark catalog framework");
+        }
+    }
+
+    private QueryResponseImpl query(QueryRequest request) {
+        queries.incrementAndGet();
+        Query query = request.getQuery();
+
+        Set<String> ids = getRequestedIds(query);
+        List<Result> results = new ArrayList<>();
+        long hits;
+        if (ids != null) {
+            for (String id : ids) {
+                Metacard metacard = metacards.get(id);
+                if (metacard != null) {
+                    results.add(new ResultImpl(metacard));
+                }
+            }
+            hits = results.size();
+        } else {
+            int start = Math.max(1, query.getStartIndex()) - 1;
+            int end = query.getPageSize() > 0 ?
+                    Math.min(metacardList.size(), start + query.getPageSize()) :
+                    metacardList.size();
+            for (int i = start; i < end; i++) {
+                results.add(new ResultImpl(metacardList.get(i)));
+            }
+            hits = metacardList.size();
+        }
+
+        return new QueryResponseImpl(request, results, hits);
+    }
+
+    private ResourceResponseImpl getResource(ResourceRequest request) {
+        resourceRequests.incrementAndGet();
+        ResourceImpl resource = new ResourceImpl(new ByteArrayInputStream(product),
+                "application/octet-stream",
+                "product.dat");
+        resource.setSize(product.length);
+        return new ResourceResponseImpl(request, resource);
+    }
+
+    /**
+     * @return the IDs the query is restricted to, or null if it is not an ID query
+     */
+    private Set<String> getRequestedIds(Query query) {
+        try {
+            return filterAdapter.adapt(query, new IdFilterDelegate());
+        } catch (UnsupportedQueryException | UnsupportedOperationException e) {
+            return null;
+        }
+    }
+
+    private static Metacard createMetacard(int index, int productSize) {
+        String id = UUID.nameUUIDFromBytes(("nsili-benchmark-" + index).getBytes(
+                StandardCharsets.UTF_8))
+                .toString()
+                .replaceAll("-", "");
+        Date date = new Date(BASE_TIME + TimeUnit.MINUTES.toMillis(index));
+
+        MetacardImpl metacard = new MetacardImpl();
+        metacard.setId(id);
+        metacard.setSourceId(SOURCE_ID);
+        metacard.setTitle("NSILI benchmark record " + index);
+        metacard.setDescription("Generated record " + index + " for the NSILI benchmark");
+        metacard.setContentTypeName("image/nitf");
+        metacard.setResourceURI(URI.create("benchmark:" + id));
+        metacard.setResourceSize(String.valueOf(productSize));
+        metacard.setLocation(String.format("POINT(%d %d)", index % 360 - 180, index % 180 - 90));
+        metacard.setAttribute(new AttributeImpl(Core.METACARD_CREATED, date));
+        metacard.setAttribute(new AttributeImpl(Core.METACARD_MODIFIED, date));
+        metacard.setCreatedDate(date);
+        metacard.setModifiedDate(date);
+        metacard.setEffectiveDate(date);
+        return metacard;
+    }
+
+    /**
+     * Collects the IDs from a query made up of ID comparisons, and rejects any other query.
+     */
+    private static class IdFilterDelegate extends FilterDelegate<Set<String>> {
+
+        @Override
+        public Set<String> propertyIsEqualTo(String propertyName, String literal,
+                boolean isCaseSensitive) {
+            if (!Metacard.ID.equals(propertyName)) {
+                throw new UnsupportedOperationException("Not an ID query");
+            }
+            return new HashSet<>(Collections.singletonList(literal));
+        }
+
+        @Override
+        public Set<String> or(List<Set<String>> operands) {
+            Set<String> ids = new HashSet<>();
+            operands.forEach(ids::addAll);
+            return ids;
+        }
+
+        @Override
+        public Set<String> and(List<Set<String>> operands) {
+            Set<String> ids = new HashSet<>(operands.get(0));
+            operands.forEach(ids::retainAll);
+            return ids;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.nsili.benchmark;
+
+import org.codice.alliance.nsili.mockserver.impl.LibraryImpl;
+import org.omg.CORBA.ORB;
+import org.omg.PortableServer.POA;
+import org.omg.PortableServer.POAHelper;
+
+/**
+ * Benchmarks the sample NSILI server. Its responses are generated without a catalog, so results
+ * against it are a baseline for the cost of the ORB and the client.
+ */
+public class MockServerTarget extends BenchmarkTarget {
+
+    public MockServerTarget(BenchmarkConfiguration configuration) {
+        super(configuration);
+    }
+
+    @Override
+    public String getName() {
+        return "mock";
+    }
+
+    @Override
+    protected String publish(ORB orb) throws Exception {
+        POA rootPOA = POAHelper.narrow(orb.resolve_initial_references("RootPOA"));
+        rootPOA.the_POAManager()
+                .activate();
+        return orb.object_to_string(rootPOA.servant_to_reference(new LibraryImpl(rootPOA)));
+    }
+
+    @Override
+    protected void unpublish() {
+    }
+}
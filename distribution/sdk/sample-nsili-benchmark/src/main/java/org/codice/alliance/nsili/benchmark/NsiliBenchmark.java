@@ -0,0 +1,206 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.nsili.benchmark;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.codice.alliance.nsili.common.UID.Product;
+import org.omg.CORBA.ORB;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Measures the latency and throughput of NSILI operations against the NSILI endpoint and the
+ * sample NSILI server, both hosted in-process. See README.md.
+ */
+public class NsiliBenchmark {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(NsiliBenchmark.class);
+
+    /**
+     * How many update periods a standing query may take to return its first results before the
+     * operation is counted as an error.
+     */
+    private static final int STANDING_QUERY_TIMEOUT_PERIODS = 10;
+
+    private final BenchmarkConfiguration configuration;
+
+    public NsiliBenchmark(BenchmarkConfiguration configuration) {
+        this.configuration = configuration;
+    }
+
+    public List<BenchmarkResult> run() throws Exception {
+        List<BenchmarkResult> results = new ArrayList<>();
+
+        DeliverySink deliverySink = new DeliverySink(configuration.getThreads());
+        deliverySink.start();
+
+        // The client has its own ORB so that requests go over the network like a remote client's
+        ORB clientOrb = ORB.init(new String[0], null);
+        try {
+            for (BenchmarkTarget target : configuration.createTargets()) {
+                results.addAll(run(target, clientOrb, deliverySink));
+            }
+        } finally {
+            clientOrb.shutdown(false);
+            clientOrb.destroy();
+            deliverySink.stop();
+        }
+
+        return results;
+    }
+
+    private List<BenchmarkResult> run(BenchmarkTarget target, ORB clientOrb,
+            DeliverySink deliverySink) throws Exception {
+        List<BenchmarkResult> results = new ArrayList<>();
+        WorkloadRunner runner = new WorkloadRunner(configuration.getThreads(),
+                configuration.getWarmupSec(),
+                configuration.getDurationSec());
+
+        LOGGER.info("Starting {}", target.getName());
+        target.start();
+        NsiliSourceClient sourceClient = null;
+        try {
+            NsiliBenchmarkClient client = new NsiliBenchmarkClient(clientOrb,
+                    target.getIorString(),
+                    configuration.getPageSize());
+            if (configuration.getWorkloads()
+                    .contains(Workload.SOURCE_QUERY) && client.supports(Workload.SOURCE_QUERY)) {
+                sourceClient = new NsiliSourceClient(clientOrb,
+                        target.getIorString(),
+                        configuration.getPageSize(),
+                        configuration.getThreads());
+            }
+
+            for (Workload workload : configuration.getWorkloads()) {
+                if (!client.supports(workload)) {
+                    LOGGER.info("Skipping {} workload, {} does not support it",
+                            workload.getArgumentName(),
+                            target.getName());
+                    continue;
+                }
+
+                LOGGER.info("Running {} workload against {} for {}s after a {}s warmup",
+                        workload.getArgumentName(),
+                        target.getName(),
+                        configuration.getDurationSec(),
+                        configuration.getWarmupSec());
+                results.add(runner.run(target.getName(),
+                        workload,
+                        createOperation(workload, client, sourceClient, deliverySink)));
+            }
+        } finally {
+            if (sourceClient != null) {
+                sourceClient.close();
+            }
+            target.stop();
+        }
+
+        return results;
+    }
+
+    private WorkloadRunner.Operation createOperation(Workload workload,
+            NsiliBenchmarkClient client, NsiliSourceClient sourceClient,
+            DeliverySink deliverySink) throws Exception {
+        switch (workload) {
+        case HIT_COUNT:
+            return client::getHitCount;
+        case QUERY:
+            return client::submitQuery;
+        case ORDER:
+            Product[] products = client.findProducts();
+            AtomicInteger nextProduct = new AtomicInteger();
+            return () -> client.order(products.length == 0 ?
+                    null :
+                    products[Math.floorMod(nextProduct.getAndIncrement(), products.length)],
+                    deliverySink.getPort());
+        case STANDING_QUERY:
+            long timeoutMsec = TimeUnit.SECONDS.toMillis(
+                    configuration.getStandingQueryFrequencySec() * STANDING_QUERY_TIMEOUT_PERIODS);
+            return () -> client.standingQuery(timeoutMsec);
+        case SOURCE_QUERY:
+            return sourceClient::queryNextPage;
+        default:
+            throw new IllegalArgumentException("Unsupported workload: " + workload);
+        }
+    }
+
+    private void report(List<BenchmarkResult> results) throws IOException {
+        System.out.println();
+        System.out.println(String.format("NSILI benchmark '%s': %d threads, %d records, "
+                        + "page size %d, %d byte products",
+                configuration.getLabel(),
+                configuration.getThreads(),
+                configuration.getRecords(),
+                configuration.getPageSize(),
+                configuration.getProductSize()));
+        System.out.println(BenchmarkResult.TABLE_HEADER);
+        results.forEach(result -> System.out.println(result.toTableRow()));
+        System.out.println();
+
+        Path output = Paths.get(configuration.getOutput());
+        boolean writeHeader = !Files.exists(output);
+        String timestamp = Instant.now()
+                .toString();
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(output,
+                StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND))) {
+            if (writeHeader) {
+                writer.println(BenchmarkResult.CSV_HEADER);
+            }
+            results.forEach(result -> writer.println(result.toCsvRow(configuration, timestamp)));
+        }
+        LOGGER.info("Results appended to {}", output.toAbsolutePath());
+    }
+
+    /**
+     * Runs the benchmark from the command line. See README.md.
+     *
+     * @param args in the format
+     *             `mvn -Pnsili.benchmark -Dexec.args="threads=8,duration=30,label=LABEL"`, where
+     *             every argument is optional
+     */
+    public static void main(String[] args) {
+        BenchmarkConfiguration configuration;
+        try {
+            configuration = BenchmarkConfiguration.parse(args);
+        } catch (IllegalArgumentException e) {
+            LOGGER.error("Invalid benchmark arguments: {}", e.getMessage());
+            System.exit(1);
+            return;
+        }
+
+        int status = 0;
+        try {
+            NsiliBenchmark benchmark = new NsiliBenchmark(configuration);
+            benchmark.report(benchmark.run());
+        } catch (Exception e) {
+            LOGGER.error("Unable to run the NSILI benchmark", e);
+            status = 1;
+        }
+        System.exit(status);
+    }
+}
@@ -0,0 +1,330 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.nsili.benchmark;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.codice.alliance.nsili.common.CB.CallbackHelper;
+import org.codice.alliance.nsili.common.CB.CallbackPOA;
+import org.codice.alliance.nsili.common.GIAS.AccessCriteria;
+import org.codice.alliance.nsili.common.GIAS.AlterationSpec;
+import org.codice.alliance.nsili.common.GIAS.CatalogMgr;
+import org.codice.alliance.nsili.common.GIAS.CatalogMgrHelper;
+import org.codice.alliance.nsili.common.GIAS.DataModelMgr;
+import org.codice.alliance.nsili.common.GIAS.DataModelMgrHelper;
+import org.codice.alliance.nsili.common.GIAS.DeliveryDetails;
+import org.codice.alliance.nsili.common.GIAS.DeliveryManifestHolder;
+import org.codice.alliance.nsili.common.GIAS.Destination;
+import org.codice.alliance.nsili.common.GIAS.GeoRegionType;
+import org.codice.alliance.nsili.common.GIAS.HitCountRequest;
+import org.codice.alliance.nsili.common.GIAS.Library;
+import org.codice.alliance.nsili.common.GIAS.LibraryHelper;
+import org.codice.alliance.nsili.common.GIAS.LifeEvent;
+import org.codice.alliance.nsili.common.GIAS.MediaType;
+import org.codice.alliance.nsili.common.GIAS.OrderContents;
+import org.codice.alliance.nsili.common.GIAS.OrderMgr;
+import org.codice.alliance.nsili.common.GIAS.OrderMgrHelper;
+import org.codice.alliance.nsili.common.GIAS.OrderRequest;
+import org.codice.alliance.nsili.common.GIAS.PackagingSpec;
+import org.codice.alliance.nsili.common.GIAS.ProductDetails;
+import org.codice.alliance.nsili.common.GIAS.Query;
+import org.codice.alliance.nsili.common.GIAS.QueryLifeSpan;
+import org.codice.alliance.nsili.common.GIAS.SortAttribute;
+import org.codice.alliance.nsili.common.GIAS.StandingQueryMgr;
+import org.codice.alliance.nsili.common.GIAS.StandingQueryMgrHelper;
+import org.codice.alliance.nsili.common.GIAS.SubmitQueryRequest;
+import org.codice.alliance.nsili.common.GIAS.SubmitStandingQueryRequest;
+import org.codice.alliance.nsili.common.GIAS.TailoringSpec;
+import org.codice.alliance.nsili.common.NsiliConstants;
+import org.codice.alliance.nsili.common.NsiliManagerType;
+import org.codice.alliance.nsili.common.PackagingSpecFormatType;
+import org.codice.alliance.nsili.common.ResultDAGConverter;
+import org.codice.alliance.nsili.common.UCO.Coordinate2d;
+import org.codice.alliance.nsili.common.UCO.DAG;
+import org.codice.alliance.nsili.common.UCO.DAGListHolder;
+import org.codice.alliance.nsili.common.UCO.FileLocation;
+import org.codice.alliance.nsili.common.UCO.NameName;
+import org.codice.alliance.nsili.common.UCO.NameValue;
+import org.codice.alliance.nsili.common.UCO.Rectangle;
+import org.codice.alliance.nsili.common.UCO.RequestDescription;
+import org.codice.alliance.nsili.common.UCO.State;
+import org.codice.alliance.nsili.common.UCO.Time;
+import org.codice.alliance.nsili.common.UID.Product;
+import org.codice.alliance.nsili.common.UID.ProductHelper;
+import org.omg.CORBA.Any;
+import org.omg.CORBA.BAD_OPERATION;
+import org.omg.CORBA.IntHolder;
+import org.omg.CORBA.ORB;
+import org.omg.CORBA.ORBPackage.InvalidName;
+import org.omg.PortableServer.POA;
+import org.omg.PortableServer.POAHelper;
+import org.omg.PortableServer.POAManagerPackage.AdapterInactive;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A GIAS client that performs each benchmarked operation the way a typical NSILI consumer
+ * would. It is safe to use from multiple threads at once.
+ */
+public class NsiliBenchmarkClient {
+
+    public static final String DELIVERY_PATH = "/nsili/file";
+
+    static final Query QUERY = new Query(NsiliConstants.NSIL_ALL_VIEW,
+            "NSIL_CARD.identifier like '%'");
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(NsiliBenchmarkClient.class);
+
+    private static final SortAttribute[] NO_SORT_ATTRIBUTES = new SortAttribute[0];
+
+    private static final NameValue[] NO_PROPERTIES = new NameValue[0];
+
+    private final ORB orb;
+
+    private final POA poa;
+
+    private final int pageSize;
+
+    private CatalogMgr catalogMgr;
+
+    private OrderMgr orderMgr;
+
+    private StandingQueryMgr standingQueryMgr;
+
+    private String[] resultAttributes = new String[0];
+
+    private String packagingFormat = PackagingSpecFormatType.FILESUNC.name();
+
+    public NsiliBenchmarkClient(ORB orb, String iorString, int pageSize) throws Exception {
+        this.orb = orb;
+        this.pageSize = pageSize;
+        this.poa = initPoa();
+        initManagers(LibraryHelper.narrow(orb.string_to_object(iorString)));
+    }
+
+    private POA initPoa() throws InvalidName, AdapterInactive {
+        POA rootPOA = POAHelper.narrow(orb.resolve_initial_references("RootPOA"));
+        rootPOA.the_POAManager()
+                .activate();
+        return rootPOA;
+    }
+
+    private void initManagers(Library library) throws Exception {
+        AccessCriteria accessCriteria = new AccessCriteria("", "", "");
+        List<String> managerTypes = Arrays.asList(library.get_manager_types());
+
+        if (managerTypes.contains(NsiliManagerType.CATALOG_MGR.getSpecName())) {
+            catalogMgr = CatalogMgrHelper.narrow(library.get_manager(NsiliManagerType.CATALOG_MGR
+                    .getSpecName(), accessCriteria));
+        }
+        if (managerTypes.contains(NsiliManagerType.ORDER_MGR.getSpecName())) {
+            orderMgr = OrderMgrHelper.narrow(library.get_manager(NsiliManagerType.ORDER_MGR
+                    .getSpecName(), accessCriteria));
+            List<String> packageSpecs = Arrays.asList(orderMgr.get_package_specifications());
+            if (!packageSpecs.isEmpty() && !packageSpecs.contains(packagingFormat)) {
+                packagingFormat = packageSpecs.get(0);
+            }
+        }
+        if (managerTypes.contains(NsiliManagerType.STANDING_QUERY_MGR.getSpecName())) {
+            standingQueryMgr = StandingQueryMgrHelper.narrow(library.get_manager(
+                    NsiliManagerType.STANDING_QUERY_MGR.getSpecName(),
+                    accessCriteria));
+        }
+        if (managerTypes.contains(NsiliManagerType.DATA_MODEL_MGR.getSpecName())) {
+            DataModelMgr dataModelMgr = DataModelMgrHelper.narrow(library.get_manager(
+                    NsiliManagerType.DATA_MODEL_MGR.getSpecName(),
+                    accessCriteria));
+            resultAttributes = Arrays.stream(dataModelMgr.get_attributes(NsiliConstants.NSIL_ALL_VIEW,
+                    NO_PROPERTIES))
+                    .map(attributeInformation -> attributeInformation.attribute_name)
+                    .toArray(String[]::new);
+        }
+    }
+
+    public boolean supports(Workload workload) {
+        switch (workload) {
+        case HIT_COUNT:
+        case QUERY:
+        case SOURCE_QUERY:
+            return catalogMgr != null;
+        case ORDER:
+            return catalogMgr != null && orderMgr != null;
+        case STANDING_QUERY:
+            return standingQueryMgr != null;
+        default:
+            return false;
+        }
+    }
+
+    public int getHitCount() throws Exception {
+        HitCountRequest hitCountRequest = catalogMgr.hit_count(QUERY, NO_PROPERTIES);
+        IntHolder intHolder = new IntHolder();
+        hitCountRequest.complete(intHolder);
+        return intHolder.value;
+    }
+
+    public DAG[] submitQuery() throws Exception {
+        SubmitQueryRequest submitQueryRequest = catalogMgr.submit_query(QUERY,
+                resultAttributes,
+                NO_SORT_ATTRIBUTES,
+                NO_PROPERTIES);
+        submitQueryRequest.set_number_of_hits(pageSize);
+        DAGListHolder dagListHolder = new DAGListHolder();
+        submitQueryRequest.complete_DAG_results(dagListHolder);
+        return dagListHolder.value;
+    }
+
+    /**
+     * Finds products to order by querying the catalog.
+     *
+     * @return the products from the query results, with null entries for results whose product
+     * could not be read, as is the case for the sample NSILI server
+     */
+    public Product[] findProducts() throws Exception {
+        DAG[] dags = submitQuery();
+        Product[] products = new Product[dags.length];
+        for (int i = 0; i < dags.length; i++) {
+            try {
+                products[i] = ProductHelper.extract(dags[i].nodes[0].value);
+            } catch (BAD_OPERATION e) {
+                LOGGER.trace("Result does not contain a product", e);
+            }
+        }
+        return products;
+    }
+
+    /**
+     * Orders a product for delivery to the given port on this host and waits for the order to be
+     * fulfilled.
+     */
+    public void order(Product product, int deliveryPort) throws Exception {
+        Any portAny = orb.create_any();
+        portAny.insert_long(deliveryPort);
+        Any protocolAny = orb.create_any();
+        protocolAny.insert_string("http");
+        NameValue[] properties = new NameValue[] {
+                new NameValue(NsiliConstants.PROP_PORT, portAny),
+                new NameValue(NsiliConstants.PROP_PROTOCOL, protocolAny)};
+
+        OrderRequest orderRequest = orderMgr.order(createOrder(product), properties);
+        orderRequest.complete(new DeliveryManifestHolder());
+    }
+
+    private OrderContents createOrder(Product product) {
+        String packageId = UUID.randomUUID()
+                .toString();
+
+        Rectangle region = new Rectangle(new Coordinate2d(1.1, 1.1), new Coordinate2d(2.2, 2.2));
+        AlterationSpec alterationSpec = new AlterationSpec("",
+                orb.create_any(),
+                region,
+                GeoRegionType.NULL_REGION);
+
+        FileLocation fileLocation = new FileLocation("", "", "localhost", DELIVERY_PATH, packageId);
+        Destination destination = new Destination();
+        destination.f_dest(fileLocation);
+
+        ProductDetails[] productDetails = {new ProductDetails(new MediaType[] {
+                new MediaType("", (short) 1)}, new String[0], alterationSpec, product, "Alliance")};
+        DeliveryDetails[] deliveryDetails = {new DeliveryDetails(destination, "", "")};
+
+        return new OrderContents("Alliance",
+                new TailoringSpec(new NameName[] {new NameName("", "")}),
+                new PackagingSpec(packageId, packagingFormat),
+                ResultDAGConverter.getAbsTime(new java.util.Date(System.currentTimeMillis()
+                        + TimeUnit.DAYS.toMillis(1))),
+                "NSILI benchmark order",
+                (short) 1,
+                productDetails,
+                deliveryDetails);
+    }
+
+    /**
+     * Submits a standing query, waits until its first results are available and retrieves them,
+     * then cancels it.
+     *
+     * @return the number of results retrieved
+     */
+    public int standingQuery(long timeoutMsec) throws Exception {
+        SubmitStandingQueryRequest request = standingQueryMgr.submit_standing_query(QUERY,
+                resultAttributes,
+                NO_SORT_ATTRIBUTES,
+                createLifeSpan(),
+                NO_PROPERTIES);
+
+        ResultsAvailableCallback callback = new ResultsAvailableCallback();
+        byte[] callbackId = poa.activate_object(callback);
+        try {
+            request.set_number_of_hits(pageSize);
+            String registeredId = request.register_callback(CallbackHelper.narrow(poa.id_to_reference(
+                    callbackId)));
+
+            // The first results may have been found before the callback was registered
+            if (request.get_status().completion_state != State.RESULTS_AVAILABLE
+                    && !callback.await(timeoutMsec)) {
+                throw new TimeoutException(
+                        "Standing query results were not available within " + timeoutMsec
+                                + " ms");
+            }
+
+            DAGListHolder dagListHolder = new DAGListHolder();
+            request.complete_DAG_results(dagListHolder);
+            request.free_callback(registeredId);
+            return dagListHolder.value.length;
+        } finally {
+            request.cancel();
+            poa.deactivate_object(callbackId);
+        }
+    }
+
+    private QueryLifeSpan createLifeSpan() {
+        long now = System.currentTimeMillis();
+
+        LifeEvent start = new LifeEvent();
+        start.at(ResultDAGConverter.getAbsTime(new java.util.Date(now)));
+
+        LifeEvent stop = new LifeEvent();
+        stop.at(ResultDAGConverter.getAbsTime(new java.util.Date(now + TimeUnit.HOURS.toMillis(1))));
+
+        LifeEvent frequency = new LifeEvent();
+        frequency.rt(new Time((short) 0, (short) 0, 1.0f));
+
+        return new QueryLifeSpan(start, stop, new LifeEvent[] {frequency});
+    }
+
+    private static class ResultsAvailableCallback extends CallbackPOA {
+
+        private final CountDownLatch resultsAvailable = new CountDownLatch(1);
+
+        boolean await(long timeoutMsec) throws InterruptedException {
+            return resultsAvailable.await(timeoutMsec, TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public void _notify(State theState, RequestDescription description) {
+            if (theState == State.RESULTS_AVAILABLE) {
+                resultsAvailable.countDown();
+            }
+        }
+
+        @Override
+        public void release() {
+        }
+    }
+}
@@ -0,0 +1,156 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.nsili.benchmark;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.codice.alliance.nsili.orb.api.CorbaOrb;
+import org.codice.alliance.nsili.orb.api.CorbaServiceListener;
+import org.codice.alliance.nsili.source.NsiliSource;
+import org.omg.CORBA.ORB;
+
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.impl.BasicTypes;
+import ddf.catalog.filter.FilterBuilder;
+import ddf.catalog.filter.proxy.adapter.GeotoolsFilterAdapterImpl;
+import ddf.catalog.filter.proxy.builder.GeotoolsFilterBuilder;
+import ddf.catalog.operation.SourceResponse;
+import ddf.catalog.operation.impl.QueryImpl;
+import ddf.catalog.operation.impl.QueryRequestImpl;
+import ddf.catalog.source.UnsupportedQueryException;
+
+/**
+ * Queries a library through {@link NsiliSource}, the way a DDF federating with it would, so that
+ * the source's paging sessions, hit counts and DAG conversion are measured along with the
+ * library. The clients share one source and page through the results together, starting over
+ * once the last page has been read.
+ */
+public class NsiliSourceClient implements Closeable {
+
+    private static final String SOURCE_ID = "nsili-benchmark";
+
+    private static final int CLIENT_TIMEOUT_SEC = 60;
+
+    private static final int POLL_INTERVAL_MIN = 5;
+
+    private static final int WORKER_THREADS = 4;
+
+    private static final long QUERY_TIMEOUT_MSEC = 0;
+
+    private final FilterBuilder filterBuilder = new GeotoolsFilterBuilder();
+
+    private final AtomicInteger nextStartIndex = new AtomicInteger(1);
+
+    private final int pageSize;
+
+    private final Path iorFile;
+
+    private final NsiliSource source;
+
+    public NsiliSourceClient(ORB orb, String iorString, int pageSize, int threads)
+            throws IOException {
+        this.pageSize = pageSize;
+
+        // The source reads the IOR from a URL, so it is handed over through a local file
+        iorFile = Files.createTempFile("nsili-benchmark", ".ior");
+        Files.write(iorFile, iorString.getBytes(StandardCharsets.UTF_8));
+
+        source = new NsiliSource(new ClientCorbaOrb(orb));
+        source.setId(SOURCE_ID);
+        source.setIorUrl(iorFile.toUri()
+                .toString());
+        source.setClientTimeout(CLIENT_TIMEOUT_SEC);
+        source.setPollInterval(POLL_INTERVAL_MIN);
+        source.setMaxHitCount(pageSize);
+        source.setNumberWorkerThreads(WORKER_THREADS);
+        source.setMaxConcurrentQueries(threads);
+        source.setFilterAdapter(new GeotoolsFilterAdapterImpl());
+        source.setNsiliMetacardType(BasicTypes.BASIC_METACARD);
+        source.init();
+    }
+
+    /**
+     * Reads the next page of results. The first page also requests the total number of results,
+     * which must cover every result returned on that page.
+     *
+     * @return the number of results on the page
+     */
+    public int queryNextPage() throws UnsupportedQueryException {
+        int startIndex = nextStartIndex.getAndAdd(pageSize);
+        boolean firstPage = startIndex == 1;
+        QueryImpl query = new QueryImpl(filterBuilder.attribute(Metacard.ANY_TEXT)
+                .is()
+                .like()
+                .text("*"), startIndex, pageSize, null, firstPage, QUERY_TIMEOUT_MSEC);
+
+        SourceResponse response = source.query(new QueryRequestImpl(query));
+        if (response == null) {
+            throw new IllegalStateException("Source did not return a response for index "
+                    + startIndex);
+        }
+
+        int numResults = response.getResults()
+                .size();
+        if (firstPage && response.getHits() < numResults) {
+            throw new IllegalStateException(String.format(
+                    "Source returned %d results but a hit count of %d",
+                    numResults,
+                    response.getHits()));
+        }
+        if (numResults < pageSize) {
+            nextStartIndex.compareAndSet(startIndex + pageSize, 1);
+        }
+        return numResults;
+    }
+
+    @Override
+    public void close() throws IOException {
+        source.destroy();
+        Files.deleteIfExists(iorFile);
+    }
+
+    /**
+     * Hands the source the benchmark client's ORB, which outlives the source.
+     */
+    private static class ClientCorbaOrb implements CorbaOrb {
+
+        private final ORB orb;
+
+        ClientCorbaOrb(ORB orb) {
+            this.orb = orb;
+        }
+
+        @Override
+        public ORB getOrb() {
+            return orb;
+        }
+
+        @Override
+        public void shutdown() {
+        }
+
+        @Override
+        public void addCorbaServiceListener(CorbaServiceListener corbaServiceListener) {
+        }
+
+        @Override
+        public void removeCorbaServiceListener(CorbaServiceListener corbaServiceListener) {
+        }
+    }
+}
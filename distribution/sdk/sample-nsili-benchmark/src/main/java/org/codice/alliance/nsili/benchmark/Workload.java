@@ -0,0 +1,44 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.nsili.benchmark;
+
+/**
+ * The NSILI operations that the benchmark can drive.
+ */
+public enum Workload {
+    HIT_COUNT("hitcount"),
+    QUERY("query"),
+    ORDER("order"),
+    STANDING_QUERY("standingquery"),
+    SOURCE_QUERY("sourcequery");
+
+    private final String argumentName;
+
+    Workload(String argumentName) {
+        this.argumentName = argumentName;
+    }
+
+    public String getArgumentName() {
+        return argumentName;
+    }
+
+    public static Workload fromArgumentName(String argumentName) {
+        for (Workload workload : values()) {
+            if (workload.argumentName.equalsIgnoreCase(argumentName.trim())) {
+                return workload;
+            }
+        }
+        throw new IllegalArgumentException("Unknown workload: " + argumentName);
+    }
+}
@@ -0,0 +1,118 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.nsili.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.codice.alliance.nsili.common.NsilCorbaExceptionUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs an operation repeatedly from a fixed number of threads, first for a warmup period whose
+ * latencies are discarded and then for the measured period. Each thread starts its next
+ * operation as soon as the previous one completes.
+ */
+public class WorkloadRunner {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(WorkloadRunner.class);
+
+    private final int threads;
+
+    private final long warmupNanos;
+
+    private final long durationNanos;
+
+    public WorkloadRunner(int threads, long warmupSec, long durationSec) {
+        this.threads = threads;
+        this.warmupNanos = TimeUnit.SECONDS.toNanos(warmupSec);
+        this.durationNanos = TimeUnit.SECONDS.toNanos(durationSec);
+    }
+
+    @FunctionalInterface
+    public interface Operation {
+        void run() throws Exception;
+    }
+
+    public BenchmarkResult run(String target, Workload workload, Operation operation)
+            throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch ready = new CountDownLatch(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean errorLogged = new AtomicBoolean(false);
+        long[] startTime = new long[1];
+
+        List<Future<LatencyRecorder>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            futures.add(executor.submit(() -> {
+                ready.countDown();
+                start.await();
+                long measureFrom = startTime[0] + warmupNanos;
+                long measureUntil = measureFrom + durationNanos;
+
+                LatencyRecorder recorder = new LatencyRecorder();
+                long now = System.nanoTime();
+                while (now < measureUntil) {
+                    boolean measured = now >= measureFrom;
+                    try {
+                        operation.run();
+                        long end = System.nanoTime();
+                        if (measured) {
+                            recorder.record(end - now);
+                        }
+                        now = end;
+                    } catch (Exception e) {
+                        if (measured) {
+                            recorder.recordError();
+                        }
+                        if (errorLogged.compareAndSet(false, true)) {
+                            LOGGER.warn("{} {} operation failed: {}",
+                                    target,
+                                    workload.getArgumentName(),
+                                    NsilCorbaExceptionUtil.getExceptionDetails(e));
+                        }
+                        LOGGER.debug("{} {} operation failed", target, workload, e);
+                        now = System.nanoTime();
+                    }
+                }
+                return recorder;
+            }));
+        }
+
+        ready.await();
+        startTime[0] = System.nanoTime();
+        start.countDown();
+
+        LatencyRecorder merged = new LatencyRecorder();
+        try {
+            for (Future<LatencyRecorder> future : futures) {
+                merged.merge(future.get());
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Benchmark thread failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        return new BenchmarkResult(target, workload, durationNanos, merged);
+    }
+}